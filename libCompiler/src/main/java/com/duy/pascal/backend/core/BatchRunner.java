@@ -0,0 +1,256 @@
+package com.duy.pascal.backend.core;
+
+import com.duy.pascal.backend.exceptions.ParsingException;
+import com.duy.pascal.backend.lib.io.StreamInOutListener;
+import com.js.interpreter.codeunit.RuntimeExecutableCodeUnit;
+import com.js.interpreter.codeunit.program.PascalProgram;
+import com.js.interpreter.runtime.exception.HeapOverflowError;
+import com.js.interpreter.source_include.ScriptSource;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.util.ArrayList;
+
+/**
+ * Compiles and runs a program without activity and console, the input and output of
+ * the program are streams. Used to run many programs on a jvm, such as a judge server.
+ * <p>
+ * Usage: BatchRunner program.pas [input file] [output file] [time limit ms] [memory limit MB]
+ */
+public class BatchRunner {
+    private static final long THREAD_STACK_SIZE = 10000 * 1024;
+    private static final long POLL_INTERVAL = 10;
+    /**
+     * time for the program to reach a safepoint after it was terminated
+     */
+    private static final long TERMINATE_TIMEOUT = 1000;
+    /**
+     * heap limit of a program when no memory limit is set, a quarter of the jvm heap and
+     * not more than 64 MB, so one program can not fill the jvm which runs the others
+     */
+    private static final long DEFAULT_HEAP_LIMIT =
+            Math.min(64L * 1024 * 1024, Runtime.getRuntime().maxMemory() / 4);
+
+    /**
+     * wall time limit in milliseconds, 0 is no limit
+     */
+    private long timeLimit = 0;
+    /**
+     * limit of used heap in bytes, 0 is no limit
+     */
+    private long memoryLimit = 0;
+    private long maxStackSize = 0;
+    /**
+     * thread of a program which did not stop after it was terminated
+     */
+    private Thread leakedWorker;
+
+    public static void main(String[] args) throws IOException {
+        System.exit(runMain(args));
+    }
+
+    /**
+     * same as {@link #main(String[])}, but the exit code is returned instead of exiting the jvm
+     */
+    static int runMain(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("usage: BatchRunner program.pas [input] [output] [time ms] [memory MB]");
+            return 2;
+        }
+        BatchRunner runner = new BatchRunner();
+        if (args.length > 3) runner.setTimeLimit(Long.parseLong(args[3]));
+        if (args.length > 4) runner.setMemoryLimit(Long.parseLong(args[4]) * 1024 * 1024);
+        InputStream in = args.length > 1 ? new FileInputStream(args[1]) : System.in;
+        OutputStream out = args.length > 2 ? new FileOutputStream(args[2]) : System.out;
+        Result result;
+        try {
+            result = runner.run(new File(args[0]), in, out);
+        } finally {
+            in.close();
+            if (out != System.out) out.close();
+        }
+        System.err.println(result);
+        return result.getStatus() == Status.OK ? 0 : 1;
+    }
+
+    public long getTimeLimit() {
+        return timeLimit;
+    }
+
+    public void setTimeLimit(long timeLimit) {
+        this.timeLimit = timeLimit;
+    }
+
+    public long getMemoryLimit() {
+        return memoryLimit;
+    }
+
+    /**
+     * the used heap of the jvm is measured, so the limit is only exact when one program
+     * runs at a time. It is measured again after a gc before the program is stopped, so
+     * garbage does not count. The limit is also the heap limit of the program, so new and
+     * getMem fail with a heap overflow error before the jvm runs out of memory
+     */
+    public void setMemoryLimit(long memoryLimit) {
+        this.memoryLimit = memoryLimit;
+    }
+
+    public void setMaxStackSize(long maxStackSize) {
+        this.maxStackSize = maxStackSize;
+    }
+
+    public Result run(File source, InputStream in, OutputStream out) throws IOException {
+        Reader reader = new FileReader(source);
+        try {
+            return run(source.getName(), reader, in, out);
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * @throws IllegalStateException if the program of a previous run did not stop, it would
+     *                               still use the cpu and the memory of this run
+     */
+    public Result run(String sourceName, Reader source, InputStream in, OutputStream out) {
+        if (leakedWorker != null) {
+            if (leakedWorker.isAlive()) {
+                throw new IllegalStateException("the program " + leakedWorker.getName()
+                        + " of a previous run did not stop");
+            }
+            leakedWorker = null;
+        }
+        StreamInOutListener handler = new StreamInOutListener(new BufferedInputStream(in), out);
+        long start = System.currentTimeMillis();
+        try {
+            RuntimeExecutableCodeUnit<?> program;
+            try {
+                PascalProgram pascalProgram = PascalCompiler.loadPascal(sourceName, source,
+                        new ArrayList<ScriptSource>(), handler);
+                program = pascalProgram.run();
+            } catch (ParsingException e) {
+                return new Result(Status.COMPILE_ERROR, e, System.currentTimeMillis() - start);
+            }
+            if (maxStackSize > 0) {
+                program.setMaxStackSize(maxStackSize);
+            }
+            //the memory of the program is freed at once when it ends, the jvm runs many programs
+            program.getHeap().setArena(true);
+            program.getHeap().setLimit(memoryLimit > 0 ? memoryLimit : DEFAULT_HEAP_LIMIT);
+            return execute(program, sourceName, start);
+        } finally {
+            handler.flush();
+        }
+    }
+
+    private Result execute(final RuntimeExecutableCodeUnit<?> program, String name, long start) {
+        final Throwable[] error = new Throwable[1];
+        Thread thread = new Thread(null, new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    program.run();
+                } catch (Throwable e) {
+                    error[0] = e;
+                }
+            }
+        }, name, THREAD_STACK_SIZE);
+        thread.setDaemon(true);
+        thread.start();
+
+        Status limit = null;
+        Runtime runtime = Runtime.getRuntime();
+        try {
+            while (thread.isAlive()) {
+                thread.join(POLL_INTERVAL);
+                if (timeLimit > 0 && System.currentTimeMillis() - start > timeLimit) {
+                    limit = Status.TIME_LIMIT_EXCEEDED;
+                } else if (memoryLimit > 0 && usedMemory(runtime) > memoryLimit) {
+                    //most of the used memory may be garbage, only a full gc shows the live size
+                    System.gc();
+                    if (usedMemory(runtime) > memoryLimit) {
+                        limit = Status.MEMORY_LIMIT_EXCEEDED;
+                    }
+                }
+                if (limit != null) {
+                    program.terminate();
+                    thread.join(TERMINATE_TIMEOUT);
+                    if (thread.isAlive()) {
+                        //the thread is a daemon, it does not keep the jvm running
+                        leakedWorker = thread;
+                        System.err.println("BatchRunner: " + name + " did not stop after "
+                                + TERMINATE_TIMEOUT + " ms");
+                    }
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            program.terminate();
+            Thread.currentThread().interrupt();
+        }
+        long time = System.currentTimeMillis() - start;
+        if (limit != null) {
+            return new Result(limit, null, time);
+        }
+        if (error[0] instanceof OutOfMemoryError) {
+            return new Result(Status.MEMORY_LIMIT_EXCEEDED, null, time);
+        }
+        if (error[0] instanceof HeapOverflowError) {
+            return new Result(Status.MEMORY_LIMIT_EXCEEDED, error[0], time);
+        }
+        if (error[0] != null) {
+            return new Result(Status.RUNTIME_ERROR, error[0], time);
+        }
+        return new Result(Status.OK, null, time);
+    }
+
+    private static long usedMemory(Runtime runtime) {
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    public enum Status {
+        OK, COMPILE_ERROR, RUNTIME_ERROR, TIME_LIMIT_EXCEEDED, MEMORY_LIMIT_EXCEEDED
+    }
+
+    public static class Result {
+        private Status status;
+        private Throwable error;
+        private long time;
+
+        Result(Status status, Throwable error, long time) {
+            this.status = status;
+            this.error = error;
+            this.time = time;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        /**
+         * @return the compile or runtime error, null if there is no error
+         */
+        public Throwable getError() {
+            return error;
+        }
+
+        /**
+         * @return wall time of compile and run in milliseconds
+         */
+        public long getTime() {
+            return time;
+        }
+
+        @Override
+        public String toString() {
+            return status + " " + time + "ms" + (error == null ? "" : " " + error);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.duy.pascal.backend.core;
+
+import android.support.annotation.Nullable;
+
+import com.duy.pascal.backend.function_declaretion.FunctionDeclaration;
+import com.duy.pascal.backend.lib.io.IOLib;
+import com.duy.pascal.backend.linenumber.LineInfo;
+import com.duy.pascal.frontend.activities.ExecHandler;
+import com.duy.pascal.frontend.view.exec_screen.console.ConsoleView;
+import com.js.interpreter.VariableDeclaration;
+
+/**
+ * Handler of a cached program. Libraries of the program keep the handler which was
+ * passed when it was compiled, so the program is compiled with this handler and every run
+ * sets the handler which receives the events, see {@link ProgramCache}.
+ */
+public class DelegatingProgramHandler implements ProgramHandler, ExecHandler {
+    @Nullable
+    private volatile ProgramHandler target;
+
+    public DelegatingProgramHandler(@Nullable ProgramHandler target) {
+        this.target = target;
+    }
+
+    @Nullable
+    public ProgramHandler getTarget() {
+        return target;
+    }
+
+    public void setTarget(@Nullable ProgramHandler target) {
+        this.target = target;
+    }
+
+    @Override
+    public ConsoleView getConsoleView() {
+        ProgramHandler handler = target;
+        return handler instanceof ExecHandler ? ((ExecHandler) handler).getConsoleView() : null;
+    }
+
+    @Override
+    public void startInput(IOLib lock) {
+        ProgramHandler handler = target;
+        if (handler != null) handler.startInput(lock);
+    }
+
+    @Override
+    public void stopInput() {
+        ProgramHandler handler = target;
+        if (handler != null) handler.stopInput();
+    }
+
+    @Override
+    public String getInput() {
+        ProgramHandler handler = target;
+        return handler == null ? null : handler.getInput();
+    }
+
+    @Override
+    public void print(CharSequence charSequence) {
+        ProgramHandler handler = target;
+        if (handler != null) handler.print(charSequence);
+    }
+
+    @Override
+    public void println(CharSequence charSequence) {
+        ProgramHandler handler = target;
+        if (handler != null) handler.println(charSequence);
+    }
+
+    @Override
+    public char getKeyBuffer() {
+        ProgramHandler handler = target;
+        return handler == null ? 0 : handler.getKeyBuffer();
+    }
+
+    @Override
+    public boolean keyPressed() {
+        ProgramHandler handler = target;
+        return handler != null && handler.keyPressed();
+    }
+
+    @Override
+    public void onGlobalVariableChangeValue(VariableDeclaration variableDeclaration) {
+        ProgramHandler handler = target;
+        if (handler != null) handler.onGlobalVariableChangeValue(variableDeclaration);
+    }
+
+    @Override
+    public void onLocalVariableChangeValue(VariableDeclaration variableDeclaration) {
+        ProgramHandler handler = target;
+        if (handler != null) handler.onLocalVariableChangeValue(variableDeclaration);
+    }
+
+    @Override
+    public void onFunctionCall(FunctionDeclaration functionDeclaration) {
+        ProgramHandler handler = target;
+        if (handler != null) handler.onFunctionCall(functionDeclaration);
+    }
+
+    @Override
+    public void onProcedureCall(FunctionDeclaration functionDeclaration) {
+        ProgramHandler handler = target;
+        if (handler != null) handler.onProcedureCall(functionDeclaration);
+    }
+
+    @Override
+    public void onNewMessage(String msg) {
+        ProgramHandler handler = target;
+        if (handler != null) handler.onNewMessage(msg);
+    }
+
+    @Override
+    public void onClearDebug() {
+        ProgramHandler handler = target;
+        if (handler != null) handler.onClearDebug();
+    }
+
+    @Override
+    public void onVariableChangeValue(String name, Object old, Object newValue) {
+        ProgramHandler handler = target;
+        if (handler != null) handler.onVariableChangeValue(name, old, newValue);
+    }
+
+    @Override
+    public void onFunctionCall(String name) {
+        ProgramHandler handler = target;
+        if (handler != null) handler.onFunctionCall(name);
+    }
+
+    @Override
+    public void onLine(LineInfo lineInfo) {
+        ProgramHandler handler = target;
+        if (handler != null) handler.onLine(lineInfo);
+    }
+}
@@ -11,7 +11,6 @@ import com.duy.pascal.backend.lib.io.IOLib;
 import com.duy.pascal.backend.lib.io.InOutListener;
 import com.duy.pascal.backend.lib.math.MathLib;
 import com.duy.pascal.frontend.activities.ExecHandler;
-import com.duy.pascal.frontend.activities.RunnableActivity;
 import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.ListMultimap;
 import com.duy.pascal.backend.function_declaretion.AbstractFunction;
@@ -30,10 +29,17 @@ import java.util.List;
 
 public class PascalCompiler {
     public static final String TAG = PascalCompiler.class.getSimpleName();
-    public static final boolean android = true;
+    /**
+     * false when the compiler runs on a jvm without android, such as {@link BatchRunner}
+     */
+    public static final boolean android = isAndroid();
     public static final boolean DEBUG = false;
+    /**
+     * programs of the last runs and of the editor
+     */
+    private static final ProgramCache programCache = new ProgramCache(8);
 
-    public RunnableActivity handler;
+    public ProgramHandler handler;
 
     private SystemLib systemLib = new SystemLib();
     private IOLib ioLib = new IOLib(null);
@@ -41,10 +47,16 @@ public class PascalCompiler {
     private GraphLib graphLib = new GraphLib(null);
     private FileLib fileLib = new FileLib();
 
-    public PascalCompiler(RunnableActivity handler) {
+    public PascalCompiler(ProgramHandler handler) {
         this.handler = handler;
     }
 
+    private static boolean isAndroid() {
+        String vm = System.getProperty("java.vm.name");
+        return vm != null && vm.toLowerCase().contains("dalvik")
+                || "The Android Project".equals(System.getProperty("java.vendor"));
+    }
+
     public static ListMultimap<String, AbstractFunction> loadFunctionTable(
             List<ScriptSource> includeSearchPath) throws ParsingException {
         return ArrayListMultimap.create();
@@ -59,15 +71,25 @@ public class PascalCompiler {
      */
     public static PascalProgram loadPascal(String sourcename, Reader in,
                                            List<ScriptSource> includeSearchPath,
-                                           RunnableActivity handler) throws ParsingException {
+                                           ProgramHandler handler) throws ParsingException {
         ListMultimap<String, AbstractFunction> functiontable = loadFunctionTable(includeSearchPath);
         return new PascalProgram(in, functiontable, sourcename, includeSearchPath, handler);
     }
 
+    /**
+     * same as {@link #loadPascal(String, Reader, List, ProgramHandler)}, but the program is
+     * only compiled again if the source or one of its units has changed
+     *
+     * @param handler - handler of the run, null if the program is only compiled
+     */
+    public static PascalProgram loadPascalCached(String sourcename, String source,
+                                                 ProgramHandler handler) throws ParsingException {
+        return programCache.loadPascal(sourcename, source, handler);
+    }
 
     public static UnitPascal loadLibrary(String sourcename, Reader in,
                                          List<ScriptSource> includeSearchPath,
-                                         RunnableActivity handler) throws ParsingException {
+                                         ProgramHandler handler) throws ParsingException {
         ListMultimap<String, AbstractFunction> functiontable = loadFunctionTable(includeSearchPath);
         return new UnitPascal(in, sourcename, functiontable, includeSearchPath, handler);
     }
@@ -0,0 +1,195 @@
+package com.duy.pascal.backend.core;
+
+import android.support.annotation.Nullable;
+
+import com.duy.pascal.backend.exceptions.ParsingException;
+import com.duy.pascal.backend.lib.PascalLibraryManager;
+import com.js.interpreter.codeunit.library.UnitPascal;
+import com.js.interpreter.codeunit.program.PascalProgram;
+import com.js.interpreter.expressioncontext.ExpressionContextMixin;
+import com.js.interpreter.source_include.ScriptSource;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compiled programs of the last used sources, so a program which is not changed runs again
+ * without lexing, parsing and loading the libraries.
+ * <p>
+ * There is one program for each source name, it is used while the hash of the source and
+ * the hashes of the units which it uses are not changed. The least recently used program is
+ * removed when there are more than {@link #maxSize} programs.
+ * <p>
+ * A program is compiled with a {@link DelegatingProgramHandler}, each run sets its handler.
+ * Each run has its own variables of the program and of its units, so a program can run
+ * again, but only one run at a time. Programs which use android libraries keep the activity
+ * which compiled them, they are not cached.
+ */
+public class ProgramCache {
+    private static final int BUFFER_SIZE = 8192;
+
+    private final int maxSize;
+    private final LinkedHashMap<String, Entry> programs;
+
+    public ProgramCache(int maxSize) {
+        this.maxSize = maxSize;
+        this.programs = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > ProgramCache.this.maxSize;
+            }
+        };
+    }
+
+    /**
+     * @param handler handler of the run, null if the program is only compiled
+     * @return cached program or the program which is compiled now
+     */
+    public PascalProgram loadPascal(String sourceName, String source,
+                                    @Nullable ProgramHandler handler) throws ParsingException {
+        String hash = hash(source);
+        Entry entry;
+        synchronized (this) {
+            entry = programs.get(sourceName);
+        }
+        if (entry != null && entry.sourceHash.equals(hash) && entry.isUpToDate()) {
+            if (handler != null) {
+                entry.handler.setTarget(handler);
+            }
+            return entry.program;
+        }
+
+        DelegatingProgramHandler delegate = new DelegatingProgramHandler(handler);
+        PascalProgram program;
+        try {
+            program = PascalCompiler.loadPascal(sourceName, new StringReader(source),
+                    new ArrayList<ScriptSource>(), delegate);
+        } catch (ParsingException e) {
+            synchronized (this) {
+                programs.remove(sourceName);
+            }
+            throw e;
+        }
+        synchronized (this) {
+            if (isReusable(program.getContext())) {
+                HashMap<File, String> unitHashes = new HashMap<>();
+                hashUnits(program.getContext(), unitHashes);
+                programs.put(sourceName, new Entry(program, delegate, hash, unitHashes));
+            } else {
+                programs.remove(sourceName);
+            }
+        }
+        return program;
+    }
+
+    public synchronized void clear() {
+        programs.clear();
+    }
+
+    private static boolean isReusable(ExpressionContextMixin context) {
+        PascalLibraryManager libraryManager = context.getLibraryManager();
+        if (libraryManager != null && libraryManager.usesAndroidLibrary()) {
+            return false;
+        }
+        for (UnitPascal unit : context.getUnitsMap().keySet()) {
+            if (!isReusable(unit.getContext())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void hashUnits(ExpressionContextMixin context, Map<File, String> result) {
+        for (File file : context.getUnitFiles()) {
+            result.put(file, hash(file));
+        }
+        for (UnitPascal unit : context.getUnitsMap().keySet()) {
+            hashUnits(unit.getContext(), result);
+        }
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String hash(String text) {
+        try {
+            return toHex(newDigest().digest(text.getBytes("UTF-8")));
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @return hash of the content of the file, empty if the file can not be read
+     */
+    private static String hash(File file) {
+        MessageDigest digest = newDigest();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try {
+            InputStream in = new FileInputStream(file);
+            try {
+                int count;
+                while ((count = in.read(buffer)) > 0) {
+                    digest.update(buffer, 0, count);
+                }
+            } finally {
+                in.close();
+            }
+        } catch (IOException e) {
+            return "";
+        }
+        return toHex(digest.digest());
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder result = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            result.append(Character.forDigit((b >> 4) & 0xF, 16))
+                    .append(Character.forDigit(b & 0xF, 16));
+        }
+        return result.toString();
+    }
+
+    private static class Entry {
+        private final PascalProgram program;
+        private final DelegatingProgramHandler handler;
+        private final String sourceHash;
+        private final Map<File, String> unitHashes;
+
+        Entry(PascalProgram program, DelegatingProgramHandler handler, String sourceHash,
+              Map<File, String> unitHashes) {
+            this.program = program;
+            this.handler = handler;
+            this.sourceHash = sourceHash;
+            this.unitHashes = unitHashes;
+        }
+
+        /**
+         * @return true if no unit of the program has changed
+         */
+        boolean isUpToDate() {
+            for (Map.Entry<File, String> unit : unitHashes.entrySet()) {
+                String hash = hash(unit.getKey());
+                if (hash.isEmpty() || !hash.equals(unit.getValue())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
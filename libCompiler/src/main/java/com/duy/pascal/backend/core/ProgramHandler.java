@@ -0,0 +1,11 @@
+package com.duy.pascal.backend.core;
+
+import com.duy.pascal.backend.debugable.DebugListener;
+import com.duy.pascal.backend.lib.io.InOutListener;
+
+/**
+ * Receives input, output and debug events of a compiled program, implemented by the
+ * activity which runs the program or by {@link BatchRunner}
+ */
+public interface ProgramHandler extends InOutListener, DebugListener {
+}
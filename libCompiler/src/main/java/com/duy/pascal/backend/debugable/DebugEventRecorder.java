@@ -0,0 +1,170 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.backend.debugable;
+
+import com.duy.pascal.backend.function_declaretion.FunctionDeclaration;
+import com.duy.pascal.backend.linenumber.LineInfo;
+import com.js.interpreter.runtime.PascalArrays;
+import com.js.interpreter.runtime.variables.ContainsVariables;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Events of a program which runs in debug mode, kept in a ring of preallocated records.
+ * <p>
+ * The thread which runs the program is the only writer and the debugger reads the events
+ * later with {@link #drain(Reader)} from its own thread. The writer fills a record and then
+ * publishes it by advancing {@link #written}, the reader hands the record back by advancing
+ * {@link #read}, so a record is never changed while it is read. When the reader is too slow
+ * the ring is full and the new events are dropped and counted.
+ * <p>
+ * A changed value is recorded as a snapshot, strings, arrays and records which the program
+ * keeps changing are copied.
+ */
+public class DebugEventRecorder {
+    public static final int LINE = 1;
+    public static final int CALL = 2;
+    public static final int VARIABLE_CHANGE = 3;
+
+    private static final int DEFAULT_CAPACITY = 1024;
+
+    private final int mask;
+    private final int[] kinds;
+    private final LineInfo[] lines;
+    private final Object[] subjects;
+    private final Object[] values;
+    /**
+     * number of records published by the writer, the record of a sequence is at index
+     * sequence & mask
+     */
+    private final AtomicLong written = new AtomicLong();
+    /**
+     * number of records released by the reader, their indexes may be written again
+     */
+    private final AtomicLong read = new AtomicLong();
+    /**
+     * number of events dropped because the ring was full, only changed by the writer
+     */
+    private final AtomicLong dropped = new AtomicLong();
+    private long reportedDropped;
+
+    public DebugEventRecorder() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity - number of records, rounded up to a power of two
+     */
+    public DebugEventRecorder(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.mask = size - 1;
+        this.kinds = new int[size];
+        this.lines = new LineInfo[size];
+        this.subjects = new Object[size];
+        this.values = new Object[size];
+    }
+
+    public void recordLine(LineInfo line) {
+        record(LINE, line, null, null);
+    }
+
+    public void recordCall(LineInfo line, FunctionDeclaration function) {
+        record(CALL, line, function, null);
+    }
+
+    /**
+     * @param variable - the assigned variable, its name is read by the debugger
+     * @param value    - the new value, a copy of it is recorded
+     */
+    public void recordVariableChange(LineInfo line, Object variable, Object value) {
+        if (isFull()) {
+            dropped.lazySet(dropped.get() + 1);
+            return;
+        }
+        record(VARIABLE_CHANGE, line, variable, snapshot(value));
+    }
+
+    /**
+     * @return a copy of the value which does not change when the program changes the value
+     */
+    static Object snapshot(Object value) {
+        if (value instanceof StringBuilder) {
+            return value.toString();
+        } else if (value instanceof ContainsVariables) {
+            return ((ContainsVariables) value).clone();
+        } else if (value instanceof Object[]) {
+            Object[] copy = ((Object[]) value).clone();
+            for (int i = 0; i < copy.length; i++) {
+                copy[i] = snapshot(copy[i]);
+            }
+            return copy;
+        } else if (value != null && value.getClass().isArray()) {
+            return PascalArrays.copy(value);
+        }
+        return value;
+    }
+
+    private boolean isFull() {
+        return written.get() - read.get() > mask;
+    }
+
+    private void record(int kind, LineInfo line, Object subject, Object value) {
+        long sequence = written.get();
+        if (sequence - read.get() > mask) {
+            dropped.lazySet(dropped.get() + 1);
+            return;
+        }
+        int index = (int) sequence & mask;
+        kinds[index] = kind;
+        lines[index] = line;
+        subjects[index] = subject;
+        values[index] = value;
+        //the record is visible to the reader before the new sequence
+        written.lazySet(sequence + 1);
+    }
+
+    /**
+     * pass the events which are written since the last call to the reader, in order
+     *
+     * @return number of events which were dropped since the last call because the ring was
+     * full
+     */
+    public synchronized int drain(Reader reader) {
+        long end = written.get();
+        long sequence = read.get();
+        while (sequence < end) {
+            int index = (int) sequence & mask;
+            int kind = kinds[index];
+            LineInfo line = lines[index];
+            Object subject = subjects[index];
+            Object value = values[index];
+            subjects[index] = null;
+            values[index] = null;
+            //the writer may reuse the record from now on
+            read.lazySet(++sequence);
+            reader.onEvent(kind, line, subject, value);
+        }
+        long total = dropped.get();
+        int lost = (int) (total - reportedDropped);
+        reportedDropped = total;
+        return lost;
+    }
+
+    public interface Reader {
+        void onEvent(int kind, LineInfo line, Object subject, Object value);
+    }
+}
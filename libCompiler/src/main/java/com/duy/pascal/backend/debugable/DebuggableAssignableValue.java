@@ -26,9 +26,7 @@ public abstract class DebuggableAssignableValue implements AssignableValue {
     public Object getValue(VariableContext f, RuntimeExecutableCodeUnit<?> main)
             throws RuntimePascalException {
         try {
-            if (main != null) {
-                main.scriptControlCheck(getLineNumber());
-            }
+            checkControl(main);
             return getValueImpl(f, main);
         } catch (RuntimePascalException e) {
             throw e;
@@ -45,9 +43,7 @@ public abstract class DebuggableAssignableValue implements AssignableValue {
     public Reference<?> getReference(VariableContext f, RuntimeExecutableCodeUnit<?> main)
             throws RuntimePascalException {
         try {
-            if (main != null) {
-                main.scriptControlCheck(getLineNumber());
-            }
+            checkControl(main);
             return getReferenceImpl(f, main);
         } catch (RuntimePascalException e) {
             throw e;
@@ -62,4 +58,85 @@ public abstract class DebuggableAssignableValue implements AssignableValue {
     public abstract Reference<?> getReferenceImpl(VariableContext f, RuntimeExecutableCodeUnit<?> main)
             throws RuntimePascalException;
 
+    @Override
+    public int getInt(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        try {
+            checkControl(main);
+            return getIntImpl(f, main);
+        } catch (RuntimePascalException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new UnhandledPascalException(this.getLineNumber(), e);
+        }
+    }
+
+    @Override
+    public long getLong(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        try {
+            checkControl(main);
+            return getLongImpl(f, main);
+        } catch (RuntimePascalException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new UnhandledPascalException(this.getLineNumber(), e);
+        }
+    }
+
+    @Override
+    public double getDouble(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        try {
+            checkControl(main);
+            return getDoubleImpl(f, main);
+        } catch (RuntimePascalException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new UnhandledPascalException(this.getLineNumber(), e);
+        }
+    }
+
+    @Override
+    public boolean getBoolean(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        try {
+            checkControl(main);
+            return getBooleanImpl(f, main);
+        } catch (RuntimePascalException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new UnhandledPascalException(this.getLineNumber(), e);
+        }
+    }
+
+    private void checkControl(RuntimeExecutableCodeUnit<?> main) throws RuntimePascalException {
+        if (main != null && main.isDebugMode()) {
+            main.scriptControlCheck(getLineNumber());
+        }
+    }
+
+    /**
+     * Subclasses which can read a primitive without boxing override these, by default the
+     * boxed value is unwrapped
+     */
+    public int getIntImpl(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        return ((Number) getValueImpl(f, main)).intValue();
+    }
+
+    public long getLongImpl(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        return ((Number) getValueImpl(f, main)).longValue();
+    }
+
+    public double getDoubleImpl(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        return ((Number) getValueImpl(f, main)).doubleValue();
+    }
+
+    public boolean getBooleanImpl(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        return (Boolean) getValueImpl(f, main);
+    }
 }
@@ -13,18 +13,12 @@ public abstract class DebuggableExecutable implements Executable {
     public ExecutionResult execute(VariableContext context, RuntimeExecutableCodeUnit<?> main)
             throws RuntimePascalException {
         try {
-            if (main != null) {
-                if (main.isDebugMode()) {
-                    main.getDebugListener().onLine(getLineNumber());
-                }
-                main.incStack(getLineNumber());
+            //pause and terminate are checked at safepoints, only debug mode stops on every line
+            if (main != null && main.isDebugMode()) {
+                main.getDebugRecorder().recordLine(getLineNumber());
                 main.scriptControlCheck(getLineNumber());
             }
-            ExecutionResult result = executeImpl(context, main);
-            if (main != null) {
-                main.decStack();
-            }
-            return result;
+            return executeImpl(context, main);
         } catch (RuntimePascalException e) {
             throw e;
         } catch (Exception e) {
@@ -3,6 +3,7 @@ package com.duy.pascal.backend.debugable;
 import com.js.interpreter.expressioncontext.ExpressionContext;
 import com.js.interpreter.instructions.Executable;
 import com.js.interpreter.instructions.ExecutionResult;
+import com.js.interpreter.runtime_value.AbstractRuntimeValue;
 import com.js.interpreter.runtime_value.AssignableValue;
 import com.js.interpreter.runtime_value.RuntimeValue;
 import com.js.interpreter.runtime.VariableContext;
@@ -10,8 +11,8 @@ import com.js.interpreter.codeunit.RuntimeExecutableCodeUnit;
 import com.js.interpreter.runtime.exception.RuntimePascalException;
 import com.js.interpreter.runtime.exception.UnhandledPascalException;
 
-public abstract class DebuggableExecutableReturnValue implements Executable,
-        RuntimeValue {
+public abstract class DebuggableExecutableReturnValue extends AbstractRuntimeValue
+        implements Executable {
 
     protected RuntimeValue[] outputFormat;
 
@@ -49,17 +50,10 @@ public abstract class DebuggableExecutableReturnValue implements Executable,
     public ExecutionResult execute(VariableContext context, RuntimeExecutableCodeUnit<?> main)
             throws RuntimePascalException {
         try {
-            if (main != null) {
-                if (main.isDebugMode()) {
-                    main.getDebugListener().onLine(getLineNumber());
-                }
-                main.incStack(getLineNumber());
+            if (main != null && main.isDebugMode()) {
+                main.getDebugRecorder().recordLine(getLineNumber());
             }
-            ExecutionResult result = executeImpl(context, main);
-            if (main != null) {
-                main.decStack();
-            }
-            return result;
+            return executeImpl(context, main);
         } catch (RuntimePascalException e) {
             throw e;
         } catch (Exception e) {
@@ -10,7 +10,6 @@ import com.js.interpreter.runtime_value.boxing.StringBuilderBoxer;
 import com.js.interpreter.runtime.VariableContext;
 import com.js.interpreter.codeunit.RuntimeExecutableCodeUnit;
 import com.js.interpreter.runtime.exception.RuntimePascalException;
-import com.js.interpreter.runtime.exception.UnhandledPascalException;
 
 public abstract class DebuggableReturnValue implements RuntimeValue {
 
@@ -29,32 +28,61 @@ public abstract class DebuggableReturnValue implements RuntimeValue {
     @Override
     public Object getValue(VariableContext f, RuntimeExecutableCodeUnit<?> main)
             throws RuntimePascalException {
-        try {
-            if (main != null) {
-                if (main.isDebugMode()) {
-                    if (!(this instanceof ConstantAccess
-                            || this instanceof StringBuilderBoxer
-                            || this instanceof ArrayBoxer
-                            || this instanceof CharacterBoxer)) {
-                        main.getDebugListener().onLine(getLineNumber());
-                        main.scriptControlCheck(getLineNumber(), true);
-                    } else {
-                        main.scriptControlCheck(getLineNumber(), false);
-                    }
-                } else {
-                    main.scriptControlCheck(getLineNumber());
-                }
-                main.incStack(getLineNumber());
-            }
-            Object valueImpl = getValueImpl(f, main);
-            if (main != null) {
-                main.decStack();
-            }
-            return valueImpl;
-        } catch (RuntimePascalException e) {
-            throw e;
-        } catch (Exception e) {
-            throw new UnhandledPascalException(this.getLineNumber(), e);
+        if (main != null && main.isDebugMode()) {
+            debugStep(main);
+        }
+        return getValueImpl(f, main);
+    }
+
+    @Override
+    public int getInt(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        if (main != null && main.isDebugMode()) {
+            debugStep(main);
+        }
+        return getIntImpl(f, main);
+    }
+
+    @Override
+    public long getLong(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        if (main != null && main.isDebugMode()) {
+            debugStep(main);
+        }
+        return getLongImpl(f, main);
+    }
+
+    @Override
+    public double getDouble(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        if (main != null && main.isDebugMode()) {
+            debugStep(main);
+        }
+        return getDoubleImpl(f, main);
+    }
+
+    @Override
+    public boolean getBoolean(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        if (main != null && main.isDebugMode()) {
+            debugStep(main);
+        }
+        return getBooleanImpl(f, main);
+    }
+
+    /**
+     * in debug mode the debugger stops on the line of every value which is not a constant,
+     * errors of the value are reported with the line of its statement
+     */
+    private void debugStep(RuntimeExecutableCodeUnit<?> main) throws RuntimePascalException {
+        if (!(this instanceof ConstantAccess
+                || this instanceof StringBuilderBoxer
+                || this instanceof ArrayBoxer
+                || this instanceof CharacterBoxer)) {
+            main.getDebugRecorder().recordLine(getLineNumber());
+            main.scriptControlCheck(getLineNumber(), true);
+        } else {
+            main.scriptControlCheck(getLineNumber(), false);
         }
     }
 
@@ -66,4 +94,28 @@ public abstract class DebuggableReturnValue implements RuntimeValue {
     public abstract Object getValueImpl(VariableContext f, RuntimeExecutableCodeUnit<?> main)
             throws RuntimePascalException;
 
+    /**
+     * Subclasses producing a primitive override these to skip boxing the result,
+     * by default the boxed value is unwrapped
+     */
+    public int getIntImpl(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        return ((Number) getValueImpl(f, main)).intValue();
+    }
+
+    public long getLongImpl(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        return ((Number) getValueImpl(f, main)).longValue();
+    }
+
+    public double getDoubleImpl(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        return ((Number) getValueImpl(f, main)).doubleValue();
+    }
+
+    public boolean getBooleanImpl(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        return (Boolean) getValueImpl(f, main);
+    }
+
 }
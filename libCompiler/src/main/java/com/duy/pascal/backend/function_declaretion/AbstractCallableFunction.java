@@ -50,7 +50,7 @@ public abstract class AbstractCallableFunction extends AbstractFunction {
         if (args == null) {
             return null;
         }
-        return new SimpleFunctionCall(this, args, line);
+        return createCall(args, line, f);
     }
 
     @Override
@@ -60,9 +60,16 @@ public abstract class AbstractCallableFunction extends AbstractFunction {
         if (args == null) {
             return null;
         }
-        return new SimpleFunctionCall(this, args, line);
+        return createCall(args, line, f);
     }
 
+    /**
+     * @return node which calls this function with the matched arguments
+     */
+    protected FunctionCall createCall(RuntimeValue[] arguments, LineInfo line,
+                                      ExpressionContext f) throws ParsingException {
+        return new SimpleFunctionCall(this, arguments, line);
+    }
 
     @Override
     public String description() {
@@ -39,6 +39,7 @@ import com.js.interpreter.codeunit.library.UnitPascal;
 import com.js.interpreter.expressioncontext.ExpressionContext;
 import com.js.interpreter.expressioncontext.ExpressionContextMixin;
 import com.js.interpreter.instructions.Executable;
+import com.js.interpreter.instructions.FlatBlock;
 import com.js.interpreter.runtime.FunctionOnStack;
 import com.js.interpreter.runtime.VariableContext;
 import com.js.interpreter.codeunit.RuntimeExecutableCodeUnit;
@@ -46,6 +47,7 @@ import com.js.interpreter.runtime.exception.RuntimePascalException;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 
 public class FunctionDeclaration extends AbstractCallableFunction {
@@ -66,12 +68,31 @@ public class FunctionDeclaration extends AbstractCallableFunction {
     public String[] argumentNames;
 
     public RuntimeType[] argumentTypes;
+    /**
+     * index of each argument in {@link #argumentNames}
+     */
+    private HashMap<String, Integer> argumentSlots = new HashMap<>();
     private boolean isProcedure = false;
     private boolean bodyDeclared;
 
+    /**
+     * function which contains this function, null if this function is declared
+     * at the top level of program or unit
+     */
+    private FunctionDeclaration enclosingFunction;
+
+    /**
+     * body of function with folded constants, lowered to a {@link FlatBlock} when the body
+     * is parsed. It is not changed after parsing, so runs on other threads can share it
+     */
+    private Executable compiledInstructions;
+
     public FunctionDeclaration(ExpressionContext parent, GrouperToken grouperToken,
                                boolean isProcedure) throws ParsingException {
         this.declarations = new FunctionExpressionContext(this, parent);
+        if (parent instanceof FunctionExpressionContext) {
+            this.enclosingFunction = ((FunctionExpressionContext) parent).function;
+        }
         this.line = grouperToken.peek().getLineInfo();
         this.isProcedure = isProcedure;
         name = grouperToken.nextWordValue();
@@ -142,10 +163,77 @@ public class FunctionDeclaration extends AbstractCallableFunction {
     public Object call(VariableContext parentcontext,
                        RuntimeExecutableCodeUnit<?> main, Object[] arguments)
             throws RuntimePascalException {
-        if (this.declarations.root() instanceof UnitPascal) {
-            parentcontext = main.getLibrary((UnitPascal) declarations.root());
+        if (main != null && main.isDebugMode()) {
+            main.getDebugRecorder().recordCall(line, this);
+        }
+        return new FunctionOnStack(getStaticParent(parentcontext, main), main, this, arguments).execute();
+    }
+
+    /**
+     * In debug mode the original tree is used, so the debugger sees every line.
+     *
+     * @return body of function which will be executed
+     */
+    public Executable getInstructions(RuntimeExecutableCodeUnit<?> main) {
+        if (main != null && main.isDebugMode()) {
+            return instructions;
         }
-        return new FunctionOnStack(parentcontext, main, this, arguments).execute();
+        return compiledInstructions;
+    }
+
+    /**
+     * Variables are resolved to (depth, slot) at parse time, so the parent of the new
+     * frame must be the frame of the lexically enclosing function, not the caller.
+     *
+     * @param caller - context which calls this function
+     */
+    private VariableContext getStaticParent(VariableContext caller, RuntimeExecutableCodeUnit<?> main) {
+        if (enclosingFunction == null) {
+            if (this.declarations.root() instanceof UnitPascal) {
+                VariableContext library = main.getLibrary((UnitPascal) declarations.root());
+                if (library != null) {
+                    return library;
+                }
+            }
+            //caller is the unit or the program
+            while (caller.getParentContext() != null) {
+                caller = caller.getParentContext();
+            }
+            return caller;
+        }
+        VariableContext context = caller;
+        while (!(context instanceof FunctionOnStack
+                && ((FunctionOnStack) context).getPrototype() == enclosingFunction)) {
+            context = context.getParentContext();
+        }
+        return context;
+    }
+
+    /**
+     * Arguments take the first slots of the frame, local variables (include
+     * the result variable) follow them in order of declaration
+     *
+     * @return number of slots of the frame of this function
+     */
+    public int getFrameSize() {
+        return argumentNames.length + declarations.variables.size();
+    }
+
+    /**
+     * @return slot of the variable which holds the result of function, -1 for procedure
+     */
+    public int getResultSlot() {
+        if (resultDefinition == null) {
+            return -1;
+        }
+        return declarations.getVariableSlotLocal(resultDefinition.getName());
+    }
+
+    /**
+     * @return slot of variable in frame of this function, -1 if not found
+     */
+    public int getVariableSlot(String name) {
+        return declarations.getVariableSlotLocal(name);
     }
 
     private void getArgumentsForDeclaration(GrouperToken i, boolean is_procedure)
@@ -197,6 +285,9 @@ public class FunctionDeclaration extends AbstractCallableFunction {
         for (int j = 0; j < argumentNames.length; j++) {
             WordToken n = namesList.get(j);
             argumentNames[j] = n.name;
+            if (!argumentSlots.containsKey(n.name)) {
+                argumentSlots.put(n.name, j);
+            }
             // TODO: 30-Apr-17
 //            declarations.declareVariable(new VariableDeclaration(n.name, argumentTypes[j].declType, n.lineInfo));
         }
@@ -273,6 +364,7 @@ public class FunctionDeclaration extends AbstractCallableFunction {
         public void handleBeginEnd(GrouperToken i) throws ParsingException {
             bodyDeclared = true;
             instructions = i.getNextCommand(declarations);
+            compiledInstructions = FlatBlock.compile(instructions, declarations);
             i.assertNextSemicolon(i.next);
         }
 
@@ -282,12 +374,21 @@ public class FunctionDeclaration extends AbstractCallableFunction {
             if (unitVariableDecl != null) {
                 return unitVariableDecl;
             }
-            for (int i = 0; i < argumentNames.length; i++) {
-                if (argumentNames[i].equals(ident)) {
-                    return new VariableDeclaration(argumentNames[i], argumentTypes[i].declType, function.line);
-                }
+            Integer slot = argumentSlots.get(ident);
+            if (slot == null) {
+                return null;
             }
-            return null;
+            return new VariableDeclaration(argumentNames[slot], argumentTypes[slot].declType, function.line);
+        }
+
+        @Override
+        public int getVariableSlotLocal(String ident) {
+            int slot = super.getVariableSlotLocal(ident);
+            if (slot >= 0) {
+                return argumentNames.length + slot;
+            }
+            Integer argument = argumentSlots.get(ident);
+            return argument == null ? -1 : argument;
         }
     }
 
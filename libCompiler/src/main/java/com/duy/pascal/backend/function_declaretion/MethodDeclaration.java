@@ -19,6 +19,9 @@ package com.duy.pascal.backend.function_declaretion;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 
+import com.duy.pascal.backend.exceptions.ParsingException;
+import com.duy.pascal.backend.lib.SystemLib;
+import com.duy.pascal.backend.lib.SystemLibInvoker;
 import com.duy.pascal.backend.lib.annotations.ArrayBoundsInfo;
 import com.duy.pascal.backend.lib.annotations.MethodTypeData;
 import com.duy.pascal.backend.linenumber.LineInfo;
@@ -30,7 +33,10 @@ import com.duy.pascal.backend.pascaltypes.PointerType;
 import com.duy.pascal.backend.pascaltypes.RuntimeType;
 import com.duy.pascal.backend.pascaltypes.VarargsType;
 import com.duy.pascal.backend.pascaltypes.rangetype.SubrangeType;
+import com.js.interpreter.expressioncontext.ExpressionContext;
+import com.js.interpreter.runtime_value.FunctionCall;
 import com.js.interpreter.runtime_value.RuntimeValue;
+import com.js.interpreter.runtime_value.WriteCall;
 import com.js.interpreter.runtime.references.PascalPointer;
 import com.js.interpreter.runtime.references.PascalReference;
 import com.js.interpreter.runtime.VariableContext;
@@ -50,15 +56,36 @@ import java.util.List;
 public class MethodDeclaration extends AbstractCallableFunction {
     private static final String TAG = MethodDeclaration.class.getSimpleName();
     private Object owner;
+    /**
+     * owner which is evaluated on every call, such as a variable holding a java object
+     */
+    private RuntimeValue ownerValue;
     private Method method;
+    private MethodInvoker invoker;
     private DeclaredType mReturnType = null;
     private ArgumentType[] argCache = null;
+    private DeclaredType returnTypeCache = null;
+    @Nullable
+    private MethodDescriptor descriptor;
     private String description = "";
     private ArrayList<String> listParams;
 
+    /**
+     * Declaration of a library method with the signature and invoker which are made once
+     * for the library class, so nothing is read by reflection here
+     */
+    public MethodDeclaration(@NonNull Object owner, @NonNull MethodDescriptor descriptor) {
+        this.owner = owner;
+        this.method = descriptor.getMethod();
+        this.description = descriptor.getDescription();
+        this.descriptor = descriptor;
+        this.invoker = descriptor.getInvoker();
+    }
+
     public MethodDeclaration(@NonNull Object owner, @NonNull Method m) {
         this.owner = owner;
         method = m;
+        bind();
     }
 
     /**
@@ -72,12 +99,14 @@ public class MethodDeclaration extends AbstractCallableFunction {
         this.owner = owner;
         method = m;
         this.mReturnType = returnType;
+        bind();
     }
 
     public MethodDeclaration(@NonNull Object owner, @NonNull Method m, @Nullable String description) {
         this.owner = owner;
         this.method = m;
         this.description = description;
+        bind();
     }
 
     public MethodDeclaration(@NonNull Object owner, @NonNull Method m, @Nullable String description,
@@ -86,6 +115,18 @@ public class MethodDeclaration extends AbstractCallableFunction {
         method = m;
         this.description = description;
         this.listParams = listParams;
+        bind();
+    }
+
+    /**
+     * Choose the invoker once, built-ins of the system library are called directly
+     */
+    private void bind() {
+        if (owner instanceof RuntimeValue) {
+            ownerValue = (RuntimeValue) owner;
+        }
+        MethodInvoker direct = owner instanceof SystemLib ? SystemLibInvoker.get(method) : null;
+        invoker = direct != null ? direct : MethodInvoker.reflective(method);
     }
 
     @Override
@@ -94,13 +135,52 @@ public class MethodDeclaration extends AbstractCallableFunction {
             throws IllegalArgumentException, IllegalAccessException,
             InvocationTargetException,
             RuntimePascalException {
-        if (owner instanceof RuntimeValue) {
-            owner = ((RuntimeValue) owner).getValue(parentContext, main);
+        return invoker.invoke(evaluateOwner(parentContext, main), arguments);
+    }
+
+    /**
+     * Same as {@link #call(VariableContext, RuntimeExecutableCodeUnit, Object[])} with one argument
+     */
+    public Object call1(VariableContext parentContext, RuntimeExecutableCodeUnit<?> main,
+                        Object arg)
+            throws IllegalArgumentException, IllegalAccessException,
+            InvocationTargetException, RuntimePascalException {
+        return invoker.invoke1(evaluateOwner(parentContext, main), arg);
+    }
+
+    /**
+     * Same as {@link #call(VariableContext, RuntimeExecutableCodeUnit, Object[])} with two arguments
+     */
+    public Object call2(VariableContext parentContext, RuntimeExecutableCodeUnit<?> main,
+                        Object arg1, Object arg2)
+            throws IllegalArgumentException, IllegalAccessException,
+            InvocationTargetException, RuntimePascalException {
+        return invoker.invoke2(evaluateOwner(parentContext, main), arg1, arg2);
+    }
+
+    /**
+     * @return the library object which declares the method, or the value which gives it
+     */
+    public Object getOwner() {
+        return owner;
+    }
+
+    /**
+     * @return true if the java method takes variable number of arguments
+     */
+    public boolean isVarArgs() {
+        return method.isVarArgs();
+    }
+
+    private Object evaluateOwner(VariableContext parentContext, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        if (ownerValue != null) {
+            return ownerValue.getValue(parentContext, main);
         }
-        return method.invoke(owner, arguments);
+        return owner;
     }
 
-    private Type getFirstGenericType(Type t) {
+    private static Type getFirstGenericType(Type t) {
         if (!(t instanceof ParameterizedType)) {
             return Object.class;
         }
@@ -112,7 +192,7 @@ public class MethodDeclaration extends AbstractCallableFunction {
         return parameters[0];
     }
 
-    private DeclaredType convertBasicType(Type javatype) {
+    private static DeclaredType convertBasicType(Type javatype) {
         if (javatype == PascalPointer.class
                 || (javatype instanceof ParameterizedType && ((ParameterizedType) javatype)
                 .getRawType() == PascalPointer.class)) {
@@ -131,8 +211,8 @@ public class MethodDeclaration extends AbstractCallableFunction {
         }
     }
 
-    private DeclaredType convertArrayType(Type javatype,
-                                          Iterator<SubrangeType> arraysizes) {
+    private static DeclaredType convertArrayType(Type javatype,
+                                                 Iterator<SubrangeType> arraysizes) {
         Type subtype;
         SubrangeType arrayinfo;
         if (javatype instanceof GenericArrayType) {
@@ -158,8 +238,8 @@ public class MethodDeclaration extends AbstractCallableFunction {
         }
     }
 
-    private RuntimeType convertReferenceType(Type javatype,
-                                             Iterator<SubrangeType> arraysizes) {
+    private static RuntimeType convertReferenceType(Type javatype,
+                                                    Iterator<SubrangeType> arraysizes) {
         Type subtype = javatype;
         boolean reference_argument = javatype == PascalReference.class
                 || (javatype instanceof ParameterizedType && ((ParameterizedType) javatype)
@@ -171,8 +251,8 @@ public class MethodDeclaration extends AbstractCallableFunction {
         return new RuntimeType(arraytype, reference_argument);
     }
 
-    private RuntimeType deducePascalTypeFromJavaTypeAndAnnotations(Type javatype,
-                                                                   ArrayBoundsInfo annotation) {
+    private static RuntimeType deducePascalTypeFromJavaTypeAndAnnotations(Type javatype,
+                                                                          ArrayBoundsInfo annotation) {
 
         List<SubrangeType> arrayinfo = new ArrayList<>();
         if (annotation != null && annotation.starts().length > 0) {
@@ -189,9 +269,16 @@ public class MethodDeclaration extends AbstractCallableFunction {
 
     @Override
     public ArgumentType[] argumentTypes() {
-        if (argCache != null) {
-            return argCache;
+        if (argCache == null) {
+            argCache = descriptor != null ? descriptor.getArgumentTypes() : argumentTypes(method);
         }
+        return argCache;
+    }
+
+    /**
+     * @return pascal types of the arguments of the java method
+     */
+    static ArgumentType[] argumentTypes(Method method) {
         Type[] types = method.getGenericParameterTypes();
         ArgumentType[] result = new ArgumentType[types.length];
         MethodTypeData tmp = method.getAnnotation(MethodTypeData.class);
@@ -207,7 +294,6 @@ public class MethodDeclaration extends AbstractCallableFunction {
                 result[i] = argtype;
             }
         }
-        argCache = result;
         return result;
     }
 
@@ -223,6 +309,16 @@ public class MethodDeclaration extends AbstractCallableFunction {
 
     @Override
     public DeclaredType returnType() {
+        if (returnTypeCache == null) {
+            returnTypeCache = descriptor != null ? descriptor.getReturnType() : returnType(method);
+        }
+        return returnTypeCache;
+    }
+
+    /**
+     * @return pascal type of the value which is returned by the java method
+     */
+    static DeclaredType returnType(Method method) {
         Class<?> result = method.getReturnType();
         if (result == PascalReference.class) {
             result = (Class<?>) ((ParameterizedType) method
@@ -234,6 +330,15 @@ public class MethodDeclaration extends AbstractCallableFunction {
         return BasicType.create(result);
     }
 
+    @Override
+    protected FunctionCall createCall(RuntimeValue[] arguments, LineInfo line,
+                                      ExpressionContext f) throws ParsingException {
+        if (WriteCall.isWriteFunction(this)) {
+            return new WriteCall(this, WriteCall.convertRecords(arguments, f), line);
+        }
+        return super.createCall(arguments, line, f);
+    }
+
     @Override
     public String getEntityType() {
         return "function";
@@ -0,0 +1,78 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.backend.function_declaretion;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.duy.pascal.backend.lib.SystemLib;
+import com.duy.pascal.backend.lib.SystemLibInvoker;
+import com.duy.pascal.backend.pascaltypes.ArgumentType;
+import com.duy.pascal.backend.pascaltypes.DeclaredType;
+
+import java.lang.reflect.Method;
+
+/**
+ * Pascal signature and invoker of a java method of a library, which do not depend on the
+ * library object. It is made once for each method and shared by the
+ * {@link MethodDeclaration}s of every program, the types are deduced when they are first used.
+ */
+public class MethodDescriptor {
+    private final Method method;
+    private final String description;
+    private volatile ArgumentType[] argumentTypes;
+    private volatile DeclaredType returnType;
+    private final MethodInvoker invoker;
+
+    public MethodDescriptor(@NonNull Method method, @Nullable String description) {
+        this.method = method;
+        this.description = description == null ? "" : description;
+        MethodInvoker direct = SystemLib.class.isAssignableFrom(method.getDeclaringClass())
+                ? SystemLibInvoker.get(method) : null;
+        this.invoker = direct != null ? direct : MethodInvoker.reflective(method);
+    }
+
+    public Method getMethod() {
+        return method;
+    }
+
+    public String getName() {
+        return method.getName();
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public ArgumentType[] getArgumentTypes() {
+        if (argumentTypes == null) {
+            argumentTypes = MethodDeclaration.argumentTypes(method);
+        }
+        return argumentTypes;
+    }
+
+    public DeclaredType getReturnType() {
+        if (returnType == null) {
+            returnType = MethodDeclaration.returnType(method);
+        }
+        return returnType;
+    }
+
+    public MethodInvoker getInvoker() {
+        return invoker;
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.backend.function_declaretion;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * Invokes one java method of a library, bound once when the {@link MethodDeclaration} is created.
+ * <p>
+ * Adapters override {@link #invoke1} and {@link #invoke2} to call the method directly,
+ * so calls with one or two arguments do not allocate an argument array.
+ * Exceptions thrown by the method are wrapped in an {@link InvocationTargetException},
+ * the same as {@link Method#invoke}
+ */
+public abstract class MethodInvoker {
+    public static final Object[] NO_ARGUMENTS = new Object[0];
+
+    public abstract Object invoke(Object owner, Object[] arguments)
+            throws IllegalAccessException, InvocationTargetException;
+
+    public Object invoke1(Object owner, Object arg)
+            throws IllegalAccessException, InvocationTargetException {
+        return invoke(owner, new Object[]{arg});
+    }
+
+    public Object invoke2(Object owner, Object arg1, Object arg2)
+            throws IllegalAccessException, InvocationTargetException {
+        return invoke(owner, new Object[]{arg1, arg2});
+    }
+
+    /**
+     * Invoker through {@link Method#invoke}, access checks are done once here
+     */
+    public static MethodInvoker reflective(final Method method) {
+        try {
+            method.setAccessible(true);
+        } catch (SecurityException ignored) {
+        }
+        return new MethodInvoker() {
+            @Override
+            public Object invoke(Object owner, Object[] arguments)
+                    throws IllegalAccessException, InvocationTargetException {
+                return method.invoke(owner, arguments);
+            }
+        };
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.backend.function_declaretion.builtin;
+
+import com.duy.pascal.backend.exceptions.ParsingException;
+import com.duy.pascal.backend.linenumber.LineInfo;
+import com.duy.pascal.backend.pascaltypes.ArgumentType;
+import com.duy.pascal.backend.pascaltypes.BasicType;
+import com.duy.pascal.backend.pascaltypes.DeclaredType;
+import com.duy.pascal.backend.pascaltypes.PointerType;
+import com.duy.pascal.backend.pascaltypes.RuntimeType;
+import com.js.interpreter.codeunit.RuntimeExecutableCodeUnit;
+import com.js.interpreter.expressioncontext.CompileTimeContext;
+import com.js.interpreter.expressioncontext.ExpressionContext;
+import com.js.interpreter.instructions.Executable;
+import com.js.interpreter.runtime.HeapBlock;
+import com.js.interpreter.runtime.VariableContext;
+import com.js.interpreter.runtime.exception.RuntimePascalException;
+import com.js.interpreter.runtime.references.PascalPointer;
+import com.js.interpreter.runtime_value.FunctionCall;
+import com.js.interpreter.runtime_value.RuntimeValue;
+
+/**
+ * dispose(p) and freeMem(p), give the memory of the pointer back to the heap of the run.
+ * A pointer to a variable is set to nil instead.
+ */
+public class DisposeFunction implements IMethodDeclaration {
+
+    private ArgumentType[] argumentTypes =
+            {new RuntimeType(new PointerType(BasicType.create(Object.class)), true)};
+    private String name;
+
+    /**
+     * @param name - dispose or freemem
+     */
+    public DisposeFunction(String name) {
+        this.name = name;
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public FunctionCall generateCall(LineInfo line, RuntimeValue[] arguments,
+                                     ExpressionContext f) throws ParsingException {
+        return new DisposeCall(arguments[0], line);
+    }
+
+    @Override
+    public FunctionCall generatePerfectFitCall(LineInfo line, RuntimeValue[] values, ExpressionContext f) throws ParsingException {
+        return generateCall(line, values, f);
+    }
+
+    @Override
+    public ArgumentType[] argumentTypes() {
+        return argumentTypes;
+    }
+
+    @Override
+    public DeclaredType returnType() {
+        return null;
+    }
+
+    @Override
+    public String description() {
+        return "Free dynamically allocated memory";
+    }
+
+    private class DisposeCall extends FunctionCall {
+
+        private RuntimeValue pointer;
+        private LineInfo line;
+
+        DisposeCall(RuntimeValue pointer, LineInfo line) {
+            this.pointer = pointer;
+            this.line = line;
+        }
+
+        @Override
+        public RuntimeType getType(ExpressionContext f) throws ParsingException {
+            return null;
+        }
+
+        @Override
+        public LineInfo getLineNumber() {
+            return line;
+        }
+
+        @Override
+        public Object compileTimeValue(CompileTimeContext context) {
+            return null;
+        }
+
+        @Override
+        public RuntimeValue compileTimeExpressionFold(CompileTimeContext context)
+                throws ParsingException {
+            return new DisposeCall(pointer, line);
+        }
+
+        @Override
+        public Executable compileTimeConstantTransform(CompileTimeContext c)
+                throws ParsingException {
+            return new DisposeCall(pointer, line);
+        }
+
+        @Override
+        protected String getFunctionName() {
+            return name;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Object getValueImpl(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+                throws RuntimePascalException {
+            PascalPointer reference = (PascalPointer) this.pointer.getValue(f, main);
+            Object value = reference.get();
+            if (value instanceof HeapBlock) {
+                main.getHeap().free((HeapBlock<?>) value);
+            } else if (value != null) {
+                //points to a variable, not to memory of the heap, the variable is kept
+                reference.set(null);
+            }
+            return null;
+        }
+    }
+}
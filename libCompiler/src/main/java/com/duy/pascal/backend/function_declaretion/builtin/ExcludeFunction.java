@@ -0,0 +1,37 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.backend.function_declaretion.builtin;
+
+import com.duy.pascal.backend.linenumber.LineInfo;
+import com.js.interpreter.runtime.PascalSets;
+import com.js.interpreter.runtime.exception.RangeCheckException;
+
+/**
+ * exclude(s, e) removes the element from the set variable
+ */
+public class ExcludeFunction extends IncludeFunction {
+
+    @Override
+    public String name() {
+        return "exclude";
+    }
+
+    @Override
+    protected void apply(long[] set, int ordinal, LineInfo line) throws RangeCheckException {
+        PascalSets.remove(set, ordinal, line);
+    }
+}
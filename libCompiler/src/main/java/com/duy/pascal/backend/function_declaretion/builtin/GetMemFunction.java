@@ -0,0 +1,160 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.backend.function_declaretion.builtin;
+
+import com.duy.pascal.backend.exceptions.ParsingException;
+import com.duy.pascal.backend.linenumber.LineInfo;
+import com.duy.pascal.backend.pascaltypes.ArgumentType;
+import com.duy.pascal.backend.pascaltypes.BasicType;
+import com.duy.pascal.backend.pascaltypes.DeclaredType;
+import com.duy.pascal.backend.pascaltypes.PointerType;
+import com.duy.pascal.backend.pascaltypes.RuntimeType;
+import com.js.interpreter.codeunit.RuntimeExecutableCodeUnit;
+import com.js.interpreter.expressioncontext.CompileTimeContext;
+import com.js.interpreter.expressioncontext.ExpressionContext;
+import com.js.interpreter.instructions.Executable;
+import com.js.interpreter.runtime.VariableContext;
+import com.js.interpreter.runtime.exception.RuntimePascalException;
+import com.js.interpreter.runtime.references.PascalPointer;
+import com.js.interpreter.runtime_value.FunctionCall;
+import com.js.interpreter.runtime_value.RuntimeValue;
+
+/**
+ * getMem(p, size) and getMem(size), allocate size bytes on the heap of the run
+ */
+public class GetMemFunction implements IMethodDeclaration {
+
+    private static final PointerType POINTER = new PointerType(BasicType.create(Object.class));
+
+    private ArgumentType[] argumentTypes;
+    private boolean returnsPointer;
+
+    /**
+     * @param returnsPointer - true for getMem(size) which returns the pointer, false for
+     *                       getMem(p, size) which sets the pointer
+     */
+    public GetMemFunction(boolean returnsPointer) {
+        this.returnsPointer = returnsPointer;
+        if (returnsPointer) {
+            argumentTypes = new ArgumentType[]{new RuntimeType(BasicType.Integer, false)};
+        } else {
+            argumentTypes = new ArgumentType[]{new RuntimeType(POINTER, true),
+                    new RuntimeType(BasicType.Integer, false)};
+        }
+    }
+
+    @Override
+    public String name() {
+        return "getmem";
+    }
+
+    @Override
+    public FunctionCall generateCall(LineInfo line, RuntimeValue[] arguments,
+                                     ExpressionContext f) throws ParsingException {
+        if (returnsPointer) {
+            return new GetMemCall(null, null, arguments[0], line);
+        }
+        RuntimeValue pointer = arguments[0];
+        RuntimeType type = pointer.getType(f);
+        DeclaredType pointedType = ((PointerType) ((PointerType) type.declType).pointedToType).pointedToType;
+        return new GetMemCall(pointer, pointedType, arguments[1], line);
+    }
+
+    @Override
+    public FunctionCall generatePerfectFitCall(LineInfo line, RuntimeValue[] values, ExpressionContext f) throws ParsingException {
+        return generateCall(line, values, f);
+    }
+
+    @Override
+    public ArgumentType[] argumentTypes() {
+        return argumentTypes;
+    }
+
+    @Override
+    public DeclaredType returnType() {
+        return returnsPointer ? POINTER : null;
+    }
+
+    @Override
+    public String description() {
+        return "Allocate new memory on the heap";
+    }
+
+    private class GetMemCall extends FunctionCall {
+
+        private RuntimeValue pointer;
+        private DeclaredType pointedType;
+        private RuntimeValue size;
+        private LineInfo line;
+
+        /**
+         * @param pointer - reference to the pointer which is set, null if the pointer is returned
+         */
+        GetMemCall(RuntimeValue pointer, DeclaredType pointedType, RuntimeValue size,
+                   LineInfo line) {
+            this.pointer = pointer;
+            this.pointedType = pointedType;
+            this.size = size;
+            this.line = line;
+        }
+
+        @Override
+        public RuntimeType getType(ExpressionContext f) throws ParsingException {
+            return pointer == null ? new RuntimeType(POINTER, false) : null;
+        }
+
+        @Override
+        public LineInfo getLineNumber() {
+            return line;
+        }
+
+        @Override
+        public Object compileTimeValue(CompileTimeContext context) {
+            return null;
+        }
+
+        @Override
+        public RuntimeValue compileTimeExpressionFold(CompileTimeContext context)
+                throws ParsingException {
+            return new GetMemCall(pointer, pointedType, size.compileTimeExpressionFold(context), line);
+        }
+
+        @Override
+        public Executable compileTimeConstantTransform(CompileTimeContext c)
+                throws ParsingException {
+            return new GetMemCall(pointer, pointedType, size.compileTimeExpressionFold(c), line);
+        }
+
+        @Override
+        protected String getFunctionName() {
+            return "getmem";
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Object getValueImpl(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+                throws RuntimePascalException {
+            long bytes = ((Number) size.getValue(f, main)).longValue();
+            if (pointer == null) {
+                return main.getHeap().allocate(line, new Object(), bytes);
+            }
+            PascalPointer reference = (PascalPointer) pointer.getValue(f, main);
+            reference.set(main.getHeap().allocate(line, NewFunction.initialValue(pointedType), bytes));
+            return null;
+        }
+    }
+}
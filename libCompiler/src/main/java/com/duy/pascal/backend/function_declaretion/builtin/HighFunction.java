@@ -31,6 +31,7 @@ import com.js.interpreter.instructions.Executable;
 import com.js.interpreter.runtime_value.FunctionCall;
 import com.js.interpreter.runtime_value.RuntimeValue;
 import com.js.interpreter.runtime.VariableContext;
+import com.js.interpreter.runtime.PascalArrays;
 import com.js.interpreter.codeunit.RuntimeExecutableCodeUnit;
 import com.js.interpreter.runtime.exception.RuntimePascalException;
 
@@ -122,8 +123,8 @@ public class HighFunction implements IMethodDeclaration {
             DeclaredType declType = type.declType;
             if (declType instanceof ArrayType) {
                 SubrangeType bounds = ((ArrayType) declType).getBounds();
-                Object[] value = (Object[]) this.value.getValue(f, main);
-                int size = value.length - 1;
+                Object value = this.value.getValue(f, main);
+                int size = PascalArrays.length(value) - 1;
                 return bounds.lower + size - 1;
             } else if (BasicType.Byte.equals(declType)) {
                 return Byte.MAX_VALUE;
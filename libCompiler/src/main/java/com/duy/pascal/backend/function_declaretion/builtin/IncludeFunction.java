@@ -0,0 +1,198 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.backend.function_declaretion.builtin;
+
+
+import com.duy.pascal.backend.exceptions.ParsingException;
+import com.duy.pascal.backend.exceptions.convert.UnConvertibleTypeException;
+import com.duy.pascal.backend.linenumber.LineInfo;
+import com.duy.pascal.backend.pascaltypes.ArgumentType;
+import com.duy.pascal.backend.pascaltypes.DeclaredType;
+import com.duy.pascal.backend.pascaltypes.RuntimeType;
+import com.duy.pascal.backend.pascaltypes.SetType;
+import com.js.interpreter.expressioncontext.CompileTimeContext;
+import com.js.interpreter.expressioncontext.ExpressionContext;
+import com.js.interpreter.instructions.Executable;
+import com.js.interpreter.runtime_value.AssignableValue;
+import com.js.interpreter.runtime_value.FunctionCall;
+import com.js.interpreter.runtime_value.RuntimeValue;
+import com.js.interpreter.runtime.VariableContext;
+import com.js.interpreter.runtime.PascalSets;
+import com.js.interpreter.codeunit.RuntimeExecutableCodeUnit;
+import com.js.interpreter.runtime.exception.RangeCheckException;
+import com.js.interpreter.runtime.exception.RuntimePascalException;
+
+import java.util.Iterator;
+
+/**
+ * include(s, e) adds the element to the set variable, the set is changed in place
+ */
+public class IncludeFunction implements IMethodDeclaration {
+
+    private ArgumentType[] argumentTypes = {new SetVariableArgument(), new OrdinalArgument()};
+
+    @Override
+    public String name() {
+        return "include";
+    }
+
+    @Override
+    public FunctionCall generateCall(LineInfo line, RuntimeValue[] arguments,
+                                     ExpressionContext f) throws ParsingException {
+        RuntimeValue set = arguments[0];
+        RuntimeValue element = arguments[1];
+        SetType<?> setType = (SetType<?>) set.getType(f).declType;
+        DeclaredType elementType = element.getType(f).declType;
+        if (!setType.acceptsElement(elementType)) {
+            throw new UnConvertibleTypeException(element, elementType,
+                    setType.getElementType(), true);
+        }
+        return new SetElementCall(set, element, line);
+    }
+
+    @Override
+    public FunctionCall generatePerfectFitCall(LineInfo line, RuntimeValue[] values, ExpressionContext f) throws ParsingException {
+        return generateCall(line, values, f);
+    }
+
+    @Override
+    public ArgumentType[] argumentTypes() {
+        return argumentTypes;
+    }
+
+    @Override
+    public DeclaredType returnType() {
+        return null;
+    }
+
+    @Override
+    public String description() {
+        return null;
+    }
+
+    protected void apply(long[] set, int ordinal, LineInfo line) throws RangeCheckException {
+        PascalSets.add(set, ordinal, line);
+    }
+
+    /**
+     * variable of any set type, passed without copy
+     */
+    private static class SetVariableArgument implements ArgumentType {
+        @Override
+        public RuntimeValue convertArgType(Iterator<RuntimeValue> args,
+                                           ExpressionContext f) throws ParsingException {
+            if (!args.hasNext()) {
+                return null;
+            }
+            RuntimeValue value = args.next();
+            if (value instanceof AssignableValue
+                    && value.getType(f).declType instanceof SetType) {
+                return value;
+            }
+            return null;
+        }
+
+        @Override
+        public RuntimeValue perfectFit(Iterator<RuntimeValue> args,
+                                       ExpressionContext e) throws ParsingException {
+            return convertArgType(args, e);
+        }
+
+        @Override
+        public Class getRuntimeClass() {
+            return long[].class;
+        }
+    }
+
+    /**
+     * value of any ordinal type, checked against the set in generateCall
+     */
+    private static class OrdinalArgument implements ArgumentType {
+        @Override
+        public RuntimeValue convertArgType(Iterator<RuntimeValue> args,
+                                           ExpressionContext f) throws ParsingException {
+            if (!args.hasNext()) {
+                return null;
+            }
+            RuntimeValue value = args.next();
+            return SetType.isOrdinal(value.getType(f).declType) ? value : null;
+        }
+
+        @Override
+        public RuntimeValue perfectFit(Iterator<RuntimeValue> args,
+                                       ExpressionContext e) throws ParsingException {
+            return convertArgType(args, e);
+        }
+
+        @Override
+        public Class getRuntimeClass() {
+            return Object.class;
+        }
+    }
+
+    private class SetElementCall extends FunctionCall {
+        RuntimeValue set;
+        RuntimeValue element;
+        LineInfo line;
+
+        SetElementCall(RuntimeValue set, RuntimeValue element, LineInfo line) {
+            this.set = set;
+            this.element = element;
+            this.line = line;
+        }
+
+        @Override
+        public RuntimeType getType(ExpressionContext f) throws ParsingException {
+            return null;
+        }
+
+        @Override
+        public LineInfo getLineNumber() {
+            return line;
+        }
+
+        @Override
+        public Object compileTimeValue(CompileTimeContext context) {
+            return null;
+        }
+
+        @Override
+        public RuntimeValue compileTimeExpressionFold(CompileTimeContext context)
+                throws ParsingException {
+            return new SetElementCall(set, element.compileTimeExpressionFold(context), line);
+        }
+
+        @Override
+        public Executable compileTimeConstantTransform(CompileTimeContext c)
+                throws ParsingException {
+            return new SetElementCall(set, element.compileTimeExpressionFold(c), line);
+        }
+
+        @Override
+        protected String getFunctionName() {
+            return name();
+        }
+
+        @Override
+        public Object getValueImpl(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+                throws RuntimePascalException {
+            int ordinal = PascalSets.ordinal(element.getValue(f, main));
+            apply((long[]) set.getValue(f, main), ordinal, line);
+            return null;
+        }
+    }
+}
@@ -18,12 +18,14 @@ package com.duy.pascal.backend.function_declaretion.builtin;
 
 
 import com.duy.pascal.backend.exceptions.ParsingException;
+import com.duy.pascal.backend.exceptions.convert.UnConvertibleTypeException;
 import com.duy.pascal.backend.linenumber.LineInfo;
 import com.duy.pascal.backend.pascaltypes.ArgumentType;
 import com.duy.pascal.backend.pascaltypes.ArrayType;
 import com.duy.pascal.backend.pascaltypes.BasicType;
 import com.duy.pascal.backend.pascaltypes.DeclaredType;
 import com.duy.pascal.backend.pascaltypes.RuntimeType;
+import com.duy.pascal.backend.pascaltypes.SetType;
 import com.duy.pascal.backend.pascaltypes.rangetype.SubrangeType;
 import com.js.interpreter.expressioncontext.CompileTimeContext;
 import com.js.interpreter.expressioncontext.ExpressionContext;
@@ -31,11 +33,11 @@ import com.js.interpreter.instructions.Executable;
 import com.js.interpreter.runtime_value.FunctionCall;
 import com.js.interpreter.runtime_value.RuntimeValue;
 import com.js.interpreter.runtime.VariableContext;
+import com.js.interpreter.runtime.PascalArrays;
 import com.js.interpreter.codeunit.RuntimeExecutableCodeUnit;
 import com.js.interpreter.runtime.exception.RuntimePascalException;
 import com.js.interpreter.runtime.exception.TypeMismatchException;
 
-import java.lang.reflect.Array;
 
 /**
  * length of one dimension array
@@ -55,6 +57,11 @@ public class LengthFunction implements IMethodDeclaration {
                                      ExpressionContext f) throws ParsingException {
         RuntimeValue array = arguments[0];
         RuntimeType type = array.getType(f);
+        if (type.declType instanceof SetType) {
+            //a set is stored in a long[], it must not be counted as an array
+            throw new UnConvertibleTypeException(array, type.declType, BasicType.StringBuilder,
+                    true);
+        }
         return new LengthCall(array, type.declType, line);
     }
 
@@ -127,9 +134,8 @@ public class LengthFunction implements IMethodDeclaration {
         public Object getValueImpl(VariableContext f, RuntimeExecutableCodeUnit<?> main)
                 throws RuntimePascalException {
             Object value = array.getValue(f, main);
-            if (value instanceof Object[]) {
-                Object[] arr = (Object[]) value;
-                return Array.getLength(arr);
+            if (value != null && value.getClass().isArray() && !(type instanceof SetType)) {
+                return PascalArrays.length(value);
             } else if (value instanceof StringBuilder) {
                 return ((StringBuilder) value).length();
             } else if (value instanceof String) {
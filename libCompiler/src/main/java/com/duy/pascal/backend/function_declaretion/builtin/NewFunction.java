@@ -23,7 +23,6 @@ import com.duy.pascal.backend.pascaltypes.ArgumentType;
 import com.duy.pascal.backend.pascaltypes.ArrayType;
 import com.duy.pascal.backend.pascaltypes.BasicType;
 import com.duy.pascal.backend.pascaltypes.DeclaredType;
-import com.duy.pascal.backend.pascaltypes.JavaClassBasedType;
 import com.duy.pascal.backend.pascaltypes.PointerType;
 import com.duy.pascal.backend.pascaltypes.RuntimeType;
 import com.js.interpreter.expressioncontext.CompileTimeContext;
@@ -31,7 +30,7 @@ import com.js.interpreter.expressioncontext.ExpressionContext;
 import com.js.interpreter.instructions.Executable;
 import com.js.interpreter.runtime_value.FunctionCall;
 import com.js.interpreter.runtime_value.RuntimeValue;
-import com.js.interpreter.runtime.ObjectBasedPointer;
+import com.js.interpreter.runtime.PascalHeap;
 import com.js.interpreter.runtime.references.PascalPointer;
 import com.js.interpreter.runtime.VariableContext;
 import com.js.interpreter.codeunit.RuntimeExecutableCodeUnit;
@@ -75,16 +74,45 @@ public class NewFunction implements IMethodDeclaration {
         return "Dynamically allocate memory for variable";
     }
 
+    /**
+     * @return value of the memory which is allocated for the type
+     */
+    static Object initialValue(DeclaredType type) {
+        if (type instanceof ArrayType) {
+            return new Object[]{};
+        } else if (BasicType.Byte.equals(type)) {
+            return (byte) 0;
+        } else if (BasicType.Short.equals(type)) {
+            return (short) 0;
+        } else if (BasicType.Integer.equals(type)) {
+            return 0;
+        } else if (BasicType.Long.equals(type)) {
+            return 0L;
+        } else if (BasicType.Double.equals(type)) {
+            return 0d;
+        } else if (BasicType.Character.equals(type)) {
+            return (char) 0;
+        } else if (BasicType.StringBuilder.equals(type)) {
+            return "";
+        } else {
+            return type.initialize();
+        }
+    }
+
     private class NewCall extends FunctionCall {
 
         private RuntimeValue value;
         private RuntimeType type;
+        private DeclaredType pointedType;
+        private long size;
         private LineInfo line;
 
         NewCall(RuntimeValue value, RuntimeType type, LineInfo line) {
             this.value = value;
             this.type = type;
             this.line = line;
+            this.pointedType = ((PointerType) ((PointerType) type.declType).pointedToType).pointedToType;
+            this.size = PascalHeap.sizeOf(pointedType);
         }
 
         @Override
@@ -125,28 +153,7 @@ public class NewFunction implements IMethodDeclaration {
         public Object getValueImpl(VariableContext f, RuntimeExecutableCodeUnit<?> main)
                 throws RuntimePascalException {
             PascalPointer pointer = (PascalPointer) this.value.getValue(f, main);
-            PointerType pointerType = (PointerType) ((PointerType) type.declType).pointedToType;
-            DeclaredType type = pointerType.pointedToType;
-            if (type instanceof ArrayType) {
-                pointer.set(new ObjectBasedPointer<>(new Object[]{}));
-            } else if (BasicType.Byte.equals(type)) {
-                pointer.set(new ObjectBasedPointer<>((byte) 0));
-            } else if (BasicType.Short.equals(type)) {
-                pointer.set(new ObjectBasedPointer<>((short) 0));
-            } else if (BasicType.Integer.equals(type)) {
-                pointer.set(new ObjectBasedPointer<>(0));
-            } else if (BasicType.Long.equals(type)) {
-                pointer.set(new ObjectBasedPointer<>(0L));
-            } else if (BasicType.Double.equals(type)) {
-                pointer.set(new ObjectBasedPointer<>(0d));
-            } else if (BasicType.Character.equals(type)) {
-                pointer.set(new ObjectBasedPointer<>((char) 0));
-            } else if (BasicType.StringBuilder.equals(type)) {
-                pointer.set(new ObjectBasedPointer<>(""));
-            } else if (type instanceof JavaClassBasedType) {
-                Object initialize = type.initialize();
-                pointer.set(new ObjectBasedPointer<>(initialize));
-            }
+            pointer.set(main.getHeap().allocate(line, initialValue(pointedType), size));
             return null;
         }
     }
@@ -33,6 +33,7 @@ import com.js.interpreter.instructions.FieldReference;
 import com.js.interpreter.runtime_value.FunctionCall;
 import com.js.interpreter.runtime_value.RuntimeValue;
 import com.js.interpreter.runtime.VariableContext;
+import com.js.interpreter.runtime.PascalArrays;
 import com.js.interpreter.codeunit.RuntimeExecutableCodeUnit;
 import com.js.interpreter.runtime.exception.RuntimePascalException;
 
@@ -137,7 +138,7 @@ public class NewInstanceParamsObject implements IMethodDeclaration {
             Class<?> clazz = javaType.getStorageClass();
             Constructor<?>[] constructors = clazz.getConstructors();
 
-            Object[] targetObjects = (Object[]) listArg.getValue(f, main);
+            Object[] targetObjects = PascalArrays.toObjectArray(listArg.getValue(f, main));
             Object[] convertedObjects = new Object[targetObjects.length];
             for (Constructor<?> constructor : constructors) {
                 Type[] parameterTypes = constructor.getGenericParameterTypes();
@@ -33,10 +33,10 @@ import com.js.interpreter.runtime_value.FunctionCall;
 import com.js.interpreter.runtime_value.RuntimeValue;
 import com.js.interpreter.runtime.references.PascalReference;
 import com.js.interpreter.runtime.VariableContext;
+import com.js.interpreter.runtime.PascalArrays;
 import com.js.interpreter.codeunit.RuntimeExecutableCodeUnit;
 import com.js.interpreter.runtime.exception.RuntimePascalException;
 
-import java.lang.reflect.Array;
 
 public class SetLengthFunction implements IMethodDeclaration {
 
@@ -137,20 +137,7 @@ public class SetLengthFunction implements IMethodDeclaration {
                 throws RuntimePascalException {
             int length = (int) size.getValue(f, main);
             PascalReference a = (PascalReference) array.getValue(f, main);
-            Object arr = a.get();
-            int oldlength = Array.getLength(arr);
-            Object newarr = Array.newInstance(elemtype.getTransferClass(), length);
-            if (oldlength > length) {
-                //noinspection SuspiciousSystemArraycopy
-                System.arraycopy(arr, 0, newarr, 0, length);
-            } else {
-                //noinspection SuspiciousSystemArraycopy
-                System.arraycopy(arr, 0, newarr, 0, oldlength);
-                for (int i = oldlength; i < length; i++) {
-                    Array.set(newarr, i, elemtype.initialize());
-                }
-            }
-            a.set(newarr);
+            a.set(PascalArrays.resize(a.get(), length, elemtype));
             return null;
         }
     }
@@ -17,7 +17,6 @@
 package com.duy.pascal.backend.function_declaretion.builtin;
 
 
-import android.util.Log;
 
 import com.duy.pascal.backend.exceptions.ParsingException;
 import com.duy.pascal.backend.linenumber.LineInfo;
@@ -48,13 +47,11 @@ public class SizeOfObjectFunction implements IMethodDeclaration {
     public FunctionCall generateCall(LineInfo line, RuntimeValue[] arguments,
                                      ExpressionContext f) throws ParsingException {
         RuntimeValue array = arguments[0];
-        Log.d(TAG, "generateCall: ");
         return new SizeOfObjectCall(array, line);
     }
 
     @Override
     public FunctionCall generatePerfectFitCall(LineInfo line, RuntimeValue[] values, ExpressionContext f) throws ParsingException {
-        Log.d(TAG, "generatePerfectFitCall: ");
         return generateCall(line, values, f);
     }
 
@@ -0,0 +1,25 @@
+/*
+ *  Copyright 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.backend.lib;
+
+/**
+ * Android context of the libraries which need it, it is passed to their constructor.
+ * Only created on android by {@link com.duy.pascal.backend.lib.android.AndroidLibraryManager},
+ * so the compiler can be loaded on a jvm without the android classes.
+ */
+public interface AndroidFacade {
+}
@@ -0,0 +1,177 @@
+/*
+ *  Copyright 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.backend.lib;
+
+import android.support.annotation.Nullable;
+
+import com.duy.pascal.backend.core.PascalCompiler;
+import com.duy.pascal.backend.core.ProgramHandler;
+import com.duy.pascal.backend.function_declaretion.MethodDescriptor;
+import com.duy.pascal.backend.lib.annotations.PascalMethod;
+import com.duy.pascal.backend.lib.io.InOutListener;
+import com.duy.pascal.frontend.activities.ExecHandler;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Hashtable;
+import java.util.Map;
+
+/**
+ * Constructors and functions of a library class. They are read by reflection the first time
+ * the library is used and shared by every program which is compiled later, so a compile
+ * only creates the library object and its declarations.
+ */
+class LibraryDescriptor {
+    private static final Map<Class<?>, LibraryDescriptor> DESCRIPTORS = new Hashtable<>();
+    /**
+     * android 4.3, {@code Build.VERSION_CODES.JELLY_BEAN_MR2}
+     */
+    private static final int JELLY_BEAN_MR2 = 18;
+
+    private final Class<?> library;
+    /**
+     * constructors taking an {@link InOutListener}, an {@link ExecHandler} and no argument,
+     * null if the class has not the constructor
+     */
+    private final Constructor<?> inOutConstructor;
+    private final Constructor<?> execConstructor;
+    private final Constructor<?> defaultConstructor;
+    /**
+     * constructor taking the {@link AndroidFacade}, only read on android
+     */
+    private volatile Constructor<?> androidConstructor;
+    private volatile boolean androidConstructorRead = false;
+    private final MethodDescriptor[] functions;
+
+    private LibraryDescriptor(Class<?> library) {
+        this.library = library;
+        inOutConstructor = findConstructor(library, InOutListener.class);
+        execConstructor = findConstructor(library, ExecHandler.class);
+        defaultConstructor = findConstructor(library);
+
+        ArrayList<MethodDescriptor> functions = new ArrayList<>();
+        boolean annotations = readAnnotations();
+        for (Method method : library.getDeclaredMethods()) {
+            if (annotations) {
+                PascalMethod annotation = method.getAnnotation(PascalMethod.class);
+                if (annotation != null) {
+                    functions.add(new MethodDescriptor(method, annotation.description()));
+                }
+            } else if (Modifier.isPublic(method.getModifiers())) {
+                functions.add(new MethodDescriptor(method, null));
+            }
+        }
+        this.functions = functions.toArray(new MethodDescriptor[functions.size()]);
+        if (library == SystemLib.class) {
+            checkSystemLibBindings(this.functions);
+        }
+    }
+
+    /**
+     * every method which {@link SystemLibInvoker} calls directly must be a function of the
+     * library, else the built-in would silently be called through reflection
+     */
+    private static void checkSystemLibBindings(MethodDescriptor[] functions) {
+        int bound = 0;
+        for (MethodDescriptor function : functions) {
+            if (function.getInvoker() instanceof SystemLibInvoker) {
+                bound++;
+            }
+        }
+        if (bound != SystemLibInvoker.boundCount()) {
+            throw new IllegalStateException("only " + bound + " of "
+                    + SystemLibInvoker.boundCount() + " bound methods are functions of SystemLib");
+        }
+    }
+
+    static LibraryDescriptor get(Class<?> library) {
+        LibraryDescriptor descriptor = DESCRIPTORS.get(library);
+        if (descriptor == null) {
+            //two threads may read the same class, both results are equal
+            descriptor = new LibraryDescriptor(library);
+            DESCRIPTORS.put(library, descriptor);
+        }
+        return descriptor;
+    }
+
+    /**
+     * annotations of methods can be read on the jvm and on android 4.3 or higher
+     */
+    static boolean readAnnotations() {
+        return !PascalCompiler.android
+                || AndroidLibraryUtils.getSdkVersion() >= JELLY_BEAN_MR2;
+    }
+
+    @Nullable
+    private static Constructor<?> findConstructor(Class<?> library, Class<?>... parameterTypes) {
+        try {
+            return library.getConstructor(parameterTypes);
+        } catch (NoSuchMethodException | SecurityException e) {
+            return null;
+        }
+    }
+
+    @Nullable
+    private static Object create(@Nullable Constructor<?> constructor, Object... args) {
+        if (constructor == null) {
+            return null;
+        }
+        try {
+            return constructor.newInstance(args);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    MethodDescriptor[] getFunctions() {
+        return functions;
+    }
+
+    /**
+     * @return the library created with the handler, null if the class has no constructor
+     * taking an {@link InOutListener} or an {@link ExecHandler}, or it fails
+     */
+    @Nullable
+    Object newInstance(@Nullable ProgramHandler handler) {
+        Object library = create(inOutConstructor, handler);
+        if (library == null) {
+            library = create(execConstructor, handler);
+        }
+        return library;
+    }
+
+    /**
+     * @return the library created with the facade, null if the class has no constructor
+     * taking the facade
+     */
+    @Nullable
+    Object newAndroidInstance(AndroidFacade facade) {
+        if (!androidConstructorRead) {
+            //the facade class is only known on android, two threads find the same constructor
+            androidConstructor = findConstructor(library, facade.getClass());
+            androidConstructorRead = true;
+        }
+        return create(androidConstructor, facade);
+    }
+
+    @Nullable
+    Object newDefaultInstance() {
+        return create(defaultConstructor);
+    }
+}
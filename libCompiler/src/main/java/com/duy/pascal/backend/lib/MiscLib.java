@@ -21,19 +21,20 @@ import com.duy.pascal.backend.lib.annotations.ArrayBoundsInfo;
 import com.duy.pascal.backend.lib.annotations.MethodTypeData;
 import com.duy.pascal.backend.lib.annotations.PascalMethod;
 import com.js.interpreter.expressioncontext.ExpressionContextMixin;
+import com.js.interpreter.runtime.PascalArrays;
 
 import java.util.Map;
 
 public class MiscLib implements PascalLibrary {
 
     @MethodTypeData(info = {@ArrayBoundsInfo(starts = {0}, lengths = {0})})
-    public long GetArrayLength(Object[] o) {
-        return o.length;
+    public long GetArrayLength(Object o) {
+        return PascalArrays.length(o);
     }
 
     @MethodTypeData(info = {@ArrayBoundsInfo(starts = {0}, lengths = {0})})
-    public int length(Object[] o) {
-        return o.length;
+    public int length(Object o) {
+        return PascalArrays.length(o);
     }
 
     @Override
@@ -16,14 +16,17 @@
 
 package com.duy.pascal.backend.lib;
 
-import android.os.Build;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 
 import com.duy.pascal.backend.function_declaretion.builtin.CastObjectFunction;
+import com.duy.pascal.backend.function_declaretion.builtin.DisposeFunction;
+import com.duy.pascal.backend.function_declaretion.builtin.ExcludeFunction;
 import com.duy.pascal.backend.function_declaretion.builtin.ExitFunction;
 import com.duy.pascal.backend.function_declaretion.builtin.ExitNoneFunction;
+import com.duy.pascal.backend.function_declaretion.builtin.GetMemFunction;
 import com.duy.pascal.backend.function_declaretion.builtin.HighFunction;
+import com.duy.pascal.backend.function_declaretion.builtin.IncludeFunction;
 import com.duy.pascal.backend.function_declaretion.builtin.LengthFunction;
 import com.duy.pascal.backend.function_declaretion.builtin.LowFunction;
 import com.duy.pascal.backend.function_declaretion.builtin.NewFunction;
@@ -34,42 +37,21 @@ import com.duy.pascal.backend.function_declaretion.builtin.SizeOfArrayFunction;
 import com.duy.pascal.backend.function_declaretion.builtin.SizeOfObjectFunction;
 import com.duy.pascal.backend.function_declaretion.builtin.AbstractMethodDeclaration;
 import com.duy.pascal.backend.lib.android.AndroidLibraryManager;
-import com.duy.pascal.backend.lib.android.barcode.ZXingAPI;
-import com.duy.pascal.backend.lib.android.connection.bluetooth.AndroidBluetoothLib;
-import com.duy.pascal.backend.lib.android.connection.socketio.SocketIOLib;
-import com.duy.pascal.backend.lib.android.connection.web.HtmlLib;
-import com.duy.pascal.backend.lib.android.connection.wifi.AndroidWifiLib;
-import com.duy.pascal.backend.lib.android.hardware.AndroidSensorLib;
-import com.duy.pascal.backend.lib.android.hardware.AndroidVibrateLib;
-import com.duy.pascal.backend.lib.android.media.AndroidMediaPlayerLib;
-import com.duy.pascal.backend.lib.android.media.AndroidToneGeneratorLib;
-import com.duy.pascal.backend.lib.android.temp.AndroidSettingLib;
-import com.duy.pascal.backend.lib.android.temp.AndroidUtilsLib;
-import com.duy.pascal.backend.lib.android.utils.AndroidBatteryLib;
-import com.duy.pascal.backend.lib.android.utils.AndroidClipboardLib;
-import com.duy.pascal.backend.lib.android.view.AndroidDialogLib;
-import com.duy.pascal.backend.lib.android.view.AndroidNotifyLib;
-import com.duy.pascal.backend.lib.android.voice.AndroidSpeechRecognitionLib;
-import com.duy.pascal.backend.lib.android.voice.AndroidTextToSpeechLib;
-import com.duy.pascal.backend.lib.annotations.PascalMethod;
 import com.duy.pascal.backend.lib.crt.CrtLib;
 import com.duy.pascal.backend.lib.file.FileLib;
 import com.duy.pascal.backend.lib.graph.GraphLib;
 import com.duy.pascal.backend.lib.io.IOLib;
-import com.duy.pascal.backend.lib.io.InOutListener;
 import com.duy.pascal.backend.lib.math.MathLib;
 import com.duy.pascal.backend.pascaltypes.JavaClassBasedType;
-import com.duy.pascal.frontend.activities.ExecHandler;
-import com.duy.pascal.frontend.activities.RunnableActivity;
+import com.duy.pascal.backend.core.PascalCompiler;
+import com.duy.pascal.backend.core.ProgramHandler;
 import com.duy.pascal.frontend.program_structure.viewholder.StructureType;
 import com.duy.pascal.frontend.view.editor_view.adapters.StructureItem;
 import com.duy.pascal.backend.function_declaretion.MethodDeclaration;
+import com.duy.pascal.backend.function_declaretion.MethodDescriptor;
 import com.js.interpreter.VariableDeclaration;
 import com.js.interpreter.expressioncontext.ExpressionContextMixin;
 
-import java.lang.reflect.Constructor;
-import java.lang.reflect.Method;
-import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.Hashtable;
 import java.util.Map;
@@ -88,58 +70,61 @@ public class PascalLibraryManager {
         MAP_LIBRARIES.put(StrUtilsLibrary.NAME, StrUtilsLibrary.class);
         MAP_LIBRARIES.put(SysUtilsLibrary.NAME, SysUtilsLibrary.class);
 
-        MAP_LIBRARIES.put(AndroidMediaPlayerLib.NAME, AndroidMediaPlayerLib.class);
-        MAP_LIBRARIES.put(AndroidUtilsLib.NAME, AndroidUtilsLib.class);
-        MAP_LIBRARIES.put(AndroidToneGeneratorLib.NAME, AndroidToneGeneratorLib.class);
-        MAP_LIBRARIES.put(AndroidWifiLib.NAME, AndroidWifiLib.class);
-        MAP_LIBRARIES.put(AndroidSettingLib.NAME, AndroidSettingLib.class);
-        MAP_LIBRARIES.put(AndroidBluetoothLib.NAME, AndroidBluetoothLib.class);
-
-        MAP_LIBRARIES.put(AndroidBatteryLib.NAME, AndroidBatteryLib.class);
-        MAP_LIBRARIES.put(AndroidTextToSpeechLib.NAME, AndroidTextToSpeechLib.class);
-        MAP_LIBRARIES.put(AndroidSensorLib.NAME, AndroidSensorLib.class);
-        MAP_LIBRARIES.put(AndroidClipboardLib.NAME, AndroidClipboardLib.class);
-        MAP_LIBRARIES.put(AndroidNotifyLib.NAME, AndroidNotifyLib.class);
-        MAP_LIBRARIES.put(AndroidVibrateLib.NAME, AndroidVibrateLib.class);
-        MAP_LIBRARIES.put(AndroidSpeechRecognitionLib.NAME, AndroidSpeechRecognitionLib.class);
-        MAP_LIBRARIES.put(ZXingAPI.NAME, ZXingAPI.class);
-        MAP_LIBRARIES.put(AndroidMediaPlayerLib.NAME, AndroidMediaPlayerLib.class);
-        MAP_LIBRARIES.put(HtmlLib.NAME, HtmlLib.class);
-
-        //socket library
-        MAP_LIBRARIES.put(SocketIOLib.NAME, SocketIOLib.class);
-
-        MAP_LIBRARIES.put(AndroidDialogLib.NAME, AndroidDialogLib.class);
+        //the android libraries are only loaded on android, their classes need the android sdk
+        if (PascalCompiler.android) {
+            AndroidLibraryManager.putLibraries(MAP_LIBRARIES);
+        }
     }
 
     @NonNull
     private ExpressionContextMixin program;
     @Nullable
-    private RunnableActivity handler;
-    private AndroidLibraryManager facadeManager;
+    private ProgramHandler handler;
+    /**
+     * null on a jvm without android
+     */
+    @Nullable
+    private AndroidFacade facade;
+    /**
+     * instances of the libraries of the program
+     */
+    private ArrayList<PascalLibrary> libraries = new ArrayList<>();
+    /**
+     * true if a library keeps the activity of the handler
+     */
+    private boolean usesAndroidLibrary = false;
 
     public PascalLibraryManager(@NonNull ExpressionContextMixin program,
-                                @Nullable RunnableActivity handler) {
+                                @Nullable ProgramHandler handler) {
         this.program = program;
         this.handler = handler;
-        facadeManager = new AndroidLibraryManager(AndroidLibraryUtils.getSdkVersion(), handler);
+        if (PascalCompiler.android) {
+            facade = AndroidLibraryManager.create(handler);
+        }
+    }
+
+    public ArrayList<PascalLibrary> getLibraries() {
+        return libraries;
+    }
+
+    /**
+     * @return true if a library was created with the activity of the handler, so the
+     * program can not run with another handler
+     */
+    public boolean usesAndroidLibrary() {
+        return usesAndroidLibrary;
     }
 
     public static ArrayList<StructureItem> getAllMethodDescription(Class<?>... classes) {
         ArrayList<StructureItem> suggestItems = new ArrayList<>();
+        boolean annotations = LibraryDescriptor.readAnnotations();
         for (Class<?> aClass : classes) {
-            Method[] methods = aClass.getDeclaredMethods();
-            for (Method method : methods) {
-                if (AndroidLibraryUtils.getSdkVersion() >= Build.VERSION_CODES.JELLY_BEAN_MR2) {
-                    if (method.isAnnotationPresent(PascalMethod.class)) {
-                        PascalMethod annotation = method.getAnnotation(PascalMethod.class);
-                        String description = annotation.description();
-                        suggestItems.add(new StructureItem(StructureType.TYPE_FUNCTION, method.getName(), description));
-                    }
+            for (MethodDescriptor function : LibraryDescriptor.get(aClass).getFunctions()) {
+                if (annotations) {
+                    suggestItems.add(new StructureItem(StructureType.TYPE_FUNCTION,
+                            function.getName(), function.getDescription()));
                 } else {
-                    if (Modifier.isPublic(method.getModifiers())) {
-                        suggestItems.add(new StructureItem(StructureType.TYPE_FUNCTION, method.getName()));
-                    }
+                    suggestItems.add(new StructureItem(StructureType.TYPE_FUNCTION, function.getName()));
                 }
             }
         }
@@ -165,54 +150,26 @@ public class PascalLibraryManager {
      */
 
     public void addMethodFromClass(Class<? extends PascalLibrary> t) {
-        Object parent = null;
-        Constructor constructor;
-        try {
-            constructor = t.getConstructor(InOutListener.class);
-            parent = constructor.newInstance(handler);
-        } catch (Exception ignored) {
-        }
-        if (parent == null) {
-            try {
-                constructor = t.getConstructor(ExecHandler.class);
-                parent = constructor.newInstance(handler);
-            } catch (Exception ignored) {
+        LibraryDescriptor descriptor = LibraryDescriptor.get(t);
+        Object parent = descriptor.newInstance(handler);
+        if (parent == null && facade != null) {
+            parent = descriptor.newAndroidInstance(facade);
+            if (parent != null) {
+                usesAndroidLibrary = true;
             }
         }
         if (parent == null) {
-            try {
-                constructor = t.getConstructor(AndroidLibraryManager.class);
-                parent = constructor.newInstance(facadeManager);
-            } catch (Exception ignored) {
-            }
-        }
-        if (parent == null) {
-            try {
-                constructor = t.getConstructor();
-                parent = constructor.newInstance();
-            } catch (Exception ignored) {
-            }
+            parent = descriptor.newDefaultInstance();
         }
 
         if (parent != null) {
+            libraries.add((PascalLibrary) parent);
             ((PascalLibrary) parent).declareConstants(program);
             ((PascalLibrary) parent).declareFunctions(program);
             ((PascalLibrary) parent).declareTypes(program);
             ((PascalLibrary) parent).declareVariables(program);
-            for (Method method : t.getDeclaredMethods()) {
-                if (AndroidLibraryUtils.getSdkVersion() >= Build.VERSION_CODES.JELLY_BEAN_MR2) {
-                    if (method.isAnnotationPresent(PascalMethod.class)) {
-                        PascalMethod annotation = method.getAnnotation(PascalMethod.class);
-                        String description = annotation.description();
-                        MethodDeclaration methodDeclaration = new MethodDeclaration(parent, method, description);
-                        program.declareFunction(methodDeclaration);
-                    }
-                } else {
-                    if (Modifier.isPublic(method.getModifiers())) {
-                        MethodDeclaration methodDeclaration = new MethodDeclaration(parent, method);
-                        program.declareFunction(methodDeclaration);
-                    }
-                }
+            for (MethodDescriptor function : descriptor.getFunctions()) {
+                program.declareFunction(new MethodDeclaration(parent, function));
             }
         }
 
@@ -224,6 +181,8 @@ public class PascalLibraryManager {
     public void loadSystemLibrary() {
         //load builtin function
         program.declareFunction(new AbstractMethodDeclaration(new SetLengthFunction()));
+        program.declareFunction(new AbstractMethodDeclaration(new IncludeFunction()));
+        program.declareFunction(new AbstractMethodDeclaration(new ExcludeFunction()));
         program.declareFunction(new AbstractMethodDeclaration(new LengthFunction()));
         program.declareFunction(new AbstractMethodDeclaration(new SizeOfObjectFunction()));
         program.declareFunction(new AbstractMethodDeclaration(new SizeOfArrayFunction()));
@@ -232,6 +191,10 @@ public class PascalLibraryManager {
         program.declareFunction(new AbstractMethodDeclaration(new HighFunction()));
         program.declareFunction(new AbstractMethodDeclaration(new LowFunction()));
         program.declareFunction(new AbstractMethodDeclaration(new NewFunction()));
+        program.declareFunction(new AbstractMethodDeclaration(new DisposeFunction("dispose")));
+        program.declareFunction(new AbstractMethodDeclaration(new DisposeFunction("freemem")));
+        program.declareFunction(new AbstractMethodDeclaration(new GetMemFunction(false)));
+        program.declareFunction(new AbstractMethodDeclaration(new GetMemFunction(true)));
 
         program.declareFunction(new AbstractMethodDeclaration(new CastObjectFunction()));
         program.declareFunction(new AbstractMethodDeclaration(new NewInstanceParamsObject()));
@@ -196,6 +196,10 @@ public class SysUtilsLibrary implements PascalLibrary {
         }
     }
 
+    @PascalMethod(description = "Get tick time in milliseconds.", returns = "long")
+    public long GetTickCount64() {
+        return System.nanoTime() / 1000000;
+    }
 
     //Convert null-TERMINATED string to all-uppercase
     @PascalMethod(description = "sys utis library", returns = "void")
@@ -21,8 +21,6 @@ import com.duy.pascal.backend.lib.annotations.PascalMethod;
 import com.duy.pascal.backend.lib.runtime_exceptions.InvalidFloatingPointOperation;
 import com.duy.pascal.backend.lib.runtime_exceptions.RangeCheckError;
 import com.js.interpreter.expressioncontext.ExpressionContextMixin;
-import com.js.interpreter.runtime.ObjectBasedPointer;
-import com.js.interpreter.runtime.references.PascalPointer;
 import com.js.interpreter.runtime.references.PascalReference;
 import com.js.interpreter.runtime.exception.RuntimePascalException;
 import com.js.interpreter.runtime.exception.ScriptTerminatedException;
@@ -385,7 +383,9 @@ public class SystemLib implements PascalLibrary {
 
     @PascalMethod(description = "Append one string to another")
     public StringBuilder concat(StringBuilder... agrs) {
-        StringBuilder stringBuilder = new StringBuilder();
+        int length = 0;
+        for (StringBuilder s1 : agrs) length += s1.length();
+        StringBuilder stringBuilder = new StringBuilder(length);
         for (StringBuilder s1 : agrs) stringBuilder.append(s1);
         return stringBuilder;
     }
@@ -424,40 +424,25 @@ public class SystemLib implements PascalLibrary {
     @PascalMethod(description = "Insert one string in another.")
     public void insert(String s, PascalReference<StringBuilder> s1, int pos)
             throws RuntimePascalException {
-        System.out.println("s = [" + s + "], s1 = [" + s1 + "], pos = [" + pos + "]");
-        s1.set(new StringBuilder(s1.get().insert(pos - 1, s)));
+        StringBuilder target = s1.get();
+        target.insert(pos - 1, s);
+        s1.set(target);
     }
 
     @PascalMethod(description = "Copy part of a string")
     public StringBuilder copy(String s, int from, int count) {
-        System.out.println("s = [" + s + "], from = [" + from + "], count = [" + count + "]");
-        if (from - 1 + count > s.length()) {
-            return new StringBuilder(s.substring(from - 1, s.length()));
-        }
-        return new StringBuilder(s.substring(from - 1, from - 1 + count));
+        int end = Math.min(s.length(), from - 1 + count);
+        StringBuilder result = new StringBuilder(Math.max(0, end - from + 1));
+        result.append(s, from - 1, end);
+        return result;
     }
 
     @PascalMethod(description = "Delete part of a string")
     public void delete(PascalReference<StringBuilder> s, int start, int count)
             throws RuntimePascalException {
-        System.out.println("s = [" + s + "], start = [" + start + "], count = [" + count + "]");
-        s.set(s.get().delete(start - 1, start + count - 1));
-    }
-
-    @PascalMethod(description = "Free dynamically allocated memory")
-    public void dispose(PascalPointer<?> pascalPointer) {
-        pascalPointer.set(null);
-    }
-
-    @PascalMethod(description = "Allocate new memory on the heap")
-    public void getMem(PascalPointer pascalPointer, long size) {
-
-    }
-
-    @PascalMethod(description = "Allocate new memory on the heap")
-    @SuppressWarnings("unchecked")
-    public PascalPointer getMem(long size) {
-        return new ObjectBasedPointer(new Object());
+        StringBuilder target = s.get();
+        target.delete(start - 1, start + count - 1);
+        s.set(target);
     }
 
 }
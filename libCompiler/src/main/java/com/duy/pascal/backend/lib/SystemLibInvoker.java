@@ -0,0 +1,233 @@
+/*
+ *  Copyright 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.backend.lib;
+
+import com.duy.pascal.backend.function_declaretion.MethodInvoker;
+import com.duy.pascal.backend.lib.annotations.PascalMethod;
+import com.js.interpreter.runtime.references.PascalReference;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Direct invoker of the most used methods of {@link SystemLib}, no reflection and no
+ * argument array.
+ */
+public class SystemLibInvoker extends MethodInvoker {
+    private static final int RANDOM = 0;
+    private static final int RANDOM_RANGE = 1;
+    private static final int INC = 2;
+    private static final int INC_BY = 3;
+    private static final int DEC = 4;
+    private static final int DEC_BY = 5;
+    private static final int ABS_INT = 6;
+    private static final int ABS_LONG = 7;
+    private static final int ABS_DOUBLE = 8;
+    private static final int SQR_INT = 9;
+    private static final int SQR_LONG = 10;
+    private static final int SQR_DOUBLE = 11;
+    private static final int SQRT = 12;
+    private static final int SIN = 13;
+    private static final int COS = 14;
+    private static final int ARCTAN = 15;
+    private static final int LN = 16;
+    private static final int EXP = 17;
+    private static final int TRUNC = 18;
+    private static final int ROUND = 19;
+    private static final int FRAC = 20;
+    private static final int ODD_INT = 21;
+    private static final int ODD_LONG = 22;
+    private static final int ORD = 23;
+    private static final int CHR = 24;
+    private static final int PRED = 25;
+    private static final int SUCC = 26;
+
+    /**
+     * the bound methods of {@link SystemLib}, looked up when the class is loaded, so a method
+     * which is renamed, changes its parameters or is no more a {@link PascalMethod} fails
+     * here instead of being called through reflection
+     */
+    private static final HashMap<Method, Integer> METHODS = new HashMap<>();
+
+    static {
+        bind(RANDOM, "random");
+        bind(RANDOM_RANGE, "random", long.class);
+        bind(INC, "inc", PascalReference.class);
+        bind(INC_BY, "inc", PascalReference.class, Object.class);
+        bind(DEC, "dec", PascalReference.class);
+        bind(DEC_BY, "dec", PascalReference.class, Object.class);
+        bind(ABS_INT, "abs", int.class);
+        bind(ABS_LONG, "abs", long.class);
+        bind(ABS_DOUBLE, "abs", double.class);
+        bind(SQR_INT, "sqr", int.class);
+        bind(SQR_LONG, "sqr", long.class);
+        bind(SQR_DOUBLE, "sqr", double.class);
+        bind(SQRT, "sqrt", double.class);
+        bind(SIN, "sin", double.class);
+        bind(COS, "cos", double.class);
+        bind(ARCTAN, "arctan", double.class);
+        bind(LN, "ln", double.class);
+        bind(EXP, "exp", double.class);
+        bind(TRUNC, "trunc", double.class);
+        bind(ROUND, "round", double.class);
+        bind(FRAC, "frac", double.class);
+        bind(ODD_INT, "odd", int.class);
+        bind(ODD_LONG, "odd", long.class);
+        bind(ORD, "ord", char.class);
+        bind(CHR, "chr", int.class);
+        bind(PRED, "pred", int.class);
+        bind(SUCC, "succ", int.class);
+    }
+
+    private final int id;
+
+    private SystemLibInvoker(int id) {
+        this.id = id;
+    }
+
+    private static void bind(int id, String name, Class<?>... parameterTypes) {
+        Method method;
+        try {
+            method = SystemLib.class.getDeclaredMethod(name, parameterTypes);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException("SystemLib has no method " + name
+                    + Arrays.toString(parameterTypes) + " to bind", e);
+        }
+        if (method.getAnnotation(PascalMethod.class) == null) {
+            throw new IllegalStateException(method + " is bound but is not a PascalMethod");
+        }
+        METHODS.put(method, id);
+    }
+
+    /**
+     * @return invoker of the method, or null if the method has no direct invoker
+     */
+    public static MethodInvoker get(Method method) {
+        Integer id = METHODS.get(method);
+        return id == null ? null : new SystemLibInvoker(id);
+    }
+
+    /**
+     * @return number of the methods which are called directly
+     */
+    static int boundCount() {
+        return METHODS.size();
+    }
+
+    @Override
+    public Object invoke(Object owner, Object[] arguments)
+            throws IllegalAccessException, InvocationTargetException {
+        switch (arguments.length) {
+            case 0:
+                if (id == RANDOM) {
+                    return ((SystemLib) owner).random();
+                }
+                break;
+            case 1:
+                return invoke1(owner, arguments[0]);
+            case 2:
+                return invoke2(owner, arguments[0], arguments[1]);
+        }
+        throw new IllegalArgumentException("wrong number of arguments");
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public Object invoke1(Object owner, Object arg)
+            throws IllegalAccessException, InvocationTargetException {
+        SystemLib lib = (SystemLib) owner;
+        try {
+            switch (id) {
+                case RANDOM_RANGE:
+                    return lib.random(((Number) arg).longValue());
+                case INC:
+                    lib.inc((PascalReference<Object>) arg);
+                    return null;
+                case DEC:
+                    lib.dec((PascalReference<Object>) arg);
+                    return null;
+                case ABS_INT:
+                    return lib.abs(((Number) arg).intValue());
+                case ABS_LONG:
+                    return lib.abs(((Number) arg).longValue());
+                case ABS_DOUBLE:
+                    return lib.abs(((Number) arg).doubleValue());
+                case SQR_INT:
+                    return lib.sqr(((Number) arg).intValue());
+                case SQR_LONG:
+                    return lib.sqr(((Number) arg).longValue());
+                case SQR_DOUBLE:
+                    return lib.sqr(((Number) arg).doubleValue());
+                case SQRT:
+                    return lib.sqrt(((Number) arg).doubleValue());
+                case SIN:
+                    return lib.sin(((Number) arg).doubleValue());
+                case COS:
+                    return lib.cos(((Number) arg).doubleValue());
+                case ARCTAN:
+                    return lib.arctan(((Number) arg).doubleValue());
+                case LN:
+                    return lib.ln(((Number) arg).doubleValue());
+                case EXP:
+                    return lib.exp(((Number) arg).doubleValue());
+                case TRUNC:
+                    return lib.trunc(((Number) arg).doubleValue());
+                case ROUND:
+                    return lib.round(((Number) arg).doubleValue());
+                case FRAC:
+                    return lib.frac(((Number) arg).doubleValue());
+                case ODD_INT:
+                    return lib.odd(((Number) arg).intValue());
+                case ODD_LONG:
+                    return lib.odd(((Number) arg).longValue());
+                case ORD:
+                    return lib.ord((Character) arg);
+                case CHR:
+                    return lib.chr(((Number) arg).intValue());
+                case PRED:
+                    return lib.pred(((Number) arg).intValue());
+                case SUCC:
+                    return lib.succ(((Number) arg).intValue());
+            }
+        } catch (Exception e) {
+            throw new InvocationTargetException(e);
+        }
+        throw new IllegalArgumentException("wrong number of arguments");
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public Object invoke2(Object owner, Object arg1, Object arg2)
+            throws IllegalAccessException, InvocationTargetException {
+        SystemLib lib = (SystemLib) owner;
+        try {
+            switch (id) {
+                case INC_BY:
+                    lib.inc((PascalReference<Object>) arg1, arg2);
+                    return null;
+                case DEC_BY:
+                    lib.dec((PascalReference<Object>) arg1, arg2);
+                    return null;
+            }
+        } catch (Exception e) {
+            throw new InvocationTargetException(e);
+        }
+        throw new IllegalArgumentException("wrong number of arguments");
+    }
+}
@@ -20,13 +20,34 @@ import android.app.Activity;
 import android.content.Context;
 import android.support.annotation.Nullable;
 
+import com.duy.pascal.backend.core.DelegatingProgramHandler;
+import com.duy.pascal.backend.core.ProgramHandler;
+import com.duy.pascal.backend.lib.AndroidFacade;
+import com.duy.pascal.backend.lib.AndroidLibraryUtils;
 import com.duy.pascal.backend.lib.PascalLibrary;
+import com.duy.pascal.backend.lib.android.barcode.ZXingAPI;
+import com.duy.pascal.backend.lib.android.connection.bluetooth.AndroidBluetoothLib;
+import com.duy.pascal.backend.lib.android.connection.socketio.SocketIOLib;
+import com.duy.pascal.backend.lib.android.connection.web.HtmlLib;
+import com.duy.pascal.backend.lib.android.connection.wifi.AndroidWifiLib;
+import com.duy.pascal.backend.lib.android.hardware.AndroidSensorLib;
+import com.duy.pascal.backend.lib.android.hardware.AndroidVibrateLib;
+import com.duy.pascal.backend.lib.android.media.AndroidMediaPlayerLib;
+import com.duy.pascal.backend.lib.android.media.AndroidToneGeneratorLib;
+import com.duy.pascal.backend.lib.android.temp.AndroidSettingLib;
 import com.duy.pascal.backend.lib.android.temp.AndroidUtilsLib;
+import com.duy.pascal.backend.lib.android.utils.AndroidBatteryLib;
+import com.duy.pascal.backend.lib.android.utils.AndroidClipboardLib;
+import com.duy.pascal.backend.lib.android.view.AndroidDialogLib;
+import com.duy.pascal.backend.lib.android.view.AndroidNotifyLib;
+import com.duy.pascal.backend.lib.android.voice.AndroidSpeechRecognitionLib;
+import com.duy.pascal.backend.lib.android.voice.AndroidTextToSpeechLib;
 import com.googlecode.sl4a.jsonrpc.RpcReceiverManager;
 
 import java.lang.reflect.Method;
+import java.util.Map;
 
-public class AndroidLibraryManager extends RpcReceiverManager {
+public class AndroidLibraryManager extends RpcReceiverManager implements AndroidFacade {
 
     private Context mContext;
     private int mSdkLevel;
@@ -38,6 +59,44 @@ public class AndroidLibraryManager extends RpcReceiverManager {
         }
     }
 
+    /**
+     * add the android libraries to the libraries which can be used by a program
+     */
+    public static void putLibraries(Map<String, Class<? extends PascalLibrary>> libraries) {
+        libraries.put(AndroidMediaPlayerLib.NAME, AndroidMediaPlayerLib.class);
+        libraries.put(AndroidUtilsLib.NAME, AndroidUtilsLib.class);
+        libraries.put(AndroidToneGeneratorLib.NAME, AndroidToneGeneratorLib.class);
+        libraries.put(AndroidWifiLib.NAME, AndroidWifiLib.class);
+        libraries.put(AndroidSettingLib.NAME, AndroidSettingLib.class);
+        libraries.put(AndroidBluetoothLib.NAME, AndroidBluetoothLib.class);
+
+        libraries.put(AndroidBatteryLib.NAME, AndroidBatteryLib.class);
+        libraries.put(AndroidTextToSpeechLib.NAME, AndroidTextToSpeechLib.class);
+        libraries.put(AndroidSensorLib.NAME, AndroidSensorLib.class);
+        libraries.put(AndroidClipboardLib.NAME, AndroidClipboardLib.class);
+        libraries.put(AndroidNotifyLib.NAME, AndroidNotifyLib.class);
+        libraries.put(AndroidVibrateLib.NAME, AndroidVibrateLib.class);
+        libraries.put(AndroidSpeechRecognitionLib.NAME, AndroidSpeechRecognitionLib.class);
+        libraries.put(ZXingAPI.NAME, ZXingAPI.class);
+        libraries.put(HtmlLib.NAME, HtmlLib.class);
+
+        //socket library
+        libraries.put(SocketIOLib.NAME, SocketIOLib.class);
+
+        libraries.put(AndroidDialogLib.NAME, AndroidDialogLib.class);
+    }
+
+    /**
+     * @return the facade with the activity of the handler, or without context if the
+     * program does not run in an activity
+     */
+    public static AndroidFacade create(@Nullable ProgramHandler handler) {
+        ProgramHandler activity = handler instanceof DelegatingProgramHandler
+                ? ((DelegatingProgramHandler) handler).getTarget() : handler;
+        return new AndroidLibraryManager(AndroidLibraryUtils.getSdkVersion(),
+                activity instanceof Activity ? (Activity) activity : null);
+    }
+
     public int getSdkLevel() {
         return mSdkLevel;
     }
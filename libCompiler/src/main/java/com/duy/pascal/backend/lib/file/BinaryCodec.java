@@ -0,0 +1,219 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.backend.lib.file;
+
+import com.duy.pascal.backend.lib.runtime_exceptions.CanNotReadVariableException;
+import com.js.interpreter.runtime.exception.RuntimePascalException;
+import com.js.interpreter.runtime.variables.CustomVariable;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Encoding of values in the records of binary files.
+ * <p>
+ * Every value has a fixed size, so the n-th record of a file is at n * size: integer is
+ * 4 bytes, longint and real 8, char 2, boolean 1, a string is its length in 2 bytes and
+ * {@link #STRING_LENGTH} chars, a set is its 256 bits. Arrays and records are their elements
+ * and fields in order.
+ */
+class BinaryCodec {
+    /**
+     * strings are stored with this number of chars, longer strings are cut
+     */
+    static final int STRING_LENGTH = 255;
+
+    /**
+     * @return size of the value in bytes
+     */
+    static int sizeOf(Object value) throws RuntimePascalException {
+        if (value instanceof Integer) {
+            return 4;
+        } else if (value instanceof Long || value instanceof Double) {
+            return 8;
+        } else if (value instanceof Character || value instanceof Short) {
+            return 2;
+        } else if (value instanceof Boolean || value instanceof Byte) {
+            return 1;
+        } else if (value instanceof CharSequence) {
+            return 2 + 2 * STRING_LENGTH;
+        } else if (value instanceof int[]) {
+            return 4 * ((int[]) value).length;
+        } else if (value instanceof long[]) {
+            return 8 * ((long[]) value).length;
+        } else if (value instanceof double[]) {
+            return 8 * ((double[]) value).length;
+        } else if (value instanceof char[]) {
+            return 2 * ((char[]) value).length;
+        } else if (value instanceof boolean[]) {
+            return ((boolean[]) value).length;
+        } else if (value instanceof Object[]) {
+            int size = 0;
+            for (Object element : (Object[]) value) {
+                size += sizeOf(element);
+            }
+            return size;
+        } else if (value instanceof CustomVariable) {
+            CustomVariable record = (CustomVariable) value;
+            int size = 0;
+            for (int i = 0; i < record.getLayout().size(); i++) {
+                size += sizeOf(getField(record, i));
+            }
+            return size;
+        }
+        throw new CanNotReadVariableException(value);
+    }
+
+    static void encode(Object value, ByteBuffer out) throws RuntimePascalException {
+        if (value instanceof Integer) {
+            out.putInt((Integer) value);
+        } else if (value instanceof Long) {
+            out.putLong((Long) value);
+        } else if (value instanceof Double) {
+            out.putDouble((Double) value);
+        } else if (value instanceof Character) {
+            out.putChar((Character) value);
+        } else if (value instanceof Short) {
+            out.putShort((Short) value);
+        } else if (value instanceof Boolean) {
+            out.put((byte) ((Boolean) value ? 1 : 0));
+        } else if (value instanceof Byte) {
+            out.put((Byte) value);
+        } else if (value instanceof CharSequence) {
+            CharSequence string = (CharSequence) value;
+            int length = Math.min(string.length(), STRING_LENGTH);
+            out.putShort((short) length);
+            for (int i = 0; i < length; i++) {
+                out.putChar(string.charAt(i));
+            }
+            for (int i = length; i < STRING_LENGTH; i++) {
+                out.putChar('\0');
+            }
+        } else if (value instanceof int[]) {
+            for (int element : (int[]) value) {
+                out.putInt(element);
+            }
+        } else if (value instanceof long[]) {
+            for (long element : (long[]) value) {
+                out.putLong(element);
+            }
+        } else if (value instanceof double[]) {
+            for (double element : (double[]) value) {
+                out.putDouble(element);
+            }
+        } else if (value instanceof char[]) {
+            for (char element : (char[]) value) {
+                out.putChar(element);
+            }
+        } else if (value instanceof boolean[]) {
+            for (boolean element : (boolean[]) value) {
+                out.put((byte) (element ? 1 : 0));
+            }
+        } else if (value instanceof Object[]) {
+            for (Object element : (Object[]) value) {
+                encode(element, out);
+            }
+        } else if (value instanceof CustomVariable) {
+            CustomVariable record = (CustomVariable) value;
+            for (int i = 0; i < record.getLayout().size(); i++) {
+                encode(getField(record, i), out);
+            }
+        } else {
+            throw new CanNotReadVariableException(value);
+        }
+    }
+
+    /**
+     * read a value of the same type as the given value
+     *
+     * @param value current value of the variable, arrays and records are read into it
+     * @return value which is read
+     */
+    static Object decode(Object value, ByteBuffer in) throws RuntimePascalException {
+        if (value instanceof Integer) {
+            return in.getInt();
+        } else if (value instanceof Long) {
+            return in.getLong();
+        } else if (value instanceof Double) {
+            return in.getDouble();
+        } else if (value instanceof Character) {
+            return in.getChar();
+        } else if (value instanceof Short) {
+            return in.getShort();
+        } else if (value instanceof Boolean) {
+            return in.get() != 0;
+        } else if (value instanceof Byte) {
+            return in.get();
+        } else if (value instanceof CharSequence) {
+            int length = Math.max(0, Math.min(in.getShort(), STRING_LENGTH));
+            StringBuilder string = new StringBuilder(length);
+            for (int i = 0; i < STRING_LENGTH; i++) {
+                char c = in.getChar();
+                if (i < length) {
+                    string.append(c);
+                }
+            }
+            return value instanceof String ? string.toString() : string;
+        } else if (value instanceof int[]) {
+            in.asIntBuffer().get((int[]) value);
+            in.position(in.position() + sizeOf(value));
+            return value;
+        } else if (value instanceof long[]) {
+            in.asLongBuffer().get((long[]) value);
+            in.position(in.position() + sizeOf(value));
+            return value;
+        } else if (value instanceof double[]) {
+            in.asDoubleBuffer().get((double[]) value);
+            in.position(in.position() + sizeOf(value));
+            return value;
+        } else if (value instanceof char[]) {
+            in.asCharBuffer().get((char[]) value);
+            in.position(in.position() + sizeOf(value));
+            return value;
+        } else if (value instanceof boolean[]) {
+            boolean[] array = (boolean[]) value;
+            for (int i = 0; i < array.length; i++) {
+                array[i] = in.get() != 0;
+            }
+            return value;
+        } else if (value instanceof Object[]) {
+            Object[] array = (Object[]) value;
+            for (int i = 0; i < array.length; i++) {
+                array[i] = decode(array[i], in);
+            }
+            return value;
+        } else if (value instanceof CustomVariable) {
+            CustomVariable record = (CustomVariable) value;
+            for (int i = 0; i < record.getLayout().size(); i++) {
+                record.setField(i, decode(getField(record, i), in));
+            }
+            return value;
+        }
+        throw new CanNotReadVariableException(value);
+    }
+
+    /**
+     * @return value of the field, fields which are not initialized yet get the default value
+     */
+    private static Object getField(CustomVariable record, int index) {
+        Object value = record.getField(index);
+        if (value == null) {
+            value = record.getLayout().getField(index).getType().initialize();
+            record.setField(index, value);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.backend.lib.file;
+
+import android.support.annotation.Nullable;
+
+import com.duy.pascal.backend.pascaltypes.DeclaredType;
+import com.duy.pascal.backend.pascaltypes.FileType;
+
+import java.io.File;
+
+/**
+ * value of a variable of {@link FileType}, a file which is read and written as records
+ */
+public class BinaryFile extends File {
+    /**
+     * type of the records, null for the untyped file
+     */
+    @Nullable
+    private DeclaredType elementType;
+
+    public BinaryFile(String path, @Nullable DeclaredType elementType) {
+        super(path);
+        this.elementType = elementType;
+    }
+
+    @Nullable
+    public DeclaredType getElementType() {
+        return elementType;
+    }
+}
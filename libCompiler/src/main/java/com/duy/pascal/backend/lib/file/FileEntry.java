@@ -16,40 +16,59 @@
 
 package com.duy.pascal.backend.lib.file;
 
-import android.os.Environment;
-
 import com.duy.pascal.backend.lib.file.exceptions.DiskReadErrorException;
 import com.duy.pascal.backend.lib.file.exceptions.FileNotOpenException;
+import com.duy.pascal.backend.lib.io.PascalTextReader;
+import com.duy.pascal.backend.lib.runtime_exceptions.CanNotReadVariableException;
+import com.duy.pascal.backend.pascaltypes.DeclaredType;
 import com.js.interpreter.runtime.exception.InvalidNumericFormatException;
+import com.js.interpreter.runtime.exception.RuntimePascalException;
+import com.js.interpreter.runtime.references.PascalReference;
 
 import java.io.BufferedWriter;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
-import java.io.FileReader;
-import java.io.FileWriter;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.RandomAccessFile;
-import java.util.InputMismatchException;
-import java.util.Locale;
-import java.util.Scanner;
-import java.util.regex.Pattern;
+import java.io.Writer;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
 
+/**
+ * Open file of a program.
+ * <p>
+ * A text file is read with a {@link PascalTextReader} from a file channel. A
+ * {@link BinaryFile} is read and written as records with a {@link RecordChannel}, a large one
+ * which is opened with reset is mapped while it is only read.
+ */
 class FileEntry {
     private static final String TAG = "FileEntry";
-    // A pattern for java whitespace
-    private static Pattern WHITESPACE_PATTERN = Pattern.compile(
-            "\\p{javaWhitespace}+");
+    private static final int BUFFER_SIZE = 64 * 1024;
+    /**
+     * record size of the untyped file if reset or rewrite has no record size
+     */
+    private static final int DEFAULT_RECORD_SIZE = 128;
+    private static final Charset CHARSET = Charset.forName("UTF-8");
+
     private String mFilePath = "";
-    private BufferedWriter mWriter;
-    private Scanner fileScanner;
-    private Scanner lineScanner;
+    private Writer mWriter;
+    private PascalTextReader reader;
+    private RecordChannel records;
     private boolean opened = false;
     private File file;
 
 
-    FileEntry(String mFilePath) {
-        this.mFilePath = Environment.getExternalStorageDirectory().getPath() + "/PascalCompiler/" + mFilePath;
-        this.file = new File(this.mFilePath);
+    FileEntry(File file) {
+        this.file = file;
+        this.mFilePath = file.getPath();
     }
 
     public String getFileName(String fileName) {
@@ -61,161 +80,263 @@ class FileEntry {
     }
 
     /**
-     * open file
+     * @return true if the file is read and written as records
+     */
+    public boolean isBinary() {
+        return file instanceof BinaryFile;
+    }
+
+    /**
+     * open file to read, a binary file can be written too
      *
+     * @param recordSize record size of the untyped file, 0 is the default size
      * @throws FileNotFoundException
      */
-    public synchronized void reset() throws FileNotFoundException {
-        fileScanner = new Scanner(new FileReader(mFilePath));
-
-        //uses dot symbol for floating number
-        fileScanner.useLocale(Locale.ENGLISH);
-
+    public synchronized void reset(int recordSize) throws IOException, RuntimePascalException {
+        close();
+        if (!file.exists()) {
+            throw new FileNotFoundException(mFilePath);
+        }
+        if (isBinary()) {
+            //the records are mapped until the file is written
+            openRecords(new RandomAccessFile(file, file.canWrite() ? "rw" : "r").getChannel(),
+                    recordSize, true);
+        } else {
+            //the decoder reads the channel in blocks, a mapping would only be copied again
+            InputStream in = Channels.newInputStream(new FileInputStream(file).getChannel());
+            reader = new PascalTextReader(new InputStreamReader(in, CHARSET));
+        }
         setOpened(true);
     }
 
-    public synchronized void append() throws IOException {
-        File f = new File(mFilePath);
-        if (!f.exists()) {
-            f.createNewFile();
+    public synchronized void append() throws IOException, RuntimePascalException {
+        close();
+        if (!file.exists()) {
+            createParent();
+            file.createNewFile();
+        }
+        if (isBinary()) {
+            openRecords(new RandomAccessFile(file, "rw").getChannel(), 0, false);
+            records.seek(records.fileSize());
+        } else {
+            mWriter = newWriter(new FileOutputStream(file, true).getChannel());
         }
-        mWriter = new BufferedWriter(new FileWriter(f));
+        setOpened(true);
     }
 
     /**
      * prepare file to writer
      * set file empty
      *
+     * @param recordSize record size of the untyped file, 0 is the default size
      * @throws IOException
      */
-    public synchronized void rewrite() throws IOException {
-        if (!file.exists()) {
-            file.getParentFile().mkdirs();
-            file.createNewFile();
+    public synchronized void rewrite(int recordSize) throws IOException, RuntimePascalException {
+        close();
+        createParent();
+        if (isBinary()) {
+            FileChannel channel = new RandomAccessFile(file, "rw").getChannel();
+            channel.truncate(0);
+            openRecords(channel, recordSize, false);
+        } else {
+            //the stream sets the file empty
+            mWriter = newWriter(new FileOutputStream(file).getChannel());
         }
-        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
-        randomAccessFile.setLength(0);
-        randomAccessFile.close();
-        mWriter = new BufferedWriter(new FileWriter(file));
         setOpened(true);
     }
 
-    public synchronized int readInteger() throws InvalidNumericFormatException, DiskReadErrorException {
-        checkEndOfLine();
-        int integer;
-        try {
-            integer = lineScanner.nextInt();
-        } catch (InputMismatchException e) {
-            throw new InvalidNumericFormatException("read file");
+    private void createParent() {
+        File parent = file.getParentFile();
+        if (parent != null && !parent.exists()) {
+            parent.mkdirs();
         }
-        return integer;
     }
 
-    /**
-     * Check whether the end of a line or not? If the end of the line,
-     * check if the end of the file or not?, if end of file then give an error,
-     * else re-create lineScanner
-     *
-     * @throws DiskReadErrorException - End of file
-     */
-    public synchronized void checkEndOfLine() throws DiskReadErrorException {
-        try {
-            if (lineScanner != null && lineScanner.hasNext()) {
-                return;
-            }
-        } catch (Exception e) {
-            //if lineScanner is closed or no data
+    private Writer newWriter(FileChannel channel) {
+        return new BufferedWriter(Channels.newWriter(channel, CHARSET.newEncoder(), BUFFER_SIZE),
+                BUFFER_SIZE);
+    }
+
+    private void openRecords(FileChannel channel, int recordSize, boolean map)
+            throws IOException, RuntimePascalException {
+        if (recordSize <= 0) {
+            DeclaredType elementType = ((BinaryFile) file).getElementType();
+            recordSize = elementType == null ? DEFAULT_RECORD_SIZE
+                    : BinaryCodec.sizeOf(elementType.initialize());
         }
-        assertNotEndOfFile();
-        closeLine();
-        String source = fileScanner.nextLine();
-        lineScanner = new Scanner(source);
-        lineScanner.useLocale(Locale.ENGLISH);
+        records = new RecordChannel(channel, recordSize, map);
     }
 
-    private void closeLine() {
+    public synchronized int readInteger() throws InvalidNumericFormatException, DiskReadErrorException {
         try {
-            if (lineScanner != null) {
-                lineScanner.close();
-            }
-        } catch (Exception ignored) {
+            return reader.readInt();
+        } catch (NumberFormatException e) {
+            throw new InvalidNumericFormatException("read file");
+        } catch (IOException e) {
+            throw new DiskReadErrorException(mFilePath);
         }
-
     }
 
     public synchronized long readLong() throws InvalidNumericFormatException,
             DiskReadErrorException {
-        checkEndOfLine();
-        long l;
         try {
-            l = lineScanner.nextLong();
-        } catch (InputMismatchException e) {
+            return reader.readLong();
+        } catch (NumberFormatException e) {
             throw new InvalidNumericFormatException("read file");
+        } catch (IOException e) {
+            throw new DiskReadErrorException(mFilePath);
         }
-        return l;
     }
 
     public synchronized double readDouble() throws InvalidNumericFormatException,
             DiskReadErrorException {
-        checkEndOfLine();
-        double d;
         try {
-            d = lineScanner.nextDouble();
-        } catch (InputMismatchException e) {
+            return reader.readDouble();
+        } catch (NumberFormatException e) {
             throw new InvalidNumericFormatException("read file");
+        } catch (IOException e) {
+            throw new DiskReadErrorException(mFilePath);
         }
-        return d;
     }
 
+    /**
+     * @return the rest of the current line
+     */
     public synchronized String readString() throws DiskReadErrorException {
-        checkEndOfLine();
-        return lineScanner.nextLine();
-    }
-
-    public char readChar() throws DiskReadErrorException, IOException {
-        checkEndOfLine();
-       /* int c = 0;
-        if (lineReader != null) {
-            c = lineReader.read();
-            char[] chars = new char[1];
-            lineReader.read(chars);
-            if (c != 0) {
-                return (char) c;
-            } else {
-                throw new DiskReadErrorException(mFilePath);
-            }
+        try {
+            return reader.readString();
+        } catch (IOException e) {
+            throw new DiskReadErrorException(mFilePath);
+        }
+    }
+
+    /**
+     * @return next char of the file, line ends included
+     * @throws DiskReadErrorException - End of file
+     */
+    public synchronized char readChar() throws DiskReadErrorException {
+        try {
+            return reader.readChar();
+        } catch (IOException e) {
+            throw new DiskReadErrorException(mFilePath);
         }
-        return 0;*/
-        return lineScanner.findInLine(".").charAt(0);
     }
 
     /**
-     * An error occurred when reading from disk. Typically happens when you try to
-     * read past the end of a file.
+     * read the next record of a binary file
      *
-     * @throws DiskReadErrorException
+     * @param value current value of the variable, it must be of the type of the records
+     * @return the record
      */
-    private void assertNotEndOfFile() throws DiskReadErrorException {
-        if (!fileScanner.hasNext()) {
+    public synchronized Object readRecord(Object value) throws RuntimePascalException {
+        assertRecordSize(value);
+        try {
+            return BinaryCodec.decode(value, records.read());
+        } catch (IOException | BufferUnderflowException e) {
+            throw new DiskReadErrorException(mFilePath);
+        }
+    }
+
+    /**
+     * write the value as the next record of a binary file
+     */
+    public synchronized void writeRecord(Object value) throws IOException, RuntimePascalException {
+        assertRecordSize(value);
+        BinaryCodec.encode(value, records.write());
+    }
+
+    private void assertRecordSize(Object value) throws RuntimePascalException {
+        if (BinaryCodec.sizeOf(value) != records.getRecordSize()) {
+            throw new CanNotReadVariableException(value);
+        }
+    }
+
+    /**
+     * read at most count records into the variable, the rest of the variable is not changed
+     *
+     * @return number of records which are read
+     */
+    public synchronized int blockRead(PascalReference<Object> buffer, int count)
+            throws IOException, RuntimePascalException {
+        Object value = buffer.get();
+        ByteBuffer bytes = encode(value);
+        count = Math.max(0, Math.min(count, bytes.capacity() / records.getRecordSize()));
+        bytes.clear();
+        int read = records.read(bytes, count);
+        bytes.clear();
+        buffer.set(BinaryCodec.decode(value, bytes));
+        return read;
+    }
+
+    /**
+     * write count records from the variable
+     *
+     * @return number of records which are written
+     */
+    public synchronized int blockWrite(Object value, int count)
+            throws IOException, RuntimePascalException {
+        ByteBuffer bytes = encode(value);
+        count = Math.max(0, Math.min(count, bytes.capacity() / records.getRecordSize()));
+        bytes.position(0);
+        bytes.limit(count * records.getRecordSize());
+        records.write(bytes);
+        return count;
+    }
+
+    private ByteBuffer encode(Object value) throws RuntimePascalException {
+        ByteBuffer bytes = ByteBuffer.allocate(BinaryCodec.sizeOf(value));
+        bytes.order(ByteOrder.LITTLE_ENDIAN);
+        BinaryCodec.encode(value, bytes);
+        return bytes;
+    }
+
+    public synchronized void seek(long record) throws RuntimePascalException {
+        if (record < 0) {
             throw new DiskReadErrorException(mFilePath);
         }
+        records.seek(record);
+    }
+
+    public synchronized long filePos() {
+        return records.filePos();
     }
 
-    public synchronized void writeString(Object[] objects) throws IOException {
+    public synchronized long fileSize() {
+        return records.fileSize();
+    }
+
+    public synchronized void truncate() throws IOException {
+        records.truncate();
+    }
+
+    public synchronized void writeString(Object[] objects) throws IOException,
+            RuntimePascalException {
+        if (isBinary()) {
+            for (Object o : objects) {
+                writeRecord(o);
+            }
+            return;
+        }
         for (Object o : objects) {
             mWriter.write(o.toString());
         }
     }
 
+    public synchronized void writeString(CharSequence text) throws IOException {
+        mWriter.append(text);
+    }
+
     /**
      * close file
      */
     public synchronized void close() throws IOException {
-        if (fileScanner != null) {
-            fileScanner.close();
-            if (lineScanner != null) {
-                lineScanner.close();
-            }
+        if (reader != null) {
+            reader.close();
+            reader = null;
+        }
+        if (records != null) {
+            records.close();
+            records = null;
         }
         try {
             if (mWriter != null) {
@@ -224,21 +345,36 @@ class FileEntry {
             }
         } catch (IOException ignored) {
         }
+        mWriter = null;
         setOpened(false);
     }
 
-    public boolean isEof() {
-        return !fileScanner.hasNext();
+    /**
+     * @return true if only whitespace is left in a text file or there is no next record in a
+     * binary file
+     */
+    public boolean isEof() throws DiskReadErrorException {
+        if (records != null) {
+            return records.isEof();
+        }
+        try {
+            return reader.isEndOfData();
+        } catch (IOException e) {
+            throw new DiskReadErrorException(mFilePath);
+        }
     }
 
-    public synchronized void nextLine() {
-        if (fileScanner.hasNext()) {
-            String line = fileScanner.nextLine();
-            if (lineScanner != null) {
-                lineScanner.close();
-            }
-            lineScanner = new Scanner(line);
-            lineScanner.useLocale(Locale.ENGLISH);
+    /**
+     * move to the start of next line
+     */
+    public synchronized void nextLine() throws DiskReadErrorException {
+        if (records != null) {
+            return;
+        }
+        try {
+            reader.skipLine();
+        } catch (IOException e) {
+            throw new DiskReadErrorException(mFilePath);
         }
     }
 
@@ -257,13 +393,13 @@ class FileEntry {
     }
 
     public boolean isEndOfLine() throws DiskReadErrorException {
+        if (records != null) {
+            return records.isEof();
+        }
         try {
-            if (lineScanner != null && lineScanner.hasNext()) {
-                return false;
-            }
-        } catch (Exception e) {
-            //if lineScanner is closed or no data
+            return reader.isEndOfLine();
+        } catch (IOException e) {
+            throw new DiskReadErrorException(mFilePath);
         }
-        return isEof();
     }
-}
\ No newline at end of file
+}
@@ -16,11 +16,13 @@
 
 package com.duy.pascal.backend.lib.file;
 
+import com.duy.pascal.backend.core.PascalCompiler;
 import com.duy.pascal.backend.lib.PascalLibrary;
 import com.duy.pascal.backend.lib.annotations.PascalMethod;
 import com.duy.pascal.backend.lib.file.exceptions.FileNotAssignException;
 import com.duy.pascal.backend.lib.file.exceptions.FileNotOpenException;
 import com.duy.pascal.backend.lib.file.exceptions.FileNotOpenForInputException;
+import com.duy.pascal.backend.lib.file.exceptions.NotBinaryFileException;
 import com.duy.pascal.backend.lib.runtime_exceptions.CanNotReadVariableException;
 import com.duy.pascal.frontend.file.ApplicationFileManager;
 import com.js.interpreter.expressioncontext.ExpressionContextMixin;
@@ -29,7 +31,6 @@ import com.js.interpreter.runtime.exception.RuntimePascalException;
 import com.js.interpreter.runtime.exception.WrongArgsException;
 
 import java.io.File;
-import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
@@ -50,11 +51,16 @@ public class FileLib implements PascalLibrary {
      */
     @PascalMethod(description = "library file", returns = "null")
     public void assign(PascalReference<File> fileVariable, String name) throws RuntimePascalException {
-        String path = ApplicationFileManager.getApplicationPath() + name;
-        fileVariable.set(new File(path));
+        //without android the name is relative to the working directory, like free pascal
+        String path = PascalCompiler.android
+                ? ApplicationFileManager.getApplicationPath() + name : name;
+        File old = fileVariable.get();
+        File file = old instanceof BinaryFile
+                ? new BinaryFile(path, ((BinaryFile) old).getElementType()) : new File(path);
+        fileVariable.set(file);
 
         //put to map
-        FileEntry fileEntry = new FileEntry(name);
+        FileEntry fileEntry = new FileEntry(file);
         filesMap.put(path, fileEntry);
     }
 
@@ -68,10 +74,20 @@ public class FileLib implements PascalLibrary {
      */
     @PascalMethod(description = "library file", returns = "null")
     public void reset(PascalReference<File> fileVariable) throws
-            FileNotFoundException, RuntimePascalException {
+            IOException, RuntimePascalException {
         assertFileAssigned(fileVariable);
         //throw file not found exception
-        filesMap.get(fileVariable.get().getPath()).reset();
+        filesMap.get(fileVariable.get().getPath()).reset(0);
+    }
+
+    /**
+     * open untyped file for read with the size of records
+     */
+    @PascalMethod(description = "library file", returns = "null")
+    public void reset(PascalReference<File> fileVariable, int recordSize) throws
+            IOException, RuntimePascalException {
+        assertBinaryFile(fileVariable.get());
+        filesMap.get(fileVariable.get().getPath()).reset(recordSize);
     }
 
     /**
@@ -106,7 +122,17 @@ public class FileLib implements PascalLibrary {
     public void rewrite(PascalReference<File> fileVariable) throws IOException, RuntimePascalException {
         assertFileAssigned(fileVariable);
 
-        filesMap.get(fileVariable.get().getPath()).rewrite();
+        filesMap.get(fileVariable.get().getPath()).rewrite(0);
+    }
+
+    /**
+     * open untyped file, clear file for write with the size of records
+     */
+    @PascalMethod(description = "library file", returns = "null")
+    public void rewrite(PascalReference<File> fileVariable, int recordSize)
+            throws IOException, RuntimePascalException {
+        assertBinaryFile(fileVariable.get());
+        filesMap.get(fileVariable.get().getPath()).rewrite(recordSize);
     }
 
 
@@ -193,8 +219,91 @@ public class FileLib implements PascalLibrary {
         assertFileOpenForInput(fileVariable);
     }
 
-    private void blockRead(PascalReference<File> fileVariable) throws RuntimePascalException {
-        assertFileOpenForInput(fileVariable);
+    /**
+     * Typed or untyped file expected.
+     * Seek, FilePos, FileSize, Truncate, BlockRead and BlockWrite use the records of the file.
+     */
+    private void assertBinaryFile(File fileVariable) throws RuntimePascalException {
+        assertFileAssigned(fileVariable);
+        if (!(fileVariable instanceof BinaryFile)) {
+            throw new NotBinaryFileException(fileVariable.getPath());
+        }
+    }
+
+    private FileEntry getOpenedBinaryFile(PascalReference<File> fileVariable)
+            throws RuntimePascalException {
+        assertBinaryFile(fileVariable.get());
+        assertFileOpened(fileVariable);
+        return filesMap.get(fileVariable.get().getPath());
+    }
+
+    /**
+     * move to the record, the first record is 0
+     */
+    @PascalMethod(description = "Set file position", returns = "null")
+    public void seek(PascalReference<File> fileVariable, long record) throws RuntimePascalException {
+        getOpenedBinaryFile(fileVariable).seek(record);
+    }
+
+    @PascalMethod(description = "Get position in file")
+    public long filePos(PascalReference<File> fileVariable) throws RuntimePascalException {
+        return getOpenedBinaryFile(fileVariable).filePos();
+    }
+
+    @PascalMethod(description = "Size of file in records")
+    public long fileSize(PascalReference<File> fileVariable) throws RuntimePascalException {
+        return getOpenedBinaryFile(fileVariable).fileSize();
+    }
+
+    /**
+     * remove the records from the current position to the end of the file
+     */
+    @PascalMethod(description = "Truncate the file at position", returns = "null")
+    public void truncate(PascalReference<File> fileVariable) throws IOException,
+            RuntimePascalException {
+        getOpenedBinaryFile(fileVariable).truncate();
+    }
+
+    /**
+     * read count records into the buffer
+     */
+    @PascalMethod(description = "Read data from an untyped file into memory", returns = "null")
+    public void blockRead(PascalReference<File> fileVariable, PascalReference<Object> buffer,
+                          int count) throws IOException, RuntimePascalException {
+        getOpenedBinaryFile(fileVariable).blockRead(buffer, count);
+    }
+
+    /**
+     * read count records into the buffer
+     *
+     * @param result number of records which are read
+     */
+    @PascalMethod(description = "Read data from an untyped file into memory", returns = "null")
+    public void blockRead(PascalReference<File> fileVariable, PascalReference<Object> buffer,
+                          int count, PascalReference<Integer> result)
+            throws IOException, RuntimePascalException {
+        result.set(getOpenedBinaryFile(fileVariable).blockRead(buffer, count));
+    }
+
+    /**
+     * write count records from the buffer
+     */
+    @PascalMethod(description = "Write data from memory to an untyped file", returns = "null")
+    public void blockWrite(PascalReference<File> fileVariable, Object buffer, int count)
+            throws IOException, RuntimePascalException {
+        getOpenedBinaryFile(fileVariable).blockWrite(buffer, count);
+    }
+
+    /**
+     * write count records from the buffer
+     *
+     * @param result number of records which are written
+     */
+    @PascalMethod(description = "Write data from memory to an untyped file", returns = "null")
+    public void blockWrite(PascalReference<File> fileVariable, Object buffer, int count,
+                           PascalReference<Integer> result)
+            throws IOException, RuntimePascalException {
+        result.set(getOpenedBinaryFile(fileVariable).blockWrite(buffer, count));
     }
 
     @PascalMethod(description = "library file", returns = "null")
@@ -209,6 +318,12 @@ public class FileLib implements PascalLibrary {
             throws RuntimePascalException, IOException {
         assertFileOpenForInput(fileVariable);
         FileEntry file = filesMap.get(fileVariable.getPath());
+        if (file.isBinary()) {
+            for (PascalReference out : listVariable) {
+                out.set(file.readRecord(out.get()));
+            }
+            return;
+        }
         for (PascalReference out : listVariable) {
             if (out.get() instanceof Character) {
                 char value = file.readChar();
@@ -302,10 +417,7 @@ public class FileLib implements PascalLibrary {
     public void readln(File fileVariable, PascalReference<Object> out)
             throws IOException, RuntimePascalException, WrongArgsException {
         setValueForVariables(fileVariable, out);
-        if (!(out.get() instanceof StringBuilder)
-                && !(out.get() instanceof String)) {
-            filesMap.get(fileVariable.getPath()).nextLine();
-        }
+        filesMap.get(fileVariable.getPath()).nextLine();
     }
 
     /**
@@ -315,10 +427,7 @@ public class FileLib implements PascalLibrary {
     public void readln(File fileVariable, PascalReference<Object> o1, PascalReference<Object> o2)
             throws IOException, RuntimePascalException, WrongArgsException {
         setValueForVariables(fileVariable, o1, o2);
-        if (!(o2.get() instanceof StringBuilder)
-                && !(o2.get() instanceof String)) {
-            filesMap.get(fileVariable.getPath()).nextLine();
-        }
+        filesMap.get(fileVariable.getPath()).nextLine();
     }
 
     /**
@@ -329,10 +438,7 @@ public class FileLib implements PascalLibrary {
                        PascalReference<Object> o3)
             throws IOException, RuntimePascalException, WrongArgsException {
         setValueForVariables(fileVariable, o1, o2, o3);
-        if (!(o3.get() instanceof StringBuilder)
-                && !(o3.get() instanceof String)) {
-            filesMap.get(fileVariable.getPath()).nextLine();
-        }
+        filesMap.get(fileVariable.getPath()).nextLine();
     }
 
     /**
@@ -343,10 +449,7 @@ public class FileLib implements PascalLibrary {
                        PascalReference<Object> o3, PascalReference<Object> o4)
             throws IOException, RuntimePascalException, WrongArgsException {
         setValueForVariables(fileVariable, o1, o2, o3, o4);
-        if (!(o4.get() instanceof StringBuilder)
-                && !(o4.get() instanceof String)) {
-            filesMap.get(fileVariable.getPath()).nextLine();
-        }
+        filesMap.get(fileVariable.getPath()).nextLine();
     }
 
     /**
@@ -357,10 +460,7 @@ public class FileLib implements PascalLibrary {
                        PascalReference<Object> o3, PascalReference<Object> o4, PascalReference<Object> o5)
             throws IOException, RuntimePascalException, WrongArgsException {
         setValueForVariables(fileVariable, o1, o2, o3, o4, o5);
-        if (!(o5.get() instanceof StringBuilder)
-                && !(o5.get() instanceof String)) {
-            filesMap.get(fileVariable.getPath()).nextLine();
-        }
+        filesMap.get(fileVariable.getPath()).nextLine();
     }
 
     /**
@@ -372,10 +472,7 @@ public class FileLib implements PascalLibrary {
                        PascalReference<Object> o6)
             throws IOException, RuntimePascalException, WrongArgsException {
         setValueForVariables(fileVariable, o1, o2, o3, o4, o5, o6);
-        if (!(o6.get() instanceof StringBuilder)
-                && !(o6.get() instanceof String)) {
-            filesMap.get(fileVariable.getPath()).nextLine();
-        }
+        filesMap.get(fileVariable.getPath()).nextLine();
     }
 
     /**
@@ -406,6 +503,23 @@ public class FileLib implements PascalLibrary {
         file.writeString(objects);
     }
 
+    /**
+     * write values of {@link com.js.interpreter.runtime_value.WriteCall} as records
+     * of a binary file
+     */
+    public void writeRecords(File fileVariable, Object[] values) throws IOException,
+            RuntimePascalException {
+        writeFile(fileVariable, values);
+    }
+
+    /**
+     * write text which is formatted by {@link com.js.interpreter.runtime_value.WriteCall}
+     */
+    public void writeText(File fileVariable, CharSequence text) throws IOException, RuntimePascalException {
+        assertFileOpened(fileVariable);
+        filesMap.get(fileVariable.getPath()).writeString(text);
+    }
+
     @PascalMethod(description = "library file", returns = "null")
     public void write(File file) throws IOException, RuntimePascalException {
     }
@@ -534,14 +648,14 @@ public class FileLib implements PascalLibrary {
     @Override
     @PascalMethod(description = "stop")
     public void shutdown() {
-        for (Map.Entry<String, FileEntry> entry : filesMap.entrySet()) {
+        for (FileEntry entry : filesMap.values()) {
             try {
-                filesMap.get(entry.getKey()).close();
+                entry.close();
             } catch (IOException e) {
                 e.printStackTrace();
             }
-            filesMap.remove(entry.getKey());
         }
+        filesMap.clear();
     }
 
     @Override
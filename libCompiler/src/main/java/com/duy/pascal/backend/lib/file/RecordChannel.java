@@ -0,0 +1,258 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.backend.lib.file;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Records of a binary file with a fixed size.
+ * <p>
+ * One page of the file is kept in a byte buffer, records are read from and written to the
+ * page, the page is only read or written when a record out of it is used. Seek only moves
+ * the position, so every record is found in O(1).
+ * <p>
+ * A file of at least {@link #MAP_THRESHOLD} bytes which is opened with reset is memory mapped
+ * and the records are read from the mapping without a copy. A typed file opened with reset
+ * may be written too, so the mapping is dropped on the first write and the records are paged
+ * from then on.
+ */
+class RecordChannel {
+    private static final int PAGE_SIZE = 64 * 1024;
+    static final long MAP_THRESHOLD = 1024 * 1024;
+
+    private FileChannel channel;
+    private int recordSize;
+    private ByteBuffer page;
+    /**
+     * the whole file if it is read only so far, else null
+     */
+    private MappedByteBuffer mapped;
+    /**
+     * position of the page in the file
+     */
+    private long pageStart = 0;
+    /**
+     * number of bytes in the page which are read from the file or written
+     */
+    private int pageLength = 0;
+    private boolean dirty = false;
+    /**
+     * position of the next record in bytes
+     */
+    private long position = 0;
+    /**
+     * size of the file in bytes, the page is not written yet
+     */
+    private long fileSize;
+
+    /**
+     * @param map - map the file if it is large enough, the file is opened to be read
+     */
+    RecordChannel(FileChannel channel, int recordSize, boolean map) throws IOException {
+        this.channel = channel;
+        this.recordSize = recordSize;
+        this.page = ByteBuffer.allocate(Math.max(1, PAGE_SIZE / recordSize) * recordSize);
+        this.page.order(ByteOrder.LITTLE_ENDIAN);
+        this.fileSize = channel.size();
+        if (map && fileSize >= MAP_THRESHOLD && fileSize <= Integer.MAX_VALUE) {
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+            mapped.order(ByteOrder.LITTLE_ENDIAN);
+        }
+    }
+
+    boolean isMapped() {
+        return mapped != null;
+    }
+
+    int getRecordSize() {
+        return recordSize;
+    }
+
+    /**
+     * @return buffer at the next record, the record must be read from it
+     * @throws EOFException if there is no next record
+     */
+    ByteBuffer read() throws IOException {
+        if (mapped != null) {
+            if (position + recordSize > mapped.limit()) {
+                throw new EOFException();
+            }
+            mapped.position((int) position);
+            position += recordSize;
+            return mapped;
+        }
+        if (position < pageStart || position + recordSize > pageStart + pageLength) {
+            load(position);
+            if (pageLength < recordSize) {
+                throw new EOFException();
+            }
+        }
+        page.position((int) (position - pageStart));
+        position += recordSize;
+        return page;
+    }
+
+    /**
+     * @return buffer at the next record, the record must be written to it
+     */
+    ByteBuffer write() throws IOException {
+        unmap();
+        if (position < pageStart || position > pageStart + pageLength
+                || position + recordSize > pageStart + page.capacity()) {
+            flush();
+            pageStart = position;
+            pageLength = 0;
+        }
+        int offset = (int) (position - pageStart);
+        page.position(offset);
+        pageLength = Math.max(pageLength, offset + recordSize);
+        dirty = true;
+        position += recordSize;
+        return page;
+    }
+
+    /**
+     * read records into the buffer directly from the file
+     *
+     * @return number of records which are read
+     */
+    int read(ByteBuffer destination, int count) throws IOException {
+        flush();
+        destination.limit(destination.position() + count * recordSize);
+        if (mapped != null) {
+            ByteBuffer source = mapped.duplicate();
+            source.position((int) Math.min(position, source.limit()));
+            source.limit((int) Math.min(source.limit(),
+                    source.position() + destination.remaining()));
+            int read = source.remaining();
+            destination.put(source);
+            position += read - read % recordSize;
+            return read / recordSize;
+        }
+        int read = 0;
+        while (destination.hasRemaining()) {
+            int n = channel.read(destination, position + read);
+            if (n < 0) {
+                break;
+            }
+            read += n;
+        }
+        position += read - read % recordSize;
+        return read / recordSize;
+    }
+
+    /**
+     * write the records of the buffer directly to the file
+     */
+    void write(ByteBuffer source) throws IOException {
+        unmap();
+        flush();
+        while (source.hasRemaining()) {
+            position += channel.write(source, position);
+        }
+        fileSize = Math.max(fileSize, position);
+        //the page may contain the old records
+        pageLength = 0;
+    }
+
+    /**
+     * read the records from the file from now on, the page is empty
+     */
+    private void unmap() {
+        //the mapping is released when it is garbage collected
+        mapped = null;
+    }
+
+    private void load(long start) throws IOException {
+        flush();
+        page.clear();
+        while (page.hasRemaining()) {
+            if (channel.read(page, start + page.position()) < 0) {
+                break;
+            }
+        }
+        pageStart = start;
+        pageLength = page.position();
+        page.clear();
+    }
+
+    void flush() throws IOException {
+        if (dirty) {
+            page.position(0);
+            page.limit(pageLength);
+            long start = pageStart;
+            while (page.hasRemaining()) {
+                start += channel.write(page, start);
+            }
+            page.clear();
+            fileSize = Math.max(fileSize, pageStart + pageLength);
+            dirty = false;
+        }
+    }
+
+    void seek(long record) {
+        position = record * recordSize;
+    }
+
+    /**
+     * @return number of the next record
+     */
+    long filePos() {
+        return position / recordSize;
+    }
+
+    /**
+     * @return number of records in the file
+     */
+    long fileSize() {
+        return Math.max(fileSize, pageStart + pageLength) / recordSize;
+    }
+
+    boolean isEof() {
+        return position + recordSize > Math.max(fileSize, pageStart + pageLength);
+    }
+
+    /**
+     * remove the records from the position to the end of the file
+     */
+    void truncate() throws IOException {
+        unmap();
+        flush();
+        channel.truncate(position);
+        fileSize = position;
+        if (pageStart > position) {
+            pageStart = position;
+            pageLength = 0;
+        } else if (pageStart + pageLength > position) {
+            pageLength = (int) (position - pageStart);
+        }
+    }
+
+    void close() throws IOException {
+        unmap();
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+}
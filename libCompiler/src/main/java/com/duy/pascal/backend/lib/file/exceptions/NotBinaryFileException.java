@@ -0,0 +1,16 @@
+package com.duy.pascal.backend.lib.file.exceptions;
+
+/**
+ * Reported by Seek, FilePos, FileSize, Truncate, BlockRead and BlockWrite
+ * if the file is a text file.
+ */
+public class NotBinaryFileException extends FileException {
+    public NotBinaryFileException(String filePath) {
+        super(filePath);
+    }
+
+    @Override
+    public String getMessage() {
+        return "Typed or untyped file expected: " + filePath;
+    }
+}
@@ -16,9 +16,9 @@
 
 package com.duy.pascal.backend.lib.io;
 
-import android.util.Log;
-
+import com.duy.pascal.backend.core.DelegatingProgramHandler;
 import com.duy.pascal.backend.core.PascalCompiler;
+import com.duy.pascal.backend.core.ProgramHandler;
 import com.duy.pascal.backend.exceptions.io.InputStreamNotFoundException;
 import com.duy.pascal.backend.lib.PascalLibrary;
 import com.duy.pascal.backend.lib.annotations.PascalMethod;
@@ -29,18 +29,29 @@ import com.js.interpreter.codeunit.RuntimeExecutableCodeUnit;
 import com.js.interpreter.runtime.exception.InvalidNumericFormatException;
 import com.js.interpreter.runtime.exception.RuntimePascalException;
 
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.PrintStream;
-import java.util.InputMismatchException;
-import java.util.Locale;
+import java.io.Reader;
 import java.util.Map;
-import java.util.Scanner;
 
 public class IOLib implements PascalLibrary {
 
     public static final String TAG = IOLib.class.getSimpleName();
 
     private PrintStream stdout;
-    private Scanner stdin;
+    private PascalTextReader stdin;
+    /**
+     * true if {@link #stdin} reads the console
+     */
+    private boolean consoleInput = false;
+    /**
+     * false until the streams of the run are read from the handler, the handler of a cached
+     * program is a {@link DelegatingProgramHandler} which gets a new target for each run
+     */
+    private boolean streamsBound = true;
     private InOutListener listener;
     private RuntimeExecutableCodeUnit.ControlMode state = RuntimeExecutableCodeUnit.ControlMode.PAUSED;
 
@@ -50,7 +61,7 @@ public class IOLib implements PascalLibrary {
     public IOLib() {
         if (!PascalCompiler.android) {
             this.stdout = System.out;
-            this.stdin = new Scanner(System.in);
+            this.stdin = new PascalTextReader(new InputStreamReader(System.in));
         }
     }
 
@@ -60,9 +71,14 @@ public class IOLib implements PascalLibrary {
      */
     public IOLib(InOutListener listener) {
         this.listener = listener;
-        if (!PascalCompiler.android) {
+        if (listener instanceof DelegatingProgramHandler) {
+            streamsBound = false;
+        } else if (listener instanceof StreamInOutListener) {
+            this.stdout = ((StreamInOutListener) listener).getOutput();
+            this.stdin = ((StreamInOutListener) listener).getReader();
+        } else if (!PascalCompiler.android) {
             this.stdout = System.out;
-            this.stdin = new Scanner(System.in);
+            this.stdin = new PascalTextReader(new InputStreamReader(System.in));
         }
     }
 
@@ -70,20 +86,50 @@ public class IOLib implements PascalLibrary {
     public boolean instantiate(Map<String, Object> arguments) {
         if (!PascalCompiler.android) {
             this.stdout = (PrintStream) arguments.get("stdout");
-            this.stdin = (Scanner) arguments.get("stdin");
+            InputStream in = (InputStream) arguments.get("stdin");
+            this.stdin = in == null ? null : new PascalTextReader(new InputStreamReader(in));
             if (stdout == null) {
                 stdout = System.out;
             }
             if (stdin == null) {
-                stdin = new Scanner(System.in);
+                stdin = new PascalTextReader(new InputStreamReader(System.in));
             }
         }
         return true;
     }
 
+    /**
+     * input of the console which is left is not read by the next run of the program
+     */
     @Override
     public void shutdown() {
+        if (consoleInput) {
+            stdin = null;
+            consoleInput = false;
+        }
+        if (stdout != null) {
+            stdout.flush();
+        }
+        if (listener instanceof DelegatingProgramHandler) {
+            stdout = null;
+            stdin = null;
+            streamsBound = false;
+        }
+    }
 
+    /**
+     * use the streams of the handler of this run, or the streams of the jvm
+     */
+    private void bindStreams() {
+        streamsBound = true;
+        ProgramHandler target = ((DelegatingProgramHandler) listener).getTarget();
+        if (target instanceof StreamInOutListener) {
+            this.stdout = ((StreamInOutListener) target).getOutput();
+            this.stdin = ((StreamInOutListener) target).getReader();
+        } else if (!PascalCompiler.android) {
+            this.stdout = System.out;
+            this.stdin = new PascalTextReader(new InputStreamReader(System.in));
+        }
     }
 
     @Override
@@ -112,12 +158,24 @@ public class IOLib implements PascalLibrary {
     }
 
     private void print(Object... args) {
-        if (listener == null) return;
+        if (listener == null && stdout == null) return;
         StringBuilder result = new StringBuilder();
         for (Object o : args) {
             result.append(o.toString());
         }
-        listener.print(result.toString());
+        writeText(result);
+    }
+
+    /**
+     * write text which is formatted by {@link com.js.interpreter.runtime_value.WriteCall}
+     */
+    public void writeText(CharSequence text) {
+        if (!streamsBound) bindStreams();
+        if (stdout != null) {
+            stdout.append(text);
+        } else if (listener != null) {
+            listener.print(text.toString());
+        }
     }
 
     @PascalMethod(description = "system library", returns = "void")
@@ -242,10 +300,6 @@ public class IOLib implements PascalLibrary {
 
     @PascalMethod(description = "system library", returns = "void")
     public void read() {
-        if (listener != null) {
-            listener.startInput(this);
-            pause(); //wait for press enter
-        }
     }
 
     /**
@@ -295,126 +349,115 @@ public class IOLib implements PascalLibrary {
         setValueForVariables(a1, a2, a3, a4, a5, a6, a7);
     }
 
-    private void readString(Scanner scanner, PascalReference<String> variableBoxer) {
-        variableBoxer.set(scanner.nextLine());
-
-    }
-
-    private void readStringBuilder(Scanner scanner, PascalReference<StringBuilder> variableBoxer) {
-        variableBoxer.set(new StringBuilder(scanner.nextLine()));
+    /**
+     * @return reader of the input stream or of the console, null if there is no input
+     */
+    private PascalTextReader getReader() {
+        if (!streamsBound) bindStreams();
+        if (stdin == null && listener != null) {
+            stdin = new PascalTextReader(new ConsoleReader());
+            consoleInput = true;
+        }
+        return stdin;
     }
 
-    private void readInt(Scanner scanner, PascalReference<Object> variableBoxer)
-            throws InvalidNumericFormatException {
-        try {
-            variableBoxer.set(scanner.nextInt());
-        } catch (InputMismatchException e) {
-            throw new InvalidNumericFormatException("read variable");
+    private void setValueForVariables(PascalReference... listVariable) throws RuntimePascalException {
+        PascalTextReader reader = getReader();
+        if (reader == null)
+            throw new InputStreamNotFoundException();
+        for (PascalReference variableBoxer : listVariable) {
+            readVariable(reader, variableBoxer);
         }
     }
 
-    private void readLong(Scanner scanner, PascalReference<Long> variableBoxer)
-            throws InvalidNumericFormatException {
-        try {
-            variableBoxer.set(scanner.nextLong());
-        } catch (InputMismatchException e) {
-            throw new InvalidNumericFormatException("read variable");
-        }
+    /**
+     * read the variables, then go to the next line of the input
+     */
+    private void setValueForVariablesLn(PascalReference... listVariable) throws RuntimePascalException {
+        setValueForVariables(listVariable);
+        skipLine();
     }
 
-    private void readDouble(Scanner scanner, PascalReference<Double> variableBoxer) throws InvalidNumericFormatException {
+    /**
+     * skip the rest of the current line of the input
+     */
+    private void skipLine() throws RuntimePascalException {
         try {
-            variableBoxer.set(scanner.nextDouble());
-        } catch (InputMismatchException e) {
-            throw new InvalidNumericFormatException("read variable");
+            getReader().skipLine();
+        } catch (IOException e) {
+            throw new InputStreamNotFoundException(e.getMessage());
         }
     }
 
-    private void readChar(Scanner scanner, PascalReference<Character> variableBoxer) {
-        System.out.println("readchar " + scanner.hasNext());
-        variableBoxer.set(scanner.next().charAt(0));
-    }
-
     @SuppressWarnings("unchecked")
-    private void setValueForVariables(PascalReference... listVariable) throws RuntimePascalException {
-        if (listener == null)
-            throw new InputStreamNotFoundException();
-        Scanner scanner = new Scanner("");
-        for (PascalReference variableBoxer : listVariable) {
-            Log.d(TAG, "setValueForVariables: ");
-            while (!scanner.hasNext()) {
-
-                if (scanner.hasNextLine() &&
-                        (variableBoxer.get() instanceof Character
-                                || variableBoxer.get() instanceof StringBuilder)) {
-                    break;
-                }
-
-                listener.startInput(this);
-                pause();
-                String input = listener.getInput();
-                scanner = new Scanner(input);
-                scanner.useLocale(Locale.ENGLISH);
-            }
-            if (variableBoxer.get() instanceof Character) {
-                readChar(scanner, variableBoxer);
-            } else if (variableBoxer.get() instanceof StringBuilder) {
-                readStringBuilder(scanner, variableBoxer);
-            } else if (variableBoxer.get() instanceof String) {
-                readString(scanner, variableBoxer);
-            } else if (variableBoxer.get() instanceof Integer) {
-                readInt(scanner, variableBoxer);
-            } else if (variableBoxer.get() instanceof Long) {
-                readLong(scanner, variableBoxer);
-            } else if (variableBoxer.get() instanceof Double) {
-                readDouble(scanner, variableBoxer);
+    private void readVariable(PascalTextReader reader, PascalReference variableBoxer)
+            throws RuntimePascalException {
+        Object value = variableBoxer.get();
+        try {
+            if (value instanceof Integer) {
+                variableBoxer.set(reader.readInt());
+            } else if (value instanceof Long) {
+                variableBoxer.set(reader.readLong());
+            } else if (value instanceof Double) {
+                variableBoxer.set(reader.readDouble());
+            } else if (value instanceof Character) {
+                variableBoxer.set(reader.readChar());
+            } else if (value instanceof StringBuilder) {
+                variableBoxer.set(new StringBuilder(reader.readString()));
+            } else if (value instanceof String) {
+                variableBoxer.set(reader.readString());
             } else {
-                throw new CanNotReadVariableException(variableBoxer.get());
+                throw new CanNotReadVariableException(value);
             }
+        } catch (NumberFormatException e) {
+            throw new InvalidNumericFormatException("read variable");
+        } catch (EOFException e) {
+            throw new InputStreamNotFoundException("Read past end of input");
+        } catch (IOException e) {
+            throw new InputStreamNotFoundException(e.getMessage());
         }
     }
 
     @PascalMethod(description = "system library", returns = "void")
-    public void readln() {
-        if (listener != null) {
-            listener.startInput(this);
-            pause();
+    public void readln() throws RuntimePascalException {
+        if (getReader() != null) {
+            skipLine();
         }
     }
 
     @PascalMethod(description = "system library", returns = "void")
     public void readln(PascalReference<Object> variableBoxer) throws NumberFormatException, RuntimePascalException {
-        setValueForVariables(variableBoxer);
+        setValueForVariablesLn(variableBoxer);
     }
 
     @PascalMethod(description = "system library", returns = "void")
     public void readln(PascalReference<Object> a1, PascalReference a2) throws RuntimePascalException {
-        setValueForVariables(a1, a2);
+        setValueForVariablesLn(a1, a2);
     }
 
     @PascalMethod(description = "system library", returns = "void")
     public void readln(PascalReference<Object> a1, PascalReference<Object> a2, PascalReference<Object> a3) throws RuntimePascalException {
-        setValueForVariables(a1, a2, a3);
+        setValueForVariablesLn(a1, a2, a3);
     }
 
     @PascalMethod(description = "system library", returns = "void")
     public void readln(PascalReference<Object> a1, PascalReference<Object> a2,
                        PascalReference<Object> a3, PascalReference<Object> a4) throws RuntimePascalException {
-        setValueForVariables(a1, a2, a3, a4);
+        setValueForVariablesLn(a1, a2, a3, a4);
     }
 
     @PascalMethod(description = "system library", returns = "void")
     public void readln(PascalReference<Object> a1, PascalReference<Object> a2,
                        PascalReference<Object> a3, PascalReference<Object> a4,
                        PascalReference<Object> a5) throws RuntimePascalException {
-        setValueForVariables(a1, a2, a3, a4, a5);
+        setValueForVariablesLn(a1, a2, a3, a4, a5);
     }
 
     @PascalMethod(description = "system library", returns = "void")
     public void readln(PascalReference<Object> a1, PascalReference<Object> a2,
                        PascalReference<Object> a3, PascalReference<Object> a4,
                        PascalReference<Object> a5, PascalReference<Object> a6) throws RuntimePascalException {
-        setValueForVariables(a1, a2, a3, a4, a5, a6);
+        setValueForVariablesLn(a1, a2, a3, a4, a5, a6);
     }
 
     @PascalMethod(description = "system library", returns = "void")
@@ -422,11 +465,12 @@ public class IOLib implements PascalLibrary {
                        PascalReference<Object> a3, PascalReference<Object> a4,
                        PascalReference<Object> a5, PascalReference<Object> a6,
                        PascalReference<Object> a7) throws RuntimePascalException {
-        setValueForVariables(a1, a2, a3, a4, a5, a6, a7);
+        setValueForVariablesLn(a1, a2, a3, a4, a5, a6, a7);
     }
 
     @PascalMethod(description = "system library", returns = "void")
     public void printf(String format, Object... args) {
+        if (!streamsBound) bindStreams();
         if (stdout != null) stdout.printf(format, args);
     }
 
@@ -464,7 +508,6 @@ public class IOLib implements PascalLibrary {
 
     @PascalMethod(description = "system library", returns = "void")
     public char readKey() {
-        Log.d(TAG, "readKey: ");
         if (listener != null) {
             return listener.getKeyBuffer();
         }
@@ -476,4 +519,35 @@ public class IOLib implements PascalLibrary {
         return listener != null && listener.keyPressed();
     }
 
+
+    /**
+     * Reader of the lines entered in the console, waits for the user when the last line
+     * is used up
+     */
+    private class ConsoleReader extends Reader {
+        private String line = "";
+        private int position = 0;
+
+        @Override
+        public int read(char[] buffer, int offset, int length) throws IOException {
+            if (position >= line.length()) {
+                listener.startInput(IOLib.this);
+                pause();
+                String input = listener.getInput();
+                if (input == null) {
+                    return -1;
+                }
+                line = input + "\n";
+                position = 0;
+            }
+            int count = Math.min(length, line.length() - position);
+            line.getChars(position, position + count, buffer, offset);
+            position += count;
+            return count;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
 }
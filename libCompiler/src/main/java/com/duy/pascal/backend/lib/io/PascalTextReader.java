@@ -0,0 +1,321 @@
+package com.duy.pascal.backend.lib.io;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * Reader of text input for read and readln, used for the console and for text files.
+ * <p>
+ * Numbers are parsed directly from a char buffer: leading whitespace (any char up to
+ * space, line ends included) is skipped and the number must end with whitespace or the
+ * end of input. A char is the next char of the input, whitespace included. A string is the
+ * rest of the current line, the line end is not read.
+ * <p>
+ * The reader never asks for more input than it needs, so a reader of the console only
+ * waits for a new line when the buffered line is used up.
+ */
+public class PascalTextReader {
+    private static final int BUFFER_SIZE = 8192;
+    /**
+     * doubles with at most this number of digits are exact as long
+     */
+    private static final int MAX_EXACT_DIGITS = 15;
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+
+    private Reader in;
+    private char[] buffer = new char[BUFFER_SIZE];
+    private int position = 0;
+    private int limit = 0;
+
+    /**
+     * text of the last real number, used when it can not be parsed exactly
+     */
+    private StringBuilder token = new StringBuilder();
+
+    public PascalTextReader(Reader in) {
+        this.in = in;
+    }
+
+    /**
+     * @return the char at offset from the current position without reading it, -1 at the
+     * end of input
+     */
+    private int peek(int offset) throws IOException {
+        if (position + offset < limit) {
+            return buffer[position + offset];
+        }
+        while (position + offset >= limit) {
+            if (position > 0) {
+                System.arraycopy(buffer, position, buffer, 0, limit - position);
+                limit -= position;
+                position = 0;
+            }
+            if (limit == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+            int count = in.read(buffer, limit, buffer.length - limit);
+            if (count < 0) {
+                return -1;
+            }
+            limit += count;
+        }
+        return buffer[position + offset];
+    }
+
+    private static boolean isWhitespace(int c) {
+        return c >= 0 && c <= ' ';
+    }
+
+    private static boolean isLineEnd(int c) {
+        return c == '\n' || c == '\r';
+    }
+
+    /**
+     * skip whitespace and line ends
+     *
+     * @return the first char which is not whitespace, -1 at the end of input
+     */
+    private int skipWhitespace() throws IOException {
+        int c = peek(0);
+        while (isWhitespace(c)) {
+            position++;
+            c = peek(0);
+        }
+        return c;
+    }
+
+    public int readInt() throws IOException {
+        long value = readLong();
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw new NumberFormatException("Integer out of range: " + value);
+        }
+        return (int) value;
+    }
+
+    public long readLong() throws IOException {
+        int c = skipWhitespace();
+        if (c < 0) {
+            throw new EOFException();
+        }
+        boolean negative = false;
+        if (c == '-' || c == '+') {
+            negative = c == '-';
+            position++;
+            c = peek(0);
+        }
+        if (c < '0' || c > '9') {
+            throw new NumberFormatException("Invalid numeric format");
+        }
+        //accumulate negative, so Long.MIN_VALUE can be read
+        long result = 0;
+        while (c >= '0' && c <= '9') {
+            int digit = c - '0';
+            if (result < (Long.MIN_VALUE + digit) / 10) {
+                throw new NumberFormatException("Number too large");
+            }
+            result = result * 10 - digit;
+            position++;
+            c = peek(0);
+        }
+        assertEndOfNumber(c);
+        if (negative) {
+            return result;
+        }
+        if (result == Long.MIN_VALUE) {
+            throw new NumberFormatException("Number too large");
+        }
+        return -result;
+    }
+
+    public double readDouble() throws IOException {
+        int c = skipWhitespace();
+        if (c < 0) {
+            throw new EOFException();
+        }
+        token.setLength(0);
+        boolean negative = false;
+        if (c == '-' || c == '+') {
+            negative = c == '-';
+            token.append((char) c);
+            position++;
+            c = peek(0);
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int exponent = 0;
+        boolean hasDigits = false;
+        while (c >= '0' && c <= '9') {
+            hasDigits = true;
+            if (mantissa != 0 || c != '0') {
+                if (digits < 18) {
+                    mantissa = mantissa * 10 + (c - '0');
+                } else {
+                    exponent++;
+                }
+                digits++;
+            }
+            token.append((char) c);
+            position++;
+            c = peek(0);
+        }
+        if (c == '.') {
+            token.append('.');
+            position++;
+            c = peek(0);
+            while (c >= '0' && c <= '9') {
+                hasDigits = true;
+                if (mantissa != 0 || c != '0') {
+                    if (digits < 18) {
+                        mantissa = mantissa * 10 + (c - '0');
+                        exponent--;
+                    }
+                    digits++;
+                } else {
+                    exponent--;
+                }
+                token.append((char) c);
+                position++;
+                c = peek(0);
+            }
+        }
+        if (!hasDigits) {
+            throw new NumberFormatException("Invalid numeric format");
+        }
+        if (c == 'e' || c == 'E') {
+            token.append((char) c);
+            position++;
+            c = peek(0);
+            boolean negativeExponent = false;
+            if (c == '-' || c == '+') {
+                negativeExponent = c == '-';
+                token.append((char) c);
+                position++;
+                c = peek(0);
+            }
+            if (c < '0' || c > '9') {
+                throw new NumberFormatException("Invalid numeric format");
+            }
+            int value = 0;
+            while (c >= '0' && c <= '9') {
+                if (value < 100000) {
+                    value = value * 10 + (c - '0');
+                }
+                token.append((char) c);
+                position++;
+                c = peek(0);
+            }
+            exponent += negativeExponent ? -value : value;
+        }
+        assertEndOfNumber(c);
+        if (digits <= MAX_EXACT_DIGITS && exponent >= -22 && exponent <= 22) {
+            double result = exponent < 0 ? mantissa / POWERS_OF_TEN[-exponent]
+                    : mantissa * POWERS_OF_TEN[exponent];
+            return negative ? -result : result;
+        }
+        return Double.parseDouble(token.toString());
+    }
+
+    private void assertEndOfNumber(int c) {
+        if (c >= 0 && !isWhitespace(c)) {
+            throw new NumberFormatException("Invalid numeric format");
+        }
+    }
+
+    /**
+     * @return the next char, whitespace and line ends included
+     */
+    public char readChar() throws IOException {
+        int c = peek(0);
+        if (c < 0) {
+            throw new EOFException();
+        }
+        position++;
+        return (char) c;
+    }
+
+    /**
+     * @return the rest of the current line, empty at the end of input
+     */
+    public String readString() throws IOException {
+        int length = 0;
+        int c = peek(0);
+        while (c >= 0 && !isLineEnd(c)) {
+            length++;
+            c = peek(length);
+        }
+        //peek may have moved the buffer
+        String result = new String(buffer, position, length);
+        position += length;
+        return result;
+    }
+
+    /**
+     * skip the rest of the current line and the line end
+     */
+    public void skipLine() throws IOException {
+        int c = peek(0);
+        while (c >= 0 && !isLineEnd(c)) {
+            position++;
+            c = peek(0);
+        }
+        if (c == '\r') {
+            position++;
+            c = peek(0);
+            if (c == '\n') {
+                position++;
+            }
+        } else if (c == '\n') {
+            position++;
+        }
+    }
+
+    /**
+     * @return the rest of the current line, the line end is skipped
+     */
+    public String readLine() throws IOException {
+        String line = readString();
+        skipLine();
+        return line;
+    }
+
+    /**
+     * @return true if there is no more input
+     */
+    public boolean isEof() throws IOException {
+        return peek(0) < 0;
+    }
+
+    /**
+     * @return true if only whitespace is left, nothing is read
+     */
+    public boolean isEndOfData() throws IOException {
+        int offset = 0;
+        int c = peek(0);
+        while (isWhitespace(c)) {
+            offset++;
+            c = peek(offset);
+        }
+        return c < 0;
+    }
+
+    /**
+     * @return true if only spaces and tabs are left in the current line, nothing is read
+     */
+    public boolean isEndOfLine() throws IOException {
+        int offset = 0;
+        int c = peek(0);
+        while (c == ' ' || c == '\t') {
+            offset++;
+            c = peek(offset);
+        }
+        return c < 0 || isLineEnd(c);
+    }
+
+    public void close() throws IOException {
+        in.close();
+    }
+}
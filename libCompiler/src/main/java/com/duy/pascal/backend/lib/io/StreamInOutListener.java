@@ -0,0 +1,123 @@
+package com.duy.pascal.backend.lib.io;
+
+import com.duy.pascal.backend.core.ProgramHandler;
+import com.duy.pascal.backend.function_declaretion.FunctionDeclaration;
+import com.duy.pascal.backend.linenumber.LineInfo;
+import com.js.interpreter.VariableDeclaration;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.UnsupportedEncodingException;
+
+/**
+ * Input and output of a program without console, {@link IOLib} reads the input stream and
+ * writes the output stream directly. Debug events are ignored.
+ */
+public class StreamInOutListener implements ProgramHandler {
+    private static final int BUFFER_SIZE = 8192;
+
+    private PascalTextReader input;
+    private PrintStream output;
+
+    public StreamInOutListener(InputStream in, OutputStream out) {
+        try {
+            this.input = new PascalTextReader(new InputStreamReader(in, "UTF-8"));
+            this.output = new PrintStream(new BufferedOutputStream(out, BUFFER_SIZE), false,
+                    "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public PascalTextReader getReader() {
+        return input;
+    }
+
+    public PrintStream getOutput() {
+        return output;
+    }
+
+    /**
+     * write buffered output to the output stream
+     */
+    public void flush() {
+        output.flush();
+    }
+
+    @Override
+    public void startInput(IOLib lock) {
+    }
+
+    @Override
+    public void stopInput() {
+    }
+
+    @Override
+    public String getInput() {
+        try {
+            return input.readLine();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public void print(CharSequence charSequence) {
+        output.print(charSequence);
+    }
+
+    @Override
+    public void println(CharSequence charSequence) {
+        output.println(charSequence);
+    }
+
+    @Override
+    public char getKeyBuffer() {
+        return 0;
+    }
+
+    @Override
+    public boolean keyPressed() {
+        return false;
+    }
+
+    @Override
+    public void onGlobalVariableChangeValue(VariableDeclaration variableDeclaration) {
+    }
+
+    @Override
+    public void onLocalVariableChangeValue(VariableDeclaration variableDeclaration) {
+    }
+
+    @Override
+    public void onFunctionCall(FunctionDeclaration functionDeclaration) {
+    }
+
+    @Override
+    public void onProcedureCall(FunctionDeclaration functionDeclaration) {
+    }
+
+    @Override
+    public void onNewMessage(String msg) {
+    }
+
+    @Override
+    public void onClearDebug() {
+    }
+
+    @Override
+    public void onVariableChangeValue(String name, Object old, Object newValue) {
+    }
+
+    @Override
+    public void onFunctionCall(String name) {
+    }
+
+    @Override
+    public void onLine(LineInfo lineInfo) {
+    }
+}
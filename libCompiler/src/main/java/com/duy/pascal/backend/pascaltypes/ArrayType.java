@@ -5,13 +5,12 @@ import android.support.annotation.NonNull;
 import com.duy.pascal.backend.exceptions.ParsingException;
 import com.duy.pascal.backend.pascaltypes.rangetype.SubrangeType;
 import com.js.interpreter.expressioncontext.ExpressionContext;
+import com.js.interpreter.runtime.PascalArrays;
 import com.js.interpreter.runtime_value.ArrayAccess;
 import com.js.interpreter.runtime_value.RuntimeValue;
 import com.js.interpreter.runtime_value.cloning.ArrayCloner;
 import com.ncsa.common.util.TypeUtils;
 
-import java.lang.reflect.Array;
-
 
 public class ArrayType<T extends DeclaredType> implements DeclaredType {
     public final T elementType;
@@ -73,16 +72,11 @@ public class ArrayType<T extends DeclaredType> implements DeclaredType {
     }
 
     /**
-     * TODO: Must make this actually fill in array with default values
+     * @return array filled with default values, see {@link PascalArrays#newArray}
      */
     @Override
     public Object initialize() {
-        Object result = Array.newInstance(elementType.getTransferClass(),
-                bounds.size);
-        for (int i = 0; i < bounds.size; i++) {
-            Array.set(result, i, elementType.initialize());
-        }
-        return result;
+        return PascalArrays.newArray(elementType, bounds.size);
     }
 
     @Override
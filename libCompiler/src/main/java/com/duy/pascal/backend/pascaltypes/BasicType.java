@@ -103,6 +103,10 @@ public enum BasicType implements DeclaredType {
 
         @Override
         public RuntimeValue cloneValue(RuntimeValue value) {
+            //the converted value is already a new builder
+            if (value instanceof StringBuilderWithRangeType) {
+                return value;
+            }
             return new StringBuilderCloner(value);
         }
 
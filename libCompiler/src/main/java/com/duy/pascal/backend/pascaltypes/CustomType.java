@@ -9,6 +9,7 @@ import com.js.interpreter.expressioncontext.ExpressionContext;
 import com.js.interpreter.runtime_value.RuntimeValue;
 import com.js.interpreter.runtime_value.cloning.CloneableObjectCloner;
 import com.js.interpreter.runtime.variables.CustomVariable;
+import com.js.interpreter.runtime.variables.RecordLayout;
 
 import java.util.ArrayList;
 
@@ -18,7 +19,10 @@ public class CustomType extends ObjectType {
      * This is a list of the defined variables in the custom operator.
      */
     public ArrayList<VariableDeclaration> variableDeclarations;
-    private CustomVariable customVariable;
+    /**
+     * indexes of the fields, made again when a field is added
+     */
+    private RecordLayout layout;
 
     public CustomType() {
         variableDeclarations = new ArrayList<>();
@@ -32,12 +36,21 @@ public class CustomType extends ObjectType {
      */
     public void addVariableDeclaration(VariableDeclaration v) {
         variableDeclarations.add(v);
+        layout = null;
+    }
+
+    public RecordLayout getLayout() {
+        RecordLayout layout = this.layout;
+        if (layout == null) {
+            layout = new RecordLayout(variableDeclarations);
+            this.layout = layout;
+        }
+        return layout;
     }
 
     @Override
     public Object initialize() {
-        customVariable = new CustomVariable(variableDeclarations);
-        return customVariable;
+        return new CustomVariable(getLayout());
     }
 
     @Override
@@ -61,11 +74,7 @@ public class CustomType extends ObjectType {
 
     @Override
     public Class getTransferClass() {
-        if (customVariable != null) {
-            return customVariable.getClass();
-        }
-        customVariable = new CustomVariable(variableDeclarations);
-        return customVariable.getClass();
+        return CustomVariable.class;
     }
 
 
@@ -112,5 +121,6 @@ public class CustomType extends ObjectType {
 
     public void setVariableDeclarations(ArrayList<VariableDeclaration> variableDeclarations) {
         this.variableDeclarations = variableDeclarations;
+        this.layout = null;
     }
 }
@@ -0,0 +1,112 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.backend.pascaltypes;
+
+import android.support.annotation.Nullable;
+
+import com.duy.pascal.backend.lib.file.BinaryFile;
+import com.js.interpreter.VariableDeclaration;
+import com.js.interpreter.runtime_value.RuntimeValue;
+
+import java.io.File;
+
+/**
+ * binary file type, "file of T" or the untyped "file", the value is a {@link BinaryFile}.
+ * <p>
+ * The storage class is {@link File}, so the procedures of text files such as assign,
+ * reset and close accept binary files too.
+ */
+public class FileType<T extends DeclaredType> extends JavaClassBasedType {
+    /**
+     * type of the records, null for the untyped file
+     */
+    @Nullable
+    private T elementType;
+
+    public FileType(@Nullable T elementType) {
+        super(File.class);
+        this.elementType = elementType;
+    }
+
+    /**
+     * @return true if values of the type have a fixed size, so they can be records of a file
+     */
+    public static boolean canStore(DeclaredType type) {
+        if (type == BasicType.Integer || type == BasicType.Long || type == BasicType.Double
+                || type == BasicType.Character || type == BasicType.Boolean
+                || type == BasicType.Byte || type == BasicType.Short
+                || type == BasicType.StringBuilder || type instanceof SetType) {
+            return true;
+        }
+        if (type instanceof ArrayType) {
+            ArrayType<?> arrayType = (ArrayType<?>) type;
+            return arrayType.getBounds().size > 0 && canStore(arrayType.getElementType());
+        }
+        if (type instanceof RecordType) {
+            for (VariableDeclaration field : ((RecordType) type).variableDeclarations) {
+                if (!canStore(field.getType())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    @Nullable
+    public T getElementType() {
+        return elementType;
+    }
+
+    @Override
+    public Object initialize() {
+        return new BinaryFile("", elementType);
+    }
+
+    @Override
+    public boolean equals(DeclaredType other) {
+        if (this == other) {
+            return true;
+        }
+        if (other instanceof FileType) {
+            FileType<?> o = (FileType<?>) other;
+            if (elementType == null || o.elementType == null) {
+                return elementType == o.elementType;
+            }
+            return elementType.equals(o.elementType);
+        }
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        return elementType == null ? 0 : elementType.hashCode() * 31 + 1;
+    }
+
+    /**
+     * a file variable is a handle of the file, it is not copied
+     */
+    @Override
+    public RuntimeValue cloneValue(RuntimeValue r) {
+        return r;
+    }
+
+    @Override
+    public String toString() {
+        return elementType == null ? "file" : "file of " + elementType;
+    }
+}
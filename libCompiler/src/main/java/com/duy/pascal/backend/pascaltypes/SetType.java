@@ -24,16 +24,17 @@ import com.duy.pascal.backend.linenumber.LineInfo;
 import com.js.interpreter.expressioncontext.ExpressionContext;
 import com.js.interpreter.runtime_value.RuntimeValue;
 import com.js.interpreter.runtime_value.cloning.ArrayCloner;
-import com.ncsa.common.util.TypeUtils;
-
-import java.lang.reflect.Array;
+import com.js.interpreter.runtime.PascalSets;
 
 /**
- * set type in pascal
+ * set type in pascal, values are bitsets, see {@link PascalSets}
  * <p>
  * Created by Duy on 16-May-17.
  */
 public class SetType<T extends DeclaredType> implements DeclaredType {
+    /**
+     * element type, null for the empty set "[]"
+     */
     private T elementType;
     private int size;
     private LineInfo line;
@@ -44,36 +45,42 @@ public class SetType<T extends DeclaredType> implements DeclaredType {
         this.line = lineInfo;
     }
 
+    public SetType(T elementType, LineInfo lineInfo) {
+        this(elementType, PascalSets.MAX_ELEMENTS, lineInfo);
+    }
+
+    /**
+     * @return true if a set can have elements of the type
+     */
+    public static boolean isOrdinal(DeclaredType type) {
+        return type == BasicType.Character || type == BasicType.Boolean
+                || isIntegral(type);
+    }
+
+    private static boolean isIntegral(DeclaredType type) {
+        return type == BasicType.Byte || type == BasicType.Short || type == BasicType.Integer;
+    }
+
+    /**
+     * @return true if an element of the type can be tested or put in this set
+     */
+    public boolean acceptsElement(DeclaredType type) {
+        return elementType == null ? isOrdinal(type)
+                : elementType.equals(type) || (isIntegral(elementType) && isIntegral(type));
+    }
+
     public T getElementType() {
         return elementType;
     }
 
     @Override
     public Object initialize() {
-        //create new array with element type is elementType via java reflect
-        Object result = Array.newInstance(elementType.getTransferClass(), size);
-
-        //init value for element
-        for (int i = 0; i < size; i++) {
-            Array.set(result, i, elementType.initialize());
-        }
-        return result;
+        return PascalSets.newSet();
     }
 
     @Override
     public Class getTransferClass() {
-        String s = elementType.getTransferClass().getName();
-        StringBuilder b = new StringBuilder();
-        b.append('[');
-        b.append('L');
-        b.append(s);
-        b.append(';');
-        try {
-            return Class.forName(b.toString());
-        } catch (ClassNotFoundException e) {
-            e.printStackTrace();
-            return null;
-        }
+        return long[].class;
     }
 
     /**
@@ -86,11 +93,7 @@ public class SetType<T extends DeclaredType> implements DeclaredType {
         }
         if (obj instanceof SetType) {
             SetType<?> o = (SetType<?>) obj;
-            if (o.elementType.equals(elementType)) {
-                if (this.size >= o.size) {
-                    return true;
-                }
-            }
+            return o.elementType == null || acceptsElement(o.elementType);
         }
         return false;
     }
@@ -108,7 +111,7 @@ public class SetType<T extends DeclaredType> implements DeclaredType {
 
     @Override
     public int hashCode() {
-        return (elementType.hashCode() * 31 + size);
+        return (elementType == null ? 0 : elementType.hashCode() * 31) + size;
     }
 
     @Override
@@ -118,11 +121,10 @@ public class SetType<T extends DeclaredType> implements DeclaredType {
         }
         if (other instanceof SetType) {
             SetType other1 = (SetType) other;
-            if (other1.elementType.equals(elementType)) {
-                if (this.size == other1.size) {
-                    return true;
-                }
+            if (elementType == null || other1.elementType == null) {
+                return elementType == other1.elementType;
             }
+            return other1.elementType.equals(elementType);
         }
         return false;
     }
@@ -141,29 +143,7 @@ public class SetType<T extends DeclaredType> implements DeclaredType {
 
     @Override
     public Class<?> getStorageClass() {
-        Class c = elementType.getStorageClass();
-        if (c == null) return null;
-        if (c.isArray()) {
-            try {
-                return Class.forName("[" + c.getName());
-            } catch (ClassNotFoundException e) {
-                e.printStackTrace();
-                return null;
-            }
-        } else if (c.isPrimitive()) {
-            c = TypeUtils.getClassForType(c);
-        }
-        StringBuilder b = new StringBuilder();
-        b.append('[');
-        b.append('L');
-        b.append(c.getName());
-        b.append(';');
-        try {
-            return Class.forName(b.toString());
-        } catch (ClassNotFoundException e) {
-            e.printStackTrace();
-            return null;
-        }
+        return long[].class;
     }
 
     public int getSize() {
@@ -6,13 +6,14 @@ import com.duy.pascal.backend.pascaltypes.BasicType;
 import com.duy.pascal.backend.pascaltypes.RuntimeType;
 import com.js.interpreter.expressioncontext.CompileTimeContext;
 import com.js.interpreter.expressioncontext.ExpressionContext;
+import com.js.interpreter.runtime_value.AbstractRuntimeValue;
 import com.js.interpreter.runtime_value.AssignableValue;
 import com.js.interpreter.runtime_value.RuntimeValue;
 import com.js.interpreter.runtime.VariableContext;
 import com.js.interpreter.codeunit.RuntimeExecutableCodeUnit;
 import com.js.interpreter.runtime.exception.RuntimePascalException;
 
-public class CharToIntType implements RuntimeValue {
+public class CharToIntType extends AbstractRuntimeValue {
     RuntimeValue other;
 
     public CharToIntType(RuntimeValue other) {
@@ -6,13 +6,14 @@ import com.duy.pascal.backend.pascaltypes.BasicType;
 import com.duy.pascal.backend.pascaltypes.RuntimeType;
 import com.js.interpreter.expressioncontext.CompileTimeContext;
 import com.js.interpreter.expressioncontext.ExpressionContext;
+import com.js.interpreter.runtime_value.AbstractRuntimeValue;
 import com.js.interpreter.runtime_value.AssignableValue;
 import com.js.interpreter.runtime_value.RuntimeValue;
 import com.js.interpreter.runtime.VariableContext;
 import com.js.interpreter.codeunit.RuntimeExecutableCodeUnit;
 import com.js.interpreter.runtime.exception.RuntimePascalException;
 
-public class NumberToIntType implements RuntimeValue {
+public class NumberToIntType extends AbstractRuntimeValue {
     protected RuntimeValue[] outputFormat;
     RuntimeValue other;
 
@@ -76,4 +77,22 @@ public class NumberToIntType implements RuntimeValue {
     public AssignableValue asAssignableValue(ExpressionContext f) {
         return null;
     }
+
+    @Override
+    public int getInt(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        return other.getInt(f, main);
+    }
+
+    @Override
+    public long getLong(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        return other.getInt(f, main);
+    }
+
+    @Override
+    public double getDouble(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        return other.getInt(f, main);
+    }
 }
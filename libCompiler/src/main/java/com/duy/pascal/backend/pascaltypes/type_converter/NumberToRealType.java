@@ -6,13 +6,14 @@ import com.duy.pascal.backend.pascaltypes.BasicType;
 import com.duy.pascal.backend.pascaltypes.RuntimeType;
 import com.js.interpreter.expressioncontext.CompileTimeContext;
 import com.js.interpreter.expressioncontext.ExpressionContext;
+import com.js.interpreter.runtime_value.AbstractRuntimeValue;
 import com.js.interpreter.runtime_value.AssignableValue;
 import com.js.interpreter.runtime_value.RuntimeValue;
 import com.js.interpreter.runtime.VariableContext;
 import com.js.interpreter.codeunit.RuntimeExecutableCodeUnit;
 import com.js.interpreter.runtime.exception.RuntimePascalException;
 
-public class NumberToRealType implements RuntimeValue {
+public class NumberToRealType extends AbstractRuntimeValue {
     private RuntimeValue[] outputFormat;
     private RuntimeValue other;
 
@@ -77,4 +78,22 @@ public class NumberToRealType implements RuntimeValue {
     public AssignableValue asAssignableValue(ExpressionContext f) {
         return null;
     }
+
+    @Override
+    public int getInt(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        return (int) other.getDouble(f, main);
+    }
+
+    @Override
+    public long getLong(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        return (long) other.getDouble(f, main);
+    }
+
+    @Override
+    public double getDouble(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        return other.getDouble(f, main);
+    }
 }
@@ -22,13 +22,16 @@ import com.duy.pascal.backend.pascaltypes.BasicType;
 import com.duy.pascal.backend.pascaltypes.RuntimeType;
 import com.js.interpreter.expressioncontext.CompileTimeContext;
 import com.js.interpreter.expressioncontext.ExpressionContext;
+import com.js.interpreter.runtime_value.AbstractRuntimeValue;
 import com.js.interpreter.runtime_value.AssignableValue;
 import com.js.interpreter.runtime_value.RuntimeValue;
+import com.js.interpreter.runtime_value.operators.number.StringBiOperatorEval;
+import com.js.interpreter.runtime.PascalStrings;
 import com.js.interpreter.runtime.VariableContext;
 import com.js.interpreter.codeunit.RuntimeExecutableCodeUnit;
 import com.js.interpreter.runtime.exception.RuntimePascalException;
 
-public class StringBuilderWithRangeType implements RuntimeValue {
+public class StringBuilderWithRangeType extends AbstractRuntimeValue {
     protected RuntimeValue[] outputFormat;
     private RuntimeValue value;
     private RuntimeValue length;
@@ -40,6 +43,17 @@ public class StringBuilderWithRangeType implements RuntimeValue {
         this.outputFormat = value.getOutputFormat();
     }
 
+    /**
+     * @return max length of the string, null if the string has no max length
+     */
+    public RuntimeValue getLength() {
+        return length;
+    }
+
+    public RuntimeValue getConvertedValue() {
+        return value;
+    }
+
     @Override
     public String toString() {
         return getClass().getSimpleName();
@@ -59,16 +73,15 @@ public class StringBuilderWithRangeType implements RuntimeValue {
     @Override
     public Object getValue(VariableContext f, RuntimeExecutableCodeUnit<?> main)
             throws RuntimePascalException {
-        if (length == null)
-            return new StringBuilder(value.getValue(f, main).toString());
-
-        String original = value.getValue(f, main).toString();
-        int len = (int) length.getValue(f, main);
-        if (len > original.length()) {
-            return new StringBuilder(original);
-        } else {
-            return new StringBuilder(original.substring(0, len));
+        Object result = value.getValue(f, main);
+        if (length == null) {
+            //the result of a concatenation is a new builder which nothing else refers to
+            if (value instanceof StringBiOperatorEval && result instanceof StringBuilder) {
+                return result;
+            }
+            return PascalStrings.copy(result);
         }
+        return PascalStrings.copy(result, (int) length.getValue(f, main));
     }
 
     @Override
@@ -104,4 +117,4 @@ public class StringBuilderWithRangeType implements RuntimeValue {
     public AssignableValue asAssignableValue(ExpressionContext f) {
         return null;
     }
-}
\ No newline at end of file
+}
@@ -10,27 +10,93 @@ import com.duy.pascal.backend.tokens.Token;
 import com.duy.pascal.backend.tokens.WarningToken;
 import com.duy.pascal.backend.tokens.closing.ClosingToken;
 import com.duy.pascal.backend.tokens.grouping.BaseGrouperToken;
+import com.duy.pascal.backend.tokens.grouping.BatchTokenQueue;
 import com.duy.pascal.backend.tokens.grouping.GrouperToken;
 import com.js.interpreter.source_include.ScriptSource;
 
+import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.Reader;
 import java.util.List;
 import java.util.Stack;
 
+/**
+ * Groups the tokens of the lexer into {@link GrouperToken}s.
+ * <p>
+ * A small source is lexed with {@link #parse()} before it is parsed. A large source is lexed
+ * by {@link #run()} on another thread while the parser takes the tokens, see
+ * {@link #isConcurrent()}.
+ */
 public class NewLexer implements Runnable {
+    /**
+     * sources with more characters are lexed on another thread
+     */
+    private static final int CONCURRENT_SOURCE_SIZE = 64 * 1024;
+    /**
+     * number of tokens after which the groupers of the stack pass their tokens to the parser
+     */
+    private static final int FLUSH_INTERVAL = 512;
+
     public BaseGrouperToken tokenQueue;
     private Stack<GrouperToken> groupers;
     private Lexer lexer;
+    private final boolean concurrent;
+    private volatile boolean cancelled = false;
 
     public NewLexer(Reader reader, String sourcename,
                     List<ScriptSource> searchDirectories) throws GroupingException {
+        this(reader, sourcename, searchDirectories, false);
+    }
+
+    public NewLexer(Reader reader, String sourcename,
+                    List<ScriptSource> searchDirectories,
+                    boolean concurrent) throws GroupingException {
         this.lexer = new Lexer(reader, sourcename, searchDirectories);
+        this.concurrent = concurrent;
         groupers = new Stack<>();
         tokenQueue = new BaseGrouperToken(new LineInfo(0, sourcename));
+        if (concurrent) {
+            tokenQueue.setTokenQueue(new BatchTokenQueue());
+        }
         groupers.push(tokenQueue);
     }
 
+    /**
+     * create the lexer of the source, it is concurrent if the source is large and there is
+     * more than one processor
+     */
+    public static NewLexer create(Reader reader, String sourcename,
+                                  List<ScriptSource> searchDirectories) throws GroupingException {
+        if (Runtime.getRuntime().availableProcessors() < 2) {
+            return new NewLexer(reader, sourcename, searchDirectories, false);
+        }
+        BufferedReader buffered = new BufferedReader(reader);
+        boolean large;
+        try {
+            buffered.mark(CONCURRENT_SOURCE_SIZE + 1);
+            large = buffered.skip(CONCURRENT_SOURCE_SIZE + 1) > CONCURRENT_SOURCE_SIZE;
+            buffered.reset();
+        } catch (IOException e) {
+            //the lexer reports the error
+            large = false;
+        }
+        return new NewLexer(buffered, sourcename, searchDirectories, large);
+    }
+
+    /**
+     * @return true if the tokens must be lexed by {@link #run()} on another thread
+     */
+    public boolean isConcurrent() {
+        return concurrent;
+    }
+
+    /**
+     * stop lexing, used when the parser has failed
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
     private void TossException(GroupingException e) {
         GroupingExceptionToken t = new GroupingExceptionToken(e);
         for (GrouperToken g : groupers) {
@@ -46,8 +112,15 @@ public class NewLexer implements Runnable {
     }
 
     public void parse() {
-        while (true) {
+        int count = 0;
+        while (!cancelled) {
             GrouperToken topOfStack = groupers.peek();
+            if (concurrent && ++count % FLUSH_INTERVAL == 0) {
+                //the parser may wait for a grouper which is not closed yet
+                for (GrouperToken g : groupers) {
+                    g.flush();
+                }
+            }
             try {
                 Token t = lexer.yylex();
                 if (t instanceof EOFToken) {
@@ -74,9 +147,15 @@ public class NewLexer implements Runnable {
                 }
 
                 // Everything else passes through normally.
-                topOfStack.put(t);
                 if (t instanceof GrouperToken) {
+                    if (concurrent) {
+                        //the parser can take the grouper as soon as it is put
+                        ((GrouperToken) t).setTokenQueue(new BatchTokenQueue());
+                    }
+                    topOfStack.put(t);
                     groupers.push((GrouperToken) t);
+                } else {
+                    topOfStack.put(t);
                 }
             } catch (IOException e) {
                 GroupingExceptionType g = new GroupingExceptionType(topOfStack.getLineInfo(),
@@ -91,6 +170,14 @@ public class NewLexer implements Runnable {
 
     @Override
     public void run() {
-        parse();
+        try {
+            parse();
+        } catch (RuntimeException | Error e) {
+            //the parser must not wait for tokens which are never put
+            GroupingExceptionType g = new GroupingExceptionType(groupers.peek().getLineInfo(),
+                    GroupingExceptionType.GroupExceptionType.IO_EXCEPTION);
+            g.caused = e instanceof RuntimeException ? (RuntimeException) e : new RuntimeException(e);
+            TossException(g);
+        }
     }
 }
@@ -67,7 +67,7 @@ public class WordToken extends Token {
                 || name.equalsIgnoreCase("extended")
                 || name.equalsIgnoreCase("real")
                 || name.equalsIgnoreCase("comp")
-                || name.equalsIgnoreCase("curreny")
+                || name.equalsIgnoreCase("currency")
                 || name.equalsIgnoreCase("double")) {
             return BasicType.Double;
         } else if (name.equalsIgnoreCase("longint")
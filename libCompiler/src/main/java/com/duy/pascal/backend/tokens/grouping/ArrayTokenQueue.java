@@ -0,0 +1,37 @@
+package com.duy.pascal.backend.tokens.grouping;
+
+
+import com.duy.pascal.backend.tokens.Token;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+
+/**
+ * Queue of a source which is lexed before it is parsed, on the same thread, so there is
+ * no locking
+ */
+public class ArrayTokenQueue extends TokenQueue {
+    private final ArrayDeque<Token> tokens = new ArrayDeque<>();
+    private Token last;
+
+    @Override
+    public void put(Token token) {
+        tokens.add(token);
+    }
+
+    @Override
+    public Token take() {
+        Token token = tokens.poll();
+        if (token == null) {
+            //the lexer has finished
+            return last;
+        }
+        last = token;
+        return token;
+    }
+
+    @Override
+    public Iterator<Token> iterator() {
+        return tokens.iterator();
+    }
+}
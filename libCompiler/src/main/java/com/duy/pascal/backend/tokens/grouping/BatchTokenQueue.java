@@ -0,0 +1,77 @@
+package com.duy.pascal.backend.tokens.grouping;
+
+
+import com.duy.pascal.backend.tokens.Token;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Queue of a source which is lexed on another thread while it is parsed.
+ * <p>
+ * The lexer puts tokens into a batch which is passed to the parser when it is full or
+ * flushed, so the lock of the queue is taken once for each batch instead of each token.
+ */
+public class BatchTokenQueue extends TokenQueue {
+    private static final int BATCH_SIZE = 256;
+    private static final ArrayList<Token> EMPTY = new ArrayList<>(0);
+
+    private final LinkedBlockingQueue<ArrayList<Token>> batches = new LinkedBlockingQueue<>();
+    /**
+     * batch of the lexer thread
+     */
+    private ArrayList<Token> pending = new ArrayList<>(BATCH_SIZE);
+    /**
+     * batch of the parser thread
+     */
+    private ArrayList<Token> current = EMPTY;
+    private int index = 0;
+    private Token last;
+
+    @Override
+    public void put(Token token) {
+        pending.add(token);
+        if (pending.size() >= BATCH_SIZE || isLast(token)) {
+            flush();
+        }
+    }
+
+    @Override
+    public void flush() {
+        if (!pending.isEmpty()) {
+            //the queue has no bound, offer never waits
+            batches.offer(pending);
+            pending = new ArrayList<>(BATCH_SIZE);
+        }
+    }
+
+    @Override
+    public Token take() {
+        while (index >= current.size()) {
+            if (isLast(last)) {
+                return last;
+            }
+            try {
+                current = batches.take();
+                index = 0;
+            } catch (InterruptedException ignored) {
+            }
+        }
+        last = current.get(index++);
+        return last;
+    }
+
+    /**
+     * tokens which are not taken, only exact when the lexer has finished
+     */
+    @Override
+    public Iterator<Token> iterator() {
+        ArrayList<Token> tokens = new ArrayList<>(current.subList(index, current.size()));
+        for (ArrayList<Token> batch : batches) {
+            tokens.addAll(batch);
+        }
+        tokens.addAll(pending);
+        return tokens.iterator();
+    }
+}
@@ -1,7 +1,6 @@
 package com.duy.pascal.backend.tokens.grouping;
 
 
-import android.util.Log;
 
 import com.duy.pascal.backend.exceptions.ParsingException;
 import com.duy.pascal.backend.exceptions.UnrecognizedTokenException;
@@ -25,11 +24,14 @@ import com.duy.pascal.backend.linenumber.LineInfo;
 import com.duy.pascal.backend.pascaltypes.ArrayType;
 import com.duy.pascal.backend.pascaltypes.BasicType;
 import com.duy.pascal.backend.pascaltypes.DeclaredType;
+import com.duy.pascal.backend.pascaltypes.FileType;
 import com.duy.pascal.backend.pascaltypes.JavaClassBasedType;
 import com.duy.pascal.backend.pascaltypes.PointerType;
 import com.duy.pascal.backend.pascaltypes.RecordType;
 import com.duy.pascal.backend.pascaltypes.RuntimeType;
+import com.duy.pascal.backend.pascaltypes.SetType;
 import com.duy.pascal.backend.pascaltypes.rangetype.SubrangeType;
+import com.duy.pascal.backend.pascaltypes.type_converter.StringBuilderWithRangeType;
 import com.duy.pascal.backend.tokens.CommentToken;
 import com.duy.pascal.backend.tokens.EOFToken;
 import com.duy.pascal.backend.tokens.GroupingExceptionToken;
@@ -44,6 +46,7 @@ import com.duy.pascal.backend.tokens.basic.ColonToken;
 import com.duy.pascal.backend.tokens.basic.CommaToken;
 import com.duy.pascal.backend.tokens.basic.ContinueToken;
 import com.duy.pascal.backend.tokens.basic.DoToken;
+import com.duy.pascal.backend.tokens.basic.DotDotToken;
 import com.duy.pascal.backend.tokens.basic.DowntoToken;
 import com.duy.pascal.backend.tokens.basic.ElseToken;
 import com.duy.pascal.backend.tokens.basic.ExitToken;
@@ -61,13 +64,14 @@ import com.duy.pascal.backend.function_declaretion.MethodDeclaration;
 import com.js.interpreter.VariableDeclaration;
 import com.duy.pascal.backend.exceptions.syntax.WrongIfElseStatement;
 import com.js.interpreter.expressioncontext.ExpressionContext;
-import com.js.interpreter.instructions.Assignment;
 import com.js.interpreter.instructions.BreakInstruction;
 import com.js.interpreter.instructions.ContinueInstruction;
 import com.js.interpreter.instructions.Executable;
 import com.js.interpreter.instructions.ExitInstruction;
 import com.js.interpreter.instructions.InstructionGrouper;
 import com.js.interpreter.instructions.NoneInstruction;
+import com.js.interpreter.instructions.PrimitiveAssignment;
+import com.js.interpreter.instructions.StringAppend;
 import com.js.interpreter.instructions.case_statement.CaseInstruction;
 import com.js.interpreter.instructions.conditional.ForDowntoStatement;
 import com.js.interpreter.instructions.conditional.ForToStatement;
@@ -81,34 +85,36 @@ import com.js.interpreter.runtime_value.FieldAccess;
 import com.js.interpreter.runtime_value.FunctionCall;
 import com.js.interpreter.runtime_value.RuntimeValue;
 import com.js.interpreter.runtime_value.UnaryOperatorEvaluation;
+import com.js.interpreter.runtime_value.VariableAccess;
+import com.js.interpreter.runtime_value.boxing.SetBoxer;
 import com.js.interpreter.runtime_value.operators.number.BinaryOperatorEvaluation;
+import com.js.interpreter.runtime_value.operators.number.StringBiOperatorEval;
 
 import java.lang.reflect.Method;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
-import java.util.concurrent.LinkedBlockingQueue;
 
 public abstract class GrouperToken extends Token {
     private static final String TAG = GrouperToken.class.getSimpleName();
     public Token next = null;
-    LinkedBlockingQueue<Token> queue;
+    TokenQueue queue;
 
     public GrouperToken(LineInfo line) {
         super(line);
-        queue = new LinkedBlockingQueue<>();
+        queue = new ArrayTokenQueue();
+    }
+
+    /**
+     * set the queue before the first token is put, the lexer uses a {@link BatchTokenQueue}
+     * when the source is parsed on another thread
+     */
+    public void setTokenQueue(TokenQueue queue) {
+        this.queue = queue;
     }
 
     private Token getNext() throws GroupingException {
         if (next == null) {
-            while (true) {
-                try {
-                    next = queue.take();
-                } catch (InterruptedException e) {
-                    continue;
-                }
-                break;
-            }
+            next = queue.take();
         }
         exceptionCheck(next);
         if (next instanceof CommentToken) {
@@ -129,14 +135,14 @@ public abstract class GrouperToken extends Token {
     }
 
     public void put(Token t) {
-        while (true) {
-            try {
-                queue.put(t);
-            } catch (InterruptedException e) {
-                continue;
-            }
-            break;
-        }
+        queue.put(t);
+    }
+
+    /**
+     * pass the tokens which are put to the parser
+     */
+    public void flush() {
+        queue.flush();
     }
 
     public abstract String toCode();
@@ -147,27 +153,16 @@ public abstract class GrouperToken extends Token {
         if (result instanceof EOFToken) {
             throw new ExpectedAnotherTokenException(result.getLineInfo());
         }
-        while (true) {
-            try {
-                next = queue.take();
-                exceptionCheck(next);
-
-                return result;
-            } catch (InterruptedException ignored) {
-            }
-        }
+        next = queue.take();
+        exceptionCheck(next);
+        return result;
     }
 
     public Token takeEOF() throws GroupingException {
         Token result = getNext();
-        while (true) {
-            try {
-                next = queue.take();
-                exceptionCheck(next);
-                return result;
-            } catch (InterruptedException ignored) {
-            }
-        }
+        next = queue.take();
+        exceptionCheck(next);
+        return result;
     }
 
     public Token peek() throws GroupingException {
@@ -235,6 +230,28 @@ public abstract class GrouperToken extends Token {
         if (!(n instanceof WordToken)) {
             throw new ExpectedTokenException("[Type Identifier]", n);
         }
+        //the lexer has no token for "set"
+        if (((WordToken) n).name.equalsIgnoreCase("set") && peek() instanceof OfToken) {
+            take();
+            DeclaredType elementType = getNextPascalType(context);
+            if (!SetType.isOrdinal(elementType)) {
+                throw new ParsingException(n.getLineInfo(),
+                        "Ordinal type expected, but found " + elementType);
+            }
+            return new SetType<>(elementType, n.getLineInfo());
+        }
+        if (((WordToken) n).name.equalsIgnoreCase("file")) {
+            if (!(peek() instanceof OfToken)) {
+                return new FileType<>(null);
+            }
+            take();
+            DeclaredType elementType = getNextPascalType(context);
+            if (!FileType.canStore(elementType)) {
+                throw new ParsingException(n.getLineInfo(),
+                        "Type " + elementType + " can not be stored in a file");
+            }
+            return new FileType<>(elementType);
+        }
         return ((WordToken) n).toBasicType(context);
     }
 
@@ -270,7 +287,6 @@ public abstract class GrouperToken extends Token {
             }
             elementType = getNextPascalType(context);
         }
-        Log.d(TAG, "getArrayType: " + elementType.toString());
         return new ArrayType<>(elementType, bound);
     }
 
@@ -390,6 +406,8 @@ public abstract class GrouperToken extends Token {
                 return context.getIdentifierValue(name);
             }
 
+        } else if (next instanceof BracketedToken) {
+            return getSetConstructor(context, (BracketedToken) next);
         } else {
             if (next instanceof ElseToken) {
                 throw new WrongIfElseStatement(next);
@@ -398,6 +416,53 @@ public abstract class GrouperToken extends Token {
         }
     }
 
+    /**
+     * set constructor, [], [1, 3, 5] or ['a'..'z', '_']
+     */
+    private RuntimeValue getSetConstructor(ExpressionContext context, BracketedToken bracket)
+            throws ParsingException {
+        List<RuntimeValue> lows = new ArrayList<>();
+        List<RuntimeValue> highs = new ArrayList<>();
+        SetType<DeclaredType> type = null;
+        while (bracket.hasNext()) {
+            RuntimeValue low = bracket.getNextExpression(context);
+            RuntimeValue high = null;
+            if (bracket.hasNext() && bracket.peek() instanceof DotDotToken) {
+                bracket.take();
+                high = bracket.getNextExpression(context);
+            }
+            for (RuntimeValue value : new RuntimeValue[]{low, high}) {
+                if (value == null) {
+                    continue;
+                }
+                DeclaredType elementType = value.getType(context).declType;
+                if (type == null) {
+                    if (!SetType.isOrdinal(elementType)) {
+                        throw new ParsingException(value.getLineNumber(),
+                                "Ordinal expression expected, but found " + elementType);
+                    }
+                    type = new SetType<>(elementType, bracket.getLineInfo());
+                } else if (!type.acceptsElement(elementType)) {
+                    throw new UnConvertibleTypeException(value, elementType,
+                            type.getElementType(), true);
+                }
+            }
+            lows.add(low);
+            highs.add(high);
+            if (bracket.hasNext()) {
+                bracket.assertNextComma();
+            }
+        }
+        if (type == null) {
+            type = new SetType<>(null, bracket.getLineInfo());
+        }
+        SetBoxer set = new SetBoxer(lows.toArray(new RuntimeValue[lows.size()]),
+                highs.toArray(new RuntimeValue[highs.size()]), type, bracket.getLineInfo());
+        //a constant element which can not be in the set is found here, not when it runs
+        set.compileTimeValue(context);
+        return set;
+    }
+
     public RuntimeValue getNextTerm(ExpressionContext context)
             throws ParsingException {
         return getNextTerm(context, take());
@@ -475,7 +540,6 @@ public abstract class GrouperToken extends Token {
                             }
                             objects[i] = getDefaultValueArray(context, bracketedToken, elementTypeOfArray);
                         }
-                        Log.d(TAG, "getDefaultValueArray: " + Arrays.toString(objects));
                         defaultValue = objects;
                     } else { //set default single value
                         RuntimeValue unConvert = getNextExpression(context);
@@ -574,6 +638,35 @@ public abstract class GrouperToken extends Token {
         return result;
     }
 
+    /**
+     * @return the value which is appended when the assignment is s := s + value and s is a
+     * string variable without max length, null otherwise
+     */
+    private RuntimeValue getAppendedString(AssignableValue left, RuntimeValue converted) {
+        if (!(left instanceof VariableAccess) || !(converted instanceof StringBuilderWithRangeType)) {
+            return null;
+        }
+        StringBuilderWithRangeType string = (StringBuilderWithRangeType) converted;
+        if (string.getLength() != null
+                || !(string.getConvertedValue() instanceof StringBiOperatorEval)) {
+            return null;
+        }
+        StringBiOperatorEval concat = (StringBiOperatorEval) string.getConvertedValue();
+        if (concat.getOperatorType() != OperatorTypes.PLUS
+                || !(concat.getOperon1() instanceof VariableAccess)) {
+            return null;
+        }
+        VariableAccess variable = (VariableAccess) left;
+        VariableAccess first = (VariableAccess) concat.getOperon1();
+        if (variable.getName().equalsIgnoreCase(first.getName())
+                && variable.getSlot() == first.getSlot()
+                && variable.getDepth() == first.getDepth()
+                && variable.getUnit() == first.getUnit()) {
+            return concat.getOperon2();
+        }
+        return null;
+    }
+
     public Executable getNextCommand(ExpressionContext context) throws ParsingException {
         Token next = take();
         LineInfo lineNumber = next.getLineInfo();
@@ -689,7 +782,12 @@ public abstract class GrouperToken extends Token {
                     throw new UnConvertibleTypeException(valueToAssign,
                             inputType, outputType, true);
                 }
-                return new Assignment(left, outputType.cloneValue(converted), next.getLineInfo());
+                RuntimeValue appended = getAppendedString(left, converted);
+                if (appended != null) {
+                    return new StringAppend((VariableAccess) left, appended, next.getLineInfo());
+                }
+                return PrimitiveAssignment.create(context, left, outputType.cloneValue(converted),
+                        next.getLineInfo());
             } else if (r instanceof Executable) {
                 return (Executable) r;
             } else if (r instanceof FieldAccess) {
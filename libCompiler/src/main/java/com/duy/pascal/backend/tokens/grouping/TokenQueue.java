@@ -0,0 +1,47 @@
+package com.duy.pascal.backend.tokens.grouping;
+
+
+import com.duy.pascal.backend.tokens.EOFToken;
+import com.duy.pascal.backend.tokens.GroupingExceptionToken;
+import com.duy.pascal.backend.tokens.Token;
+
+import java.util.Iterator;
+
+/**
+ * Tokens of a {@link GrouperToken}, put by the lexer and taken by the parser.
+ * <p>
+ * The last token of a queue is an {@link EOFToken} or a {@link GroupingExceptionToken},
+ * it is returned again if the parser takes more tokens.
+ */
+public abstract class TokenQueue implements Iterable<Token> {
+
+    public abstract void put(Token token);
+
+    /**
+     * make the tokens which are put visible to the parser
+     */
+    public void flush() {
+    }
+
+    /**
+     * @return the next token, waits for the lexer if it is not put yet
+     */
+    public abstract Token take();
+
+    static boolean isLast(Token token) {
+        return token instanceof EOFToken || token instanceof GroupingExceptionToken;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder("[");
+        Iterator<Token> iterator = iterator();
+        while (iterator.hasNext()) {
+            result.append(iterator.next());
+            if (iterator.hasNext()) {
+                result.append(", ");
+            }
+        }
+        return result.append(']').toString();
+    }
+}
@@ -37,14 +37,11 @@ import com.duy.pascal.frontend.view.exec_screen.console.ConsoleView;
 import com.duy.pascal.backend.function_declaretion.FunctionDeclaration;
 import com.js.interpreter.VariableDeclaration;
 import com.js.interpreter.codeunit.program.PascalProgram;
-import com.js.interpreter.source_include.ScriptSource;
 import com.js.interpreter.codeunit.RuntimeExecutableCodeUnit;
 import com.js.interpreter.runtime.exception.RuntimePascalException;
 import com.js.interpreter.runtime.exception.ScriptTerminatedException;
 
 import java.io.File;
-import java.io.FileReader;
-import java.util.ArrayList;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import static com.duy.pascal.frontend.alogrithm.InputData.MAX_INPUT;
@@ -142,12 +139,10 @@ public abstract class AbstractExecActivity extends RunnableActivity {
         public void run() {
             try {
                 //compile
-                PascalCompiler pascalCompiler = new PascalCompiler(AbstractExecActivity.this);
                 try {
-                    PascalProgram pascalProgram = pascalCompiler.loadPascal(
-                            new File(programFile).getName(),
-                            new FileReader(programFile),
-                            new ArrayList<ScriptSource>(),
+                    File file = new File(programFile);
+                    PascalProgram pascalProgram = PascalCompiler.loadPascalCached(
+                            file.getName(), mFileManager.fileToString(file),
                             AbstractExecActivity.this);
 
                     program = pascalProgram.run();
@@ -155,12 +150,18 @@ public abstract class AbstractExecActivity extends RunnableActivity {
                     //set stack size for the program
                     long maxStackSize = mPascalPreferences.getMaxStackSize();
                     program.setMaxStackSize(maxStackSize);
+                    boolean measureOverhead = mPascalPreferences.isMeasureControlOverhead();
+                    program.setMeasureControlOverhead(measureOverhead);
 
                     if (isEnableDebug()) {
                         program.enableDebug();
                     }
 
                     program.run();
+                    if (measureOverhead) {
+                        Log.d(TAG, "control overhead: " + program.getControlOverheadReport());
+                        Log.d(TAG, "heap: " + program.getHeap());
+                    }
 
                     mMessageHandler.sendEmptyMessage(COMPLETE);
                 } catch (ScriptTerminatedException e) {
@@ -248,7 +249,7 @@ public abstract class AbstractExecActivity extends RunnableActivity {
         Log.d(TAG, "onDestroy() called");
 
         //stop readkey, keypressed event
-        getConsoleView().write("s", false);
+        getConsoleView().putKey('s');
         stopInput();
         //stop program
         stopProgram();
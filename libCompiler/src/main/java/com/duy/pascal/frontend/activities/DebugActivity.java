@@ -29,6 +29,8 @@ import android.view.MenuItem;
 import android.view.View;
 import android.view.inputmethod.InputMethodManager;
 
+import com.duy.pascal.backend.debugable.DebugEventRecorder;
+import com.duy.pascal.backend.function_declaretion.FunctionDeclaration;
 import com.duy.pascal.backend.linenumber.LineInfo;
 import com.duy.pascal.frontend.R;
 import com.duy.pascal.frontend.code.CompileManager;
@@ -41,6 +43,7 @@ import com.duy.pascal.frontend.view.LockableScrollView;
 import com.duy.pascal.frontend.view.editor_view.HighlightEditor;
 import com.duy.pascal.frontend.view.editor_view.LineUtils;
 import com.duy.pascal.frontend.view.exec_screen.console.ConsoleView;
+import com.js.interpreter.codeunit.RuntimeExecutableCodeUnit;
 
 import java.io.File;
 
@@ -48,6 +51,10 @@ import java.io.File;
 
 
 public class DebugActivity extends AbstractExecActivity {
+    /**
+     * time between two reads of the debug events, in milliseconds
+     */
+    private static final long DRAIN_INTERVAL = 50;
 
     //    @BindView(R.id.console)
     ConsoleView mConsoleView;
@@ -63,6 +70,42 @@ public class DebugActivity extends AbstractExecActivity {
     View emptyView;
     private Handler handler = new Handler();
     private AlertDialog alertDialog;
+    private LineInfo lastLine;
+    private final DebugEventRecorder.Reader eventReader = new DebugEventRecorder.Reader() {
+        @Override
+        public void onEvent(int kind, LineInfo line, Object subject, Object value) {
+            switch (kind) {
+                case DebugEventRecorder.LINE:
+                    lastLine = line;
+                    break;
+                case DebugEventRecorder.CALL:
+                    onFunctionCall((FunctionDeclaration) subject);
+                    break;
+                case DebugEventRecorder.VARIABLE_CHANGE:
+                    lastLine = line;
+                    showVariable(String.valueOf(subject), value);
+                    break;
+            }
+        }
+    };
+    /**
+     * the program records its events without waiting for the ui, they are shown here
+     */
+    private final Runnable drainEvents = new Runnable() {
+        @Override
+        public void run() {
+            RuntimeExecutableCodeUnit program = DebugActivity.this.program;
+            DebugEventRecorder recorder = program == null ? null : program.getDebugRecorder();
+            if (recorder != null) {
+                recorder.drain(eventReader);
+                if (lastLine != null) {
+                    showLine(lastLine);
+                    lastLine = null;
+                }
+            }
+            handler.postDelayed(this, DRAIN_INTERVAL);
+        }
+    };
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -90,6 +133,7 @@ public class DebugActivity extends AbstractExecActivity {
                 debugProgram();
             }
         }, 100);
+        handler.post(drainEvents);
     }
 
     @Override
@@ -167,18 +211,10 @@ public class DebugActivity extends AbstractExecActivity {
         createAndRunProgram(filePath);
     }
 
-    @Override
-    public void onLine(final LineInfo lineInfo) {
-        super.onLine(lineInfo);
-        if (lineInfo == null) return;
-        runOnUiThread(new Runnable() {
-            @Override
-            public void run() {
-                mCodeView.pinLine(lineInfo);
-                mScrollView.smoothScrollTo(0, LineUtils.getYAtLine(mScrollView,
-                        mCodeView.getLineCount(), lineInfo.line));
-            }
-        });
+    private void showLine(LineInfo lineInfo) {
+        mCodeView.pinLine(lineInfo);
+        mScrollView.smoothScrollTo(0, LineUtils.getYAtLine(mScrollView,
+                mCodeView.getLineCount(), lineInfo.line));
     }
 
     @Override
@@ -230,6 +266,7 @@ public class DebugActivity extends AbstractExecActivity {
     @Override
     protected void onDestroy() {
         super.onDestroy();
+        handler.removeCallbacks(drainEvents);
         if (alertDialog != null) alertDialog.dismiss();
     }
 
@@ -238,16 +275,9 @@ public class DebugActivity extends AbstractExecActivity {
         return mConsoleView;
     }
 
-    @Override
-    public void onVariableChangeValue(final String name, final Object old, final Object value) {
-        super.onVariableChangeValue(name, old, value);
-        runOnUiThread(new Runnable() {
-            @Override
-            public void run() {
-                VariableWatcherAdapter adapter = (VariableWatcherAdapter) variableWatcherView.getAdapter();
-                adapter.onVariableChangeValue(name, old, value);
-            }
-        });
+    private void showVariable(String name, Object value) {
+        VariableWatcherAdapter adapter = (VariableWatcherAdapter) variableWatcherView.getAdapter();
+        adapter.onVariableChangeValue(name, null, value);
     }
 
 
@@ -16,14 +16,13 @@
 
 package com.duy.pascal.frontend.activities;
 
-import com.duy.pascal.backend.debugable.DebugListener;
-import com.duy.pascal.backend.lib.io.InOutListener;
+import com.duy.pascal.backend.core.ProgramHandler;
 
 /**
  * Created by Duy on 21-Apr-17.
  */
 
 public abstract class RunnableActivity extends AbstractAppCompatActivity implements
-        ExecHandler, InOutListener, DebugListener {
+        ExecHandler, ProgramHandler {
 
 }
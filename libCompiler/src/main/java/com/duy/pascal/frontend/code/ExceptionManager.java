@@ -67,6 +67,7 @@ import com.js.interpreter.runtime.exception.InvalidNumericFormatException;
 import com.js.interpreter.runtime.exception.PascalArithmeticException;
 import com.js.interpreter.runtime.exception.PluginCallException;
 import com.js.interpreter.runtime.exception.RuntimePascalException;
+import com.js.interpreter.runtime.exception.HeapOverflowError;
 import com.js.interpreter.runtime.exception.StackOverflowException;
 
 import java.util.regex.Matcher;
@@ -96,6 +97,9 @@ public class ExceptionManager {
             if (e instanceof StackOverflowException) {
                 return getMessageResource(e, R.string.StackOverflowException);
             }
+            if (e instanceof HeapOverflowError) {
+                return getMessageResource(e, R.string.HeapOverflowError);
+            }
             if (e instanceof MissingSemicolonTokenException) {
                 return getMessageResource(e, R.string.MissingSemicolonTokenException, ((MissingSemicolonTokenException) e).line.line);
             }
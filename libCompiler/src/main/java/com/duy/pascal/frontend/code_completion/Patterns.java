@@ -29,28 +29,29 @@ public class Patterns {
     public static final Pattern LINE = Pattern.compile(".*\\n");
     public static final Pattern NUMBERS = Pattern.compile(
             "\\b(\\d*[.]?\\d+)\\b");
-    public static final Pattern KEYWORDS = Pattern.compile(
-            "\\b(uses|const|do|for|while|if|else|in|case|and|array|begin|div" +
-                    "|downto|to|mod|of" +
-                    "|procedure|program|repeat|until|shl|shr" +
-                    "|then|type|var|end|function" +
-                    "|true|false" +
-                    "|and|or|xor|not|break|exit" +
-                    "|integer|byte|word|shortint|smallint|cardinal" +
-                    "|string|ansistring" +
-                    "|single|real|extended|comp|curreny" +
-                    "|longint|int64|qword|longword|dword" +
-                    "|boolean" +
-                    "|char|text" +
-                    "|record|continue" +
-                    "|unit|interface|initialization|finalization|implementation)\\b",
+    /**
+     * reserved words and names of the basic types, the editor colors them too
+     */
+    public static final String[] KEYWORD_NAMES = {
+            "uses", "const", "do", "for", "while", "if", "else", "in", "case", "and", "array",
+            "begin", "div", "downto", "to", "mod", "of", "procedure", "program", "repeat",
+            "until", "shl", "shr", "then", "type", "var", "end", "function", "true", "false",
+            "or", "xor", "not", "break", "exit", "integer", "byte", "word", "shortint",
+            "smallint", "cardinal", "string", "ansistring", "single", "real", "extended",
+            "comp", "currency", "longint", "int64", "qword", "longword", "dword", "boolean",
+            "char", "text", "record", "continue", "unit", "interface", "initialization",
+            "finalization", "implementation"};
+
+    public static final String[] FUNCTION_NAMES = {
+            "sin", "cos", "sqrt", "length", "exp", "tan", "keyPressed", "readKey", "delay",
+            "random", "randomize", "inc", "dec", "ceil", "trunc", "frac", "floor", "abs",
+            "round", "sqr", "pred", "succ", "ln", "arctan", "odd", "int", "halt"};
+
+    public static final Pattern KEYWORDS = Pattern.compile(words(KEYWORD_NAMES),
             Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
 
-    public static final Pattern FUNCTIONS = Pattern.compile(
-            "\\b(sin|cos|sqrt|length" +
-                    "|exp|tan|keyPressed|readKey|delay|random|randomize|inc|dec" +
-                    "|ceil|trunc|frac|floor|abs|round|sqr|pred|succ|ln|arctan" +
-                    "|odd|int|halt|odd)\\b", Pattern.CASE_INSENSITIVE);
+    public static final Pattern FUNCTIONS = Pattern.compile(words(FUNCTION_NAMES),
+            Pattern.CASE_INSENSITIVE);
 
     public static final Pattern COMMENTS = Pattern.compile(
             "(//.*)|(/\\*(?:.|[\\n\\r])*?\\*/)" +
@@ -61,4 +62,16 @@ public class Patterns {
 
     public static final Pattern STRINGS = Pattern.compile("('(.*?)')|('(.*?)[\\r\\n]+)");
     public static final Pattern REPLACE = Pattern.compile("\"(.*?)\"");
+
+    /**
+     * @return regex which matches one of the whole words
+     */
+    private static String words(String[] names) {
+        StringBuilder regex = new StringBuilder("\\b(");
+        for (int i = 0; i < names.length; i++) {
+            if (i > 0) regex.append('|');
+            regex.append(names[i]);
+        }
+        return regex.append(")\\b").toString();
+    }
 }
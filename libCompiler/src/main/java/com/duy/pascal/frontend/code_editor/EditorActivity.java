@@ -290,8 +290,8 @@ public class EditorActivity extends BaseEditorActivity implements
                 codeUnit = PascalCompiler.loadLibrary(new File(filePath).getName(),
                         new FileReader(filePath), new ArrayList<ScriptSource>(), null);
             } else {
-                codeUnit = PascalCompiler.loadPascal(new File(filePath).getName(),
-                        new FileReader(filePath), new ArrayList<ScriptSource>(), null);
+                codeUnit = PascalCompiler.loadPascalCached(new File(filePath).getName(),
+                        getCode(), null);
                 if (codeUnit != null) {
                     if (((PascalProgram) codeUnit).main == null) {
                         showErrorDialog(new MainProgramNotFoundException());
@@ -185,17 +185,17 @@ public class ApplicationFileManager {
         if (file.canRead()) {
             try {
                 BufferedReader bufferedReader = new BufferedReader(new FileReader(file));
-                String result = "";
+                StringBuilder result = new StringBuilder();
                 String line;
                 while ((line = bufferedReader.readLine()) != null) {
-                    result += line + "\n";
+                    result.append(line).append('\n');
                 }
                 try {
                     bufferedReader.close();
                 } catch (IOException e) {
                     e.printStackTrace();
                 }
-                return result;
+                return result.toString();
             } catch (IOException e) {
                 e.printStackTrace();
             }
@@ -283,6 +283,10 @@ public class PascalPreferences {
         return maxStack;
     }
 
+    public boolean isMeasureControlOverhead() {
+        return getBoolean(context.getString(R.string.key_measure_control_overhead));
+    }
+
     public boolean useLightTheme() {
         return false;
     }
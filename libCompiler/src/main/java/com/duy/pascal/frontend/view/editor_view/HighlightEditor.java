@@ -31,7 +31,6 @@ import android.text.TextWatcher;
 import android.text.method.ArrowKeyMovementMethod;
 import android.text.method.MovementMethod;
 import android.text.style.BackgroundColorSpan;
-import android.text.style.ForegroundColorSpan;
 import android.text.style.StyleSpan;
 import android.text.style.UnderlineSpan;
 import android.util.AttributeSet;
@@ -46,20 +45,13 @@ import com.duy.pascal.backend.linenumber.LineInfo;
 import com.duy.pascal.frontend.R;
 import com.duy.pascal.frontend.theme.util.CodeTheme;
 import com.duy.pascal.frontend.theme.util.CodeThemeUtils;
-import com.js.interpreter.source_include.ScriptSource;
 
-import java.io.StringReader;
-import java.util.ArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
-import static com.duy.pascal.frontend.code_completion.Patterns.COMMENTS;
-import static com.duy.pascal.frontend.code_completion.Patterns.FUNCTIONS;
-import static com.duy.pascal.frontend.code_completion.Patterns.KEYWORDS;
-import static com.duy.pascal.frontend.code_completion.Patterns.NUMBERS;
-import static com.duy.pascal.frontend.code_completion.Patterns.STRINGS;
-import static com.duy.pascal.frontend.code_completion.Patterns.SYMBOLS;
-
 public class HighlightEditor extends CodeSuggestsEditText
         implements View.OnKeyListener {
     public static final String TAG = HighlightEditor.class.getSimpleName();
@@ -67,30 +59,64 @@ public class HighlightEditor extends CodeSuggestsEditText
     public static final int SYNTAX_DELAY_MILLIS_LONG = 700;
     public static final int CHARS_TO_COLOR = 2500;
     private final Handler updateHandler = new Handler();
+    /**
+     * keeps the state of each line, it listens to the text even if the change listener
+     * is disabled
+     */
+    private final SyntaxHighlighter mSyntaxHighlighter = new SyntaxHighlighter();
     private final Object objectThread = new Object();
     public boolean showLines = true;
     public boolean wordWrap = true;
     public LineInfo lineError = null;
     /**
-     * Thread for automatically interpreting the program to catch errors.
+     * auto compile of every editor, one program at a time and never on the ui thread
+     */
+    private static final ExecutorService COMPILE_EXECUTOR = Executors.newSingleThreadExecutor();
+    /**
+     * number of the last compile which is requested, the result of an older one is dropped
+     */
+    private final AtomicInteger compileRequest = new AtomicInteger();
+    /**
+     * text of the last finished compile, {@link #lineError} is its result
+     */
+    private volatile String compiledText = null;
+    /**
+     * Automatically interpreting the program to catch errors.
      * Then show to edit text if there are errors
      */
     private final Runnable compileProgram = new Runnable() {
         @Override
         public void run() {
-            try {
-                PascalCompiler.loadPascal("temp", new StringReader(getCleanText()),
-                        new ArrayList<ScriptSource>(), null);
-                lineError = null;
-            } catch (ParsingException e) {
-                if (e.line != null) {
-                    synchronized (objectThread) {
-                        lineError = e.line;
+            final String text = getCleanText();
+            if (text.equals(compiledText)) {
+                return;
+            }
+            final int request = compileRequest.incrementAndGet();
+            COMPILE_EXECUTOR.execute(new Runnable() {
+                @Override
+                public void run() {
+                    if (request != compileRequest.get()) {
+                        //the text has changed again, only the last one is compiled
+                        return;
+                    }
+                    LineInfo error;
+                    try {
+                        PascalCompiler.loadPascalCached("temp", text, null);
+                        error = null;
+                    } catch (ParsingException e) {
+                        error = e.line;
+                    } catch (Exception e) {
+                        return;
+                    }
+                    if (request == compileRequest.get()) {
+                        synchronized (objectThread) {
+                            lineError = error;
+                        }
+                        compiledText = text;
+                        postInvalidate();
                     }
                 }
-                e.printStackTrace();
-            } catch (Exception ignored) {
-            }
+            });
         }
     };
     protected Paint mPaintNumbers;
@@ -193,11 +219,13 @@ public class HighlightEditor extends CodeSuggestsEditText
 
         mChangeListener = new EditTextChangeListener();
 
+        addTextChangedListener(mSyntaxHighlighter);
         enableTextChangedListener();
     }
 
     public void setColorTheme(int id) {
         codeTheme = CodeTheme.getTheme(id, mContext);
+        mSyntaxHighlighter.invalidateColors();
         setBackgroundColor(codeTheme.getBackground());
         setTextColor(codeTheme.getTextColor());
 
@@ -214,6 +242,7 @@ public class HighlightEditor extends CodeSuggestsEditText
          */
 
         codeTheme = new CodeTheme(true);
+        mSyntaxHighlighter.invalidateColors();
         int style = CodeThemeUtils.getCodeTheme(mContext, name);
         TypedArray typedArray = mContext.obtainStyledAttributes(style,
                 R.styleable.CodeTheme);
@@ -357,6 +386,7 @@ public class HighlightEditor extends CodeSuggestsEditText
      */
     public void setTextHighlighted(CharSequence text) {
         lineError = null;
+        compiledText = null;
         setText(text);
         refresh();
     }
@@ -624,15 +654,9 @@ public class HighlightEditor extends CodeSuggestsEditText
     }
 
     /**
-     * remove span from start to end
+     * remove span from start to end, colors of the syntax are kept by {@link SyntaxHighlighter}
      */
     private void clearSpans(Editable e, int start, int end) {
-        {
-            ForegroundColorSpan spans[] = e.getSpans(start, end, ForegroundColorSpan.class);
-            for (ForegroundColorSpan span : spans) {
-                e.removeSpan(span);
-            }
-        }
         {
             BackgroundColorSpan spans[] = e.getSpans(start, end, BackgroundColorSpan.class);
             for (BackgroundColorSpan span : spans) {
@@ -690,69 +714,12 @@ public class HighlightEditor extends CodeSuggestsEditText
         //clear all span for firstVisibleIndex to lastVisibleIndex
         clearSpans(editable, firstVisibleIndex, lastVisibleIndex);
 
-        CharSequence textToHighlight = editable.subSequence(firstVisibleIndex, lastVisibleIndex);
-        color(editable, textToHighlight, firstVisibleIndex);
+        mSyntaxHighlighter.color(editable, firstVisibleIndex, lastVisibleIndex, codeTheme);
+        highlightLineError(editable);
         applyTabWidth(editable, firstVisibleIndex, lastVisibleIndex);
         return editable;
     }
 
-    private void color(Editable allText, CharSequence textToHighlight, int start) {
-        try {
-            //high light number
-            for (Matcher m = NUMBERS.matcher(textToHighlight); m.find(); ) {
-                allText.setSpan(new ForegroundColorSpan(codeTheme.getNumberColor()),
-                        start + m.start(),
-                        start + m.end(),
-                        Spannable.SPAN_EXCLUSIVE_EXCLUSIVE);
-            }
-            for (Matcher m = KEYWORDS.matcher(textToHighlight); m.find(); ) {
-                allText.setSpan(new ForegroundColorSpan(codeTheme.getKeywordColor()),
-                        start + m.start(),
-                        start + m.end(),
-                        Spannable.SPAN_EXCLUSIVE_EXCLUSIVE);
-            }
-            for (Matcher m = FUNCTIONS.matcher(textToHighlight); m.find(); ) {
-                allText.setSpan(new ForegroundColorSpan(codeTheme.getKeywordColor()),
-                        start + m.start(),
-                        start + m.end(),
-                        Spannable.SPAN_EXCLUSIVE_EXCLUSIVE);
-            }
-            //find it
-            for (Matcher m = SYMBOLS.matcher(textToHighlight); m.find(); ) {
-                //if match, you can replace text with other style
-                allText.setSpan(new ForegroundColorSpan(codeTheme.getOptColor()),
-                        start + m.start(),
-                        start + m.end(),
-                        Spannable.SPAN_EXCLUSIVE_EXCLUSIVE);
-
-            }
-            for (Matcher m = STRINGS.matcher(textToHighlight); m.find(); ) {
-                ForegroundColorSpan spans[] = allText.getSpans(start + m.start(), start + m.end(),
-                        ForegroundColorSpan.class);
-
-                for (int n = spans.length; n-- > 0; )
-                    allText.removeSpan(spans[n]);
-
-                allText.setSpan(new ForegroundColorSpan(codeTheme.getStringColor()),
-                        start + m.start(),
-                        start + m.end(), Spannable.SPAN_EXCLUSIVE_EXCLUSIVE);
-            }
-            for (Matcher m = COMMENTS.matcher(textToHighlight); m.find(); ) {
-                ForegroundColorSpan spans[] = allText.getSpans(start + m.start(), start + m.end(),
-                        ForegroundColorSpan.class);
-                for (int n = spans.length; n-- > 0; )
-                    allText.removeSpan(spans[n]);
-
-                allText.setSpan(new ForegroundColorSpan(codeTheme.getCommentColor()),
-                        start + m.start(),
-                        start + m.end(),
-                        Spannable.SPAN_EXCLUSIVE_EXCLUSIVE);
-            }
-            highlightLineError(allText);
-        } catch (Exception e) {
-        }
-    }
-
     public void enableTextChangedListener() {
         if (!enabledChangeListener) {
             addTextChangedListener(mChangeListener);
@@ -800,6 +767,7 @@ public class HighlightEditor extends CodeSuggestsEditText
 
             if (!autoCompile) {
                 lineError = null;
+                compiledText = null;
             }
             startCompile(200);
             if (s.length() > start && count == 1) {
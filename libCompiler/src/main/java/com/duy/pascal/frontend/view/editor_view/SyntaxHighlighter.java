@@ -0,0 +1,385 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.frontend.view.editor_view;
+
+import android.text.Editable;
+import android.text.Spannable;
+import android.text.TextWatcher;
+import android.text.style.ForegroundColorSpan;
+
+import com.duy.pascal.frontend.code_completion.Patterns;
+import com.duy.pascal.frontend.theme.util.CodeTheme;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Locale;
+
+/**
+ * Colors pascal code with one scan of each line.
+ * <p>
+ * The state of the scanner at the start of each line is kept, it is only not {@link #NORMAL}
+ * inside a comment of many lines. When the text is edited, the lines after the edit are
+ * scanned again until a line starts with the same state as before, and a visible line only
+ * gets new spans if it is edited or its start state has changed.
+ */
+class SyntaxHighlighter implements TextWatcher {
+    private static final int NORMAL = 0;
+    private static final int BRACE_COMMENT = 1;
+    private static final int PAREN_COMMENT = 2;
+    private static final int C_COMMENT = 3;
+    /**
+     * state of a line which is inserted and not scanned yet, or has no spans
+     */
+    private static final int UNKNOWN = -1;
+
+    private static final HashSet<String> KEYWORDS = new HashSet<>();
+    private static final String SYMBOLS = "+-*=<>/:)(][;";
+
+    private static final int COMMENT = 0;
+    private static final int STRING = 1;
+    private static final int NUMBER = 2;
+    private static final int KEYWORD = 3;
+    private static final int SYMBOL = 4;
+
+    static {
+        for (String name : Patterns.KEYWORD_NAMES) {
+            KEYWORDS.add(name.toLowerCase(Locale.US));
+        }
+        for (String name : Patterns.FUNCTION_NAMES) {
+            KEYWORDS.add(name.toLowerCase(Locale.US));
+        }
+    }
+
+    /**
+     * offset of the first char of each line
+     */
+    private int[] lineStarts = new int[64];
+    /**
+     * state at the start of each line, exact for the lines before {@link #validLines} and
+     * the state before the last edits for the lines before {@link #knownLines}
+     */
+    private int[] lineStates = new int[64];
+    /**
+     * start state which the line had when its spans were set, {@link #UNKNOWN} if the line
+     * has no spans
+     */
+    private int[] coloredStates = new int[64];
+    private int lineCount = 1;
+    private int validLines = 1;
+    private int knownLines = 1;
+    /**
+     * last line which is edited since the states were valid, -1 if none
+     */
+    private int dirtyEnd = -1;
+    private int textLength = 0;
+    private int removedLines;
+
+    SyntaxHighlighter() {
+        coloredStates[0] = UNKNOWN;
+    }
+
+    private static int countLines(CharSequence s, int start, int end) {
+        int count = 0;
+        for (int i = start; i < end; i++) {
+            if (s.charAt(i) == '\n') count++;
+        }
+        return count;
+    }
+
+    private static boolean isWordStart(char c) {
+        return Character.isLetter(c) || c == '_';
+    }
+
+    private static boolean isWordPart(char c) {
+        return Character.isLetterOrDigit(c) || c == '_';
+    }
+
+    @Override
+    public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+        removedLines = countLines(s, start, start + count);
+    }
+
+    @Override
+    public void onTextChanged(CharSequence s, int start, int before, int count) {
+        if (s.length() - count + before != textLength) {
+            //an edit was missed, scan everything again
+            reset(s);
+            return;
+        }
+        int first = lineOf(start);
+        if (first + 1 < validLines && validLines < knownLines) {
+            //the states after validLines are older than the states before it, so they can
+            //not be compared with the states which are scanned again
+            knownLines = validLines;
+        }
+        int inserted = countLines(s, start, start + count);
+        int delta = count - before;
+        int shift = inserted - removedLines;
+
+        ensureCapacity(lineCount + shift);
+        int tail = lineCount - (first + 1 + removedLines);
+        System.arraycopy(lineStarts, first + 1 + removedLines, lineStarts, first + 1 + inserted, tail);
+        System.arraycopy(lineStates, first + 1 + removedLines, lineStates, first + 1 + inserted, tail);
+        System.arraycopy(coloredStates, first + 1 + removedLines, coloredStates, first + 1 + inserted, tail);
+        lineCount += shift;
+        for (int i = first + 1 + inserted; i < lineCount; i++) {
+            lineStarts[i] += delta;
+        }
+        int line = first;
+        for (int i = start; i < start + count; i++) {
+            if (s.charAt(i) == '\n') {
+                line++;
+                lineStarts[line] = i + 1;
+                lineStates[line] = UNKNOWN;
+            }
+        }
+        for (int i = first; i <= first + inserted; i++) {
+            coloredStates[i] = UNKNOWN;
+        }
+
+        if (dirtyEnd > first + removedLines) {
+            dirtyEnd += shift;
+        }
+        dirtyEnd = Math.max(dirtyEnd, first + inserted);
+        if (knownLines > first + removedLines) {
+            knownLines += shift;
+        } else {
+            knownLines = Math.min(knownLines, first + 1);
+        }
+        validLines = Math.min(validLines, first + 1);
+        textLength = s.length();
+    }
+
+    @Override
+    public void afterTextChanged(Editable s) {
+    }
+
+    /**
+     * forget all states and spans, the text is scanned again when it is colored
+     */
+    void reset(CharSequence s) {
+        int count = countLines(s, 0, s.length()) + 1;
+        lineCount = 1;
+        ensureCapacity(count);
+        lineCount = count;
+        int line = 0;
+        lineStarts[0] = 0;
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) == '\n') {
+                lineStarts[++line] = i + 1;
+            }
+        }
+        Arrays.fill(coloredStates, 0, lineCount, UNKNOWN);
+        lineStates[0] = NORMAL;
+        validLines = 1;
+        knownLines = 1;
+        dirtyEnd = -1;
+        textLength = s.length();
+    }
+
+    /**
+     * set the spans of all lines again, used when the theme changes
+     */
+    void invalidateColors() {
+        Arrays.fill(coloredStates, 0, lineCount, UNKNOWN);
+    }
+
+    /**
+     * color the lines between the offsets, lines which are already colored are not changed
+     */
+    void color(Editable text, int start, int end, CodeTheme theme) {
+        if (text.length() != textLength) {
+            reset(text);
+        }
+        int firstLine = lineOf(start);
+        int lastLine = lineOf(end);
+        computeStates(text, lastLine);
+        for (int line = firstLine; line <= lastLine; line++) {
+            if (coloredStates[line] != lineStates[line]) {
+                int lineStart = lineStarts[line];
+                int lineEnd = lineEnd(line);
+                //a span may be left on the line break after a part of the line is deleted
+                ForegroundColorSpan[] spans = text.getSpans(lineStart,
+                        Math.min(lineEnd + 1, textLength), ForegroundColorSpan.class);
+                for (ForegroundColorSpan span : spans) {
+                    text.removeSpan(span);
+                }
+                scanLine(text, lineStart, lineEnd, lineStates[line], theme);
+                coloredStates[line] = lineStates[line];
+            }
+        }
+    }
+
+    private int lineEnd(int line) {
+        return line + 1 < lineCount ? lineStarts[line + 1] - 1 : textLength;
+    }
+
+    /**
+     * @return line which contains the offset
+     */
+    private int lineOf(int offset) {
+        int index = Arrays.binarySearch(lineStarts, 0, lineCount, offset);
+        return index >= 0 ? index : -index - 2;
+    }
+
+    /**
+     * compute the start states of the lines until the last line
+     */
+    private void computeStates(CharSequence text, int lastLine) {
+        while (validLines <= lastLine) {
+            int line = validLines - 1;
+            int state = scanLine(text, lineStarts[line], lineEnd(line), lineStates[line], null);
+            int next = line + 1;
+            if (next > dirtyEnd && next < knownLines && lineStates[next] == state) {
+                //the text after is not changed and starts as before
+                validLines = knownLines;
+            } else {
+                lineStates[next] = state;
+                validLines = next + 1;
+            }
+        }
+        if (validLines >= knownLines) {
+            knownLines = validLines;
+            dirtyEnd = -1;
+        }
+    }
+
+    /**
+     * scan one line and set the spans of its tokens if the theme is not null
+     *
+     * @return state at the end of the line
+     */
+    private int scanLine(CharSequence text, int start, int end, int state, CodeTheme theme) {
+        int i = start;
+        if (state != NORMAL) {
+            int close = findCommentEnd(text, i, end, state);
+            setSpan(text, theme, COMMENT, i,
+                    close < 0 ? end : close);
+            if (close < 0) {
+                return state;
+            }
+            i = close;
+        }
+        while (i < end) {
+            char c = text.charAt(i);
+            char next = i + 1 < end ? text.charAt(i + 1) : 0;
+            int commentState = NORMAL;
+            if (c == '{') {
+                commentState = BRACE_COMMENT;
+            } else if (c == '(' && next == '*') {
+                commentState = PAREN_COMMENT;
+            } else if (c == '/' && next == '*') {
+                commentState = C_COMMENT;
+            }
+            if (commentState != NORMAL) {
+                int close = findCommentEnd(text, i + (commentState == BRACE_COMMENT ? 1 : 2),
+                        end, commentState);
+                setSpan(text, theme, COMMENT, i,
+                        close < 0 ? end : close);
+                if (close < 0) {
+                    return commentState;
+                }
+                i = close;
+            } else if (c == '/' && next == '/') {
+                setSpan(text, theme, COMMENT, i, end);
+                return NORMAL;
+            } else if (c == '\'') {
+                int close = i + 1;
+                while (close < end && text.charAt(close) != '\'') close++;
+                close = Math.min(close + 1, end);
+                setSpan(text, theme, STRING, i, close);
+                i = close;
+            } else if (Character.isDigit(c)) {
+                int j = i + 1;
+                while (j < end && Character.isDigit(text.charAt(j))) j++;
+                if (j + 1 < end && text.charAt(j) == '.' && Character.isDigit(text.charAt(j + 1))) {
+                    j++;
+                    while (j < end && Character.isDigit(text.charAt(j))) j++;
+                }
+                setSpan(text, theme, NUMBER, i, j);
+                i = j;
+            } else if (isWordStart(c)) {
+                int j = i + 1;
+                while (j < end && isWordPart(text.charAt(j))) j++;
+                if (theme != null && KEYWORDS.contains(
+                        text.subSequence(i, j).toString().toLowerCase(Locale.US))) {
+                    setSpan(text, theme, KEYWORD, i, j);
+                }
+                i = j;
+            } else {
+                if (SYMBOLS.indexOf(c) >= 0) {
+                    setSpan(text, theme, SYMBOL, i, i + 1);
+                }
+                i++;
+            }
+        }
+        return NORMAL;
+    }
+
+    /**
+     * @return offset after the end of the comment, -1 if it does not end in the line
+     */
+    private int findCommentEnd(CharSequence text, int start, int end, int state) {
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (state == BRACE_COMMENT) {
+                if (c == '}') return i + 1;
+            } else if (c == '*' && i + 1 < end) {
+                char next = text.charAt(i + 1);
+                if ((state == PAREN_COMMENT && next == ')') || (state == C_COMMENT && next == '/')) {
+                    return i + 2;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private void setSpan(CharSequence text, CodeTheme theme, int kind, int start, int end) {
+        if (theme == null || start >= end) {
+            return;
+        }
+        int color;
+        switch (kind) {
+            case COMMENT:
+                color = theme.getCommentColor();
+                break;
+            case STRING:
+                color = theme.getStringColor();
+                break;
+            case NUMBER:
+                color = theme.getNumberColor();
+                break;
+            case KEYWORD:
+                color = theme.getKeywordColor();
+                break;
+            default:
+                color = theme.getOptColor();
+                break;
+        }
+        ((Spannable) text).setSpan(new ForegroundColorSpan(color), start, end,
+                Spannable.SPAN_EXCLUSIVE_EXCLUSIVE);
+    }
+
+    private void ensureCapacity(int lines) {
+        if (lines > lineStarts.length) {
+            int size = Math.max(lines, lineStarts.length * 2);
+            lineStarts = Arrays.copyOf(lineStarts, size);
+            lineStates = Arrays.copyOf(lineStates, size);
+            coloredStates = Arrays.copyOf(coloredStates, size);
+        }
+    }
+}
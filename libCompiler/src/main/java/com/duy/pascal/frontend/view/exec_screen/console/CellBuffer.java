@@ -0,0 +1,162 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.frontend.view.exec_screen.console;
+
+import java.util.Arrays;
+
+/**
+ * Cells of the console, a ring of {@link #getRows()} rows of {@link #getColumns()} cells.
+ * <p>
+ * The character, the colors and the alpha of a cell are stored in parallel arrays, so a
+ * write only stores primitives and the renderer draws a run of cells with the same
+ * attributes in one call. A row which is written is marked in a bitmap until the view
+ * has drawn it.
+ */
+public class CellBuffer {
+    /**
+     * character of a cell which has never been written, a row ends at the first cell
+     * which is lower than a space
+     */
+    public static final char EMPTY = '\0';
+
+    private final int rows;
+    private final int columns;
+    private final char[] text;
+    private final int[] textColor;
+    private final int[] background;
+    private final int[] alpha;
+    private final long[] dirtyRows;
+    private boolean dirty;
+
+    public CellBuffer(int rows, int columns) {
+        this.rows = rows;
+        this.columns = columns;
+        int size = rows * columns;
+        this.text = new char[size];
+        this.textColor = new int[size];
+        this.background = new int[size];
+        this.alpha = new int[size];
+        this.dirtyRows = new long[(rows + 63) >> 6];
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public int getSize() {
+        return text.length;
+    }
+
+    public char getChar(int index) {
+        return text[index];
+    }
+
+    public int getTextColor(int index) {
+        return textColor[index];
+    }
+
+    public int getBackground(int index) {
+        return background[index];
+    }
+
+    public int getAlpha(int index) {
+        return alpha[index];
+    }
+
+    char[] getText() {
+        return text;
+    }
+
+    public void set(int index, char c, int textColor, int background, int alpha) {
+        this.text[index] = c;
+        this.textColor[index] = textColor;
+        this.background[index] = background;
+        this.alpha[index] = alpha;
+        markDirty(index / columns);
+    }
+
+    /**
+     * copy the characters from start to end of the text to the cells from index, all cells
+     * must be in the same row
+     */
+    public void write(int index, String text, int start, int end, int textColor, int background,
+                      int alpha) {
+        int last = index + end - start;
+        text.getChars(start, end, this.text, index);
+        Arrays.fill(this.textColor, index, last, textColor);
+        Arrays.fill(this.background, index, last, background);
+        Arrays.fill(this.alpha, index, last, alpha);
+        markDirty(index / columns);
+    }
+
+    /**
+     * change the character of a cell and keep its colors
+     */
+    public void setChar(int index, char c) {
+        text[index] = c;
+        markDirty(index / columns);
+    }
+
+    /**
+     * set the character of count cells from start, start + count must not be greater than
+     * the size of the buffer
+     */
+    public void fill(int start, int count, char c) {
+        if (count <= 0) return;
+        Arrays.fill(text, start, start + count, c);
+        int lastRow = (start + count - 1) / columns;
+        for (int row = start / columns; row <= lastRow; row++) {
+            markDirty(row);
+        }
+    }
+
+    /**
+     * @return the number of cells from start which are not lower than a space, at most
+     * limit
+     */
+    public int runLength(int start, int limit) {
+        int count = 0;
+        while (count < limit && text[start + count] >= ' ') {
+            count++;
+        }
+        return count;
+    }
+
+    public void markDirty(int row) {
+        dirtyRows[row >> 6] |= 1L << row;
+        dirty = true;
+    }
+
+    public boolean isDirty(int row) {
+        return (dirtyRows[row >> 6] & (1L << row)) != 0;
+    }
+
+    public boolean hasDirtyRows() {
+        return dirty;
+    }
+
+    public void clearDirty() {
+        if (dirty) {
+            Arrays.fill(dirtyRows, 0L);
+            dirty = false;
+        }
+    }
+}
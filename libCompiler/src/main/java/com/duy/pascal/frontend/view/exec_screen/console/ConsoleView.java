@@ -24,6 +24,7 @@ import android.graphics.Rect;
 import android.os.Bundle;
 import android.os.Handler;
 import android.support.annotation.NonNull;
+import android.support.v4.view.ViewCompat;
 import android.text.InputType;
 import android.util.AttributeSet;
 import android.util.Log;
@@ -45,16 +46,13 @@ import com.duy.pascal.backend.lib.graph.GraphScreen;
 import com.duy.pascal.backend.lib.graph.graphic_model.GraphObject;
 import com.duy.pascal.frontend.Dlog;
 import com.duy.pascal.frontend.setting.PascalPreferences;
-import com.duy.pascal.frontend.utils.StringCompare;
-
-import static com.duy.pascal.frontend.utils.StringCompare.isGreaterEqual;
-import static com.duy.pascal.frontend.utils.StringCompare.isLessThan;
 
 public class ConsoleView extends View implements GestureDetector.OnGestureListener,
         GestureDetector.OnDoubleTapListener {
     public static final String TAG = ConsoleView.class.getSimpleName();
     public static final String THE_DELETE_COMMAND = "\u2764";
     public static final String THE_ENTER_KEY = "\u2713";
+    private static final char DELETE_CHAR = '\u2764';
     public Handler handler = new Handler();
     public int firstLine;
     private boolean graphMode = false;
@@ -89,8 +87,58 @@ public class ConsoleView extends View implements GestureDetector.OnGestureListen
     private boolean filterKey = false;
     private PascalPreferences mPascalPreferences;
     private String mImeBuffer = "";
-    private TextConsole[] textImeBuffer;
     private boolean stop;
+    /**
+     * true while {@link #mFrame} is posted, the text is redrawn at most once per frame
+     */
+    private boolean mFramePosted;
+    private int mFrameFirstRow;
+    private int mFrameFirstLine;
+    private int mFrameCursorY;
+    private Rect mClipRect = new Rect();
+    private final Runnable mFrame = new Runnable() {
+        @Override
+        public void run() {
+            int top = Integer.MAX_VALUE;
+            int bottom = -1;
+            synchronized (ConsoleView.this) {
+                mFramePosted = false;
+                CellBuffer cells = mScreenBufferData.cells;
+                if (cells == null || !cells.hasDirtyRows() && mCursor.y == mFrameCursorY) {
+                    return;
+                }
+                int firstRow = mScreenBufferData.firstIndex / cells.getColumns();
+                if (firstRow != mFrameFirstRow || firstLine != mFrameFirstLine) {
+                    //the text is scrolled, every row has moved
+                    top = 0;
+                    bottom = mConsoleScreen.consoleRow;
+                } else {
+                    for (int row = 0; row < mConsoleScreen.consoleRow; row++) {
+                        if (cells.isDirty((firstRow + firstLine + row) % cells.getRows())) {
+                            top = Math.min(top, row);
+                            bottom = row + 1;
+                        }
+                    }
+                    int[] cursorRows = {mFrameCursorY - firstLine, mCursor.y - firstLine};
+                    for (int row : cursorRows) {
+                        if (row >= 0 && row < mConsoleScreen.consoleRow) {
+                            top = Math.min(top, row);
+                            bottom = Math.max(bottom, row + 1);
+                        }
+                    }
+                }
+                mFrameFirstRow = firstRow;
+                mFrameFirstLine = firstLine;
+                mFrameCursorY = mCursor.y;
+                cells.clearDirty();
+            }
+            if (top < bottom) {
+                int y = mConsoleScreen.getTopVisible();
+                int charHeight = mTextRenderer.getCharHeight();
+                invalidate(0, y + top * charHeight, getWidth(), y + bottom * charHeight + 1);
+            }
+        }
+    };
 
     public ConsoleView(Context context, AttributeSet attrs) {
         super(context, attrs, 0);
@@ -142,7 +190,7 @@ public class ConsoleView extends View implements GestureDetector.OnGestureListen
 
         firstLine = 0;
         mScreenBufferData.firstIndex = 0;
-        mScreenBufferData.textConsole = null;
+        mScreenBufferData.cells = null;
 
         mCursor = new ConsoleCursor(0, 0, Color.DKGRAY);
         mCursor.setCoordinate(0, 0);
@@ -166,43 +214,62 @@ public class ConsoleView extends View implements GestureDetector.OnGestureListen
         return mScreenBufferData.keyBuffer.getChar();
     }
 
-    public void write(String c, boolean isMaskBuffer) {
+    /**
+     * put one key in the buffer key, like a key pressed by the user
+     */
+    public void putKey(char c) {
+        mScreenBufferData.keyBuffer.putChar(c);
+    }
+
+    /**
+     * redraw the rows which are changed at the next frame, so many writes between two
+     * frames only draw the console once
+     */
+    private synchronized void requestFrame() {
+        if (!mFramePosted) {
+            mFramePosted = true;
+            ViewCompat.postOnAnimation(this, mFrame);
+        }
+    }
+
+    private int cursorIndex() {
         int index = mScreenBufferData.firstIndex + mCursor.y * mConsoleScreen.consoleColumn + mCursor.x;
         if (index >= mConsoleScreen.getScreenSize()) {
             index -= mConsoleScreen.getScreenSize();
         }
-        switch (c) {
-            case "\n":
-                mScreenBufferData.textConsole[index].setText("\n");
-                mScreenBufferData.textConsole[index].setTextBackground(mTextRenderer.getBackgroundColor());
-                mScreenBufferData.textConsole[index].setTextColor(mTextRenderer.getTextColor());
-                mScreenBufferData.textConsole[index].setAlpha(mTextRenderer.getAlpha());
-                nextLine();
-                break;
-            case "\177":
-            case THE_DELETE_COMMAND:
-                backspace(index);
-                break;
-            default:
-                makeCursorVisible();
-                if (isGreaterEqual(c, " ")) {
-                    mScreenBufferData.textConsole[index].setText(c);
-                    mScreenBufferData.textConsole[index].setTextBackground(
-                            isMaskBuffer ? Color.DKGRAY : mTextRenderer.getBackgroundColor());
-                    mScreenBufferData.textConsole[index].setTextColor(mTextRenderer.getTextColor());
-                    mScreenBufferData.textConsole[index].setAlpha(mTextRenderer.getAlpha());
-                    mCursor.x++;
-                    if (mCursor.x >= mConsoleScreen.consoleColumn) {
-                        nextLine();
-                    }
+        return index;
+    }
+
+    private static boolean isPrintable(char c) {
+        return c >= ' ' && c != '\177' && c != DELETE_CHAR;
+    }
+
+    private void write(char c, boolean isMaskBuffer) {
+        CellBuffer cells = mScreenBufferData.cells;
+        int index = cursorIndex();
+        if (c == '\n') {
+            cells.set(index, '\n', mTextRenderer.getTextColor(),
+                    mTextRenderer.getBackgroundColor(), mTextRenderer.getAlpha());
+            nextLine();
+        } else if (c == '\177' || c == DELETE_CHAR) {
+            backspace(index);
+        } else {
+            makeCursorVisible();
+            if (c >= ' ') {
+                cells.set(index, c, mTextRenderer.getTextColor(),
+                        isMaskBuffer ? Color.DKGRAY : mTextRenderer.getBackgroundColor(),
+                        mTextRenderer.getAlpha());
+                mCursor.x++;
+                if (mCursor.x >= mConsoleScreen.consoleColumn) {
+                    nextLine();
                 }
+            }
         }
-
-        postInvalidate();
     }
 
     //set cursor index
-    public void setConsoleCursorPosition(int x, int y) {
+    public synchronized void setConsoleCursorPosition(int x, int y) {
+        CellBuffer cells = mScreenBufferData.cells;
         int index, i;
         mCursor.y = y;
         index = mScreenBufferData.firstIndex + mCursor.y * mConsoleScreen.consoleColumn;
@@ -210,13 +277,13 @@ public class ConsoleView extends View implements GestureDetector.OnGestureListen
         i = index;
 
         while (i - index <= x) {
-            if (isLessThan(mScreenBufferData.textConsole[i].getSingleString(), " ")) break;
+            if (cells.getChar(i) < ' ') break;
             i++;
         }
 
         while (i - index < x) {
-            if (isLessThan(mScreenBufferData.textConsole[i].getSingleString(), " ")) {
-                mScreenBufferData.textConsole[i].setText(" ");
+            if (cells.getChar(i) < ' ') {
+                cells.setChar(i, ' ');
             }
             i++;
         }
@@ -224,13 +291,15 @@ public class ConsoleView extends View implements GestureDetector.OnGestureListen
     }
 
     public void backspace(int index) {
+        CellBuffer cells = mScreenBufferData.cells;
+        int previous = index > 0 ? index - 1 : cells.getSize() - 1;
         if (mCursor.x > 0) {
             mCursor.x--;
-            mScreenBufferData.textConsole[index - 1].setText("\0");
+            cells.setChar(previous, CellBuffer.EMPTY);
         } else {
             if (mCursor.y > 0) {
-                if (isGreaterEqual(mScreenBufferData.textConsole[index - 1].getSingleString(), " ")) {
-                    mScreenBufferData.textConsole[index - 1].setText("\0");
+                if (cells.getChar(previous) >= ' ') {
+                    cells.setChar(previous, CellBuffer.EMPTY);
                     mCursor.x = mConsoleScreen.consoleColumn - 1;
                     mCursor.y--;
                     makeCursorVisible();
@@ -239,9 +308,35 @@ public class ConsoleView extends View implements GestureDetector.OnGestureListen
         }
     }
 
+    /**
+     * write the text at the cursor, a run of printable characters is copied to the row at once
+     */
     public synchronized void writeString(String msg) {
-        for (int i = 0; i < msg.length(); i++)
-            write(msg.substring(i, i + 1), false);
+        CellBuffer cells = mScreenBufferData.cells;
+        int length = msg.length();
+        int i = 0;
+        while (i < length) {
+            char c = msg.charAt(i);
+            if (!isPrintable(c)) {
+                write(c, false);
+                i++;
+                continue;
+            }
+            int end = Math.min(length, i + mConsoleScreen.consoleColumn - mCursor.x);
+            int runEnd = i + 1;
+            while (runEnd < end && isPrintable(msg.charAt(runEnd))) {
+                runEnd++;
+            }
+            makeCursorVisible();
+            cells.write(cursorIndex(), msg, i, runEnd, mTextRenderer.getTextColor(),
+                    mTextRenderer.getBackgroundColor(), mTextRenderer.getAlpha());
+            mCursor.x += runEnd - i;
+            if (mCursor.x >= mConsoleScreen.consoleColumn) {
+                nextLine();
+            }
+            i = runEnd;
+        }
+        requestFrame();
     }
 
     private void nextLine() {
@@ -249,8 +344,8 @@ public class ConsoleView extends View implements GestureDetector.OnGestureListen
         mCursor.y++;
         if (mCursor.y >= mConsoleScreen.getMaxLines()) {
             mCursor.y = mConsoleScreen.getMaxLines() - 1;
-            for (int i = 0; i < mConsoleScreen.consoleColumn; i++)
-                mScreenBufferData.textConsole[mScreenBufferData.firstIndex + i].setText("\0");
+            mScreenBufferData.cells.fill(mScreenBufferData.firstIndex,
+                    mConsoleScreen.consoleColumn, CellBuffer.EMPTY);
             mScreenBufferData.firstIndex += mConsoleScreen.consoleColumn;
             if (mScreenBufferData.firstIndex >= mConsoleScreen.getScreenSize())
                 mScreenBufferData.firstIndex = 0;
@@ -278,9 +373,8 @@ public class ConsoleView extends View implements GestureDetector.OnGestureListen
      * clear screen
      * clrscr command in pascal
      */
-    public void clearScreen() {
-        for (int i = 0; i < mConsoleScreen.getScreenSize(); i++)
-            mScreenBufferData.textConsole[i].setText("\0");
+    public synchronized void clearScreen() {
+        mScreenBufferData.cells.fill(0, mConsoleScreen.getScreenSize(), CellBuffer.EMPTY);
         mCursor.setCoordinate(0, 0);
         firstLine = 0;
         mScreenBufferData.firstIndex = 0;
@@ -344,7 +438,7 @@ public class ConsoleView extends View implements GestureDetector.OnGestureListen
         return i;
     }
 
-    public boolean updateSize(int newWidth, int newHeight) throws ArrayIndexOutOfBoundsException {
+    public synchronized boolean updateSize(int newWidth, int newHeight) throws ArrayIndexOutOfBoundsException {
 
         int newColumn = newWidth / mTextRenderer.getCharWidth();
         int i, j;
@@ -355,23 +449,24 @@ public class ConsoleView extends View implements GestureDetector.OnGestureListen
         if (newColumn != mConsoleScreen.consoleColumn) {
             int newScreenSize = mConsoleScreen.getMaxLines() * newColumn;
             Log.d(TAG, "updateSize: " + newScreenSize + " " + mConsoleScreen.getMaxLines() + " " + newColumn);
-            TextConsole newScreenBuffer[] = new TextConsole[newScreenSize];
-            for (i = 0; i < newScreenSize; i++) {
-                newScreenBuffer[i] = new TextConsole();
-            }
-            if (mScreenBufferData.textConsole != null) {
+            CellBuffer oldCells = mScreenBufferData.cells;
+            CellBuffer newCells = new CellBuffer(mConsoleScreen.getMaxLines(), newColumn);
+            if (oldCells != null) {
                 i = 0;
                 int nextj = 0;
                 int endi = mCursor.y * mConsoleScreen.consoleColumn + mCursor.x;
-                String c;
+                char c;
                 do {
                     j = nextj;
                     do {
-                        c = mScreenBufferData.textConsole[trueIndex(i++, mScreenBufferData.firstIndex, mConsoleScreen.getScreenSize())].getSingleString();
-                        newScreenBuffer[trueIndex(j++, newFirstIndex, newScreenSize)].setText(c);
+                        int from = trueIndex(i++, mScreenBufferData.firstIndex, mConsoleScreen.getScreenSize());
+                        c = oldCells.getChar(from);
+                        newCells.set(trueIndex(j++, newFirstIndex, newScreenSize), c,
+                                oldCells.getTextColor(from), oldCells.getBackground(from),
+                                oldCells.getAlpha(from));
                         newFirstIndex = Math.max(0, j / newColumn - mConsoleScreen.getMaxLines() + 1) * newColumn;
                     }
-                    while (StringCompare.isGreaterEqual(c, " "));
+                    while (c >= ' ');
                     i--;
                     j--;
 
@@ -379,13 +474,13 @@ public class ConsoleView extends View implements GestureDetector.OnGestureListen
                     nextj = j + (newColumn - j % newColumn);
                 }
                 while (i < endi);
-                if (c.equals("\n")) j = nextj;
+                if (c == '\n') j = nextj;
                 mCursor.y = j / newColumn;
                 mCursor.x = j % newColumn;
             }
             mConsoleScreen.setConsoleColumn(newColumn);
             mConsoleScreen.setScreenSize(newScreenSize);
-            mScreenBufferData.setTextConsole(newScreenBuffer);
+            mScreenBufferData.setCells(newCells);
             mScreenBufferData.firstIndex = newFirstIndex;
         }
         makeCursorVisible();
@@ -696,16 +791,17 @@ public class ConsoleView extends View implements GestureDetector.OnGestureListen
         };
     }
 
-    private void setImeBuffer(String buffer) {
+    private synchronized void setImeBuffer(String buffer) {
         Log.d(TAG, "setImeBuffer: " + buffer);
         //delete last buffer in screen
         for (int i = 0; i < mImeBuffer.length(); i++) {
-            write(THE_DELETE_COMMAND, false);
+            write(DELETE_CHAR, false);
         }
         mImeBuffer = buffer;
-        if (mImeBuffer.isEmpty()) return;
-        for (int i = 0; i < mImeBuffer.length(); i++)
-            write(mImeBuffer.substring(i, i + 1), true);
+        for (int i = 0; i < mImeBuffer.length(); i++) {
+            write(mImeBuffer.charAt(i), true);
+        }
+        requestFrame();
     }
 
     @Override
@@ -747,7 +843,12 @@ public class ConsoleView extends View implements GestureDetector.OnGestureListen
         updateSize();
     }
 
-    public void drawText(Canvas canvas, int left, int top) {
+    public synchronized void drawText(Canvas canvas, int left, int top) {
+        CellBuffer cells = mScreenBufferData.cells;
+        if (cells == null) return;
+        //a posted frame is lost if the view is not attached, the next write posts again
+        mFramePosted = false;
+        canvas.getClipBounds(mClipRect);
         int index = mScreenBufferData.firstIndex + firstLine * mConsoleScreen.consoleColumn;
         if (index >= mConsoleScreen.getScreenSize()) {
             index -= mConsoleScreen.getScreenSize();
@@ -761,16 +862,14 @@ public class ConsoleView extends View implements GestureDetector.OnGestureListen
                 mTextRenderer.getCharHeight(), mTextRenderer.getCharWidth(),
                 mTextRenderer.getCharDescent());
 
-        int count = 0;
         for (int row = 0; row < mConsoleScreen.consoleRow; row++) {
             if (row > mCursor.y - firstLine) break;
-            count = 0;
-            while ((count < mConsoleScreen.consoleColumn) &&
-                    StringCompare.isGreaterEqual(mScreenBufferData
-                            .textConsole[count + index].getSingleString(), " "))
-                count++;
-
-            mTextRenderer.draw(canvas, left, top, mScreenBufferData.textConsole, index, count);
+            //rows outside of the invalidated area are not drawn
+            if (top + mTextRenderer.getCharDescent() >= mClipRect.top
+                    && top + mTextRenderer.getCharAscent() < mClipRect.bottom) {
+                int count = cells.runLength(index, mConsoleScreen.consoleColumn);
+                mTextRenderer.draw(canvas, left, top, cells, index, count);
+            }
 
             top += mTextRenderer.getCharHeight();
             index += mConsoleScreen.consoleColumn;
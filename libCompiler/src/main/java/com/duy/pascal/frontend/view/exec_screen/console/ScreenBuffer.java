@@ -27,7 +27,10 @@ public class ScreenBuffer {
 
     public int firstIndex;
     public char[] textOnScreenBuffer;
-    public TextConsole[] textConsole;
+    /**
+     * text and colors of the console, null until the size of the console is known
+     */
+    public CellBuffer cells;
     public int[] colorScreenBuffer;
 
     /**
@@ -44,12 +47,12 @@ public class ScreenBuffer {
     private FileOutputStream fileOutputStream;
 
 
-    public TextConsole[] getTextConsole() {
-        return textConsole;
+    public CellBuffer getCells() {
+        return cells;
     }
 
-    public void setTextConsole(TextConsole[] textConsole) {
-        this.textConsole = textConsole;
+    public void setCells(CellBuffer cells) {
+        this.cells = cells;
     }
 
     public char[] getTextOnScreenBuffer() {
@@ -89,7 +92,7 @@ public class ScreenBuffer {
 
     public void clearAll() {
         textOnScreenBuffer = null;
-        textConsole = null;
+        cells = null;
         colorScreenBuffer = null;
     }
 }
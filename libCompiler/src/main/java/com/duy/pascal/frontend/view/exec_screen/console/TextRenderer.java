@@ -95,17 +95,33 @@ public class TextRenderer implements ScreenObject {
         canvas.drawText(text, start, start + count, x, y, mTextPaint);
     }
 
-    public void draw(Canvas canvas, float x, float y, TextConsole[] text, int start, int count) {
-        for (int i = start; i < start + count; i++) {
-            float width = mTextPaint.measureText(text[i].getSingleString(), 0, 1);
-
-            backgroundPaint.setColor(text[i].getTextBackground());
+    /**
+     * draw count cells from start, cells with the same colors are drawn in one call
+     */
+    public void draw(Canvas canvas, float x, float y, CellBuffer cells, int start, int count) {
+        char[] text = cells.getText();
+        int end = start + count;
+        int runStart = start;
+        while (runStart < end) {
+            int color = cells.getTextColor(runStart);
+            int background = cells.getBackground(runStart);
+            int alpha = cells.getAlpha(runStart);
+            int runEnd = runStart + 1;
+            while (runEnd < end && cells.getTextColor(runEnd) == color
+                    && cells.getBackground(runEnd) == background
+                    && cells.getAlpha(runEnd) == alpha) {
+                runEnd++;
+            }
+            float width = mTextPaint.measureText(text, runStart, runEnd - runStart);
+
+            backgroundPaint.setColor(background);
             canvas.drawRect(x, y + charAscent, x + width, y + charDescent, backgroundPaint);
 
-            mTextPaint.setColor(text[i].getTextColor());
-            mTextPaint.setAlpha(text[i].getAlpha());
-            canvas.drawText(text[i].getSingleString(), x, y, mTextPaint);
+            mTextPaint.setColor(color);
+            mTextPaint.setAlpha(alpha);
+            canvas.drawText(text, runStart, runEnd - runStart, x, y, mTextPaint);
             x += width;
+            runStart = runEnd;
         }
     }
 
@@ -33,6 +33,12 @@ public class VariableDeclaration implements NamedEntity {
     public DeclaredType type;
     private Object initialValue;
     private LineInfo line;
+    /**
+     * true if the variable is assigned without boxing, the counter of a for loop or an
+     * integer, int64, real or boolean variable with a slot. Its frame keeps it in
+     * {@link com.js.interpreter.runtime.UnboxedSlots}
+     */
+    private boolean unboxed;
 
     public VariableDeclaration(@NonNull String name, @NonNull DeclaredType type,
                                @Nullable Object initialValue, LineInfo line) {
@@ -65,9 +71,34 @@ public class VariableDeclaration implements NamedEntity {
         return line;
     }
 
+    public boolean isUnboxed() {
+        return unboxed;
+    }
+
+    /**
+     * must be called when the program is parsed, before a frame of the variable is made
+     */
+    public void setUnboxed(boolean unboxed) {
+        this.unboxed = unboxed;
+    }
+
 
     public void initialize(Map<String, Object> map) {
-        map.put(name, initialValue == null ? type.initialize() : initialValue);
+        map.put(name, initialize());
+    }
+
+    /**
+     * @return initial value for a new instance of this variable
+     */
+    public Object initialize() {
+        if (initialValue == null) {
+            return type.initialize();
+        }
+        //every variable owns its string, the declaration is shared by all of them
+        if (initialValue instanceof StringBuilder) {
+            return new StringBuilder((StringBuilder) initialValue);
+        }
+        return initialValue;
     }
 
     @Override
@@ -8,7 +8,7 @@ import com.duy.pascal.backend.function_declaretion.AbstractFunction;
 import com.duy.pascal.backend.tokenizer.NewLexer;
 import com.duy.pascal.backend.tokens.Token;
 import com.duy.pascal.backend.tokens.grouping.GrouperToken;
-import com.duy.pascal.frontend.activities.RunnableActivity;
+import com.duy.pascal.backend.core.ProgramHandler;
 import com.google.common.collect.ListMultimap;
 import com.js.interpreter.expressioncontext.ExpressionContextMixin;
 import com.js.interpreter.instructions.Executable;
@@ -22,18 +22,29 @@ public abstract class CodeUnit {
     protected String programName;
 
     public CodeUnit(ListMultimap<String, AbstractFunction> functionTable,
-                    RunnableActivity handler) {
+                    ProgramHandler handler) {
         this.mContext = getExpressionContextInstance(functionTable, handler);
     }
 
     public CodeUnit(Reader program, ListMultimap<String, AbstractFunction> functionTable,
                     String sourceName, List<ScriptSource> includeDirectories,
-                    @Nullable RunnableActivity handler)
+                    @Nullable ProgramHandler handler)
             throws ParsingException {
         this(functionTable, handler);
-        NewLexer grouper = new NewLexer(program, sourceName, includeDirectories);
-        grouper.parse();
-        parseTree(grouper.tokenQueue);
+        NewLexer grouper = NewLexer.create(program, sourceName, includeDirectories);
+        if (grouper.isConcurrent()) {
+            Thread lexer = new Thread(grouper, "Lexer " + sourceName);
+            lexer.setDaemon(true);
+            lexer.start();
+            try {
+                parseTree(grouper.tokenQueue);
+            } finally {
+                grouper.cancel();
+            }
+        } else {
+            grouper.parse();
+            parseTree(grouper.tokenQueue);
+        }
     }
 
     public ExpressionContextMixin getContext() {
@@ -45,7 +56,7 @@ public abstract class CodeUnit {
     }
 
     protected abstract CodeUnitExpressionContext getExpressionContextInstance(
-            ListMultimap<String, AbstractFunction> functionTable, RunnableActivity handler);
+            ListMultimap<String, AbstractFunction> functionTable, ProgramHandler handler);
 
     private void parseTree(GrouperToken tokens) throws ParsingException {
         while (tokens.hasNext()) {
@@ -61,7 +72,7 @@ public abstract class CodeUnit {
 
     protected abstract class CodeUnitExpressionContext extends ExpressionContextMixin {
         public CodeUnitExpressionContext(ListMultimap<String, AbstractFunction> functionTable,
-                                         @Nullable RunnableActivity handler,
+                                         @Nullable ProgramHandler handler,
                                          boolean isLibrary) {
             super(CodeUnit.this, null, functionTable, handler, isLibrary);
         }
@@ -1,7 +1,7 @@
 package com.js.interpreter.codeunit;
 
 import com.duy.pascal.backend.exceptions.ParsingException;
-import com.duy.pascal.frontend.activities.RunnableActivity;
+import com.duy.pascal.backend.core.ProgramHandler;
 import com.google.common.collect.ListMultimap;
 import com.duy.pascal.backend.function_declaretion.AbstractFunction;
 import com.js.interpreter.source_include.ScriptSource;
@@ -15,7 +15,7 @@ public abstract class ExecutableCodeUnit extends CodeUnit {
                               ListMultimap<String, AbstractFunction> functionTable,
                               String sourceName, //for DEBUG
                               List<ScriptSource> includeDirectories,
-                              RunnableActivity handler)
+                              ProgramHandler handler)
             throws ParsingException {
         super(r, functionTable, sourceName, includeDirectories, handler);
     }
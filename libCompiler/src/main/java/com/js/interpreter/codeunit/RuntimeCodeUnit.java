@@ -16,22 +16,42 @@
 
 package com.js.interpreter.codeunit;
 
+import com.duy.pascal.backend.pascaltypes.RuntimeType;
 import com.js.interpreter.VariableDeclaration;
+import com.js.interpreter.instructions.FieldReference;
+import com.js.interpreter.runtime.UnboxedSlots;
 import com.js.interpreter.runtime.VariableContext;
+import com.js.interpreter.runtime.references.Reference;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.List;
 
 public abstract class RuntimeCodeUnit<parent extends CodeUnit> extends VariableContext {
     public volatile RunMode mode;
     parent definition;
-    private Map<String, Object> unitVariables = new HashMap<>();
+    /**
+     * global variables, the slot of each variable is the index of its
+     * declaration in the context of unit
+     */
+    private Object[] unitVariables;
+    /**
+     * references to the global variables, made the first time a variable is passed to a
+     * var argument
+     */
+    private FieldReference[] references;
+    /**
+     * values of the global variables which are assigned without boxing, null if the unit
+     * has none
+     */
+    private UnboxedSlots unboxed;
 
     public RuntimeCodeUnit(parent definition) {
         this.definition = definition;
-        for (VariableDeclaration v : definition.mContext.variables) {
-            v.initialize(unitVariables);
+        List<VariableDeclaration> variables = definition.mContext.variables;
+        unitVariables = new Object[variables.size()];
+        for (int i = 0; i < unitVariables.length; i++) {
+            unitVariables[i] = variables.get(i).initialize();
         }
+        unboxed = UnboxedSlots.create(unitVariables, 0, variables);
     }
 
     public parent getDefinition() {
@@ -40,13 +60,117 @@ public abstract class RuntimeCodeUnit<parent extends CodeUnit> extends VariableC
 
     @Override
     public Object getLocalVar(String name) {
-        return unitVariables.get(name);
+        int slot = definition.mContext.getVariableSlotLocal(name);
+        return slot < 0 ? null : getLocalVar(slot);
     }
 
     @Override
     public boolean setLocalVar(String name, Object val) {
-        return unitVariables.put(name, val) != null;
+        int slot = definition.mContext.getVariableSlotLocal(name);
+        if (slot < 0) {
+            return false;
+        }
+        setLocalVar(slot, val);
+        return true;
+    }
+
+    @Override
+    public Object getLocalVar(int slot) {
+        if (unboxed != null && unboxed.contains(slot)) {
+            return unboxed.get(slot);
+        }
+        return unitVariables[slot];
+    }
+
+    @Override
+    public void setLocalVar(int slot, Object val) {
+        if (unboxed != null && unboxed.contains(slot)) {
+            unboxed.set(slot, val);
+        } else {
+            unitVariables[slot] = val;
+        }
     }
 
+    @Override
+    public int getLocalInt(int slot) {
+        if (unboxed != null && unboxed.contains(slot)) {
+            return unboxed.getInt(slot);
+        }
+        return ((Number) unitVariables[slot]).intValue();
+    }
+
+    @Override
+    public void setLocalInt(int slot, int val) {
+        if (unboxed != null && unboxed.contains(slot)) {
+            unboxed.setInt(slot, val);
+        } else {
+            unitVariables[slot] = val;
+        }
+    }
+
+    @Override
+    public long getLocalLong(int slot) {
+        if (unboxed != null && unboxed.contains(slot)) {
+            return unboxed.getLong(slot);
+        }
+        return ((Number) unitVariables[slot]).longValue();
+    }
+
+    @Override
+    public void setLocalLong(int slot, long val) {
+        if (unboxed != null && unboxed.contains(slot)) {
+            unboxed.setLong(slot, val);
+        } else {
+            unitVariables[slot] = val;
+        }
+    }
+
+    @Override
+    public double getLocalDouble(int slot) {
+        if (unboxed != null && unboxed.contains(slot)) {
+            return unboxed.getDouble(slot);
+        }
+        return ((Number) unitVariables[slot]).doubleValue();
+    }
+
+    @Override
+    public void setLocalDouble(int slot, double val) {
+        if (unboxed != null && unboxed.contains(slot)) {
+            unboxed.setDouble(slot, val);
+        } else {
+            unitVariables[slot] = val;
+        }
+    }
+
+    @Override
+    public boolean getLocalBoolean(int slot) {
+        if (unboxed != null && unboxed.contains(slot)) {
+            return unboxed.getBoolean(slot);
+        }
+        return (Boolean) unitVariables[slot];
+    }
+
+    @Override
+    public void setLocalBoolean(int slot, boolean val) {
+        if (unboxed != null && unboxed.contains(slot)) {
+            unboxed.setBoolean(slot, val);
+        } else {
+            unitVariables[slot] = val;
+        }
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public Reference getReference(int slot, RuntimeType type) {
+        if (references == null) {
+            references = new FieldReference[unitVariables.length];
+        }
+        FieldReference reference = references[slot];
+        if (reference == null) {
+            reference = new FieldReference(this, slot, type);
+            references[slot] = reference;
+        }
+        return reference;
+    }
 
 }
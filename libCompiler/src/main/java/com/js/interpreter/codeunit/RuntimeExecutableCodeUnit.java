@@ -16,12 +16,15 @@
 
 package com.js.interpreter.codeunit;
 
+import com.duy.pascal.backend.debugable.DebugEventRecorder;
 import com.duy.pascal.backend.debugable.DebugListener;
 import com.duy.pascal.backend.function_declaretion.AbstractFunction;
 import com.duy.pascal.backend.function_declaretion.MethodDeclaration;
 import com.duy.pascal.backend.linenumber.LineInfo;
 import com.js.interpreter.codeunit.library.UnitPascal;
+import com.js.interpreter.runtime.PascalHeap;
 import com.js.interpreter.runtime.ScriptControl;
+import com.js.interpreter.runtime.TextFormatter;
 import com.js.interpreter.codeunit.library.RuntimeUnitPascal;
 import com.js.interpreter.runtime.exception.RuntimePascalException;
 import com.js.interpreter.runtime.exception.ScriptTerminatedException;
@@ -36,13 +39,48 @@ public abstract class RuntimeExecutableCodeUnit<parent extends ExecutableCodeUni
         implements ScriptControl {
     private static final String TAG = "RuntimeExecutable";
 
-    private volatile long MAX_STACK = 45000;
+    /**
+     * maximum number of nested function calls, set before the program runs
+     */
+    private long MAX_STACK = 45000;
     private Map<UnitPascal, RuntimeUnitPascal> runtimeLibs = new HashMap<>();
     private volatile ControlMode runMode = ControlMode.RUNNING;
     private volatile boolean doneExecuting = false;
-    private volatile long stack = 0;
+    /**
+     * number of nested function calls. It is only changed and read by the thread which
+     * runs the program, so it is not volatile
+     */
+    private long stack = 0;
     private DebugListener debugListener;
-    private volatile boolean debugMode = false;
+    /**
+     * debug mode which is requested, it may be written by the ui thread
+     */
+    private volatile boolean debugRequested = false;
+    /**
+     * debug mode of the thread which runs the program, copied from {@link #debugRequested}
+     * when the run starts and at every safepoint, so the nodes read a plain field
+     */
+    private boolean debugMode = false;
+    /**
+     * events of the run, only created in debug mode so the interpreter does not record
+     * anything when it is disabled
+     */
+    private volatile DebugEventRecorder debugRecorder;
+    /**
+     * memory of new and getMem in this run
+     */
+    private final PascalHeap heap = new PascalHeap();
+    /**
+     * buffer and number formats of write and writeln in this run
+     */
+    private final TextFormatter textFormatter = new TextFormatter();
+
+    /**
+     * measure the time spent in {@link #safepoint(LineInfo)}
+     */
+    private boolean measureControlOverhead = false;
+    private long safepointCount = 0;
+    private long safepointTime = 0;
 
     public RuntimeExecutableCodeUnit(parent definition) {
         super(definition);
@@ -67,20 +105,43 @@ public abstract class RuntimeExecutableCodeUnit<parent extends ExecutableCodeUni
     }
 
     public void setDebugMode(boolean debugMode) {
-        this.debugMode = debugMode;
+        if (debugMode) {
+            enableDebug();
+        } else {
+            disableDebug();
+        }
+    }
+
+    /**
+     * @return recorder of the debug events, null if debug mode was never enabled
+     */
+    public DebugEventRecorder getDebugRecorder() {
+        return debugRecorder;
     }
 
+    /**
+     * @return variables of the unit in this run, see {@link #getRuntimeLibs()}
+     */
     public RuntimeUnitPascal getLibrary(UnitPascal l) {
+        RuntimeUnitPascal unit = runtimeLibs.get(l);
+        if (unit != null) {
+            return unit;
+        }
         HashMap<UnitPascal, RuntimeUnitPascal> unitsMap = definition.getContext().getUnitsMap();
         return unitsMap.get(l);
     }
 
     public void run() throws RuntimePascalException {
+        debugMode = debugRequested;
         try {
             runImpl();
         } catch (RuntimePascalException e) {
             this.doneExecuting = true;
             throw e;
+        } finally {
+            if (heap.isArena()) {
+                heap.release();
+            }
         }
         this.doneExecuting = true;
     }
@@ -98,11 +159,14 @@ public abstract class RuntimeExecutableCodeUnit<parent extends ExecutableCodeUni
     }
 
     public void enableDebug() {
-        debugMode = true;
+        if (debugRecorder == null) {
+            debugRecorder = new DebugEventRecorder();
+        }
+        debugRequested = true;
     }
 
     public void disableDebug() {
-        debugMode = false;
+        debugRequested = false;
     }
 
     @Override
@@ -126,6 +190,40 @@ public abstract class RuntimeExecutableCodeUnit<parent extends ExecutableCodeUni
         scriptControlCheck(line, debugMode);
     }
 
+    /**
+     * Outside debug mode, pause and terminate requests are only checked here: at the back
+     * edge of every loop and at the entry of every function. Straight line code between
+     * two safepoints always finishes, so {@link #pause()} and {@link #terminate()} keep
+     * their meaning while expressions and statements carry no control check.
+     * <p>
+     * A safepoint never waits for a debug step, the debugger stops on the lines which
+     * are recorded by the statements. A change of the debug mode is seen by the program
+     * at the next safepoint.
+     */
+    public void safepoint(LineInfo line) throws ScriptTerminatedException {
+        debugMode = debugRequested;
+        if (measureControlOverhead) {
+            long start = System.nanoTime();
+            scriptControlCheck(line, false);
+            safepointTime += System.nanoTime() - start;
+            safepointCount++;
+        } else if (runMode != ControlMode.RUNNING) {
+            scriptControlCheck(line, false);
+        }
+    }
+
+    public void setMeasureControlOverhead(boolean measureControlOverhead) {
+        this.measureControlOverhead = measureControlOverhead;
+    }
+
+    /**
+     * @return number of safepoints passed and time spent in them, only available if
+     * {@link #setMeasureControlOverhead(boolean)} was enabled before running
+     */
+    public String getControlOverheadReport() {
+        return "safepoints: " + safepointCount + ", time: " + (safepointTime / 1000000) + " ms";
+    }
+
     /**
      * check mode program
      *
@@ -186,22 +284,41 @@ public abstract class RuntimeExecutableCodeUnit<parent extends ExecutableCodeUni
         return doneExecuting;
     }
 
+    /**
+     * count a new function frame
+     *
+     * @throws StackOverflowException if there are more frames than the max stack size
+     */
     public void incStack(LineInfo lineInfo) throws StackOverflowException {
         stack++;
         if (stack > MAX_STACK) {
+            stack--;
             throw new StackOverflowException(lineInfo);
         }
     }
-    //4000 method
 
     public void decStack() {
         stack--;
     }
 
+    /**
+     * must be called before {@link #run()}, the running program does not see a change
+     */
     public void setMaxStackSize(long maxStackSize) {
         this.MAX_STACK = maxStackSize;
     }
 
+    /**
+     * @return heap of this run, its limit and arena mode are set before the program runs
+     */
+    public PascalHeap getHeap() {
+        return heap;
+    }
+
+    public TextFormatter getTextFormatter() {
+        return textFormatter;
+    }
+
     public enum ControlMode {
         RUNNING, PAUSED, TERMINATED, DEBUG
     }
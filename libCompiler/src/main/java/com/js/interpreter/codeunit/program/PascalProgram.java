@@ -24,11 +24,12 @@ import com.duy.pascal.backend.tokens.Token;
 import com.duy.pascal.backend.tokens.basic.PeriodToken;
 import com.duy.pascal.backend.tokens.basic.ProgramToken;
 import com.duy.pascal.backend.tokens.grouping.GrouperToken;
-import com.duy.pascal.frontend.activities.RunnableActivity;
+import com.duy.pascal.backend.core.ProgramHandler;
 import com.google.common.collect.ListMultimap;
 import com.js.interpreter.codeunit.ExecutableCodeUnit;
 import com.js.interpreter.codeunit.RuntimeExecutableCodeUnit;
 import com.js.interpreter.instructions.Executable;
+import com.js.interpreter.instructions.FlatBlock;
 import com.js.interpreter.runtime.FunctionOnStack;
 import com.js.interpreter.source_include.ScriptSource;
 
@@ -36,15 +37,22 @@ import java.io.Reader;
 import java.util.List;
 
 public class PascalProgram extends ExecutableCodeUnit {
+    /**
+     * main block as it is parsed, run in debug mode so the debugger sees every line
+     */
     public Executable main;
+    /**
+     * main block lowered to a {@link FlatBlock} when it is parsed, shared by every run
+     */
+    private Executable compiledMain;
 
     private FunctionOnStack mainRunning;
-    private RunnableActivity handler;
+    private ProgramHandler handler;
 
     public PascalProgram(Reader program,
                          ListMultimap<String, AbstractFunction> functionTable,
                          String sourceName, List<ScriptSource> includeDirectories,
-                         RunnableActivity handler)
+                         ProgramHandler handler)
             throws ParsingException {
         super(program, functionTable, sourceName, includeDirectories, handler);
         this.handler = handler;
@@ -52,10 +60,20 @@ public class PascalProgram extends ExecutableCodeUnit {
 
     @Override
     protected PascalProgramExpressionContext getExpressionContextInstance(
-            ListMultimap<String, AbstractFunction> functionTable, RunnableActivity handler) {
+            ListMultimap<String, AbstractFunction> functionTable, ProgramHandler handler) {
         return new PascalProgramExpressionContext(functionTable, handler);
     }
 
+    /**
+     * @return the main block to run, the lowered one unless the run is in debug mode
+     */
+    public Executable getMain(RuntimeExecutableCodeUnit<?> runtime) {
+        if (runtime != null && runtime.isDebugMode()) {
+            return main;
+        }
+        return compiledMain;
+    }
+
     @Override
     public RuntimeExecutableCodeUnit<PascalProgram> run() {
         return new RuntimePascalProgram(this, handler);
@@ -63,7 +81,7 @@ public class PascalProgram extends ExecutableCodeUnit {
 
     protected class PascalProgramExpressionContext extends CodeUnitExpressionContext {
         public PascalProgramExpressionContext(
-                ListMultimap<String, AbstractFunction> f, RunnableActivity handler) {
+                ListMultimap<String, AbstractFunction> f, ProgramHandler handler) {
             super(f, handler, false);
         }
 
@@ -85,6 +103,7 @@ public class PascalProgram extends ExecutableCodeUnit {
                 throw new MultipleDefinitionsMainException(i.peek().getLineInfo());
             }
             main = i.getNextCommand(this);
+            compiledMain = FlatBlock.compile(main, this);
             if (!(i.peek() instanceof PeriodToken)) {
                 throw new ExpectedTokenException(".", i.peek());
             }
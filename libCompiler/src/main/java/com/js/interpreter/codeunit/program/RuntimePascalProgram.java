@@ -17,16 +17,17 @@
 package com.js.interpreter.codeunit.program;
 
 import com.duy.pascal.backend.debugable.DebugListener;
+import com.duy.pascal.backend.lib.PascalLibrary;
+import com.duy.pascal.backend.lib.PascalLibraryManager;
 import com.js.interpreter.codeunit.RunMode;
 import com.js.interpreter.codeunit.RuntimeExecutableCodeUnit;
 import com.js.interpreter.codeunit.library.RuntimeUnitPascal;
 import com.js.interpreter.codeunit.library.UnitPascal;
+import com.js.interpreter.expressioncontext.ExpressionContextMixin;
 import com.js.interpreter.runtime.VariableContext;
 import com.js.interpreter.runtime.exception.RuntimePascalException;
 
-import java.util.HashMap;
 import java.util.Map;
-import java.util.Set;
 
 public class RuntimePascalProgram extends RuntimeExecutableCodeUnit<PascalProgram> {
 
@@ -44,18 +45,43 @@ public class RuntimePascalProgram extends RuntimeExecutableCodeUnit<PascalProgra
     public void runImpl() throws RuntimePascalException {
         this.mode = RunMode.RUNNING;
 
-        //run init code of library
-        HashMap<UnitPascal, RuntimeUnitPascal> librariesMap = getDefinition().getContext().getUnitsMap();
-        Set<Map.Entry<UnitPascal, RuntimeUnitPascal>> entries = librariesMap.entrySet();
-        for (Map.Entry<UnitPascal, RuntimeUnitPascal> entry : entries) {
-            entry.getValue().runInit();
+        //every run has its own variables of the units, the compiled program can run again
+        Map<UnitPascal, RuntimeUnitPascal> units = getRuntimeLibs();
+        for (UnitPascal unit : getDefinition().getContext().getUnitsMap().keySet()) {
+            units.put(unit, unit.run());
         }
+        try {
+            //run init code of library
+            for (RuntimeUnitPascal unit : units.values()) {
+                unit.runInit();
+            }
 
-        getDefinition().main.execute(this, this);
+            getDefinition().getMain(this).execute(this, this);
 
-        //run final code library
-        for (Map.Entry<UnitPascal, RuntimeUnitPascal> entry : entries) {
-            entry.getValue().runFinal();
+            //run final code library
+            for (RuntimeUnitPascal unit : units.values()) {
+                unit.runFinal();
+            }
+        } finally {
+            shutdownLibraries(getDefinition().getContext());
+        }
+    }
+
+    /**
+     * close files and stop sounds of the libraries when the program ends
+     */
+    private void shutdownLibraries(ExpressionContextMixin context) {
+        PascalLibraryManager libraryManager = context.getLibraryManager();
+        if (libraryManager != null) {
+            for (PascalLibrary library : libraryManager.getLibraries()) {
+                try {
+                    library.shutdown();
+                } catch (Exception ignored) {
+                }
+            }
+        }
+        for (UnitPascal unit : context.getUnitsMap().keySet()) {
+            shutdownLibraries(unit.getContext());
         }
     }
 
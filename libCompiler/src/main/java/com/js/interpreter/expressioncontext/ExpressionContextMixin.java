@@ -1,7 +1,6 @@
 package com.js.interpreter.expressioncontext;
 
 import android.support.annotation.Nullable;
-import android.util.Log;
 
 import com.duy.pascal.backend.exceptions.ParsingException;
 import com.duy.pascal.backend.exceptions.UnrecognizedTokenException;
@@ -44,7 +43,7 @@ import com.duy.pascal.backend.tokens.grouping.BeginEndToken;
 import com.duy.pascal.backend.tokens.grouping.BracketedToken;
 import com.duy.pascal.backend.tokens.grouping.GrouperToken;
 import com.duy.pascal.backend.tokens.grouping.ParenthesizedToken;
-import com.duy.pascal.frontend.activities.RunnableActivity;
+import com.duy.pascal.backend.core.ProgramHandler;
 import com.duy.pascal.frontend.file.ApplicationFileManager;
 import com.duy.pascal.frontend.program_structure.viewholder.StructureType;
 import com.duy.pascal.frontend.view.editor_view.adapters.StructureItem;
@@ -67,7 +66,6 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -79,11 +77,15 @@ public abstract class ExpressionContextMixin extends HierarchicalExpressionConte
      * list global variable
      */
     public ArrayList<VariableDeclaration> variables = new ArrayList<>();
+    /**
+     * index of each variable in {@link #variables}, the key is the lower case name
+     */
+    private HashMap<String, Integer> variableSlots = new HashMap<>();
     /**
      * activity target, uses for input and output
      */
     @Nullable
-    private RunnableActivity handler;
+    private ProgramHandler handler;
     /**
      * list function and procedure pascal, support overload function
      */
@@ -116,6 +118,10 @@ public abstract class ExpressionContextMixin extends HierarchicalExpressionConte
      * list library
      */
     private ArrayList<String> librariesNames = new ArrayList<>();
+    /**
+     * source files of the units in {@link #unitsMap}
+     */
+    private ArrayList<File> unitFiles = new ArrayList<>();
 
     private PascalLibraryManager pascalLibraryManager;
 
@@ -132,7 +138,7 @@ public abstract class ExpressionContextMixin extends HierarchicalExpressionConte
 
     public ExpressionContextMixin(CodeUnit root, ExpressionContext parent,
                                   ListMultimap<String, AbstractFunction> callableFunctions,
-                                  @Nullable RunnableActivity handler, boolean isLibrary) {
+                                  @Nullable ProgramHandler handler, boolean isLibrary) {
         super(root, parent);
 
         this.isLibrary = isLibrary;
@@ -153,6 +159,14 @@ public abstract class ExpressionContextMixin extends HierarchicalExpressionConte
         return librariesNames;
     }
 
+    public ArrayList<File> getUnitFiles() {
+        return unitFiles;
+    }
+
+    public PascalLibraryManager getLibraryManager() {
+        return pascalLibraryManager;
+    }
+
     public ArrayListMultimap<String, AbstractFunction> getCallableFunctions() {
         return callableFunctions;
     }
@@ -195,8 +209,8 @@ public abstract class ExpressionContextMixin extends HierarchicalExpressionConte
             return new ConstantAccess(c.getValue(), c.getType(), name.getLineInfo());
 
         } else if (getVariableDefinitionLocal(name.name) != null) {
-            VariableAccess variableAccess = new VariableAccess(name.name, name.getLineInfo());
-            Log.d(TAG, "getIdentifierValue() returned: " + variableAccess);
+            VariableAccess variableAccess = new VariableAccess(name.name, name.getLineInfo(),
+                    0, getVariableSlotLocal(name.name));
             return variableAccess;
         }
 
@@ -206,6 +220,17 @@ public abstract class ExpressionContextMixin extends HierarchicalExpressionConte
             ExpressionContextMixin libContext = value.getDefinition().getContext();
             RuntimeValue identifierValue = libContext.getIdentifierValue(name);
             if (identifierValue != null) {
+                //the slot belongs to the variables of the unit, not to the frames of this program
+                if (identifierValue instanceof VariableAccess) {
+                    VariableAccess variableAccess = (VariableAccess) identifierValue;
+                    if (variableAccess.getUnit() != null) {
+                        return variableAccess;
+                    } else if (variableAccess.getSlot() >= 0) {
+                        return new VariableAccess(name.name, name.getLineInfo(), unit.getKey(),
+                                variableAccess.getSlot());
+                    }
+                    return new VariableAccess(name.name, name.getLineInfo());
+                }
                 return identifierValue;
             }
         }
@@ -213,7 +238,19 @@ public abstract class ExpressionContextMixin extends HierarchicalExpressionConte
         if (parent == null) {
             throw new NoSuchFunctionOrVariableException(name.getLineInfo(), name.name);
         }
-        return parent.getIdentifierValue(name);
+        RuntimeValue identifierValue = parent.getIdentifierValue(name);
+        if (identifierValue instanceof VariableAccess && hasOwnFrame()) {
+            ((VariableAccess) identifierValue).increaseDepth();
+        }
+        return identifierValue;
+    }
+
+    /**
+     * @return <code>true</code> if this context is executed in its own
+     * {@link com.js.interpreter.runtime.VariableContext} at runtime
+     */
+    protected boolean hasOwnFrame() {
+        return true;
     }
 
     public void verifyNonConflictingSymbolLocal(NamedEntity namedEntity)
@@ -355,6 +392,7 @@ public abstract class ExpressionContextMixin extends HierarchicalExpressionConte
                         library.declareFunctions(this);
 
                         unitsMap.put(library, library.run());
+                        unitFiles.add(file);
                     } catch (FileNotFoundException e) {
                         e.printStackTrace();
                         throw new LibraryNotFoundException(next.getLineInfo(), ((WordToken) next).name);
@@ -380,12 +418,17 @@ public abstract class ExpressionContextMixin extends HierarchicalExpressionConte
     protected abstract void handleBeginEnd(GrouperToken i) throws ParsingException;
 
     public VariableDeclaration getVariableDefinitionLocal(String ident) {
-        for (VariableDeclaration v : variables) {
-            if (v.name.equalsIgnoreCase(ident)) {
-                return v;
-            }
-        }
-        return null;
+        Integer slot = variableSlots.get(ident.toLowerCase());
+        return slot == null ? null : variables.get(slot);
+    }
+
+    /**
+     * @return index of the variable in the runtime frame of this context,
+     * or -1 if the variable is not declared in this context
+     */
+    public int getVariableSlotLocal(String ident) {
+        Integer slot = variableSlots.get(ident.toLowerCase());
+        return slot == null ? -1 : slot;
     }
 
     public List<AbstractFunction> getCallableFunctionsLocal(String name) {
@@ -410,6 +453,10 @@ public abstract class ExpressionContextMixin extends HierarchicalExpressionConte
     }
 
     public void declareVariable(VariableDeclaration v) {
+        String key = v.name.toLowerCase();
+        if (!variableSlots.containsKey(key)) {
+            variableSlots.put(key, variables.size());
+        }
         variables.add(v);
     }
 
@@ -447,7 +494,6 @@ public abstract class ExpressionContextMixin extends HierarchicalExpressionConte
                                 }
                                 objects[i] = token.getDefaultValueArray(this, bracketedToken, elementTypeOfArray);
                             }
-                            Log.d(TAG, "getDefaultValueArray: " + Arrays.toString(objects));
                             defaultValue = objects;
                         } else {
                             RuntimeValue unconverted = token.getNextExpression(this);
@@ -32,6 +32,9 @@ public class Assignment extends DebuggableExecutable implements SetValueExecutab
         Reference ref = left.getReference(context, main);
         Object value = this.value.getValue(context, main);
         ref.set(value);
+        if (main != null && main.isDebugMode()) {
+            main.getDebugRecorder().recordVariableChange(line, left, value);
+        }
         return ExecutionResult.NONE;
     }
 
@@ -7,7 +7,7 @@ import com.js.interpreter.runtime.VariableContext;
 import com.js.interpreter.codeunit.RuntimeExecutableCodeUnit;
 import com.js.interpreter.runtime.exception.RuntimePascalException;
 
-public class BreakInstruction extends DebuggableExecutable {
+public class BreakInstruction extends DebuggableExecutable implements LowerableExecutable {
     private LineInfo line;
 
     public BreakInstruction(LineInfo line) {
@@ -30,4 +30,8 @@ public class BreakInstruction extends DebuggableExecutable {
         return this;
     }
 
+    @Override
+    public void lower(FlatBlock.Builder builder) {
+        builder.emitBreak(this);
+    }
 }
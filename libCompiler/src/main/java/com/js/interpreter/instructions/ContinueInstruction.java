@@ -7,7 +7,7 @@ import com.js.interpreter.runtime.VariableContext;
 import com.js.interpreter.codeunit.RuntimeExecutableCodeUnit;
 import com.js.interpreter.runtime.exception.RuntimePascalException;
 
-public class ContinueInstruction extends DebuggableExecutable {
+public class ContinueInstruction extends DebuggableExecutable implements LowerableExecutable {
     private LineInfo line;
 
     public ContinueInstruction(LineInfo line) {
@@ -30,4 +30,8 @@ public class ContinueInstruction extends DebuggableExecutable {
         return this;
     }
 
+    @Override
+    public void lower(FlatBlock.Builder builder) {
+        builder.emitContinue(this);
+    }
 }
@@ -0,0 +1,100 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.js.interpreter.instructions;
+
+import android.support.annotation.NonNull;
+
+import com.duy.pascal.backend.debugable.DebuggableExecutable;
+import com.duy.pascal.backend.exceptions.ParsingException;
+import com.duy.pascal.backend.linenumber.LineInfo;
+import com.duy.pascal.backend.pascaltypes.BasicType;
+import com.js.interpreter.VariableDeclaration;
+import com.js.interpreter.codeunit.RuntimeExecutableCodeUnit;
+import com.js.interpreter.expressioncontext.CompileTimeContext;
+import com.js.interpreter.expressioncontext.ExpressionContext;
+import com.js.interpreter.runtime.VariableContext;
+import com.js.interpreter.runtime.exception.RuntimePascalException;
+import com.js.interpreter.runtime_value.AssignableValue;
+import com.js.interpreter.runtime_value.RuntimeValue;
+import com.js.interpreter.runtime_value.VariableAccess;
+
+/**
+ * Assignment of the counter of a for loop. The counter is an integer variable with a slot,
+ * its frame keeps it unboxed, so the value is stored without boxing.
+ */
+public class CounterAssignment extends DebuggableExecutable implements SetValueExecutable {
+    private VariableAccess counter;
+    private RuntimeValue value;
+    private LineInfo line;
+
+    public CounterAssignment(@NonNull VariableAccess counter, @NonNull RuntimeValue value,
+                             @NonNull LineInfo line) {
+        this.counter = counter;
+        this.value = value;
+        this.line = line;
+    }
+
+    /**
+     * @return assignment of the counter of a for loop, a counter which is not an integer
+     * variable with a slot gets a normal {@link Assignment}
+     */
+    public static SetValueExecutable create(ExpressionContext context, AssignableValue counter,
+                                            RuntimeValue value, LineInfo line) {
+        if (counter instanceof VariableAccess && ((VariableAccess) counter).getSlot() >= 0) {
+            VariableAccess access = (VariableAccess) counter;
+            VariableDeclaration declaration = context.getVariableDefinition(access.getName());
+            if (declaration != null && declaration.getType() == BasicType.Integer) {
+                declaration.setUnboxed(true);
+                return new CounterAssignment(access, value, line);
+            }
+        }
+        return new Assignment(counter, value, line);
+    }
+
+    @Override
+    public ExecutionResult executeImpl(VariableContext context,
+                                       RuntimeExecutableCodeUnit<?> main) throws RuntimePascalException {
+        int value = this.value.getInt(context, main);
+        counter.getSlotFrame(context, main).setLocalInt(counter.getSlot(), value);
+        if (main != null && main.isDebugMode()) {
+            main.getDebugRecorder().recordVariableChange(line, counter, value);
+        }
+        return ExecutionResult.NONE;
+    }
+
+    @Override
+    public String toString() {
+        return counter + " := " + value;
+    }
+
+    @Override
+    public LineInfo getLineNumber() {
+        return this.line;
+    }
+
+    @Override
+    public void setAssignedValue(RuntimeValue value) {
+        this.value = value;
+    }
+
+    @Override
+    public SetValueExecutable compileTimeConstantTransform(CompileTimeContext c)
+            throws ParsingException {
+        return new CounterAssignment(counter, value.compileTimeExpressionFold(c), line);
+    }
+}
@@ -1,15 +1,29 @@
 package com.js.interpreter.instructions;
 
 import com.duy.pascal.backend.pascaltypes.RuntimeType;
+import com.js.interpreter.runtime.VariableContext;
 import com.js.interpreter.runtime.references.Reference;
 import com.js.interpreter.runtime.exception.RuntimePascalException;
 import com.js.interpreter.runtime.variables.ContainsVariables;
+import com.js.interpreter.runtime.variables.CustomVariable;
 
 public class FieldReference implements Reference {
     private ContainsVariables container;
     private String name;
     private RuntimeType type = null;
 
+    /**
+     * frame and slot of variable, used instead of name when the variable
+     * has been resolved at parse time
+     */
+    private VariableContext frame;
+    private int slot = -1;
+    /**
+     * record and index of the field, used instead of name when the field has been
+     * resolved at parse time
+     */
+    private CustomVariable record;
+
     public FieldReference(ContainsVariables container, String name) {
         this.container = container;
         this.name = name;
@@ -21,13 +35,36 @@ public class FieldReference implements Reference {
         this.type = type;
     }
 
+    public FieldReference(VariableContext frame, int slot, RuntimeType type) {
+        this.frame = frame;
+        this.slot = slot;
+        this.type = type;
+    }
+
+    public FieldReference(CustomVariable record, int index) {
+        this.record = record;
+        this.slot = index;
+    }
+
     @Override
     public void set(Object value) {
-        container.setVar(name, value);
+        if (frame != null) {
+            frame.setLocalVar(slot, value);
+        } else if (record != null) {
+            record.setField(slot, value);
+        } else {
+            container.setVar(name, value);
+        }
     }
 
     @Override
     public Object get() throws RuntimePascalException {
+        if (frame != null) {
+            return frame.getLocalVar(slot);
+        }
+        if (record != null) {
+            return record.getField(slot);
+        }
         return container.getVar(name);
     }
 
@@ -0,0 +1,271 @@
+package com.js.interpreter.instructions;
+
+import com.duy.pascal.backend.debugable.DebuggableExecutable;
+import com.duy.pascal.backend.exceptions.ParsingException;
+import com.duy.pascal.backend.linenumber.LineInfo;
+import com.js.interpreter.codeunit.RuntimeExecutableCodeUnit;
+import com.js.interpreter.expressioncontext.CompileTimeContext;
+import com.js.interpreter.runtime.VariableContext;
+import com.js.interpreter.runtime.exception.RuntimePascalException;
+import com.js.interpreter.runtime_value.RuntimeValue;
+
+import java.util.ArrayList;
+
+/**
+ * Body of a function lowered to a flat array of operations.
+ * <p>
+ * begin end, if, while, repeat and for statements become conditional jumps, so nested
+ * blocks and loops run in the single dispatch loop of {@link #executeImpl} instead of
+ * costing a Java frame and a switch per level. Other statements are kept and executed as
+ * they are, a break or continue returned by them jumps to the innermost loop around them.
+ * <p>
+ * Lowered code does not report lines to the debugger, use it only outside debug mode
+ */
+public class FlatBlock extends DebuggableExecutable {
+    private static final byte EXECUTE = 0;
+    private static final byte JUMP = 1;
+    private static final byte JUMP_IF_FALSE = 2;
+    private static final byte JUMP_IF_TRUE = 3;
+    /**
+     * back edge of loop, jump and check pause/terminate
+     */
+    private static final byte LOOP = 4;
+
+    private byte[] kinds;
+    private Executable[] commands;
+    private RuntimeValue[] conditions;
+    private int[] targets;
+    private int[] breakTargets;
+    private int[] continueTargets;
+    private LineInfo[] lines;
+    private LineInfo line;
+
+    private FlatBlock(int size, LineInfo line) {
+        this.kinds = new byte[size];
+        this.commands = new Executable[size];
+        this.conditions = new RuntimeValue[size];
+        this.targets = new int[size];
+        this.breakTargets = new int[size];
+        this.continueTargets = new int[size];
+        this.lines = new LineInfo[size];
+        this.line = line;
+    }
+
+    /**
+     * Fold constants of the body then lower it
+     *
+     * @return the lowered body, or the body itself if it can not be transformed
+     */
+    public static Executable compile(Executable body, CompileTimeContext context) {
+        try {
+            Executable transformed = body.compileTimeConstantTransform(context);
+            Builder builder = new Builder();
+            builder.add(transformed);
+            return builder.build(transformed.getLineNumber());
+        } catch (ParsingException | RuntimeException e) {
+            return body;
+        }
+    }
+
+    @Override
+    public ExecutionResult executeImpl(VariableContext context, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        int pc = 0;
+        final int end = kinds.length;
+        while (pc < end) {
+            switch (kinds[pc]) {
+                case EXECUTE:
+                    switch (commands[pc].execute(context, main)) {
+                        case NONE:
+                            pc++;
+                            break;
+                        case EXIT:
+                            return ExecutionResult.EXIT;
+                        case BREAK:
+                            if (breakTargets[pc] < 0) {
+                                return ExecutionResult.BREAK;
+                            }
+                            pc = breakTargets[pc];
+                            break;
+                        case CONTINUE:
+                            if (continueTargets[pc] < 0) {
+                                return ExecutionResult.CONTINUE;
+                            }
+                            pc = continueTargets[pc];
+                            break;
+                    }
+                    break;
+                case JUMP:
+                    pc = targets[pc];
+                    break;
+                case JUMP_IF_FALSE:
+                    pc = conditions[pc].getBoolean(context, main) ? pc + 1 : targets[pc];
+                    break;
+                case JUMP_IF_TRUE:
+                    pc = conditions[pc].getBoolean(context, main) ? targets[pc] : pc + 1;
+                    break;
+                case LOOP:
+                    if (main != null) {
+                        main.safepoint(lines[pc]);
+                    }
+                    pc = targets[pc];
+                    break;
+            }
+        }
+        return ExecutionResult.NONE;
+    }
+
+    @Override
+    public LineInfo getLineNumber() {
+        return line;
+    }
+
+    @Override
+    public Executable compileTimeConstantTransform(CompileTimeContext c) throws ParsingException {
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "flat block [" + kinds.length + " operations]";
+    }
+
+    public static class Builder {
+        private ArrayList<Operation> operations = new ArrayList<>();
+        private ArrayList<Loop> loops = new ArrayList<>();
+
+        /**
+         * append a statement, structured statements are lowered recursively
+         */
+        public void add(Executable executable) {
+            if (executable instanceof LowerableExecutable) {
+                ((LowerableExecutable) executable).lower(this);
+            } else if (!(executable instanceof NoneInstruction)) {
+                Operation operation = emit(EXECUTE, executable.getLineNumber());
+                operation.command = executable;
+                Loop loop = currentLoop();
+                if (loop != null) {
+                    loop.commands.add(operation);
+                }
+            }
+        }
+
+        /**
+         * @return index of the next operation
+         */
+        public int position() {
+            return operations.size();
+        }
+
+        /**
+         * @return index of the jump, its target must be set by {@link #patch(int, int)}
+         */
+        public int emitJump() {
+            emit(JUMP, null);
+            return operations.size() - 1;
+        }
+
+        public int emitJumpIfFalse(RuntimeValue condition) {
+            emit(JUMP_IF_FALSE, condition.getLineNumber()).condition = condition;
+            return operations.size() - 1;
+        }
+
+        public int emitJumpIfTrue(RuntimeValue condition) {
+            emit(JUMP_IF_TRUE, condition.getLineNumber()).condition = condition;
+            return operations.size() - 1;
+        }
+
+        public void emitLoop(int target, LineInfo line) {
+            emit(LOOP, line).target = target;
+        }
+
+        public void patch(int jump, int target) {
+            operations.get(jump).target = target;
+        }
+
+        public void beginLoop() {
+            loops.add(new Loop());
+        }
+
+        /**
+         * set the targets of break and continue inside the loop which is closed
+         */
+        public void endLoop(int continueTarget, int breakTarget) {
+            Loop loop = loops.remove(loops.size() - 1);
+            for (Integer jump : loop.breaks) {
+                patch(jump, breakTarget);
+            }
+            for (Integer jump : loop.continues) {
+                patch(jump, continueTarget);
+            }
+            for (Operation command : loop.commands) {
+                command.breakTarget = breakTarget;
+                command.continueTarget = continueTarget;
+            }
+        }
+
+        public void emitBreak(Executable breakInstruction) {
+            Loop loop = currentLoop();
+            if (loop == null) {
+                add(breakInstruction);
+            } else {
+                loop.breaks.add(emitJump());
+            }
+        }
+
+        public void emitContinue(Executable continueInstruction) {
+            Loop loop = currentLoop();
+            if (loop == null) {
+                add(continueInstruction);
+            } else {
+                loop.continues.add(emitJump());
+            }
+        }
+
+        public FlatBlock build(LineInfo line) {
+            FlatBlock block = new FlatBlock(operations.size(), line);
+            for (int i = 0; i < operations.size(); i++) {
+                Operation operation = operations.get(i);
+                block.kinds[i] = operation.kind;
+                block.commands[i] = operation.command;
+                block.conditions[i] = operation.condition;
+                block.targets[i] = operation.target;
+                block.breakTargets[i] = operation.breakTarget;
+                block.continueTargets[i] = operation.continueTarget;
+                block.lines[i] = operation.line;
+            }
+            return block;
+        }
+
+        private Operation emit(byte kind, LineInfo line) {
+            Operation operation = new Operation(kind, line);
+            operations.add(operation);
+            return operation;
+        }
+
+        private Loop currentLoop() {
+            return loops.isEmpty() ? null : loops.get(loops.size() - 1);
+        }
+    }
+
+    private static class Operation {
+        byte kind;
+        LineInfo line;
+        Executable command;
+        RuntimeValue condition;
+        int target = -1;
+        int breakTarget = -1;
+        int continueTarget = -1;
+
+        Operation(byte kind, LineInfo line) {
+            this.kind = kind;
+            this.line = line;
+        }
+    }
+
+    private static class Loop {
+        ArrayList<Integer> breaks = new ArrayList<>();
+        ArrayList<Integer> continues = new ArrayList<>();
+        ArrayList<Operation> commands = new ArrayList<>();
+    }
+}
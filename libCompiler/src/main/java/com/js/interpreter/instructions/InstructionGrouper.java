@@ -11,7 +11,7 @@ import com.js.interpreter.runtime.exception.RuntimePascalException;
 import java.util.LinkedList;
 import java.util.List;
 
-public class InstructionGrouper extends DebuggableExecutable {
+public class InstructionGrouper extends DebuggableExecutable implements LowerableExecutable {
     List<Executable> instructions;
     LineInfo line;
 
@@ -73,4 +73,11 @@ public class InstructionGrouper extends DebuggableExecutable {
             return nig;
         }
     }
+
+    @Override
+    public void lower(FlatBlock.Builder builder) {
+        for (Executable e : instructions) {
+            builder.add(e);
+        }
+    }
 }
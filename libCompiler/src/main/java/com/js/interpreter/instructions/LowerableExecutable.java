@@ -0,0 +1,8 @@
+package com.js.interpreter.instructions;
+
+/**
+ * Statement which can be written into a {@link FlatBlock} as jumps and plain statements
+ */
+public interface LowerableExecutable extends Executable {
+    void lower(FlatBlock.Builder builder);
+}
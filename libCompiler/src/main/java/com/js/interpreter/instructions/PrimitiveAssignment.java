@@ -0,0 +1,118 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.js.interpreter.instructions;
+
+import android.support.annotation.NonNull;
+
+import com.duy.pascal.backend.debugable.DebuggableExecutable;
+import com.duy.pascal.backend.exceptions.ParsingException;
+import com.duy.pascal.backend.linenumber.LineInfo;
+import com.duy.pascal.backend.pascaltypes.BasicType;
+import com.js.interpreter.VariableDeclaration;
+import com.js.interpreter.codeunit.RuntimeExecutableCodeUnit;
+import com.js.interpreter.expressioncontext.CompileTimeContext;
+import com.js.interpreter.expressioncontext.ExpressionContext;
+import com.js.interpreter.runtime.UnboxedSlots;
+import com.js.interpreter.runtime.VariableContext;
+import com.js.interpreter.runtime.exception.RuntimePascalException;
+import com.js.interpreter.runtime_value.AssignableValue;
+import com.js.interpreter.runtime_value.RuntimeValue;
+import com.js.interpreter.runtime_value.VariableAccess;
+
+/**
+ * Assignment of an integer, int64, real or boolean variable with a slot. The value is
+ * evaluated with the typed getter of its type and stored in the frame without boxing.
+ */
+public class PrimitiveAssignment extends DebuggableExecutable implements SetValueExecutable {
+    private VariableAccess left;
+    private RuntimeValue value;
+    private BasicType type;
+    private LineInfo line;
+
+    public PrimitiveAssignment(@NonNull VariableAccess left, @NonNull RuntimeValue value,
+                               @NonNull BasicType type, @NonNull LineInfo line) {
+        this.left = left;
+        this.value = value;
+        this.type = type;
+        this.line = line;
+    }
+
+    /**
+     * @return assignment without boxing, a variable without a slot or of another type gets
+     * a normal {@link Assignment}
+     */
+    public static SetValueExecutable create(ExpressionContext context, AssignableValue left,
+                                            RuntimeValue value, LineInfo line) {
+        if (left instanceof VariableAccess && ((VariableAccess) left).getSlot() >= 0) {
+            VariableAccess access = (VariableAccess) left;
+            VariableDeclaration declaration = context.getVariableDefinition(access.getName());
+            if (declaration != null && UnboxedSlots.canUnbox(declaration.getType())) {
+                declaration.setUnboxed(true);
+                return new PrimitiveAssignment(access, value,
+                        (BasicType) declaration.getType(), line);
+            }
+        }
+        return new Assignment(left, value, line);
+    }
+
+    @Override
+    public ExecutionResult executeImpl(VariableContext context,
+                                       RuntimeExecutableCodeUnit<?> main) throws RuntimePascalException {
+        VariableContext frame = left.getSlotFrame(context, main);
+        int slot = left.getSlot();
+        switch (type) {
+            case Integer:
+                frame.setLocalInt(slot, value.getInt(context, main));
+                break;
+            case Long:
+                frame.setLocalLong(slot, value.getLong(context, main));
+                break;
+            case Double:
+                frame.setLocalDouble(slot, value.getDouble(context, main));
+                break;
+            default:
+                frame.setLocalBoolean(slot, value.getBoolean(context, main));
+                break;
+        }
+        if (main != null && main.isDebugMode()) {
+            main.getDebugRecorder().recordVariableChange(line, left, frame.getLocalVar(slot));
+        }
+        return ExecutionResult.NONE;
+    }
+
+    @Override
+    public String toString() {
+        return left + " := " + value;
+    }
+
+    @Override
+    public LineInfo getLineNumber() {
+        return this.line;
+    }
+
+    @Override
+    public void setAssignedValue(RuntimeValue value) {
+        this.value = value;
+    }
+
+    @Override
+    public SetValueExecutable compileTimeConstantTransform(CompileTimeContext c)
+            throws ParsingException {
+        return new PrimitiveAssignment(left, value.compileTimeExpressionFold(c), type, line);
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.js.interpreter.instructions;
+
+import android.support.annotation.NonNull;
+
+import com.duy.pascal.backend.debugable.DebuggableExecutable;
+import com.duy.pascal.backend.exceptions.ParsingException;
+import com.duy.pascal.backend.linenumber.LineInfo;
+import com.js.interpreter.codeunit.RuntimeExecutableCodeUnit;
+import com.js.interpreter.expressioncontext.CompileTimeContext;
+import com.js.interpreter.runtime.PascalStrings;
+import com.js.interpreter.runtime.VariableContext;
+import com.js.interpreter.runtime.exception.RuntimePascalException;
+import com.js.interpreter.runtime.references.Reference;
+import com.js.interpreter.runtime_value.RuntimeValue;
+import com.js.interpreter.runtime_value.VariableAccess;
+
+/**
+ * s := s + value, where s is a string variable without max length. The builder of the
+ * variable is only owned by the variable, so the value is appended to it instead of
+ * copying the whole string on every assignment.
+ */
+public class StringAppend extends DebuggableExecutable {
+    private VariableAccess left;
+    private RuntimeValue value;
+    private LineInfo line;
+
+    public StringAppend(@NonNull VariableAccess left, @NonNull RuntimeValue value,
+                        @NonNull LineInfo line) {
+        this.left = left;
+        this.value = value;
+        this.line = line;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public ExecutionResult executeImpl(VariableContext context,
+                                       RuntimeExecutableCodeUnit<?> main) throws RuntimePascalException {
+        Reference ref = left.getReference(context, main);
+        //read the string before the value, like s + value does
+        Object current = ref.get();
+        Object value = this.value.getValue(context, main);
+        StringBuilder result;
+        if (current instanceof StringBuilder) {
+            result = (StringBuilder) current;
+            PascalStrings.append(result, value);
+        } else {
+            result = PascalStrings.concat(current, value);
+        }
+        ref.set(result);
+        if (main != null && main.isDebugMode()) {
+            main.getDebugRecorder().recordVariableChange(line, left, result.toString());
+        }
+        return ExecutionResult.NONE;
+    }
+
+    @Override
+    public String toString() {
+        return left + " := " + left + " + " + value;
+    }
+
+    @Override
+    public LineInfo getLineNumber() {
+        return this.line;
+    }
+
+    @Override
+    public Executable compileTimeConstantTransform(CompileTimeContext c)
+            throws ParsingException {
+        return new StringAppend(left, value.compileTimeExpressionFold(c), line);
+    }
+}
@@ -7,6 +7,7 @@ import com.duy.pascal.backend.exceptions.value.NonConstantExpressionException;
 import com.duy.pascal.backend.exceptions.ParsingException;
 import com.duy.pascal.backend.exceptions.convert.UnConvertibleTypeException;
 import com.duy.pascal.backend.linenumber.LineInfo;
+import com.duy.pascal.backend.pascaltypes.BasicType;
 import com.duy.pascal.backend.pascaltypes.DeclaredType;
 import com.duy.pascal.backend.tokens.EOFToken;
 import com.duy.pascal.backend.tokens.Token;
@@ -36,6 +37,12 @@ public class CaseInstruction extends DebuggableExecutable {
     private InstructionGrouper otherwise;
     private LineInfo line;
 
+    /**
+     * branches by value, null if the case value is not an ordinal type
+     */
+    private CaseTable table;
+    private boolean integral;
+
     public CaseInstruction(CaseToken token, ExpressionContext context)
             throws ParsingException {
         this.line = token.getLineInfo();
@@ -48,6 +55,8 @@ public class CaseInstruction extends DebuggableExecutable {
         //this Object used to check compare type with another element
         DeclaredType switchValueType = mSwitchValue.getType(context).declType;
         List<CasePossibility> possibilities = new ArrayList<>();
+        CaseTable.Builder tableBuilder = CaseTable.isOrdinal(switchValueType)
+                ? new CaseTable.Builder() : null;
 
         while (!(token.peek() instanceof ElseToken) && !(token.peek() instanceof EOFToken)) {
             List<CaseCondition> conditions = new ArrayList<>();
@@ -69,8 +78,14 @@ public class CaseInstruction extends DebuggableExecutable {
                         throw new NonConstantExpressionException(upper);
                     }
                     conditions.add(new RangeOfValues(context, mSwitchValue, v, hi, valueToSwitch.getLineNumber()));
+                    if (tableBuilder != null) {
+                        tableBuilder.add(v, hi, possibilities.size());
+                    }
                 } else {
                     conditions.add(new SingleValue(v, valueToSwitch.getLineNumber()));
+                    if (tableBuilder != null) {
+                        tableBuilder.add(v, v, possibilities.size());
+                    }
                 }
                 if (token.peek() instanceof CommaToken) {
                     token.take();
@@ -95,6 +110,11 @@ public class CaseInstruction extends DebuggableExecutable {
             }
         }
         this.possibilities = possibilities.toArray(new CasePossibility[possibilities.size()]);
+        if (tableBuilder != null) {
+            this.table = tableBuilder.build();
+            this.integral = switchValueType != BasicType.Character
+                    && switchValueType != BasicType.Boolean;
+        }
     }
 
     //check type
@@ -118,6 +138,17 @@ public class CaseInstruction extends DebuggableExecutable {
     @Override
     public ExecutionResult executeImpl(VariableContext context,
                                        RuntimeExecutableCodeUnit<?> main) throws RuntimePascalException {
+        if (table != null) {
+            long key;
+            if (integral) {
+                key = mSwitchValue.getLong(context, main);
+            } else {
+                key = CaseTable.ordinal(mSwitchValue.getValue(context, main));
+            }
+            int branch = table.lookup(key);
+            return branch < 0 ? otherwise.execute(context, main)
+                    : possibilities[branch].execute(context, main);
+        }
         Object value = mSwitchValue.getValue(context, main);
         for (CasePossibility possibily : possibilities) {
             for (int j = 0; j < possibily.conditions.length; j++) {
@@ -141,6 +172,10 @@ public class CaseInstruction extends DebuggableExecutable {
         if (value == null) {
             return this;
         }
+        if (table != null) {
+            int branch = table.lookup(CaseTable.ordinal(value));
+            return branch < 0 ? otherwise : possibilities[branch];
+        }
         try {
             for (CasePossibility possibily : possibilities) {
                 for (int j = 0; j < possibily.conditions.length; j++) {
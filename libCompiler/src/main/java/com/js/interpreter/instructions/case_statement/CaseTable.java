@@ -0,0 +1,171 @@
+package com.js.interpreter.instructions.case_statement;
+
+import com.duy.pascal.backend.pascaltypes.BasicType;
+import com.duy.pascal.backend.pascaltypes.DeclaredType;
+import com.js.interpreter.runtime.PascalSets;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Labels of a case statement over an ordinal type, built at parse time.
+ * <p>
+ * The labels are merged into sorted disjoint intervals, each one with the index of its
+ * branch. Dense labels become a direct table indexed by (value - min), sparse labels are
+ * found with a binary search over the intervals.
+ */
+class CaseTable {
+    /**
+     * largest direct table, for labels spread wider a binary search is used
+     */
+    private static final int MAX_TABLE_SIZE = 4096;
+
+    private long min;
+    /**
+     * branch index + 1 of each value from min, 0 is the else branch
+     */
+    private int[] table;
+
+    private long[] lows;
+    private long[] highs;
+    private int[] branches;
+
+    private CaseTable(long[] lows, long[] highs, int[] branches) {
+        this.lows = lows;
+        this.highs = highs;
+        this.branches = branches;
+        if (lows.length == 0) {
+            return;
+        }
+        this.min = lows[0];
+        long span = highs[highs.length - 1] - min + 1;
+        if (span > 0 && span <= MAX_TABLE_SIZE && span <= Math.max(64, 8L * lows.length)) {
+            table = new int[(int) span];
+            for (int i = 0; i < lows.length; i++) {
+                for (long v = lows[i]; v <= highs[i]; v++) {
+                    table[(int) (v - min)] = branches[i] + 1;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return true if the case value is an ordinal which can be dispatched by a table
+     */
+    static boolean isOrdinal(DeclaredType type) {
+        return type == BasicType.Integer || type == BasicType.Long || type == BasicType.Byte
+                || type == BasicType.Short || type == BasicType.Character
+                || type == BasicType.Boolean;
+    }
+
+    private static boolean isOrdinalValue(Object value) {
+        return value instanceof Character || value instanceof Boolean || value instanceof Long
+                || value instanceof Integer || value instanceof Short || value instanceof Byte;
+    }
+
+    static long ordinal(Object value) {
+        if (value instanceof Long) {
+            return (Long) value;
+        }
+        return PascalSets.ordinal(value);
+    }
+
+    /**
+     * @return index of the branch of the value, or -1 for the else branch
+     */
+    int lookup(long value) {
+        if (table != null) {
+            long index = value - min;
+            return index >= 0 && index < table.length ? table[(int) index] - 1 : -1;
+        }
+        int low = 0;
+        int high = lows.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (value < lows[mid]) {
+                high = mid - 1;
+            } else if (value > highs[mid]) {
+                low = mid + 1;
+            } else {
+                return branches[mid];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Collects the labels in the order of the source, the first branch of a value wins
+     */
+    static class Builder {
+        private TreeMap<Long, long[]> intervals = new TreeMap<>();
+        private boolean ordinalLabels = true;
+
+        void add(Object lowLabel, Object highLabel, int branch) {
+            if (!isOrdinalValue(lowLabel) || !isOrdinalValue(highLabel)) {
+                ordinalLabels = false;
+                return;
+            }
+            long low = ordinal(lowLabel);
+            long high = ordinal(highLabel);
+            if (low > high) {
+                return;
+            }
+            //parts of the range not covered by previous labels
+            ArrayList<long[]> free = new ArrayList<>();
+            long cursor = low;
+            boolean covered = false;
+            Long start = intervals.floorKey(low);
+            for (long[] interval : intervals.tailMap(start == null ? low : start).values()) {
+                if (interval[0] > high) {
+                    break;
+                }
+                if (interval[1] < cursor) {
+                    continue;
+                }
+                if (interval[0] > cursor) {
+                    free.add(new long[]{cursor, interval[0] - 1, branch});
+                }
+                if (interval[1] >= high) {
+                    covered = true;
+                    break;
+                }
+                cursor = interval[1] + 1;
+            }
+            if (!covered) {
+                free.add(new long[]{cursor, high, branch});
+            }
+            for (long[] interval : free) {
+                intervals.put(interval[0], interval);
+            }
+        }
+
+        /**
+         * @return the table, or null if a label is not an ordinal value
+         */
+        CaseTable build() {
+            if (!ordinalLabels) {
+                return null;
+            }
+            ArrayList<long[]> merged = new ArrayList<>();
+            for (Map.Entry<Long, long[]> entry : intervals.entrySet()) {
+                long[] interval = entry.getValue();
+                long[] last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+                if (last != null && last[2] == interval[2] && last[1] + 1 == interval[0]) {
+                    last[1] = interval[1];
+                } else {
+                    merged.add(interval.clone());
+                }
+            }
+            long[] lows = new long[merged.size()];
+            long[] highs = new long[merged.size()];
+            int[] branches = new int[merged.size()];
+            for (int i = 0; i < lows.length; i++) {
+                lows[i] = merged.get(i)[0];
+                highs[i] = merged.get(i)[1];
+                branches[i] = (int) merged.get(i)[2];
+            }
+            return new CaseTable(lows, highs, branches);
+        }
+    }
+}
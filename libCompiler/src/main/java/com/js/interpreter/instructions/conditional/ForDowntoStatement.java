@@ -6,9 +6,11 @@ import com.duy.pascal.backend.linenumber.LineInfo;
 import com.duy.pascal.backend.tokens.OperatorTypes;
 import com.js.interpreter.expressioncontext.CompileTimeContext;
 import com.js.interpreter.expressioncontext.ExpressionContext;
-import com.js.interpreter.instructions.Assignment;
+import com.js.interpreter.instructions.CounterAssignment;
 import com.js.interpreter.instructions.Executable;
 import com.js.interpreter.instructions.ExecutionResult;
+import com.js.interpreter.instructions.FlatBlock;
+import com.js.interpreter.instructions.LowerableExecutable;
 import com.js.interpreter.instructions.SetValueExecutable;
 import com.js.interpreter.runtime_value.ConstantAccess;
 import com.js.interpreter.runtime_value.AssignableValue;
@@ -18,7 +20,7 @@ import com.js.interpreter.runtime.VariableContext;
 import com.js.interpreter.codeunit.RuntimeExecutableCodeUnit;
 import com.js.interpreter.runtime.exception.RuntimePascalException;
 
-public class ForDowntoStatement extends DebuggableExecutable {
+public class ForDowntoStatement extends DebuggableExecutable implements LowerableExecutable {
     private SetValueExecutable setfirst;
     private RuntimeValue lessthanlast;
     private SetValueExecutable increment_temp;
@@ -29,12 +31,12 @@ public class ForDowntoStatement extends DebuggableExecutable {
                               RuntimeValue first, RuntimeValue last, Executable command,
                               LineInfo line) throws ParsingException {
         this.line = line;
-        setfirst = new Assignment(temp_var, first, line);
+        setfirst = CounterAssignment.create(f, temp_var, first, line);
         lessthanlast = BinaryOperatorEvaluation.generateOp(f, temp_var, last,
                 OperatorTypes.GREATEREQ, this.line);
-        increment_temp = new Assignment(temp_var, BinaryOperatorEvaluation.generateOp(
-                f, temp_var, new ConstantAccess(1, this.line),
-                OperatorTypes.MINUS, this.line), line);
+        increment_temp = CounterAssignment.create(f, temp_var,
+                BinaryOperatorEvaluation.generateOp(f, temp_var, new ConstantAccess(1, this.line),
+                        OperatorTypes.MINUS, this.line), line);
 
         this.command = command;
     }
@@ -55,14 +57,15 @@ public class ForDowntoStatement extends DebuggableExecutable {
                                        RuntimeExecutableCodeUnit<?> main) throws RuntimePascalException {
         setfirst.execute(context, main);
         while_loop:
-        while ((Boolean) lessthanlast.getValue(context, main)) {
+        while (lessthanlast.getBoolean(context, main)) {
+            if (main != null) {
+                main.safepoint(line);
+            }
             switch (command.execute(context, main)) {
                 case EXIT:
                     return ExecutionResult.EXIT;
                 case BREAK:
                     break while_loop;
-                case CONTINUE:
-                    continue while_loop;
             }
             increment_temp.execute(context, main);
         }
@@ -83,11 +86,25 @@ public class ForDowntoStatement extends DebuggableExecutable {
         RuntimeValue comp = lessthanlast;
         Object val = lessthanlast.compileTimeValue(c);
         if (val != null) {
-            if (((Boolean) val)) {
+            if (!((Boolean) val)) {
                 return first;
             }
             comp = new ConstantAccess(val, lessthanlast.getLineNumber());
         }
         return new ForDowntoStatement(first, comp, inc, comm, line);
     }
+
+    @Override
+    public void lower(FlatBlock.Builder builder) {
+        builder.add(setfirst);
+        int start = builder.position();
+        int exit = builder.emitJumpIfFalse(lessthanlast);
+        builder.beginLoop();
+        builder.add(command);
+        int next = builder.position();
+        builder.add(increment_temp);
+        builder.emitLoop(start, line);
+        builder.patch(exit, builder.position());
+        builder.endLoop(next, builder.position());
+    }
 }
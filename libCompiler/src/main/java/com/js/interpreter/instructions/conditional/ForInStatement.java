@@ -28,6 +28,7 @@ import com.js.interpreter.runtime_value.AssignableValue;
 import com.js.interpreter.runtime_value.RuntimeValue;
 import com.js.interpreter.runtime.references.Reference;
 import com.js.interpreter.runtime.VariableContext;
+import com.js.interpreter.runtime.PascalArrays;
 import com.js.interpreter.codeunit.RuntimeExecutableCodeUnit;
 import com.js.interpreter.runtime.exception.RuntimePascalException;
 
@@ -67,10 +68,19 @@ public class ForInStatement extends DebuggableExecutable {
     @SuppressWarnings("unchecked")
     public ExecutionResult executeImpl(VariableContext context, RuntimeExecutableCodeUnit<?> main)
             throws RuntimePascalException {
-        Object[] array = (Object[]) list.getValue(context, main);
-        for (Object o : array) {
+        Object array = list.getValue(context, main);
+        int length = PascalArrays.length(array);
+        for (int i = 0; i < length; i++) {
+            if (main != null) {
+                main.safepoint(line);
+            }
             Reference reference = item.getReference(context, main);
-            reference.set(o);
+            Object element = PascalArrays.get(array, i);
+            //the item owns its string, appending to it must not change the array
+            if (element instanceof StringBuilder) {
+                element = new StringBuilder((StringBuilder) element);
+            }
+            reference.set(element);
             ExecutionResult result = command.execute(context, main);
             switch (result) {
                 case BREAK:
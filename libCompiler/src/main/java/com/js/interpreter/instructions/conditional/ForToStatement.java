@@ -6,9 +6,11 @@ import com.duy.pascal.backend.linenumber.LineInfo;
 import com.duy.pascal.backend.tokens.OperatorTypes;
 import com.js.interpreter.expressioncontext.CompileTimeContext;
 import com.js.interpreter.expressioncontext.ExpressionContext;
-import com.js.interpreter.instructions.Assignment;
+import com.js.interpreter.instructions.CounterAssignment;
 import com.js.interpreter.instructions.Executable;
 import com.js.interpreter.instructions.ExecutionResult;
+import com.js.interpreter.instructions.FlatBlock;
+import com.js.interpreter.instructions.LowerableExecutable;
 import com.js.interpreter.instructions.SetValueExecutable;
 import com.js.interpreter.runtime_value.ConstantAccess;
 import com.js.interpreter.runtime_value.AssignableValue;
@@ -19,7 +21,7 @@ import com.js.interpreter.codeunit.RuntimeExecutableCodeUnit;
 import com.js.interpreter.runtime.exception.RuntimePascalException;
 
 
-public class ForToStatement extends DebuggableExecutable {
+public class ForToStatement extends DebuggableExecutable implements LowerableExecutable {
     private SetValueExecutable setfirst;
     private RuntimeValue lessThanLast;
     private SetValueExecutable increment_temp;
@@ -30,22 +32,35 @@ public class ForToStatement extends DebuggableExecutable {
                           RuntimeValue first, RuntimeValue last, Executable command,
                           LineInfo line) throws ParsingException {
         this.line = line;
-        setfirst = new Assignment(tempVar, first, line);
+        setfirst = CounterAssignment.create(context, tempVar, first, line);
         lessThanLast = BinaryOperatorEvaluation.generateOp(context, tempVar, last,
                 OperatorTypes.LESSEQ, this.line);
-        increment_temp = new Assignment(tempVar, BinaryOperatorEvaluation.generateOp(
-                context, tempVar, new ConstantAccess(1, this.line),
-                OperatorTypes.PLUS, this.line), line);
+        increment_temp = CounterAssignment.create(context, tempVar,
+                BinaryOperatorEvaluation.generateOp(context, tempVar, new ConstantAccess(1, this.line),
+                        OperatorTypes.PLUS, this.line), line);
 
         this.command = command;
     }
 
+    public ForToStatement(SetValueExecutable setfirst,
+                          RuntimeValue lessThanLast, SetValueExecutable increment_temp,
+                          Executable command, LineInfo line) {
+        this.setfirst = setfirst;
+        this.lessThanLast = lessThanLast;
+        this.increment_temp = increment_temp;
+        this.command = command;
+        this.line = line;
+    }
+
     @Override
     public ExecutionResult executeImpl(VariableContext context, RuntimeExecutableCodeUnit<?> main)
             throws RuntimePascalException {
         setfirst.execute(context, main);
         whileLoop:
-        while ((Boolean) lessThanLast.getValue(context, main)) {
+        while (lessThanLast.getBoolean(context, main)) {
+            if (main != null) {
+                main.safepoint(line);
+            }
             ExecutionResult result = command.execute(context, main);
             switch (result) {
                 case EXIT:
@@ -74,12 +89,26 @@ public class ForToStatement extends DebuggableExecutable {
         RuntimeValue comp = lessThanLast;
         Object val = lessThanLast.compileTimeValue(c);
         if (val != null) {
-            if (((Boolean) val)) {
+            if (!((Boolean) val)) {
                 return first;
             } else {
                 comp = new ConstantAccess(val, lessThanLast.getLineNumber());
             }
         }
-        return new ForDowntoStatement(first, comp, inc, comm, line);
+        return new ForToStatement(first, comp, inc, comm, line);
+    }
+
+    @Override
+    public void lower(FlatBlock.Builder builder) {
+        builder.add(setfirst);
+        int start = builder.position();
+        int exit = builder.emitJumpIfFalse(lessThanLast);
+        builder.beginLoop();
+        builder.add(command);
+        int next = builder.position();
+        builder.add(increment_temp);
+        builder.emitLoop(start, line);
+        builder.patch(exit, builder.position());
+        builder.endLoop(next, builder.position());
     }
 }
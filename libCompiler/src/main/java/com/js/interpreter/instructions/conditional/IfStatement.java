@@ -14,12 +14,15 @@ import com.js.interpreter.expressioncontext.CompileTimeContext;
 import com.js.interpreter.expressioncontext.ExpressionContext;
 import com.js.interpreter.instructions.Executable;
 import com.js.interpreter.instructions.ExecutionResult;
+import com.js.interpreter.instructions.FlatBlock;
+import com.js.interpreter.instructions.LowerableExecutable;
+import com.js.interpreter.instructions.NoneInstruction;
 import com.js.interpreter.runtime_value.RuntimeValue;
 import com.js.interpreter.runtime.VariableContext;
 import com.js.interpreter.codeunit.RuntimeExecutableCodeUnit;
 import com.js.interpreter.runtime.exception.RuntimePascalException;
 
-public class IfStatement extends DebuggableExecutable {
+public class IfStatement extends DebuggableExecutable implements LowerableExecutable {
     private RuntimeValue condition;
     private Executable instruction;
     private Executable elseInstruction;
@@ -86,8 +89,7 @@ public class IfStatement extends DebuggableExecutable {
     @Override
     public ExecutionResult executeImpl(VariableContext context,
                                        RuntimeExecutableCodeUnit<?> main) throws RuntimePascalException {
-        Boolean value = (Boolean) (condition.getValue(context, main));
-        if (value) {
+        if (condition.getBoolean(context, main)) {
             return instruction.execute(context, main);
         } else {
             if (elseInstruction != null) {
@@ -110,13 +112,30 @@ public class IfStatement extends DebuggableExecutable {
             Boolean b = (Boolean) o;
             if (b) {
                 return instruction.compileTimeConstantTransform(c);
-            } else {
+            } else if (elseInstruction != null) {
                 return elseInstruction.compileTimeConstantTransform(c);
+            } else {
+                return new NoneInstruction(line);
             }
         } else {
             return new IfStatement(condition,
                     instruction.compileTimeConstantTransform(c),
-                    elseInstruction.compileTimeConstantTransform(c), line);
+                    elseInstruction == null ? null : elseInstruction.compileTimeConstantTransform(c),
+                    line);
+        }
+    }
+
+    @Override
+    public void lower(FlatBlock.Builder builder) {
+        int jumpToElse = builder.emitJumpIfFalse(condition);
+        builder.add(instruction);
+        if (elseInstruction != null) {
+            int jumpToEnd = builder.emitJump();
+            builder.patch(jumpToElse, builder.position());
+            builder.add(elseInstruction);
+            builder.patch(jumpToEnd, builder.position());
+        } else {
+            builder.patch(jumpToElse, builder.position());
         }
     }
 }
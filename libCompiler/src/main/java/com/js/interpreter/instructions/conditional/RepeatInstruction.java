@@ -6,13 +6,15 @@ import com.duy.pascal.backend.linenumber.LineInfo;
 import com.js.interpreter.expressioncontext.CompileTimeContext;
 import com.js.interpreter.instructions.Executable;
 import com.js.interpreter.instructions.ExecutionResult;
+import com.js.interpreter.instructions.FlatBlock;
+import com.js.interpreter.instructions.LowerableExecutable;
 import com.js.interpreter.runtime_value.ConstantAccess;
 import com.js.interpreter.runtime_value.RuntimeValue;
 import com.js.interpreter.runtime.VariableContext;
 import com.js.interpreter.codeunit.RuntimeExecutableCodeUnit;
 import com.js.interpreter.runtime.exception.RuntimePascalException;
 
-public class RepeatInstruction extends DebuggableExecutable {
+public class RepeatInstruction extends DebuggableExecutable implements LowerableExecutable {
     Executable command;
 
     RuntimeValue condition;
@@ -35,6 +37,9 @@ public class RepeatInstruction extends DebuggableExecutable {
                                        RuntimeExecutableCodeUnit<?> main) throws RuntimePascalException {
         do_loop:
         do {
+            if (main != null) {
+                main.safepoint(line);
+            }
             switch (command.execute(context, main)) {
                 case CONTINUE:
                     continue do_loop;
@@ -43,7 +48,7 @@ public class RepeatInstruction extends DebuggableExecutable {
                 case EXIT:
                     return ExecutionResult.EXIT;
             }
-        } while (!((Boolean) condition.getValue(context, main)));
+        } while (!condition.getBoolean(context, main));
         return ExecutionResult.NONE;
     }
 
@@ -65,4 +70,16 @@ public class RepeatInstruction extends DebuggableExecutable {
         return new RepeatInstruction(command.compileTimeConstantTransform(c),
                 condition, line);
     }
+
+    @Override
+    public void lower(FlatBlock.Builder builder) {
+        int start = builder.position();
+        builder.beginLoop();
+        builder.add(command);
+        int check = builder.position();
+        int exit = builder.emitJumpIfTrue(condition);
+        builder.emitLoop(start, line);
+        builder.patch(exit, builder.position());
+        builder.endLoop(check, builder.position());
+    }
 }
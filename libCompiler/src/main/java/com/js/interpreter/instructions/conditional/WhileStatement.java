@@ -9,11 +9,12 @@ import com.duy.pascal.backend.pascaltypes.BasicType;
 import com.duy.pascal.backend.tokens.Token;
 import com.duy.pascal.backend.tokens.basic.DoToken;
 import com.duy.pascal.backend.tokens.grouping.GrouperToken;
-import com.duy.pascal.frontend.debug.DebugManager;
 import com.js.interpreter.expressioncontext.CompileTimeContext;
 import com.js.interpreter.expressioncontext.ExpressionContext;
 import com.js.interpreter.instructions.Executable;
 import com.js.interpreter.instructions.ExecutionResult;
+import com.js.interpreter.instructions.FlatBlock;
+import com.js.interpreter.instructions.LowerableExecutable;
 import com.js.interpreter.instructions.NoneInstruction;
 import com.js.interpreter.runtime_value.ConstantAccess;
 import com.js.interpreter.runtime_value.RuntimeValue;
@@ -21,7 +22,7 @@ import com.js.interpreter.runtime.VariableContext;
 import com.js.interpreter.codeunit.RuntimeExecutableCodeUnit;
 import com.js.interpreter.runtime.exception.RuntimePascalException;
 
-public class WhileStatement extends DebuggableExecutable {
+public class WhileStatement extends DebuggableExecutable implements LowerableExecutable {
     private RuntimeValue condition;
     private Executable command;
     private LineInfo line;
@@ -71,8 +72,10 @@ public class WhileStatement extends DebuggableExecutable {
     public ExecutionResult executeImpl(VariableContext context,
                                        RuntimeExecutableCodeUnit<?> main) throws RuntimePascalException {
         while_loop:
-        while ((Boolean) condition.getValue(context, main)) {
-            DebugManager.outputConditionWhile(main.getDebugListener(), true);
+        while (condition.getBoolean(context, main)) {
+            if (main != null) {
+                main.safepoint(line);
+            }
             switch (command.execute(context, main)) {
                 case CONTINUE:
                     continue while_loop;
@@ -110,4 +113,16 @@ public class WhileStatement extends DebuggableExecutable {
         }
         return new WhileStatement(condition, comm, line);
     }
+
+    @Override
+    public void lower(FlatBlock.Builder builder) {
+        int start = builder.position();
+        int exit = builder.emitJumpIfFalse(condition);
+        builder.beginLoop();
+        builder.add(command);
+        int backEdge = builder.position();
+        builder.emitLoop(start, line);
+        builder.patch(exit, builder.position());
+        builder.endLoop(backEdge, builder.position());
+    }
 }
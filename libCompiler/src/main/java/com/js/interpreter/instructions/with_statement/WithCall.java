@@ -51,11 +51,7 @@ public class WithCall extends DebuggableExecutableReturnValue {
     @Override
     public ExecutionResult executeImpl(VariableContext f,
                                        RuntimeExecutableCodeUnit<?> main) throws RuntimePascalException {
-        Object valueImpl = getValueImpl(f, main);
-        if (valueImpl == ExecutionResult.EXIT) {
-            return ExecutionResult.EXIT;
-        }
-        return ExecutionResult.NONE;
+        return (ExecutionResult) getValueImpl(f, main);
     }
 
     @Override
@@ -67,19 +63,11 @@ public class WithCall extends DebuggableExecutableReturnValue {
     @Override
     public Object getValueImpl(VariableContext f, RuntimeExecutableCodeUnit<?> main)
             throws RuntimePascalException {
-        if (main != null) {
-            if (main.isDebugMode()) {
-                main.getDebugListener().onLine(getLineNumber());
-            }
-            main.incStack(getLineNumber());
+        if (main != null && main.isDebugMode()) {
+            main.getDebugRecorder().recordLine(getLineNumber());
             main.scriptControlCheck(getLineNumber());
         }
-
-        withStatement.execute(f, main);
-
-        if (main != null)
-            main.decStack();
-        return ExecutionResult.NONE;
+        return withStatement.execute(f, main);
     }
 
     @Override
@@ -31,6 +31,7 @@ import com.js.interpreter.codeunit.library.UnitPascal;
 import com.js.interpreter.expressioncontext.ExpressionContext;
 import com.js.interpreter.expressioncontext.ExpressionContextMixin;
 import com.js.interpreter.instructions.Executable;
+import com.js.interpreter.instructions.ExecutionResult;
 import com.js.interpreter.runtime.VariableContext;
 import com.js.interpreter.codeunit.RuntimeExecutableCodeUnit;
 import com.js.interpreter.runtime.exception.RuntimePascalException;
@@ -60,6 +61,8 @@ public class WithStatement {
                 for (VariableDeclaration variableDeclaration : customType.variableDeclarations) {
                     FieldAccess fieldAccess = new FieldAccess(argument, variableDeclaration.name(),
                             variableDeclaration.getLineNumber());
+                    //resolves the index of the field in the record
+                    fieldAccess.getType(parent);
                     fields.add(fieldAccess);
                     variableDeclarations.add(variableDeclaration);
                 }
@@ -76,13 +79,17 @@ public class WithStatement {
         return new WithCall(this, fields, line);
     }
 
-    public void execute(VariableContext parentcontext,
-                        RuntimeExecutableCodeUnit<?> main)
+    /**
+     * the with statement has no frame, the fields in its instructions are accesses to the
+     * records which were resolved at parse time, so they run in the enclosing context
+     */
+    public ExecutionResult execute(VariableContext parentcontext,
+                                   RuntimeExecutableCodeUnit<?> main)
             throws RuntimePascalException {
         if (this.declarations.root() instanceof UnitPascal) {
             parentcontext = main.getLibrary((UnitPascal) declarations.root());
         }
-        new WithOnStack(parentcontext, main, this).execute();
+        return instructions.execute(parentcontext, main);
     }
 
     private void getReferenceVariables(GrouperToken grouperToken, ExpressionContext parent)
@@ -149,6 +156,11 @@ public class WithStatement {
             i.assertNextSemicolon(i.next);
         }
 
+        @Override
+        protected boolean hasOwnFrame() {
+            return false;
+        }
+
         @Override
         public RuntimeValue getIdentifierValue(WordToken name) throws ParsingException {
             for (int i = 0; i < variableDeclarations.size(); i++) {
@@ -17,24 +17,37 @@
 package com.js.interpreter.runtime;
 
 import com.duy.pascal.backend.function_declaretion.FunctionDeclaration;
+import com.duy.pascal.backend.linenumber.LineInfo;
+import com.duy.pascal.backend.pascaltypes.RuntimeType;
 import com.js.interpreter.VariableDeclaration;
+import com.js.interpreter.instructions.FieldReference;
 import com.js.interpreter.codeunit.RuntimeExecutableCodeUnit;
 import com.js.interpreter.runtime.exception.RuntimePascalException;
+import com.js.interpreter.runtime.exception.StackOverflowException;
 import com.js.interpreter.runtime.references.PascalReference;
+import com.js.interpreter.runtime.references.Reference;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 
 public class FunctionOnStack extends VariableContext {
     /**
-     * map variable
+     * variables of function, arguments first then local variables,
+     * the slot of each variable is resolved at parse time
      */
-    private HashMap<String, Object> localVariables = new HashMap<>();
+    private Object[] frame;
     /**
-     * list name of map variable, if you want get all variable, map can not do
+     * true if the slot holds a reference to variable of caller (var argument)
      */
-    private ArrayList<String> listNameLocalVariable = new ArrayList<>();
-
+    private boolean[] referenceSlots;
+    /**
+     * references to the slots which were passed to var arguments, made the first time
+     */
+    private FieldReference[] slotReferences;
+    /**
+     * values of the variables which are assigned without boxing, null if the function
+     * has none
+     */
+    private UnboxedSlots unboxed;
     public FunctionDeclaration getPrototype() {
         return prototype;
     }
@@ -45,30 +58,25 @@ public class FunctionOnStack extends VariableContext {
     private FunctionDeclaration prototype;
     private VariableContext parentContext;
     private RuntimeExecutableCodeUnit<?> main;
-    @SuppressWarnings("rawtypes")
-    private HashMap<String, PascalReference> referenceVariables;
 
-    @SuppressWarnings("rawtypes")
     public FunctionOnStack(VariableContext parentContext,
                            RuntimeExecutableCodeUnit<?> main, FunctionDeclaration declaration,
                            Object[] arguments) {
         this.prototype = declaration;
         this.parentContext = parentContext;
         this.main = main;
-        for (VariableDeclaration v : prototype.declarations.variables) {
-            v.initialize(localVariables);
-            listNameLocalVariable.add(v.getName());
-        }
-        referenceVariables = new HashMap<>();
+        this.frame = new Object[declaration.getFrameSize()];
+        this.referenceSlots = new boolean[arguments.length];
         for (int i = 0; i < arguments.length; i++) {
-            if (prototype.argumentTypes[i].writable) {
-                referenceVariables.put(prototype.argumentNames[i], (PascalReference) arguments[i]);
-            } else {
-                localVariables.put(prototype.argumentNames[i], arguments[i]);
-            }
+            frame[i] = arguments[i];
+            referenceSlots[i] = prototype.argumentTypes[i].writable;
         }
-        this.parentContext = parentContext;
-        this.prototype = declaration;
+        int slot = arguments.length;
+        for (VariableDeclaration v : prototype.declarations.variables) {
+            frame[slot++] = v.initialize();
+        }
+        this.unboxed = UnboxedSlots.create(frame, arguments.length,
+                prototype.declarations.variables);
     }
 
     public FunctionDeclaration getCurrentFunction() {
@@ -79,14 +87,38 @@ public class FunctionOnStack extends VariableContext {
         return main;
     }
 
+    /**
+     * @return names of the local variables, made when it is called instead of on every call
+     * of the function
+     */
     public ArrayList<String> getListNameLocalVariable() {
-        return listNameLocalVariable;
+        ArrayList<String> names = new ArrayList<>();
+        for (VariableDeclaration v : prototype.declarations.variables) {
+            names.add(v.getName());
+        }
+        return names;
     }
 
     public Object execute() throws RuntimePascalException {
-        prototype.instructions.execute(this, main);
+        LineInfo line = prototype.getLineNumber();
+        if (main != null) {
+            main.incStack(line);
+        }
+        try {
+            if (main != null) {
+                main.safepoint(line);
+            }
+            prototype.getInstructions(main).execute(this, main);
+        } catch (StackOverflowError e) {
+            throw new StackOverflowException(line);
+        } finally {
+            if (main != null) {
+                main.decStack();
+            }
+        }
         //get result of prototype, name of variable is name of prototype
-        return localVariables.get(prototype.name);
+        int resultSlot = prototype.getResultSlot();
+        return resultSlot < 0 ? null : getLocalVar(resultSlot);
     }
 
     /**
@@ -94,28 +126,138 @@ public class FunctionOnStack extends VariableContext {
      */
     @Override
     public Object getLocalVar(String name) throws RuntimePascalException {
-        if (localVariables.containsKey(name)) {
-            return localVariables.get(name);
-        } else if (referenceVariables.containsKey(name)) {
-            return referenceVariables.get(name).get();
-        } else {
+        int slot = prototype.getVariableSlot(name);
+        if (slot < 0) {
             return null;
         }
+        return getLocalVar(slot);
     }
 
     @Override
-    @SuppressWarnings("unchecked")
     public boolean setLocalVar(String name, Object val) {
-        if (localVariables.containsKey(name)) {
-            localVariables.put(name, val);
-        } else if (referenceVariables.containsKey(name)) {
-            referenceVariables.get(name).set(val);
-        } else {
+        int slot = prototype.getVariableSlot(name);
+        if (slot < 0) {
             return false;
         }
+        setLocalVar(slot, val);
         return true;
     }
 
+    @Override
+    @SuppressWarnings("rawtypes")
+    public Object getLocalVar(int slot) throws RuntimePascalException {
+        if (slot < referenceSlots.length && referenceSlots[slot]) {
+            return ((PascalReference) frame[slot]).get();
+        }
+        if (unboxed != null && unboxed.contains(slot)) {
+            return unboxed.get(slot);
+        }
+        return frame[slot];
+    }
+
+    @Override
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public void setLocalVar(int slot, Object val) {
+        if (slot < referenceSlots.length && referenceSlots[slot]) {
+            ((PascalReference) frame[slot]).set(val);
+        } else if (unboxed != null && unboxed.contains(slot)) {
+            unboxed.set(slot, val);
+        } else {
+            frame[slot] = val;
+        }
+    }
+
+    @Override
+    public int getLocalInt(int slot) throws RuntimePascalException {
+        if (unboxed != null && unboxed.contains(slot)) {
+            return unboxed.getInt(slot);
+        }
+        return super.getLocalInt(slot);
+    }
+
+    @Override
+    public void setLocalInt(int slot, int val) {
+        if (unboxed != null && unboxed.contains(slot)) {
+            unboxed.setInt(slot, val);
+        } else {
+            super.setLocalInt(slot, val);
+        }
+    }
+
+    @Override
+    public long getLocalLong(int slot) throws RuntimePascalException {
+        if (unboxed != null && unboxed.contains(slot)) {
+            return unboxed.getLong(slot);
+        }
+        return super.getLocalLong(slot);
+    }
+
+    @Override
+    public void setLocalLong(int slot, long val) {
+        if (unboxed != null && unboxed.contains(slot)) {
+            unboxed.setLong(slot, val);
+        } else {
+            super.setLocalLong(slot, val);
+        }
+    }
+
+    @Override
+    public double getLocalDouble(int slot) throws RuntimePascalException {
+        if (unboxed != null && unboxed.contains(slot)) {
+            return unboxed.getDouble(slot);
+        }
+        return super.getLocalDouble(slot);
+    }
+
+    @Override
+    public void setLocalDouble(int slot, double val) {
+        if (unboxed != null && unboxed.contains(slot)) {
+            unboxed.setDouble(slot, val);
+        } else {
+            super.setLocalDouble(slot, val);
+        }
+    }
+
+    @Override
+    public boolean getLocalBoolean(int slot) throws RuntimePascalException {
+        if (unboxed != null && unboxed.contains(slot)) {
+            return unboxed.getBoolean(slot);
+        }
+        return super.getLocalBoolean(slot);
+    }
+
+    @Override
+    public void setLocalBoolean(int slot, boolean val) {
+        if (unboxed != null && unboxed.contains(slot)) {
+            unboxed.setBoolean(slot, val);
+        } else {
+            super.setLocalBoolean(slot, val);
+        }
+    }
+
+    /**
+     * The reference of a var argument is the reference of the caller, so passing it on
+     * in a recursive call does not add an indirection for each level. Other slots return
+     * the same reference for the life of this frame.
+     */
+    @Override
+    @SuppressWarnings("rawtypes")
+    public Reference getReference(int slot, RuntimeType type) {
+        if (slot < referenceSlots.length && referenceSlots[slot]
+                && frame[slot] instanceof FieldReference) {
+            return (FieldReference) frame[slot];
+        }
+        if (slotReferences == null) {
+            slotReferences = new FieldReference[frame.length];
+        }
+        FieldReference reference = slotReferences[slot];
+        if (reference == null) {
+            reference = new FieldReference(this, slot, type);
+            slotReferences[slot] = reference;
+        }
+        return reference;
+    }
+
     @Override
     public VariableContext clone() {
         return null;
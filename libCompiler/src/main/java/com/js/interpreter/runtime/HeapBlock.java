@@ -0,0 +1,47 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.js.interpreter.runtime;
+
+/**
+ * Memory allocated by new or getMem, the pointer to it is the block itself. The block
+ * knows its size so the {@link PascalHeap} can account for it when it is freed.
+ */
+public class HeapBlock<T> extends ObjectBasedPointer<T> {
+    /**
+     * bytes which are counted in the heap, the request rounded up to its size class
+     */
+    final long size;
+    /**
+     * neighbours in the list of live blocks, only linked in arena mode
+     */
+    HeapBlock<?> previous;
+    HeapBlock<?> next;
+    boolean freed;
+
+    HeapBlock(T value, long size) {
+        super(value);
+        this.size = size;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public boolean isFreed() {
+        return freed;
+    }
+}
@@ -0,0 +1,161 @@
+package com.js.interpreter.runtime;
+
+import com.duy.pascal.backend.pascaltypes.ArrayType;
+import com.duy.pascal.backend.pascaltypes.BasicType;
+import com.duy.pascal.backend.pascaltypes.DeclaredType;
+
+import java.lang.reflect.Array;
+
+/**
+ * Storage of pascal arrays.
+ * <p>
+ * Arrays of integer, longint, real, boolean and char are stored in java arrays of the
+ * primitive type, other arrays in an object array. Arrays of constants are still object
+ * arrays, so every method here accepts both.
+ */
+public class PascalArrays {
+
+    /**
+     * @return new array, each element is the default value of the element type
+     */
+    public static Object newArray(DeclaredType elementType, int size) {
+        if (elementType == BasicType.Integer) {
+            return new int[size];
+        } else if (elementType == BasicType.Long) {
+            return new long[size];
+        } else if (elementType == BasicType.Double) {
+            return new double[size];
+        } else if (elementType == BasicType.Boolean) {
+            return new boolean[size];
+        } else if (elementType == BasicType.Character) {
+            return new char[size];
+        }
+        //rows of an array of arrays may be primitive arrays
+        Object[] result = elementType instanceof ArrayType ? new Object[size]
+                : (Object[]) Array.newInstance(elementType.getTransferClass(), size);
+        for (int i = 0; i < size; i++) {
+            result[i] = elementType.initialize();
+        }
+        return result;
+    }
+
+    public static Object get(Object array, int index) {
+        if (array instanceof Object[]) {
+            return ((Object[]) array)[index];
+        } else if (array instanceof int[]) {
+            return ((int[]) array)[index];
+        } else if (array instanceof long[]) {
+            return ((long[]) array)[index];
+        } else if (array instanceof double[]) {
+            return ((double[]) array)[index];
+        } else if (array instanceof boolean[]) {
+            return ((boolean[]) array)[index];
+        } else {
+            return ((char[]) array)[index];
+        }
+    }
+
+    public static void set(Object array, int index, Object value) {
+        if (array instanceof Object[]) {
+            ((Object[]) array)[index] = value;
+        } else if (array instanceof int[]) {
+            ((int[]) array)[index] = ((Number) value).intValue();
+        } else if (array instanceof long[]) {
+            ((long[]) array)[index] = ((Number) value).longValue();
+        } else if (array instanceof double[]) {
+            ((double[]) array)[index] = ((Number) value).doubleValue();
+        } else if (array instanceof boolean[]) {
+            ((boolean[]) array)[index] = (Boolean) value;
+        } else {
+            ((char[]) array)[index] = (Character) value;
+        }
+    }
+
+    public static int getInt(Object array, int index) {
+        if (array instanceof int[]) {
+            return ((int[]) array)[index];
+        }
+        return ((Number) get(array, index)).intValue();
+    }
+
+    public static long getLong(Object array, int index) {
+        if (array instanceof long[]) {
+            return ((long[]) array)[index];
+        } else if (array instanceof int[]) {
+            return ((int[]) array)[index];
+        }
+        return ((Number) get(array, index)).longValue();
+    }
+
+    public static double getDouble(Object array, int index) {
+        if (array instanceof double[]) {
+            return ((double[]) array)[index];
+        }
+        return ((Number) get(array, index)).doubleValue();
+    }
+
+    public static boolean getBoolean(Object array, int index) {
+        if (array instanceof boolean[]) {
+            return ((boolean[]) array)[index];
+        }
+        return (Boolean) get(array, index);
+    }
+
+    public static int length(Object array) {
+        if (array instanceof Object[]) {
+            return ((Object[]) array).length;
+        }
+        return Array.getLength(array);
+    }
+
+    /**
+     * @return shallow copy of the array
+     */
+    public static Object copy(Object array) {
+        if (array instanceof Object[]) {
+            return ((Object[]) array).clone();
+        } else if (array instanceof int[]) {
+            return ((int[]) array).clone();
+        } else if (array instanceof long[]) {
+            return ((long[]) array).clone();
+        } else if (array instanceof double[]) {
+            return ((double[]) array).clone();
+        } else if (array instanceof boolean[]) {
+            return ((boolean[]) array).clone();
+        } else {
+            return ((char[]) array).clone();
+        }
+    }
+
+    /**
+     * @return new array of the given length with the elements of the array, new elements
+     * are the default value of the element type
+     */
+    public static Object resize(Object array, int length, DeclaredType elementType) {
+        Object result = newArray(elementType, length);
+        int oldLength = length(array);
+        if (result.getClass() == array.getClass()) {
+            //noinspection SuspiciousSystemArraycopy
+            System.arraycopy(array, 0, result, 0, Math.min(length, oldLength));
+        } else {
+            for (int i = 0; i < Math.min(length, oldLength); i++) {
+                set(result, i, get(array, i));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the elements of the array as objects, an object array is returned as is
+     */
+    public static Object[] toObjectArray(Object array) {
+        if (array instanceof Object[]) {
+            return (Object[]) array;
+        }
+        Object[] result = new Object[length(array)];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = get(array, i);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,235 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.js.interpreter.runtime;
+
+import com.duy.pascal.backend.linenumber.LineInfo;
+import com.duy.pascal.backend.pascaltypes.ArrayType;
+import com.duy.pascal.backend.pascaltypes.BasicType;
+import com.duy.pascal.backend.pascaltypes.CustomType;
+import com.duy.pascal.backend.pascaltypes.DeclaredType;
+import com.duy.pascal.backend.pascaltypes.PointerType;
+import com.js.interpreter.VariableDeclaration;
+import com.js.interpreter.runtime.exception.HeapOverflowError;
+
+/**
+ * Heap of one run of a program, the memory of new and getMem is counted here.
+ * <p>
+ * A request is rounded up to a size class, a power of two from 8 to 4096 bytes, or a
+ * multiple of 4096 bytes for larger blocks, and the rounded size is counted against the
+ * limit. The values of the blocks are java objects, so the limit keeps a program from
+ * filling the memory of the jvm instead of modelling it exactly.
+ * <p>
+ * In arena mode the live blocks are linked, {@link #release()} frees all of them at once
+ * when the run ends. Only the thread which runs the program uses the heap.
+ */
+public class PascalHeap {
+    /**
+     * no limit, a runner which wants one sets it with {@link #setLimit(long)}
+     */
+    public static final long DEFAULT_LIMIT = 0;
+
+    private static final int MIN_CLASS_SHIFT = 3;
+    private static final int PAGE_SHIFT = 12;
+    private static final long PAGE_SIZE = 1L << PAGE_SHIFT;
+    /**
+     * number of size classes, the last one is for blocks larger than a page
+     */
+    private static final int CLASS_COUNT = PAGE_SHIFT - MIN_CLASS_SHIFT + 2;
+
+    /**
+     * size of a pointer, an ordinal without size and an unknown type
+     */
+    private static final int WORD_SIZE = 4;
+    private static final int SHORT_STRING_SIZE = 256;
+
+    private long limit = DEFAULT_LIMIT;
+    private boolean arena = false;
+    private HeapBlock<?> first;
+
+    private long liveBytes = 0;
+    private long peakBytes = 0;
+    private long allocationCount = 0;
+    private long freeCount = 0;
+    private final long[] liveBlocks = new long[CLASS_COUNT];
+
+    /**
+     * @return the request rounded up to its size class
+     */
+    public static long roundSize(long size) {
+        if (size <= 1L << MIN_CLASS_SHIFT) {
+            return 1L << MIN_CLASS_SHIFT;
+        }
+        if (size > PAGE_SIZE) {
+            return (size + PAGE_SIZE - 1) & -PAGE_SIZE;
+        }
+        return Long.highestOneBit(size - 1) << 1;
+    }
+
+    private static int sizeClass(long roundedSize) {
+        if (roundedSize > PAGE_SIZE) {
+            return CLASS_COUNT - 1;
+        }
+        return Long.numberOfTrailingZeros(roundedSize) - MIN_CLASS_SHIFT;
+    }
+
+    /**
+     * @return bytes of a value of the type, like sizeof of free pascal
+     */
+    public static long sizeOf(DeclaredType type) {
+        if (type == BasicType.Byte || type == BasicType.Boolean) {
+            return 1;
+        } else if (type == BasicType.Short || type == BasicType.Character) {
+            return 2;
+        } else if (type == BasicType.Long || type == BasicType.Double) {
+            return 8;
+        } else if (type == BasicType.StringBuilder) {
+            return SHORT_STRING_SIZE;
+        } else if (type instanceof ArrayType) {
+            ArrayType<?> array = (ArrayType<?>) type;
+            if (array.getBounds() == null) {
+                return WORD_SIZE;
+            }
+            return Math.max(0, array.getBounds().size) * sizeOf(array.getElementType());
+        } else if (type instanceof CustomType) {
+            long size = 0;
+            for (VariableDeclaration field : ((CustomType) type).getLayout().getFields()) {
+                size += sizeOf(field.getType());
+            }
+            return size;
+        } else if (type instanceof PointerType) {
+            return WORD_SIZE;
+        }
+        return WORD_SIZE;
+    }
+
+    /**
+     * @param size - requested bytes
+     * @return a new block which points to the value
+     * @throws HeapOverflowError if the block does not fit in the limit
+     */
+    public <T> HeapBlock<T> allocate(LineInfo line, T value, long size) throws HeapOverflowError {
+        long rounded = roundSize(size);
+        if (limit > 0 && liveBytes + rounded > limit) {
+            throw new HeapOverflowError(line, size, limit);
+        }
+        HeapBlock<T> block = new HeapBlock<>(value, rounded);
+        liveBytes += rounded;
+        if (liveBytes > peakBytes) {
+            peakBytes = liveBytes;
+        }
+        allocationCount++;
+        liveBlocks[sizeClass(rounded)]++;
+        if (arena) {
+            block.next = first;
+            if (first != null) {
+                first.previous = block;
+            }
+            first = block;
+        }
+        return block;
+    }
+
+    /**
+     * free the block and the value which it points to, a block which is already freed is
+     * ignored
+     */
+    public void free(HeapBlock<?> block) {
+        if (block.freed) {
+            return;
+        }
+        block.freed = true;
+        block.obj = null;
+        liveBytes -= block.size;
+        freeCount++;
+        liveBlocks[sizeClass(block.size)]--;
+        if (block.previous != null) {
+            block.previous.next = block.next;
+        } else if (first == block) {
+            first = block.next;
+        }
+        if (block.next != null) {
+            block.next.previous = block.previous;
+        }
+        block.previous = null;
+        block.next = null;
+    }
+
+    /**
+     * free every live block, only blocks allocated in arena mode are known to the heap
+     */
+    public void release() {
+        HeapBlock<?> block = first;
+        while (block != null) {
+            HeapBlock<?> next = block.next;
+            free(block);
+            block = next;
+        }
+        first = null;
+    }
+
+    public long getLimit() {
+        return limit;
+    }
+
+    /**
+     * @param limit - max live bytes, 0 is no limit
+     */
+    public void setLimit(long limit) {
+        this.limit = limit;
+    }
+
+    public boolean isArena() {
+        return arena;
+    }
+
+    /**
+     * must be set before the program allocates, blocks allocated before are not linked
+     */
+    public void setArena(boolean arena) {
+        this.arena = arena;
+    }
+
+    public long getLiveBytes() {
+        return liveBytes;
+    }
+
+    public long getPeakBytes() {
+        return peakBytes;
+    }
+
+    public long getAllocationCount() {
+        return allocationCount;
+    }
+
+    public long getFreeCount() {
+        return freeCount;
+    }
+
+    /**
+     * @return number of live blocks of each size class, 8 bytes first, the last entry
+     * counts the blocks larger than 4096 bytes
+     */
+    public long[] getLiveBlocks() {
+        return liveBlocks.clone();
+    }
+
+    @Override
+    public String toString() {
+        return "live " + liveBytes + " bytes, peak " + peakBytes + " bytes, "
+                + allocationCount + " allocations, " + freeCount + " frees";
+    }
+}
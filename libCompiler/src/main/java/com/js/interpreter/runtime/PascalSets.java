@@ -0,0 +1,130 @@
+package com.js.interpreter.runtime;
+
+import com.duy.pascal.backend.linenumber.LineInfo;
+import com.js.interpreter.runtime.exception.RangeCheckException;
+
+/**
+ * Storage of pascal sets.
+ * <p>
+ * A set of an ordinal type is a bitset of 256 elements in a long array, bit n is set when
+ * the element with ordinal value n is in the set. Operations of two sets work word by word.
+ */
+public class PascalSets {
+    public static final int MAX_ELEMENTS = 256;
+    private static final int WORDS = MAX_ELEMENTS / 64;
+
+    /**
+     * @return empty set
+     */
+    public static long[] newSet() {
+        return new long[WORDS];
+    }
+
+    /**
+     * @return ordinal value of char, boolean or integer element
+     */
+    public static int ordinal(Object element) {
+        if (element instanceof Character) {
+            return (Character) element;
+        } else if (element instanceof Boolean) {
+            return (Boolean) element ? 1 : 0;
+        }
+        return ((Number) element).intValue();
+    }
+
+    /**
+     * @return true if the ordinal can be an element of a set, sets have the elements 0..255
+     * like in free pascal
+     */
+    public static boolean inRange(int ordinal) {
+        return ordinal >= 0 && ordinal < MAX_ELEMENTS;
+    }
+
+    public static boolean contains(long[] set, int ordinal) {
+        return inRange(ordinal) && (set[ordinal >>> 6] & (1L << ordinal)) != 0;
+    }
+
+    /**
+     * @throws RangeCheckException if the element is out of 0..255
+     */
+    public static void add(long[] set, int ordinal, LineInfo line) throws RangeCheckException {
+        checkRange(ordinal, line);
+        set[ordinal >>> 6] |= 1L << ordinal;
+    }
+
+    /**
+     * add every element from low to high, nothing if low is greater than high
+     *
+     * @throws RangeCheckException if the range is not empty and low or high is out of 0..255
+     */
+    public static void addRange(long[] set, int low, int high, LineInfo line)
+            throws RangeCheckException {
+        if (low > high) {
+            return;
+        }
+        checkRange(low, line);
+        checkRange(high, line);
+        for (int i = low; i <= high; i++) {
+            set[i >>> 6] |= 1L << i;
+        }
+    }
+
+    /**
+     * @throws RangeCheckException if the element is out of 0..255
+     */
+    public static void remove(long[] set, int ordinal, LineInfo line) throws RangeCheckException {
+        checkRange(ordinal, line);
+        set[ordinal >>> 6] &= ~(1L << ordinal);
+    }
+
+    private static void checkRange(int ordinal, LineInfo line) throws RangeCheckException {
+        if (!inRange(ordinal)) {
+            throw new RangeCheckException(line, ordinal, 0, MAX_ELEMENTS - 1);
+        }
+    }
+
+    public static long[] union(long[] a, long[] b) {
+        long[] result = new long[WORDS];
+        for (int i = 0; i < WORDS; i++) {
+            result[i] = a[i] | b[i];
+        }
+        return result;
+    }
+
+    public static long[] intersection(long[] a, long[] b) {
+        long[] result = new long[WORDS];
+        for (int i = 0; i < WORDS; i++) {
+            result[i] = a[i] & b[i];
+        }
+        return result;
+    }
+
+    public static long[] difference(long[] a, long[] b) {
+        long[] result = new long[WORDS];
+        for (int i = 0; i < WORDS; i++) {
+            result[i] = a[i] & ~b[i];
+        }
+        return result;
+    }
+
+    public static boolean equals(long[] a, long[] b) {
+        for (int i = 0; i < WORDS; i++) {
+            if (a[i] != b[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return true if every element of a is in b
+     */
+    public static boolean isSubset(long[] a, long[] b) {
+        for (int i = 0; i < WORDS; i++) {
+            if ((a[i] & ~b[i]) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
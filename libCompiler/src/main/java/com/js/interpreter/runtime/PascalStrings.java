@@ -0,0 +1,106 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.js.interpreter.runtime;
+
+/**
+ * Helpers for Pascal strings, which are {@link StringBuilder}s at runtime.
+ * <p>
+ * A string variable owns its builder: every assignment stores a copy, so a builder which
+ * is read from a variable can be changed in place. Values of other types (a char, a
+ * {@link String} of a library) are accepted wherever a string is read.
+ */
+public class PascalStrings {
+
+    /**
+     * @return a new builder with the characters of a and then b, made with one copy
+     */
+    public static StringBuilder concat(Object a, Object b) {
+        CharSequence first = toCharSequence(a);
+        CharSequence second = toCharSequence(b);
+        StringBuilder result = new StringBuilder(first.length() + second.length());
+        result.append(first);
+        result.append(second);
+        return result;
+    }
+
+    /**
+     * append the value to the end of the builder
+     */
+    public static void append(StringBuilder target, Object value) {
+        if (value == target) {
+            //the builder would change while it is read
+            target.append(target.toString());
+        } else if (value instanceof Character) {
+            target.append(((Character) value).charValue());
+        } else {
+            target.append(toCharSequence(value));
+        }
+    }
+
+    /**
+     * @return a new builder with the characters of the value
+     */
+    public static StringBuilder copy(Object value) {
+        return new StringBuilder(toCharSequence(value));
+    }
+
+    /**
+     * @return a new builder with at most length characters of the value
+     */
+    public static StringBuilder copy(Object value, int length) {
+        CharSequence source = toCharSequence(value);
+        int end = Math.max(0, Math.min(length, source.length()));
+        StringBuilder result = new StringBuilder(end);
+        result.append(source, 0, end);
+        return result;
+    }
+
+    /**
+     * compare the characters of two strings like {@link String#compareTo(String)}
+     */
+    public static int compare(Object a, Object b) {
+        CharSequence first = toCharSequence(a);
+        CharSequence second = toCharSequence(b);
+        int length = Math.min(first.length(), second.length());
+        for (int i = 0; i < length; i++) {
+            char c1 = first.charAt(i);
+            char c2 = second.charAt(i);
+            if (c1 != c2) {
+                return c1 - c2;
+            }
+        }
+        return first.length() - second.length();
+    }
+
+    public static boolean equals(Object a, Object b) {
+        CharSequence first = toCharSequence(a);
+        CharSequence second = toCharSequence(b);
+        if (first.length() != second.length()) {
+            return false;
+        }
+        for (int i = first.length() - 1; i >= 0; i--) {
+            if (first.charAt(i) != second.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static CharSequence toCharSequence(Object value) {
+        return value instanceof CharSequence ? (CharSequence) value : String.valueOf(value);
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.js.interpreter.runtime;
+
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+
+/**
+ * Scratch buffer and number formats of write and writeln in one run of a program.
+ * <p>
+ * The nodes of a program are shared by the runs of a cached program, so they keep no state
+ * of a call. Only the thread which runs the program uses this object.
+ */
+public class TextFormatter {
+    private static final DecimalFormatSymbols SYMBOLS = new DecimalFormatSymbols(Locale.ENGLISH);
+    /**
+     * formats of more decimal places are not cached
+     */
+    private static final int CACHED_PLACES = 32;
+
+    private final StringBuilder buffer = new StringBuilder();
+    private boolean bufferInUse = false;
+    private final DecimalFormat[] decimalFormats = new DecimalFormat[CACHED_PLACES];
+
+    /**
+     * @return the empty scratch buffer, or a new one if a function called in the arguments
+     * of a write is writing too
+     */
+    public StringBuilder acquireBuffer() {
+        if (bufferInUse) {
+            return new StringBuilder();
+        }
+        bufferInUse = true;
+        buffer.setLength(0);
+        return buffer;
+    }
+
+    public void releaseBuffer(StringBuilder text) {
+        if (text == buffer) {
+            bufferInUse = false;
+        }
+    }
+
+    /**
+     * @return format of a real with at most the given number of decimal places
+     */
+    public DecimalFormat getDecimalFormat(int places) {
+        if (places < 0) {
+            places = 0;
+        }
+        if (places >= CACHED_PLACES) {
+            return createDecimalFormat(places);
+        }
+        DecimalFormat format = decimalFormats[places];
+        if (format == null) {
+            format = createDecimalFormat(places);
+            decimalFormats[places] = format;
+        }
+        return format;
+    }
+
+    private static DecimalFormat createDecimalFormat(int places) {
+        if (places == 0) {
+            //"#." would always show the decimal point
+            return new DecimalFormat("#", SYMBOLS);
+        }
+        StringBuilder pattern = new StringBuilder("#.");
+        for (int i = 0; i < places; i++) {
+            pattern.append('#');
+        }
+        return new DecimalFormat(pattern.toString(), SYMBOLS);
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.js.interpreter.runtime;
+
+import com.duy.pascal.backend.pascaltypes.BasicType;
+import com.duy.pascal.backend.pascaltypes.DeclaredType;
+import com.js.interpreter.VariableDeclaration;
+
+import java.util.List;
+
+/**
+ * Values of the integer, int64, real and boolean variables of a frame which are read and
+ * assigned without boxing, see {@link VariableDeclaration#isUnboxed()}.
+ * <p>
+ * Every value is kept in a long, a real as the bits of the double. Other slots of the frame
+ * are not used here and keep their boxed value in the frame.
+ */
+public class UnboxedSlots {
+    private static final byte NONE = 0;
+    private static final byte INT = 1;
+    private static final byte LONG = 2;
+    private static final byte DOUBLE = 3;
+    private static final byte BOOLEAN = 4;
+
+    private final byte[] kinds;
+    private final long[] values;
+
+    private UnboxedSlots(int size) {
+        this.kinds = new byte[size];
+        this.values = new long[size];
+    }
+
+    /**
+     * @param frame     - initial values of the frame
+     * @param first     - slot of the first variable
+     * @param variables - variables of the frame from the slot <code>first</code>
+     * @return slots of the unboxed variables, null if the frame has none
+     */
+    public static UnboxedSlots create(Object[] frame, int first,
+                                      List<VariableDeclaration> variables) {
+        UnboxedSlots slots = null;
+        for (int i = 0; i < variables.size(); i++) {
+            VariableDeclaration variable = variables.get(i);
+            if (!variable.isUnboxed()) {
+                continue;
+            }
+            byte kind = kindOf(variable.getType());
+            if (kind == NONE) {
+                continue;
+            }
+            if (slots == null) {
+                slots = new UnboxedSlots(frame.length);
+            }
+            slots.kinds[first + i] = kind;
+            slots.set(first + i, frame[first + i]);
+        }
+        return slots;
+    }
+
+    /**
+     * @return true if a variable of this type can be unboxed
+     */
+    public static boolean canUnbox(DeclaredType type) {
+        return kindOf(type) != NONE;
+    }
+
+    private static byte kindOf(DeclaredType type) {
+        if (type == BasicType.Integer) {
+            return INT;
+        } else if (type == BasicType.Long) {
+            return LONG;
+        } else if (type == BasicType.Double) {
+            return DOUBLE;
+        } else if (type == BasicType.Boolean) {
+            return BOOLEAN;
+        }
+        return NONE;
+    }
+
+    public boolean contains(int slot) {
+        return kinds[slot] != NONE;
+    }
+
+    /**
+     * @return boxed value of the slot
+     */
+    public Object get(int slot) {
+        switch (kinds[slot]) {
+            case INT:
+                return (int) values[slot];
+            case DOUBLE:
+                return Double.longBitsToDouble(values[slot]);
+            case BOOLEAN:
+                return values[slot] != 0;
+            default:
+                return values[slot];
+        }
+    }
+
+    public void set(int slot, Object value) {
+        if (kinds[slot] == BOOLEAN) {
+            values[slot] = (Boolean) value ? 1 : 0;
+        } else if (kinds[slot] == DOUBLE) {
+            setDouble(slot, ((Number) value).doubleValue());
+        } else {
+            setLong(slot, ((Number) value).longValue());
+        }
+    }
+
+    public int getInt(int slot) {
+        if (kinds[slot] == DOUBLE) {
+            return (int) Double.longBitsToDouble(values[slot]);
+        }
+        return (int) values[slot];
+    }
+
+    public long getLong(int slot) {
+        if (kinds[slot] == DOUBLE) {
+            return (long) Double.longBitsToDouble(values[slot]);
+        }
+        return values[slot];
+    }
+
+    public double getDouble(int slot) {
+        if (kinds[slot] == DOUBLE) {
+            return Double.longBitsToDouble(values[slot]);
+        }
+        return values[slot];
+    }
+
+    public boolean getBoolean(int slot) {
+        return values[slot] != 0;
+    }
+
+    public void setInt(int slot, int value) {
+        setLong(slot, value);
+    }
+
+    public void setLong(int slot, long value) {
+        if (kinds[slot] == INT) {
+            values[slot] = (int) value;
+        } else if (kinds[slot] == DOUBLE) {
+            values[slot] = Double.doubleToRawLongBits(value);
+        } else {
+            values[slot] = value;
+        }
+    }
+
+    public void setDouble(int slot, double value) {
+        if (kinds[slot] == DOUBLE) {
+            values[slot] = Double.doubleToRawLongBits(value);
+        } else {
+            setLong(slot, (long) value);
+        }
+    }
+
+    public void setBoolean(int slot, boolean value) {
+        values[slot] = value ? 1 : 0;
+    }
+}
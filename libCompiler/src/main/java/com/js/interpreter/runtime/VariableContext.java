@@ -1,6 +1,9 @@
 package com.js.interpreter.runtime;
 
+import com.duy.pascal.backend.pascaltypes.RuntimeType;
+import com.js.interpreter.instructions.FieldReference;
 import com.js.interpreter.runtime.exception.RuntimePascalException;
+import com.js.interpreter.runtime.references.Reference;
 import com.js.interpreter.runtime.variables.ContainsVariables;
 
 public abstract class VariableContext implements ContainsVariables {
@@ -17,6 +20,78 @@ public abstract class VariableContext implements ContainsVariables {
 
     public abstract boolean setLocalVar(String name, Object val);
 
+    /**
+     * Read a variable of this frame by the slot resolved at parse time
+     *
+     * @param slot - index of variable in the frame
+     * @return - value of variable
+     */
+    public abstract Object getLocalVar(int slot) throws RuntimePascalException;
+
+    public abstract void setLocalVar(int slot, Object val);
+
+    /**
+     * Read an integer variable of this frame, a frame which keeps the unboxed variables in
+     * {@link UnboxedSlots} returns them without boxing
+     *
+     * @param slot - index of variable in the frame
+     */
+    public int getLocalInt(int slot) throws RuntimePascalException {
+        return ((Number) getLocalVar(slot)).intValue();
+    }
+
+    public void setLocalInt(int slot, int val) {
+        setLocalVar(slot, val);
+    }
+
+    public long getLocalLong(int slot) throws RuntimePascalException {
+        return ((Number) getLocalVar(slot)).longValue();
+    }
+
+    public void setLocalLong(int slot, long val) {
+        setLocalVar(slot, val);
+    }
+
+    public double getLocalDouble(int slot) throws RuntimePascalException {
+        return ((Number) getLocalVar(slot)).doubleValue();
+    }
+
+    public void setLocalDouble(int slot, double val) {
+        setLocalVar(slot, val);
+    }
+
+    public boolean getLocalBoolean(int slot) throws RuntimePascalException {
+        return (Boolean) getLocalVar(slot);
+    }
+
+    public void setLocalBoolean(int slot, boolean val) {
+        setLocalVar(slot, val);
+    }
+
+    /**
+     * Reference to a variable of this frame, passed to <code>var</code> parameters
+     *
+     * @param slot - index of variable in the frame
+     * @param type - type of variable, null if unknown
+     */
+    @SuppressWarnings("rawtypes")
+    public Reference getReference(int slot, RuntimeType type) {
+        return new FieldReference(this, slot, type);
+    }
+
+    /**
+     * @param depth - number of enclosing frames to skip, 0 is this frame
+     * @return the frame which declared a variable resolved at <code>depth</code>
+     */
+    public VariableContext getFrame(int depth) {
+        VariableContext context = this;
+        while (depth > 0) {
+            context = context.getParentContext();
+            depth--;
+        }
+        return context;
+    }
+
     @Override
     public Object getVar(String name) throws RuntimePascalException {
         Object result = this.getLocalVar(name);
@@ -1,5 +1,7 @@
 package com.js.interpreter.runtime.exception;
 
+import com.duy.pascal.backend.linenumber.LineInfo;
+
 /**
  * The heap has grown beyond its boundaries. This is caused when trying to allocate memory
  * explicitly with New, GetMem or ReallocMem, or when a class or object instance is created
@@ -7,8 +9,16 @@ package com.js.interpreter.runtime.exception;
  * i.e. the heap will try to allocate more memory if needed. However, if the heap has reached
  * the maximum size allowed by the operating system or hardware, then you will get this error.
  * <p>
+ * Here the limit is the heap limit of the program, see
+ * {@link com.js.interpreter.runtime.PascalHeap#setLimit(long)}
+ * <p>
  * Created by Duy on 07-Apr-17.
  */
 
-public class HeapOverflowError {
+public class HeapOverflowError extends RuntimePascalException {
+
+    public HeapOverflowError(LineInfo line, long size, long limit) {
+        super(line, "Heap overflow error: can not allocate " + size
+                + " bytes, the heap limit is " + limit + " bytes");
+    }
 }
@@ -0,0 +1,14 @@
+package com.js.interpreter.runtime.exception;
+
+import com.duy.pascal.backend.linenumber.LineInfo;
+
+/**
+ * A value is out of the range of its type, like the range check error of free pascal.
+ * Thrown when an element which can not be in a set is put in a set.
+ */
+public class RangeCheckException extends RuntimePascalException {
+
+    public RangeCheckException(LineInfo line, long value, long low, long high) {
+        super(line, "Range check error: " + value + " is not in " + low + ".." + high);
+    }
+}
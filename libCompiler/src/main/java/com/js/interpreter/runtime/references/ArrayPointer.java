@@ -16,7 +16,7 @@
 
 package com.js.interpreter.runtime.references;
 
-import java.lang.reflect.Array;
+import com.js.interpreter.runtime.PascalArrays;
 
 public class ArrayPointer<T> implements PascalReference<T> {
 	private final int index;
@@ -36,7 +36,7 @@ public class ArrayPointer<T> implements PascalReference<T> {
             return (T) (Character) ((StringBuilder) container)
                     .charAt(index - 1);
 		} else {
-			return (T) Array.get(container, index);
+			return (T) PascalArrays.get(container, index);
 		}
 	}
 
@@ -45,7 +45,7 @@ public class ArrayPointer<T> implements PascalReference<T> {
 		if (isString) {
 			((StringBuilder) container).setCharAt(index, (Character) value);
 		} else {
-			Array.set(container, index, value);
+			PascalArrays.set(container, index, value);
 		}
 	}
 
@@ -16,10 +16,9 @@
 
 package com.js.interpreter.runtime.references;
 
+import com.js.interpreter.runtime.PascalArrays;
 import com.js.interpreter.runtime.exception.RuntimePascalException;
 
-import java.lang.reflect.Array;
-
 public class ArrayReference implements Reference {
     private Object array;
     private int index;
@@ -32,11 +31,11 @@ public class ArrayReference implements Reference {
     }
 
     public void set(Object value) {
-        Array.set(array, index - offset, value);
+        PascalArrays.set(array, index - offset, value);
     }
 
     public Object get() throws RuntimePascalException {
-        return Array.get(array, index - offset);
+        return PascalArrays.get(array, index - offset);
     }
 
     @Override
@@ -16,70 +16,105 @@
 
 package com.js.interpreter.runtime.variables;
 
-import com.duy.pascal.backend.pascaltypes.ArrayType;
 import com.js.interpreter.VariableDeclaration;
+import com.js.interpreter.instructions.FieldReference;
+import com.js.interpreter.runtime.PascalArrays;
 import com.js.interpreter.runtime.exception.RuntimePascalException;
 
-import java.lang.reflect.Array;
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Map;
 
 /**
- * Created by Duy on 17-Apr-17.
+ * Value of a record, the fields are stored in the order of its {@link RecordLayout}.
  */
 @SuppressWarnings("DefaultFileTemplate")
 public class CustomVariable implements ContainsVariables {
-    private Map<String, Object> variableMap = new HashMap<>();
-    private ArrayList<VariableDeclaration> variableList;
+    private final RecordLayout layout;
+    private final Object[] fields;
+    /**
+     * references to the fields, made the first time a field is assigned
+     */
+    private FieldReference[] references;
 
-    public CustomVariable(ArrayList<VariableDeclaration> variableList) {
-        this.variableList = variableList;
-        for (VariableDeclaration declaration : variableList) {
-            Class returnType = declaration.getType().getTransferClass();
-            if (declaration.getInitialValue() != null) {
-                variableMap.put(declaration.name, declaration.getInitialValue());
-            } else {
-                if (returnType == int.class || returnType == Integer.class) {
-                    variableMap.put(declaration.name, 0);
-                } else if (returnType == double.class || returnType == Double.class) {
-                    variableMap.put(declaration.name, 0.0d);
-                } else if (returnType == char.class || returnType == Character.class) {
-                    variableMap.put(declaration.name, ' ');
-                } else if (returnType == boolean.class || returnType == Boolean.class) {
-                    variableMap.put(declaration.name, Boolean.FALSE);
-                } else if (returnType == long.class || returnType == Long.class) {
-                    variableMap.put(declaration.name, 0L);
-                } else if (returnType == StringBuilder.class) {
-                    variableMap.put(declaration.name, new StringBuilder(""));
-                } else if (returnType == String.class) {
-                    variableMap.put(declaration.name, "");
-                } else if (returnType == Array.class) {
-                    variableMap.put(declaration.name, new Object[0]);
-                } else if (declaration.type instanceof ArrayType) {
-                    variableMap.put(declaration.name, new Object[0]);
-                } else {
-                    variableMap.put(declaration.name, null);
-                }
-            }
+    public CustomVariable(RecordLayout layout) {
+        this.layout = layout;
+        this.fields = new Object[layout.size()];
+        for (int i = 0; i < fields.length; i++) {
+            fields[i] = layout.initialValue(i);
         }
+    }
 
+    private CustomVariable(RecordLayout layout, Object[] fields) {
+        this.layout = layout;
+        this.fields = fields;
+    }
+
+    public RecordLayout getLayout() {
+        return layout;
+    }
+
+    /**
+     * @return declarations of the fields in the order of the record
+     */
+    public ArrayList<VariableDeclaration> getVariableList() {
+        return layout.getFields();
+    }
+
+    public Object getField(int index) {
+        return fields[index];
+    }
+
+    public void setField(int index, Object value) {
+        fields[index] = value;
+    }
+
+    /**
+     * @return reference to the field, the same object for every access
+     */
+    public FieldReference getReference(int index) {
+        if (references == null) {
+            references = new FieldReference[fields.length];
+        }
+        FieldReference reference = references[index];
+        if (reference == null) {
+            reference = new FieldReference(this, index);
+            references[index] = reference;
+        }
+        return reference;
     }
 
     @Override
     public Object getVar(String name) throws RuntimePascalException {
-        return variableMap.get(name);
+        int index = layout.indexOf(name);
+        return index < 0 ? null : fields[index];
     }
 
     @Override
     public void setVar(String name, Object val) {
-        variableMap.put(name, val);
+        int index = layout.indexOf(name);
+        if (index >= 0) {
+            fields[index] = val;
+        }
     }
 
+    /**
+     * @return a record with a copy of every field, records, strings and arrays in the
+     * fields are copied too
+     */
     @Override
-    @SuppressWarnings({"unchecked", "CloneDoesntCallSuperClone"})
+    @SuppressWarnings("CloneDoesntCallSuperClone")
     public ContainsVariables clone() {
-        ArrayList<VariableDeclaration> listVariable = (ArrayList<VariableDeclaration>) variableList.clone();
-        return new CustomVariable(listVariable);
+        Object[] copy = new Object[fields.length];
+        for (int i = 0; i < copy.length; i++) {
+            Object value = fields[i];
+            if (value instanceof ContainsVariables) {
+                value = ((ContainsVariables) value).clone();
+            } else if (value instanceof StringBuilder) {
+                value = new StringBuilder((StringBuilder) value);
+            } else if (value != null && value.getClass().isArray()) {
+                value = PascalArrays.copy(value);
+            }
+            copy[i] = value;
+        }
+        return new CustomVariable(layout, copy);
     }
 }
@@ -0,0 +1,104 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.js.interpreter.runtime.variables;
+
+import com.duy.pascal.backend.pascaltypes.ArrayType;
+import com.duy.pascal.backend.pascaltypes.BasicType;
+import com.duy.pascal.backend.pascaltypes.CustomType;
+import com.js.interpreter.VariableDeclaration;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * Index of every field of a record type, made once when the type is declared. A
+ * {@link CustomVariable} stores its fields in an array in this order, so a field access
+ * which was resolved at parse time does not look up the name.
+ */
+public class RecordLayout {
+    private final ArrayList<VariableDeclaration> fields;
+    private final HashMap<String, Integer> indexes;
+
+    public RecordLayout(ArrayList<VariableDeclaration> fields) {
+        this.fields = new ArrayList<>(fields);
+        this.indexes = new HashMap<>(fields.size() * 2);
+        for (int i = 0; i < fields.size(); i++) {
+            indexes.put(fields.get(i).name, i);
+        }
+    }
+
+    public int size() {
+        return fields.size();
+    }
+
+    public VariableDeclaration getField(int index) {
+        return fields.get(index);
+    }
+
+    /**
+     * @return declarations of the fields in the order of the record
+     */
+    public ArrayList<VariableDeclaration> getFields() {
+        return fields;
+    }
+
+    /**
+     * @return index of the field, -1 if the record has no field with this name
+     */
+    public int indexOf(String name) {
+        Integer index = indexes.get(name);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * @return value of the field in a new record
+     */
+    Object initialValue(int index) {
+        VariableDeclaration declaration = fields.get(index);
+        if (declaration.getInitialValue() != null) {
+            return declaration.initialize();
+        }
+        if (declaration.type == BasicType.Boolean) {
+            //the transfer class of boolean is the one of char
+            return Boolean.FALSE;
+        }
+        Class returnType = declaration.getType().getTransferClass();
+        if (returnType == int.class || returnType == Integer.class) {
+            return 0;
+        } else if (returnType == double.class || returnType == Double.class) {
+            return 0.0d;
+        } else if (returnType == char.class || returnType == Character.class) {
+            return ' ';
+        } else if (returnType == boolean.class || returnType == Boolean.class) {
+            return Boolean.FALSE;
+        } else if (returnType == long.class || returnType == Long.class) {
+            return 0L;
+        } else if (returnType == StringBuilder.class) {
+            return new StringBuilder("");
+        } else if (returnType == String.class) {
+            return "";
+        } else if (returnType == Array.class) {
+            return new Object[0];
+        } else if (declaration.type instanceof ArrayType
+                || declaration.type instanceof CustomType) {
+            return declaration.type.initialize();
+        } else {
+            return null;
+        }
+    }
+}
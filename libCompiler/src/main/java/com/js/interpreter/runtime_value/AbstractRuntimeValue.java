@@ -0,0 +1,36 @@
+package com.js.interpreter.runtime_value;
+
+import com.js.interpreter.codeunit.RuntimeExecutableCodeUnit;
+import com.js.interpreter.runtime.VariableContext;
+import com.js.interpreter.runtime.exception.RuntimePascalException;
+
+/**
+ * Base of the values which only have a boxed {@link #getValue}, the typed getters unwrap
+ * the boxed value. A subclass which can make a primitive without boxing overrides them.
+ */
+public abstract class AbstractRuntimeValue implements RuntimeValue {
+
+    @Override
+    public int getInt(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        return ((Number) getValue(f, main)).intValue();
+    }
+
+    @Override
+    public long getLong(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        return ((Number) getValue(f, main)).longValue();
+    }
+
+    @Override
+    public double getDouble(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        return ((Number) getValue(f, main)).doubleValue();
+    }
+
+    @Override
+    public boolean getBoolean(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        return (Boolean) getValue(f, main);
+    }
+}
@@ -7,6 +7,7 @@ import com.duy.pascal.backend.pascaltypes.ArrayType;
 import com.duy.pascal.backend.pascaltypes.RuntimeType;
 import com.js.interpreter.expressioncontext.CompileTimeContext;
 import com.js.interpreter.expressioncontext.ExpressionContext;
+import com.js.interpreter.runtime.PascalArrays;
 import com.js.interpreter.runtime.references.ArrayReference;
 import com.js.interpreter.runtime.references.Reference;
 import com.js.interpreter.runtime.VariableContext;
@@ -14,8 +15,6 @@ import com.js.interpreter.codeunit.RuntimeExecutableCodeUnit;
 import com.js.interpreter.runtime.exception.IndexOutOfBoundsException;
 import com.js.interpreter.runtime.exception.RuntimePascalException;
 
-import java.lang.reflect.Array;
-
 public class ArrayAccess extends DebuggableAssignableValue {
     private RuntimeValue container;
     private RuntimeValue index;
@@ -47,7 +46,7 @@ public class ArrayAccess extends DebuggableAssignableValue {
         if (ind == null || cont == null) {
             return null;
         } else {
-            return Array.get(cont, ((int) ind) - offset);
+            return PascalArrays.get(cont, ((Number) ind).intValue() - offset);
         }
     }
 
@@ -56,19 +55,71 @@ public class ArrayAccess extends DebuggableAssignableValue {
     public Object getValueImpl(VariableContext f, RuntimeExecutableCodeUnit<?> main)
             throws RuntimePascalException {
         Object cont = container.getValue(f, main);
-        int ind = Integer.valueOf(index.getValue(f, main).toString());
+        int ind = index.getInt(f, main);
+        try {
+            return PascalArrays.get(cont, ind - offset);
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw outOfBounds(cont, ind);
+        }
+    }
+
+    @Override
+    public int getIntImpl(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        Object cont = container.getValue(f, main);
+        int ind = index.getInt(f, main);
         try {
-            return Array.get(cont, ind - offset);
+            return PascalArrays.getInt(cont, ind - offset);
         } catch (ArrayIndexOutOfBoundsException e) {
-            throw new IndexOutOfBoundsException(this.getLineNumber(),
-                    ind, offset, offset + ((Object[]) cont).length - 1);
+            throw outOfBounds(cont, ind);
         }
     }
 
+    @Override
+    public long getLongImpl(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        Object cont = container.getValue(f, main);
+        int ind = index.getInt(f, main);
+        try {
+            return PascalArrays.getLong(cont, ind - offset);
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw outOfBounds(cont, ind);
+        }
+    }
+
+    @Override
+    public double getDoubleImpl(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        Object cont = container.getValue(f, main);
+        int ind = index.getInt(f, main);
+        try {
+            return PascalArrays.getDouble(cont, ind - offset);
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw outOfBounds(cont, ind);
+        }
+    }
+
+    @Override
+    public boolean getBooleanImpl(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        Object cont = container.getValue(f, main);
+        int ind = index.getInt(f, main);
+        try {
+            return PascalArrays.getBoolean(cont, ind - offset);
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw outOfBounds(cont, ind);
+        }
+    }
+
+    private IndexOutOfBoundsException outOfBounds(Object cont, int ind) {
+        return new IndexOutOfBoundsException(this.getLineNumber(),
+                ind, offset, offset + PascalArrays.length(cont) - 1);
+    }
+
     @Override
     public Reference<?> getReferenceImpl(VariableContext f, RuntimeExecutableCodeUnit<?> main) throws RuntimePascalException {
         Object cont = container.getValue(f, main);
-        int ind = Integer.valueOf(index.getValue(f, main).toString());
+        int ind = index.getInt(f, main);
         return new ArrayReference(cont, ind, offset);
     }
 
@@ -9,7 +9,7 @@ import com.js.interpreter.runtime.VariableContext;
 import com.js.interpreter.codeunit.RuntimeExecutableCodeUnit;
 import com.js.interpreter.runtime.exception.RuntimePascalException;
 
-public class CachedReturnValue implements RuntimeValue {
+public class CachedReturnValue extends AbstractRuntimeValue {
     protected RuntimeValue[] outputFormat;
     private RuntimeValue other;
     private Object cache = null;
@@ -63,5 +63,4 @@ public class CachedReturnValue implements RuntimeValue {
         cache = other.getValue(f, main);
         return cache;
     }
-
 }
@@ -1,11 +1,10 @@
 package com.js.interpreter.runtime_value;
 
-import android.util.Log;
-
 import com.duy.pascal.backend.debugable.DebuggableAssignableValue;
 import com.duy.pascal.backend.exceptions.operator.ConstantCalculationException;
 import com.duy.pascal.backend.exceptions.ParsingException;
 import com.duy.pascal.backend.linenumber.LineInfo;
+import com.duy.pascal.backend.pascaltypes.CustomType;
 import com.duy.pascal.backend.pascaltypes.JavaClassBasedType;
 import com.duy.pascal.backend.pascaltypes.ObjectType;
 import com.duy.pascal.backend.pascaltypes.RuntimeType;
@@ -18,20 +17,34 @@ import com.js.interpreter.runtime.VariableContext;
 import com.js.interpreter.codeunit.RuntimeExecutableCodeUnit;
 import com.js.interpreter.runtime.exception.RuntimePascalException;
 import com.js.interpreter.runtime.variables.ContainsVariables;
+import com.js.interpreter.runtime.variables.CustomVariable;
+import com.js.interpreter.runtime.variables.RecordLayout;
 
 public class FieldAccess extends DebuggableAssignableValue {
     private static final String TAG = "FieldAccess";
     private RuntimeValue container;
     private String name;
     private LineInfo line;
+    /**
+     * layout of the record and index of the field in it, found when the type of the access
+     * is checked. Records of an other layout are read by name
+     */
+    private RecordLayout layout;
+    private int index = -1;
 
     public FieldAccess(RuntimeValue container, String name, LineInfo line) {
-        Log.d(TAG, "FieldAccess() called with: container = [" + container + "], name = [" + name + "], line = [" + line + "]");
         this.container = container;
         this.name = name;
         this.line = line;
     }
 
+    private FieldAccess(RuntimeValue container, String name, LineInfo line,
+                        RecordLayout layout, int index) {
+        this(container, name, line);
+        this.layout = layout;
+        this.index = index;
+    }
+
     public FieldAccess(RuntimeValue container, WordToken name) {
         this(container, name.name, name.getLineInfo());
     }
@@ -40,6 +53,10 @@ public class FieldAccess extends DebuggableAssignableValue {
     @Override
     public RuntimeType getType(ExpressionContext f) throws ParsingException {
         RuntimeType r = container.getType(f);
+        if (r.declType instanceof CustomType) {
+            layout = ((CustomType) r.declType).getLayout();
+            index = layout.indexOf(name);
+        }
         if (r.declType instanceof ObjectType) {
             return new RuntimeType(((ObjectType) (r.declType)).getMemberType(name), r.writable);
         } else if (r.declType instanceof JavaClassBasedType) {
@@ -72,12 +89,21 @@ public class FieldAccess extends DebuggableAssignableValue {
     public Object getValueImpl(VariableContext f, RuntimeExecutableCodeUnit<?> main)
             throws RuntimePascalException {
         Object value = container.getValue(f, main);
+        if (index >= 0 && value instanceof CustomVariable
+                && ((CustomVariable) value).getLayout() == layout) {
+            return ((CustomVariable) value).getField(index);
+        }
         return ((ContainsVariables) value).getVar(name);
     }
 
     @Override
     public Reference<?> getReferenceImpl(VariableContext f, RuntimeExecutableCodeUnit<?> main) throws RuntimePascalException {
-        return new FieldReference((ContainsVariables) container.getValue(f, main), name);
+        Object value = container.getValue(f, main);
+        if (index >= 0 && value instanceof CustomVariable
+                && ((CustomVariable) value).getLayout() == layout) {
+            return ((CustomVariable) value).getReference(index);
+        }
+        return new FieldReference((ContainsVariables) value, name);
     }
 
     @Override
@@ -87,7 +113,8 @@ public class FieldAccess extends DebuggableAssignableValue {
         if (val != null) {
             return new ConstantAccess(val, line);
         } else {
-            return new FieldAccess(container.compileTimeExpressionFold(context), name, line);
+            return new FieldAccess(container.compileTimeExpressionFold(context), name, line,
+                    layout, index);
         }
     }
 
@@ -103,6 +103,10 @@ public abstract class FunctionCall extends DebuggableExecutableReturnValue {
         RuntimeValue[] args = new RuntimeValue[arguments.length];
         for (int i = 0; i < arguments.length; i++) {
             args[i] = arguments[i].compileTimeExpressionFold(context);
+            //keep format of argument of write, writeln
+            if (args[i] != arguments[i] && arguments[i].getOutputFormat() != null) {
+                args[i].setOutputFormat(arguments[i].getOutputFormat());
+            }
         }
         return args;
     }
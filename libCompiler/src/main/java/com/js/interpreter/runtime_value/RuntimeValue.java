@@ -29,6 +29,23 @@ public interface RuntimeValue {
     Object getValue(VariableContext f, RuntimeExecutableCodeUnit<?> main)
             throws RuntimePascalException;
 
+    /**
+     * Typed variants of {@link #getValue(VariableContext, RuntimeExecutableCodeUnit)}.
+     * Expressions whose result is a primitive compute it without boxing, the caller
+     * must only use the variant matching {@link #getType(ExpressionContext)}
+     */
+    int getInt(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException;
+
+    long getLong(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException;
+
+    double getDouble(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException;
+
+    boolean getBoolean(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException;
+
     /**
      * get type of variable or return type of function
      */
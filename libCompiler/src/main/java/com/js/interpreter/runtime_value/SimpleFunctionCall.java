@@ -2,9 +2,10 @@ package com.js.interpreter.runtime_value;
 
 import com.duy.pascal.backend.exceptions.ParsingException;
 import com.duy.pascal.backend.linenumber.LineInfo;
-import com.duy.pascal.backend.pascaltypes.ArgumentType;
 import com.duy.pascal.backend.pascaltypes.RuntimeType;
 import com.duy.pascal.backend.function_declaretion.AbstractCallableFunction;
+import com.duy.pascal.backend.function_declaretion.MethodDeclaration;
+import com.duy.pascal.backend.function_declaretion.MethodInvoker;
 import com.js.interpreter.expressioncontext.CompileTimeContext;
 import com.js.interpreter.expressioncontext.ExpressionContext;
 import com.js.interpreter.instructions.Executable;
@@ -14,15 +15,16 @@ import com.js.interpreter.runtime.exception.PluginCallException;
 import com.js.interpreter.runtime.exception.RuntimePascalException;
 import com.js.interpreter.runtime.exception.internal.PluginReflectionException;
 
-import java.io.File;
 import java.lang.reflect.InvocationTargetException;
-import java.text.DecimalFormat;
-import java.text.DecimalFormatSymbols;
-import java.util.Locale;
 
 public class SimpleFunctionCall extends FunctionCall {
     private AbstractCallableFunction function;
 
+    /**
+     * the function if it is a java method with fixed arguments, called without argument array
+     */
+    private MethodDeclaration method;
+
     private LineInfo line;
 
     public SimpleFunctionCall(AbstractCallableFunction function,
@@ -33,59 +35,30 @@ public class SimpleFunctionCall extends FunctionCall {
         }
         this.arguments = arguments;
         this.line = line;
+        if (function instanceof MethodDeclaration && !((MethodDeclaration) function).isVarArgs()) {
+            this.method = (MethodDeclaration) function;
+        }
     }
 
     @Override
     public Object getValueImpl(VariableContext f, RuntimeExecutableCodeUnit<?> main)
             throws RuntimePascalException {
-        if (main != null) {
-            if (main.isDebugMode()) {
-                main.getDebugListener().onLine(getLineNumber());
-            }
-            main.incStack(getLineNumber());
+        if (main != null && main.isDebugMode()) {
+            main.getDebugRecorder().recordLine(getLineNumber());
             main.scriptControlCheck(getLineNumber());
         }
+        return call(f, main);
+    }
+
+    private Object call(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        if (method != null && arguments.length <= 2) {
+            return callMethod(f, main);
+        }
 
-        //array store clone value
         Object[] values = new Object[arguments.length];
-        //list operator of list variable
-        ArgumentType[] argumentTypes = function.argumentTypes();
-
-        //convert to string object for print console or write to file
-        if (getFunctionName().equals("writeln") || getFunctionName().equals("write")) {
-            for (int i = 0; i < values.length; i++) {
-                if (argumentTypes[i].getRuntimeClass().equals(File.class)) {
-                    values[i] = arguments[i].getValue(f, main);
-                } else {
-                    RuntimeValue rawValue = arguments[i];
-                    RuntimeValue[] outputFormat = rawValue.getOutputFormat();
-                    StringBuilder object = new StringBuilder(String.valueOf(rawValue.getValue(f, main)));
-
-                    if (outputFormat != null) {
-                        if (outputFormat[1] != null) {
-                            int sizeOfReal = (int) outputFormat[1].getValue(f, main);
-                            StringBuilder round = new StringBuilder();
-                            for (int j = 0; j < sizeOfReal; j++) round.append("#");
-                            DecimalFormat decimalFormat = new DecimalFormat("#." + round.toString());
-                            decimalFormat.setDecimalFormatSymbols(new DecimalFormatSymbols(Locale.ENGLISH));
-                            Double d = Double.parseDouble(object.toString());
-                            object = new StringBuilder(decimalFormat.format(d));
-                        }
-
-                        if (outputFormat[0] != null) {
-                            int column = (int) outputFormat[0].getValue(f, main);
-                            while (object.length() < column) {
-                                object.insert(0, " ");
-                            }
-                        }
-                    }
-                    values[i] = object;
-                }
-            }
-        } else {
-            for (int i = 0; i < values.length; i++) {
-                values[i] = arguments[i].getValue(f, main);
-            }
+        for (int i = 0; i < values.length; i++) {
+            values[i] = arguments[i].getValue(f, main);
         }
 
         Object result;
@@ -96,11 +69,31 @@ public class SimpleFunctionCall extends FunctionCall {
         } catch (InvocationTargetException e) {
             throw new PluginCallException(line, e.getTargetException(), function);
         }
-        if (main != null)
-            main.decStack();
         return result;
     }
 
+    /**
+     * call of java method with zero, one or two arguments
+     */
+    private Object callMethod(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        try {
+            switch (arguments.length) {
+                case 0:
+                    return method.call(f, main, MethodInvoker.NO_ARGUMENTS);
+                case 1:
+                    return method.call1(f, main, arguments[0].getValue(f, main));
+                default:
+                    Object arg1 = arguments[0].getValue(f, main);
+                    return method.call2(f, main, arg1, arguments[1].getValue(f, main));
+            }
+        } catch (IllegalArgumentException | IllegalAccessException e) {
+            throw new PluginReflectionException(line, e);
+        } catch (InvocationTargetException e) {
+            throw new PluginCallException(line, e.getTargetException(), function);
+        }
+    }
+
     @Override
     public RuntimeType getType(ExpressionContext f) {
         return new RuntimeType(function.returnType(), false);
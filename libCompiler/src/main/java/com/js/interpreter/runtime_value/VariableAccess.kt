@@ -22,6 +22,7 @@ import com.duy.pascal.backend.linenumber.LineInfo
 import com.duy.pascal.backend.pascaltypes.RuntimeType
 import com.duy.pascal.backend.tokens.WordToken
 import com.js.interpreter.codeunit.RuntimeExecutableCodeUnit
+import com.js.interpreter.codeunit.library.UnitPascal
 import com.js.interpreter.expressioncontext.CompileTimeContext
 import com.js.interpreter.expressioncontext.ExpressionContext
 import com.js.interpreter.instructions.FieldReference
@@ -34,6 +35,33 @@ class VariableAccess : DebuggableAssignableValue {
     val name: String
     private var line: LineInfo? = null
 
+    /**
+     * number of frames between the frame which uses this variable and the
+     * frame which declares it, resolved at parse time
+     */
+    var depth = 0
+        private set
+
+    /**
+     * index of variable in the frame which declares it,
+     * -1 if the variable must be found by name
+     */
+    var slot = -1
+        private set
+
+    /**
+     * unit which declares the variable, the slot is then in the variables of
+     * the unit in the current run
+     */
+    var unit: UnitPascal? = null
+        private set
+
+    /**
+     * type of the variable, found when the type is checked at parse time and
+     * given to the references of the variable
+     */
+    private var referenceType: RuntimeType? = null
+
     constructor(t: WordToken) {
         this.name = t.name
         this.line = t.lineInfo
@@ -44,6 +72,25 @@ class VariableAccess : DebuggableAssignableValue {
         this.line = line
     }
 
+    constructor(name: String, line: LineInfo, depth: Int, slot: Int) : this(name, line) {
+        this.depth = depth
+        this.slot = slot
+    }
+
+    constructor(name: String, line: LineInfo, unit: UnitPascal, slot: Int) : this(name, line) {
+        this.unit = unit
+        this.slot = slot
+    }
+
+    /**
+     * called when the variable is resolved in the enclosing frame
+     */
+    fun increaseDepth() {
+        if (slot >= 0 && unit == null) {
+            depth++
+        }
+    }
+
     override fun getOutputFormat(): Array<RuntimeValue>? {
         return super.getOutputFormat()
     }
@@ -58,36 +105,93 @@ class VariableAccess : DebuggableAssignableValue {
 
     @Throws(RuntimePascalException::class)
     override fun getValueImpl(f: VariableContext, main: RuntimeExecutableCodeUnit<*>): Any? {
+        val unit = unit
+        if (unit != null) {
+            return main.getLibrary(unit).getLocalVar(slot)
+        }
+        if (slot >= 0) {
+            return f.getFrame(depth).getLocalVar(slot)
+        }
         val result = f.getVar(name)
         if (result != null) {
             return result
-        } else {
-            //get map library
-            val unitsMap = main.definition.context.unitsMap
-            val entries = unitsMap.entries
-
-            //check all library
-            for (entry in entries) {
-                val unit = entry.value
-                return unit.getVar(name);
+        }
+        //variables of units which were not bound at parse time
+        for (library in main.definition.context.unitsMap.keys) {
+            val value = main.getLibrary(library).getLocalVar(name)
+            if (value != null) {
+                return value
             }
         }
         return null
     }
 
+    /**
+     * read the variable from its slot without boxing, an unboxed variable is kept in a
+     * primitive by its frame
+     */
+    @Throws(RuntimePascalException::class)
+    override fun getIntImpl(f: VariableContext, main: RuntimeExecutableCodeUnit<*>): Int {
+        if (slot >= 0) {
+            return getSlotFrame(f, main).getLocalInt(slot)
+        }
+        return super.getIntImpl(f, main)
+    }
+
+    @Throws(RuntimePascalException::class)
+    override fun getLongImpl(f: VariableContext, main: RuntimeExecutableCodeUnit<*>): Long {
+        if (slot >= 0) {
+            return getSlotFrame(f, main).getLocalLong(slot)
+        }
+        return super.getLongImpl(f, main)
+    }
+
+    @Throws(RuntimePascalException::class)
+    override fun getDoubleImpl(f: VariableContext, main: RuntimeExecutableCodeUnit<*>): Double {
+        if (slot >= 0) {
+            return getSlotFrame(f, main).getLocalDouble(slot)
+        }
+        return super.getDoubleImpl(f, main)
+    }
+
+    @Throws(RuntimePascalException::class)
+    override fun getBooleanImpl(f: VariableContext, main: RuntimeExecutableCodeUnit<*>): Boolean {
+        if (slot >= 0) {
+            return getSlotFrame(f, main).getLocalBoolean(slot)
+        }
+        return super.getBooleanImpl(f, main)
+    }
+
+    /**
+     * @return the frame or the unit which holds the slot of the variable, the variable
+     * must have a slot
+     */
+    fun getSlotFrame(f: VariableContext, main: RuntimeExecutableCodeUnit<*>?): VariableContext {
+        val unit = unit
+        if (unit != null) {
+            return main!!.getLibrary(unit)
+        }
+        return f.getFrame(depth)
+    }
+
     @Throws(RuntimePascalException::class)
     override fun getReferenceImpl(f: VariableContext, main: RuntimeExecutableCodeUnit<*>): Reference<*> {
-        try {
-            if (f is FunctionOnStack) {
-                val declarations = f.prototype.declarations
-                val type = getType(declarations)
-                return FieldReference(f, name, type)
+        var type = referenceType
+        if (type == null && f is FunctionOnStack) {
+            try {
+                type = getType(f.prototype.declarations)
+            } catch (e: ParsingException) {
+                e.printStackTrace()
             }
-        } catch (e: ParsingException) {
-            e.printStackTrace()
         }
-
-        return FieldReference(f, name)
+        val unit = unit
+        if (unit != null) {
+            return main.getLibrary(unit).getReference(slot, type)
+        }
+        if (slot >= 0) {
+            return f.getFrame(depth).getReference(slot, type)
+        }
+        return FieldReference(f, name, type)
     }
 
     override fun toString(): String {
@@ -96,7 +200,11 @@ class VariableAccess : DebuggableAssignableValue {
 
     @Throws(ParsingException::class)
     override fun getType(f: ExpressionContext): RuntimeType? {
-        return RuntimeType(f.getVariableDefinition(name).type, true)
+        val type = RuntimeType(f.getVariableDefinition(name).type, true)
+        if (referenceType == null) {
+            referenceType = type
+        }
+        return type
     }
 
     @Throws(ParsingException::class)
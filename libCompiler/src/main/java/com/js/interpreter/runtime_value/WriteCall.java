@@ -0,0 +1,270 @@
+package com.js.interpreter.runtime_value;
+
+import com.duy.pascal.backend.exceptions.ParsingException;
+import com.duy.pascal.backend.exceptions.convert.UnConvertibleTypeException;
+import com.duy.pascal.backend.function_declaretion.MethodDeclaration;
+import com.duy.pascal.backend.lib.file.BinaryFile;
+import com.duy.pascal.backend.lib.file.FileLib;
+import com.duy.pascal.backend.lib.io.IOLib;
+import com.duy.pascal.backend.linenumber.LineInfo;
+import com.duy.pascal.backend.pascaltypes.ArgumentType;
+import com.duy.pascal.backend.pascaltypes.DeclaredType;
+import com.duy.pascal.backend.pascaltypes.FileType;
+import com.duy.pascal.backend.pascaltypes.RuntimeType;
+import com.js.interpreter.codeunit.RuntimeExecutableCodeUnit;
+import com.js.interpreter.expressioncontext.CompileTimeContext;
+import com.js.interpreter.expressioncontext.ExpressionContext;
+import com.js.interpreter.instructions.Executable;
+import com.js.interpreter.runtime.TextFormatter;
+import com.js.interpreter.runtime.VariableContext;
+import com.js.interpreter.runtime.exception.PluginCallException;
+import com.js.interpreter.runtime.exception.RuntimePascalException;
+import com.js.interpreter.runtime.exception.internal.PluginReflectionException;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+
+/**
+ * Call of write or writeln of a library.
+ * <p>
+ * Arguments are formatted with their width and precision ("x:10:2") into one buffer,
+ * which is passed to the console or the file in one write.
+ */
+public class WriteCall extends FunctionCall {
+    private final MethodDeclaration function;
+    private final LineInfo line;
+
+    /**
+     * the first argument is the file to write to
+     */
+    private final boolean toFile;
+    private final boolean newLine;
+    private final Format[] formats;
+
+    public WriteCall(MethodDeclaration function, RuntimeValue[] arguments, LineInfo line) {
+        this.function = function;
+        this.arguments = arguments;
+        this.line = line;
+        this.newLine = function.name().equals("writeln");
+        ArgumentType[] argumentTypes = function.argumentTypes();
+        this.toFile = argumentTypes.length > 0
+                && argumentTypes[0].getRuntimeClass().equals(File.class);
+        this.formats = new Format[arguments.length];
+        for (int i = toFile ? 1 : 0; i < arguments.length; i++) {
+            formats[i] = new Format(arguments[i].getOutputFormat());
+        }
+    }
+
+    /**
+     * Values written to a typed file are converted to the type of its records, so an integer
+     * written to a file of longint is stored in 8 bytes
+     *
+     * @return the arguments, with the values converted if the first one is a typed file
+     */
+    public static RuntimeValue[] convertRecords(RuntimeValue[] arguments, ExpressionContext f)
+            throws ParsingException {
+        if (arguments.length == 0) {
+            return arguments;
+        }
+        DeclaredType fileType = arguments[0].getType(f).declType;
+        if (!(fileType instanceof FileType) || ((FileType<?>) fileType).getElementType() == null) {
+            return arguments;
+        }
+        DeclaredType elementType = ((FileType<?>) fileType).getElementType();
+        RuntimeValue[] result = arguments.clone();
+        for (int i = 1; i < result.length; i++) {
+            RuntimeValue converted = elementType.convert(arguments[i], f);
+            if (converted == null) {
+                throw new UnConvertibleTypeException(arguments[i],
+                        arguments[i].getType(f).declType, elementType, true);
+            }
+            result[i] = converted;
+        }
+        return result;
+    }
+
+    /**
+     * @return true if the call of the function must be a {@link WriteCall}
+     */
+    public static boolean isWriteFunction(MethodDeclaration function) {
+        return function.name().equals("writeln") || function.name().equals("write");
+    }
+
+    @Override
+    public Object getValueImpl(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        if (main != null && main.isDebugMode()) {
+            main.getDebugRecorder().recordLine(getLineNumber());
+            main.scriptControlCheck(getLineNumber());
+        }
+        Object owner = function.getOwner();
+        if (owner instanceof IOLib || owner instanceof FileLib) {
+            TextFormatter formatter = getFormatter(main);
+            StringBuilder text = formatter.acquireBuffer();
+            try {
+                writeText(text, formatter, f, main);
+                return null;
+            } finally {
+                formatter.releaseBuffer(text);
+            }
+        }
+        return callFunction(f, main);
+    }
+
+    /**
+     * @return formatter of the run, the node is shared by the runs of a cached program
+     */
+    private static TextFormatter getFormatter(RuntimeExecutableCodeUnit<?> main) {
+        return main != null ? main.getTextFormatter() : new TextFormatter();
+    }
+
+    private void writeText(StringBuilder text, TextFormatter formatter, VariableContext f,
+                           RuntimeExecutableCodeUnit<?> main) throws RuntimePascalException {
+        File file = toFile ? (File) arguments[0].getValue(f, main) : null;
+        if (file instanceof BinaryFile) {
+            writeRecords(file, f, main);
+            return;
+        }
+        for (int i = toFile ? 1 : 0; i < arguments.length; i++) {
+            formats[i].append(text, arguments[i].getValue(f, main), formatter, f, main);
+        }
+        if (newLine) {
+            text.append('\n');
+        }
+        if (toFile) {
+            try {
+                ((FileLib) function.getOwner()).writeText(file, text);
+            } catch (IOException e) {
+                throw new PluginCallException(line, e, function);
+            }
+        } else {
+            ((IOLib) function.getOwner()).writeText(text);
+        }
+    }
+
+    /**
+     * values are written to a binary file without format, writeln does not write a line end
+     */
+    private void writeRecords(File file, VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        Object[] values = new Object[arguments.length - 1];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = arguments[i + 1].getValue(f, main);
+        }
+        try {
+            ((FileLib) function.getOwner()).writeRecords(file, values);
+        } catch (IOException e) {
+            throw new PluginCallException(line, e, function);
+        }
+    }
+
+    /**
+     * call write function of other library with the formatted arguments
+     */
+    private Object callFunction(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        TextFormatter formatter = null;
+        Object[] values = new Object[arguments.length];
+        for (int i = 0; i < values.length; i++) {
+            Object value = arguments[i].getValue(f, main);
+            if (formats[i] == null) {
+                values[i] = value;
+            } else {
+                if (formatter == null) {
+                    formatter = getFormatter(main);
+                }
+                StringBuilder text = new StringBuilder();
+                formats[i].append(text, value, formatter, f, main);
+                values[i] = text;
+            }
+        }
+        try {
+            return function.call(f, main, values);
+        } catch (IllegalArgumentException | IllegalAccessException e) {
+            throw new PluginReflectionException(line, e);
+        } catch (InvocationTargetException e) {
+            throw new PluginCallException(line, e.getTargetException(), function);
+        }
+    }
+
+    @Override
+    public RuntimeType getType(ExpressionContext f) {
+        return new RuntimeType(function.returnType(), false);
+    }
+
+    @Override
+    public LineInfo getLineNumber() {
+        return line;
+    }
+
+    @Override
+    protected String getFunctionName() {
+        return function.name();
+    }
+
+    @Override
+    public RuntimeValue compileTimeExpressionFold(CompileTimeContext context)
+            throws ParsingException {
+        return new WriteCall(function, compileTimeExpressionFoldArguments(context), line);
+    }
+
+    @Override
+    public Executable compileTimeConstantTransform(CompileTimeContext c)
+            throws ParsingException {
+        return new WriteCall(function, compileTimeExpressionFoldArguments(c), line);
+    }
+
+    /**
+     * Width and precision of one argument, "value:width:precision". Constant ones are read
+     * once when the call is created.
+     */
+    private static class Format {
+        private static final int NONE = -1;
+
+        private final RuntimeValue width;
+        private final RuntimeValue precision;
+        private final int constantWidth;
+        private final int constantPrecision;
+
+        Format(RuntimeValue[] outputFormat) {
+            width = outputFormat != null ? outputFormat[0] : null;
+            precision = outputFormat != null ? outputFormat[1] : null;
+            constantWidth = constantOf(width);
+            constantPrecision = constantOf(precision);
+        }
+
+        private static int constantOf(RuntimeValue value) {
+            if (value instanceof ConstantAccess
+                    && ((ConstantAccess) value).constant_value instanceof Number) {
+                return Math.max(0, ((Number) ((ConstantAccess) value).constant_value).intValue());
+            }
+            return NONE;
+        }
+
+        void append(StringBuilder text, Object value, TextFormatter formatter, VariableContext f,
+                    RuntimeExecutableCodeUnit<?> main) throws RuntimePascalException {
+            if (width == null && precision == null) {
+                text.append(value);
+                return;
+            }
+            String string;
+            if (precision != null) {
+                double d = value instanceof Number ? ((Number) value).doubleValue()
+                        : Double.parseDouble(String.valueOf(value));
+                int places = constantPrecision != NONE ? constantPrecision
+                        : precision.getInt(f, main);
+                string = formatter.getDecimalFormat(places).format(d);
+            } else {
+                string = String.valueOf(value);
+            }
+            if (width != null) {
+                int size = constantWidth != NONE ? constantWidth : width.getInt(f, main);
+                for (int i = size - string.length(); i > 0; i--) {
+                    text.append(' ');
+                }
+            }
+            text.append(string);
+        }
+    }
+}
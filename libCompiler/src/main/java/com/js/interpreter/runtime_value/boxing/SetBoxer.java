@@ -0,0 +1,114 @@
+package com.js.interpreter.runtime_value.boxing;
+
+import com.duy.pascal.backend.debugable.DebuggableReturnValue;
+import com.duy.pascal.backend.exceptions.ParsingException;
+import com.duy.pascal.backend.linenumber.LineInfo;
+import com.duy.pascal.backend.pascaltypes.RuntimeType;
+import com.duy.pascal.backend.pascaltypes.SetType;
+import com.js.interpreter.codeunit.RuntimeExecutableCodeUnit;
+import com.js.interpreter.expressioncontext.CompileTimeContext;
+import com.js.interpreter.expressioncontext.ExpressionContext;
+import com.js.interpreter.runtime.PascalSets;
+import com.js.interpreter.runtime.VariableContext;
+import com.js.interpreter.runtime.exception.RangeCheckException;
+import com.js.interpreter.runtime.exception.RuntimePascalException;
+import com.js.interpreter.runtime_value.ConstantAccess;
+import com.js.interpreter.runtime_value.RuntimeValue;
+
+/**
+ * Set constructor such as ['a'..'z', '_'], every element is a value or a range
+ */
+public class SetBoxer extends DebuggableReturnValue {
+    private RuntimeValue[] lows;
+    /**
+     * upper bound of range, null if the element is a single value
+     */
+    private RuntimeValue[] highs;
+    private SetType<?> type;
+    private LineInfo line;
+
+    public SetBoxer(RuntimeValue[] lows, RuntimeValue[] highs, SetType<?> type, LineInfo line) {
+        this.lows = lows;
+        this.highs = highs;
+        this.type = type;
+        this.line = line;
+    }
+
+    @Override
+    public LineInfo getLineNumber() {
+        return line;
+    }
+
+    @Override
+    public RuntimeType getType(ExpressionContext f) throws ParsingException {
+        return new RuntimeType(type, false);
+    }
+
+    @Override
+    public Object getValueImpl(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        long[] result = PascalSets.newSet();
+        for (int i = 0; i < lows.length; i++) {
+            int low = PascalSets.ordinal(lows[i].getValue(f, main));
+            if (highs[i] == null) {
+                PascalSets.add(result, low, line);
+            } else {
+                PascalSets.addRange(result, low, PascalSets.ordinal(highs[i].getValue(f, main)),
+                        line);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @throws ParsingException if a constant element can not be in a set
+     */
+    @Override
+    public Object compileTimeValue(CompileTimeContext context) throws ParsingException {
+        try {
+            return compileTimeSet(context);
+        } catch (RangeCheckException e) {
+            throw new ParsingException(line, e.getMessage());
+        }
+    }
+
+    private long[] compileTimeSet(CompileTimeContext context)
+            throws ParsingException, RangeCheckException {
+        long[] result = PascalSets.newSet();
+        for (int i = 0; i < lows.length; i++) {
+            Object low = lows[i].compileTimeValue(context);
+            if (low == null) {
+                return null;
+            }
+            if (highs[i] == null) {
+                PascalSets.add(result, PascalSets.ordinal(low), line);
+            } else {
+                Object high = highs[i].compileTimeValue(context);
+                if (high == null) {
+                    return null;
+                }
+                PascalSets.addRange(result, PascalSets.ordinal(low), PascalSets.ordinal(high),
+                        line);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public RuntimeValue compileTimeExpressionFold(CompileTimeContext context)
+            throws ParsingException {
+        Object value = compileTimeValue(context);
+        if (value != null) {
+            return new ConstantAccess(value, type, line);
+        }
+        RuntimeValue[] foldedLows = new RuntimeValue[lows.length];
+        RuntimeValue[] foldedHighs = new RuntimeValue[highs.length];
+        for (int i = 0; i < lows.length; i++) {
+            foldedLows[i] = lows[i].compileTimeExpressionFold(context);
+            if (highs[i] != null) {
+                foldedHighs[i] = highs[i].compileTimeExpressionFold(context);
+            }
+        }
+        return new SetBoxer(foldedLows, foldedHighs, type, line);
+    }
+}
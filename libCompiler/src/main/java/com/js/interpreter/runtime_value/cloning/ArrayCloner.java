@@ -5,13 +5,15 @@ import com.duy.pascal.backend.linenumber.LineInfo;
 import com.duy.pascal.backend.pascaltypes.RuntimeType;
 import com.js.interpreter.expressioncontext.CompileTimeContext;
 import com.js.interpreter.expressioncontext.ExpressionContext;
+import com.js.interpreter.runtime_value.AbstractRuntimeValue;
 import com.js.interpreter.runtime_value.AssignableValue;
 import com.js.interpreter.runtime_value.RuntimeValue;
+import com.js.interpreter.runtime.PascalArrays;
 import com.js.interpreter.runtime.VariableContext;
 import com.js.interpreter.codeunit.RuntimeExecutableCodeUnit;
 import com.js.interpreter.runtime.exception.RuntimePascalException;
 
-public class ArrayCloner<T> implements RuntimeValue {
+public class ArrayCloner<T> extends AbstractRuntimeValue {
     protected RuntimeValue[] outputFormat;
     private RuntimeValue r;
 
@@ -39,8 +41,7 @@ public class ArrayCloner<T> implements RuntimeValue {
     @Override
     public Object getValue(VariableContext f, RuntimeExecutableCodeUnit<?> main)
             throws RuntimePascalException {
-        Object[] value = (Object[]) r.getValue(f, main);
-        return value.clone();
+        return PascalArrays.copy(r.getValue(f, main));
     }
 
     @Override
@@ -51,8 +52,8 @@ public class ArrayCloner<T> implements RuntimeValue {
     @Override
     public Object compileTimeValue(CompileTimeContext context)
             throws ParsingException {
-        Object[] value = (Object[]) r.compileTimeValue(context);
-        return value.clone();
+        Object value = r.compileTimeValue(context);
+        return value == null ? null : PascalArrays.copy(value);
     }
 
     @Override
@@ -71,4 +72,4 @@ public class ArrayCloner<T> implements RuntimeValue {
     public AssignableValue asAssignableValue(ExpressionContext f) {
         return null;
     }
-}
\ No newline at end of file
+}
@@ -5,13 +5,15 @@ import com.duy.pascal.backend.linenumber.LineInfo;
 import com.duy.pascal.backend.pascaltypes.RuntimeType;
 import com.js.interpreter.expressioncontext.CompileTimeContext;
 import com.js.interpreter.expressioncontext.ExpressionContext;
+import com.js.interpreter.runtime_value.AbstractRuntimeValue;
 import com.js.interpreter.runtime_value.AssignableValue;
 import com.js.interpreter.runtime_value.RuntimeValue;
+import com.js.interpreter.runtime.PascalStrings;
 import com.js.interpreter.runtime.VariableContext;
 import com.js.interpreter.codeunit.RuntimeExecutableCodeUnit;
 import com.js.interpreter.runtime.exception.RuntimePascalException;
 
-public class StringBuilderCloner implements RuntimeValue {
+public class StringBuilderCloner extends AbstractRuntimeValue {
     protected RuntimeValue[] outputFormat;
     RuntimeValue r;
 
@@ -40,8 +42,7 @@ public class StringBuilderCloner implements RuntimeValue {
     @Override
     public Object getValue(VariableContext f, RuntimeExecutableCodeUnit<?> main)
             throws RuntimePascalException {
-        Object result = r.getValue(f, main);
-        return new StringBuilder(result.toString());
+        return PascalStrings.copy(r.getValue(f, main));
     }
 
     @Override
@@ -75,5 +76,4 @@ public class StringBuilderCloner implements RuntimeValue {
     public AssignableValue asAssignableValue(ExpressionContext f) {
         return null;
     }
-
-}
\ No newline at end of file
+}
@@ -28,6 +28,7 @@ import com.js.interpreter.runtime_value.ConstantAccess;
 import com.js.interpreter.runtime_value.RuntimeValue;
 import com.js.interpreter.runtime_value.operators.number.BinaryOperatorEvaluation;
 import com.js.interpreter.runtime.VariableContext;
+import com.js.interpreter.runtime.PascalArrays;
 import com.js.interpreter.codeunit.RuntimeExecutableCodeUnit;
 import com.js.interpreter.runtime.exception.PascalArithmeticException;
 import com.js.interpreter.runtime.exception.RuntimePascalException;
@@ -50,7 +51,7 @@ public class InBiOperatorEval extends BinaryOperatorEvaluation {
         Object value1 = operon1.getValue(f, main);
 
         //array
-        Object[] value2 = (Object[]) operon2.getValue(f, main);
+        Object value2 = operon2.getValue(f, main);
 
         return operate(value1, value2);
     }
@@ -64,11 +65,10 @@ public class InBiOperatorEval extends BinaryOperatorEvaluation {
     @Override
     public Object operate(Object value1, Object value2)
             throws PascalArithmeticException, InternalInterpreterException {
-        Object[] v2 = (Object[]) value2;
-
         //check contain
-        for (Object o : v2) {
-            if (o.equals(value1)) {
+        int length = PascalArrays.length(value2);
+        for (int i = 0; i < length; i++) {
+            if (PascalArrays.get(value2, i).equals(value1)) {
                 return true;
             }
         }
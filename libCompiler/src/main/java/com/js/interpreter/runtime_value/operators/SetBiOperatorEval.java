@@ -0,0 +1,118 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.js.interpreter.runtime_value.operators;
+
+import com.duy.pascal.backend.exceptions.ParsingException;
+import com.duy.pascal.backend.linenumber.LineInfo;
+import com.duy.pascal.backend.pascaltypes.BasicType;
+import com.duy.pascal.backend.pascaltypes.DeclaredType;
+import com.duy.pascal.backend.pascaltypes.RuntimeType;
+import com.duy.pascal.backend.pascaltypes.SetType;
+import com.duy.pascal.backend.tokens.OperatorTypes;
+import com.js.interpreter.expressioncontext.CompileTimeContext;
+import com.js.interpreter.expressioncontext.ExpressionContext;
+import com.js.interpreter.runtime_value.ConstantAccess;
+import com.js.interpreter.runtime_value.RuntimeValue;
+import com.js.interpreter.runtime_value.operators.number.BinaryOperatorEvaluation;
+import com.js.interpreter.runtime.PascalSets;
+import com.js.interpreter.runtime.exception.internal.InternalInterpreterException;
+
+/**
+ * Operators of two sets: union (+), intersection (*), difference (-) and the
+ * comparisons =, <>, <= (subset) and >= (superset)
+ */
+public class SetBiOperatorEval extends BinaryOperatorEvaluation {
+    /**
+     * type of the result of +, * and -
+     */
+    private SetType<?> type;
+
+    public SetBiOperatorEval(RuntimeValue operon1, RuntimeValue operon2,
+                             OperatorTypes operator, SetType<?> type, LineInfo line) {
+        super(operon1, operon2, operator, line);
+        this.type = type;
+    }
+
+    /**
+     * @return true if the operator can be applied to two sets
+     */
+    public static boolean isSupported(OperatorTypes operator) {
+        switch (operator) {
+            case PLUS:
+            case MULTIPLY:
+            case MINUS:
+            case EQUALS:
+            case NOTEQUAL:
+            case LESSEQ:
+            case GREATEREQ:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    @Override
+    public RuntimeType getType(ExpressionContext f) throws ParsingException {
+        return new RuntimeType(resultType(), false);
+    }
+
+    private DeclaredType resultType() {
+        switch (operator_type) {
+            case PLUS:
+            case MULTIPLY:
+            case MINUS:
+                return type;
+            default:
+                return BasicType.Boolean;
+        }
+    }
+
+    @Override
+    public Object operate(Object value1, Object value2) throws InternalInterpreterException {
+        long[] v1 = (long[]) value1;
+        long[] v2 = (long[]) value2;
+        switch (operator_type) {
+            case PLUS:
+                return PascalSets.union(v1, v2);
+            case MULTIPLY:
+                return PascalSets.intersection(v1, v2);
+            case MINUS:
+                return PascalSets.difference(v1, v2);
+            case EQUALS:
+                return PascalSets.equals(v1, v2);
+            case NOTEQUAL:
+                return !PascalSets.equals(v1, v2);
+            case LESSEQ:
+                return PascalSets.isSubset(v1, v2);
+            case GREATEREQ:
+                return PascalSets.isSubset(v2, v1);
+            default:
+                throw new InternalInterpreterException(line);
+        }
+    }
+
+    @Override
+    public RuntimeValue compileTimeExpressionFold(CompileTimeContext context) throws ParsingException {
+        Object val = this.compileTimeValue(context);
+        if (val != null) {
+            return new ConstantAccess(val, resultType(), line);
+        } else {
+            return new SetBiOperatorEval(operon1.compileTimeExpressionFold(context),
+                    operon2.compileTimeExpressionFold(context), operator_type, type, line);
+        }
+    }
+}
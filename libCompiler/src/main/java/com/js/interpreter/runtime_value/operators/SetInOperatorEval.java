@@ -0,0 +1,83 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.js.interpreter.runtime_value.operators;
+
+import com.duy.pascal.backend.exceptions.ParsingException;
+import com.duy.pascal.backend.linenumber.LineInfo;
+import com.duy.pascal.backend.pascaltypes.BasicType;
+import com.duy.pascal.backend.pascaltypes.RuntimeType;
+import com.duy.pascal.backend.tokens.OperatorTypes;
+import com.js.interpreter.expressioncontext.CompileTimeContext;
+import com.js.interpreter.expressioncontext.ExpressionContext;
+import com.js.interpreter.runtime_value.ConstantAccess;
+import com.js.interpreter.runtime_value.RuntimeValue;
+import com.js.interpreter.runtime_value.operators.number.BinaryOperatorEvaluation;
+import com.js.interpreter.runtime.VariableContext;
+import com.js.interpreter.runtime.PascalSets;
+import com.js.interpreter.codeunit.RuntimeExecutableCodeUnit;
+import com.js.interpreter.runtime.exception.RuntimePascalException;
+
+/**
+ * The IN operator checks to see whether an element is in a set, one bit test
+ */
+public class SetInOperatorEval extends BinaryOperatorEvaluation {
+    /**
+     * the element is an integer, read without boxing
+     */
+    private boolean integral;
+
+    public SetInOperatorEval(RuntimeValue operon1, RuntimeValue operon2, boolean integral,
+                             LineInfo line) {
+        super(operon1, operon2, OperatorTypes.IN, line);
+        this.integral = integral;
+    }
+
+    @Override
+    public Object getValueImpl(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        return getBooleanImpl(f, main);
+    }
+
+    @Override
+    public boolean getBooleanImpl(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        int ordinal = integral ? operon1.getInt(f, main)
+                : PascalSets.ordinal(operon1.getValue(f, main));
+        return PascalSets.contains((long[]) operon2.getValue(f, main), ordinal);
+    }
+
+    @Override
+    public RuntimeType getType(ExpressionContext f) throws ParsingException {
+        return new RuntimeType(BasicType.Boolean, false);
+    }
+
+    @Override
+    public Object operate(Object value1, Object value2) {
+        return PascalSets.contains((long[]) value2, PascalSets.ordinal(value1));
+    }
+
+    @Override
+    public RuntimeValue compileTimeExpressionFold(CompileTimeContext context) throws ParsingException {
+        Object val = this.compileTimeValue(context);
+        if (val != null) {
+            return new ConstantAccess(val, line);
+        } else {
+            return new SetInOperatorEval(operon1.compileTimeExpressionFold(context),
+                    operon2.compileTimeExpressionFold(context), integral, line);
+        }
+    }
+}
@@ -10,6 +10,7 @@ import com.duy.pascal.backend.pascaltypes.ArrayType;
 import com.duy.pascal.backend.pascaltypes.BasicType;
 import com.duy.pascal.backend.pascaltypes.DeclaredType;
 import com.duy.pascal.backend.pascaltypes.JavaClassBasedType;
+import com.duy.pascal.backend.pascaltypes.SetType;
 import com.duy.pascal.backend.pascaltypes.type_converter.AnyToStringType;
 import com.duy.pascal.backend.pascaltypes.type_converter.TypeConverter;
 import com.duy.pascal.backend.tokens.OperatorTypes;
@@ -17,6 +18,8 @@ import com.js.interpreter.expressioncontext.CompileTimeContext;
 import com.js.interpreter.expressioncontext.ExpressionContext;
 import com.js.interpreter.runtime_value.RuntimeValue;
 import com.js.interpreter.runtime_value.operators.InBiOperatorEval;
+import com.js.interpreter.runtime_value.operators.SetBiOperatorEval;
+import com.js.interpreter.runtime_value.operators.SetInOperatorEval;
 import com.js.interpreter.runtime.VariableContext;
 import com.js.interpreter.codeunit.RuntimeExecutableCodeUnit;
 import com.js.interpreter.runtime.exception.PascalArithmeticException;
@@ -40,6 +43,18 @@ public abstract class BinaryOperatorEvaluation extends DebuggableReturnValue {
         this.line = line;
     }
 
+    public RuntimeValue getOperon1() {
+        return operon1;
+    }
+
+    public RuntimeValue getOperon2() {
+        return operon2;
+    }
+
+    public OperatorTypes getOperatorType() {
+        return operator_type;
+    }
+
     @SuppressWarnings("ConstantConditions")
     public static BinaryOperatorEvaluation generateOp(ExpressionContext context,
                                                       RuntimeValue v1, RuntimeValue v2,
@@ -48,6 +63,21 @@ public abstract class BinaryOperatorEvaluation extends DebuggableReturnValue {
         DeclaredType t1 = v1.getType(context).declType;
         DeclaredType t2 = v2.getType(context).declType;
 
+        if (t2 instanceof SetType) {
+            SetType<?> set2 = (SetType<?>) t2;
+            if (operatorTypes == OperatorTypes.IN && set2.acceptsElement(t1)) {
+                return new SetInOperatorEval(v1, v2, t1 == BasicType.Integer, line);
+            }
+            if (t1 instanceof SetType && SetBiOperatorEval.isSupported(operatorTypes)) {
+                SetType<?> set1 = (SetType<?>) t1;
+                if (set1.getElementType() == null || set2.acceptsElement(set1.getElementType())) {
+                    SetType<?> type = set1.getElementType() == null ? set2 : set1;
+                    return new SetBiOperatorEval(v1, v2, operatorTypes, type, line);
+                }
+            }
+            throw new BadOperationTypeException(line, t1, t2, v1, v2, operatorTypes);
+        }
+
         if (!(t1 instanceof BasicType || t1 instanceof JavaClassBasedType)) {
             throw new BadOperationTypeException(line, t1, t2, v1, v2, operatorTypes);
         }
@@ -26,15 +26,20 @@ public class BoolBiOperatorEval extends BinaryOperatorEvaluation {
     @Override
     public Object getValueImpl(VariableContext f, RuntimeExecutableCodeUnit<?> main)
             throws RuntimePascalException {
-        boolean value1 = (boolean) operon1.getValue(f, main);
+        return getBooleanImpl(f, main);
+    }
+
+    @Override
+    public boolean getBooleanImpl(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        boolean value1 = operon1.getBoolean(f, main);
         if ((operator_type == OperatorTypes.AND && !value1) || (operator_type == OperatorTypes.OR && value1)) {
             return value1;
         }
-        boolean value2 = (boolean) operon2.getValue(f, main);
+        boolean value2 = operon2.getBoolean(f, main);
         return operate(value1, value2);
     }
 
-
     @Override
     public RuntimeType getType(ExpressionContext f) throws ParsingException {
         return new RuntimeType(BasicType.Boolean, false);
@@ -43,8 +48,10 @@ public class BoolBiOperatorEval extends BinaryOperatorEvaluation {
     @Override
     public Object operate(Object value1, Object value2)
             throws PascalArithmeticException, InternalInterpreterException {
-        boolean v1 = (boolean) value1;
-        boolean v2 = (boolean) value2;
+        return operate((boolean) value1, (boolean) value2);
+    }
+
+    private boolean operate(boolean v1, boolean v2) throws InternalInterpreterException {
         switch (operator_type) {
             case AND:
                 return v1 & v2;
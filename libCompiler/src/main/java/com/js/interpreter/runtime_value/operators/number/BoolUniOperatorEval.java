@@ -10,7 +10,10 @@ import com.js.interpreter.expressioncontext.ExpressionContext;
 import com.js.interpreter.runtime_value.ConstantAccess;
 import com.js.interpreter.runtime_value.RuntimeValue;
 import com.js.interpreter.runtime_value.UnaryOperatorEvaluation;
+import com.js.interpreter.runtime.VariableContext;
+import com.js.interpreter.codeunit.RuntimeExecutableCodeUnit;
 import com.js.interpreter.runtime.exception.PascalArithmeticException;
+import com.js.interpreter.runtime.exception.RuntimePascalException;
 import com.js.interpreter.runtime.exception.internal.InternalInterpreterException;
 
 public class BoolUniOperatorEval extends UnaryOperatorEvaluation {
@@ -34,6 +37,15 @@ public class BoolUniOperatorEval extends UnaryOperatorEvaluation {
         }
     }
 
+    @Override
+    public boolean getBooleanImpl(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        if (operator == OperatorTypes.NOT) {
+            return !operon.getBoolean(f, main);
+        }
+        throw new InternalInterpreterException(line);
+    }
+
     @Override
     public RuntimeValue compileTimeExpressionFold(CompileTimeContext context) throws ParsingException {
         Object val = this.compileTimeValue(context);
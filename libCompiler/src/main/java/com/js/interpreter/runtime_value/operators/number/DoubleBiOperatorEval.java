@@ -11,7 +11,10 @@ import com.js.interpreter.expressioncontext.CompileTimeContext;
 import com.js.interpreter.expressioncontext.ExpressionContext;
 import com.js.interpreter.runtime_value.ConstantAccess;
 import com.js.interpreter.runtime_value.RuntimeValue;
+import com.js.interpreter.runtime.VariableContext;
+import com.js.interpreter.codeunit.RuntimeExecutableCodeUnit;
 import com.js.interpreter.runtime.exception.PascalArithmeticException;
+import com.js.interpreter.runtime.exception.RuntimePascalException;
 import com.js.interpreter.runtime.exception.internal.InternalInterpreterException;
 
 public class DoubleBiOperatorEval extends BinaryOperatorEvaluation {
@@ -39,14 +42,66 @@ public class DoubleBiOperatorEval extends BinaryOperatorEvaluation {
     @Override
     public Object operate(Object value1, Object value2)
             throws PascalArithmeticException, InternalInterpreterException {
-        double v1 = Double.valueOf(String.valueOf(value1));
-        double v2 = Double.valueOf(String.valueOf(value2));
+        double v1 = ((Number) value1).doubleValue();
+        double v2 = ((Number) value2).doubleValue();
+        switch (operator_type) {
+            case EQUALS:
+            case GREATEREQ:
+            case GREATERTHAN:
+            case LESSEQ:
+            case LESSTHAN:
+            case NOTEQUAL:
+                return compare(v1, v2);
+            default:
+                return operate(v1, v2);
+        }
+    }
+
+    @Override
+    public int getIntImpl(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        return (int) getDoubleImpl(f, main);
+    }
+
+    @Override
+    public long getLongImpl(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        return (long) getDoubleImpl(f, main);
+    }
+
+    @Override
+    public double getDoubleImpl(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        return operate(operon1.getDouble(f, main), operon2.getDouble(f, main));
+    }
+
+    @Override
+    public boolean getBooleanImpl(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        return compare(operon1.getDouble(f, main), operon2.getDouble(f, main));
+    }
+
+    private double operate(double v1, double v2)
+            throws PascalArithmeticException, InternalInterpreterException {
         switch (operator_type) {
             case DIVIDE:
                 if (Math.abs(v2) == 0d) {
                     throw new DivisionByZeroException(line);
                 }
                 return v1 / v2;
+            case MINUS:
+                return v1 - v2;
+            case MULTIPLY:
+                return v1 * v2;
+            case PLUS:
+                return v1 + v2;
+            default:
+                throw new InternalInterpreterException(line);
+        }
+    }
+
+    private boolean compare(double v1, double v2) throws InternalInterpreterException {
+        switch (operator_type) {
             case EQUALS:
                 return v1 == v2;
             case GREATEREQ:
@@ -57,14 +112,8 @@ public class DoubleBiOperatorEval extends BinaryOperatorEvaluation {
                 return v1 <= v2;
             case LESSTHAN:
                 return v1 < v2;
-            case MINUS:
-                return v1 - v2;
-            case MULTIPLY:
-                return v1 * v2;
             case NOTEQUAL:
                 return v1 != v2;
-            case PLUS:
-                return v1 + v2;
             default:
                 throw new InternalInterpreterException(line);
         }
@@ -10,7 +10,10 @@ import com.js.interpreter.expressioncontext.ExpressionContext;
 import com.js.interpreter.runtime_value.ConstantAccess;
 import com.js.interpreter.runtime_value.RuntimeValue;
 import com.js.interpreter.runtime_value.UnaryOperatorEvaluation;
+import com.js.interpreter.runtime.VariableContext;
+import com.js.interpreter.codeunit.RuntimeExecutableCodeUnit;
 import com.js.interpreter.runtime.exception.PascalArithmeticException;
+import com.js.interpreter.runtime.exception.RuntimePascalException;
 import com.js.interpreter.runtime.exception.internal.InternalInterpreterException;
 
 public class DoubleUniOperatorEval extends UnaryOperatorEvaluation {
@@ -36,6 +39,32 @@ public class DoubleUniOperatorEval extends UnaryOperatorEvaluation {
         }
     }
 
+    @Override
+    public double getDoubleImpl(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        double value = operon.getDouble(f, main);
+        switch (operator) {
+            case PLUS:
+                return +value;
+            case MINUS:
+                return -value;
+            default:
+                throw new InternalInterpreterException(line);
+        }
+    }
+
+    @Override
+    public int getIntImpl(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        return (int) getDoubleImpl(f, main);
+    }
+
+    @Override
+    public long getLongImpl(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        return (long) getDoubleImpl(f, main);
+    }
+
     @Override
     public RuntimeValue compileTimeExpressionFold(CompileTimeContext context) throws ParsingException {
         Object val = this.compileTimeValue(context);
@@ -10,7 +10,10 @@ import com.js.interpreter.expressioncontext.CompileTimeContext;
 import com.js.interpreter.expressioncontext.ExpressionContext;
 import com.js.interpreter.runtime_value.ConstantAccess;
 import com.js.interpreter.runtime_value.RuntimeValue;
+import com.js.interpreter.runtime.VariableContext;
+import com.js.interpreter.codeunit.RuntimeExecutableCodeUnit;
 import com.js.interpreter.runtime.exception.PascalArithmeticException;
+import com.js.interpreter.runtime.exception.RuntimePascalException;
 import com.js.interpreter.runtime.exception.internal.InternalInterpreterException;
 
 public class IntegerBiOperatorEval extends BinaryOperatorEvaluation {
@@ -40,8 +43,52 @@ public class IntegerBiOperatorEval extends BinaryOperatorEvaluation {
     @Override
     public Object operate(Object value1, Object value2)
             throws PascalArithmeticException, InternalInterpreterException {
-        int v1 = Integer.parseInt(String.valueOf(value1));
-        int v2 = Integer.parseInt(String.valueOf(value2));
+        int v1 = ((Number) value1).intValue();
+        int v2 = ((Number) value2).intValue();
+        switch (operator_type) {
+            case EQUALS:
+            case GREATEREQ:
+            case GREATERTHAN:
+            case LESSEQ:
+            case LESSTHAN:
+            case NOTEQUAL:
+                return compare(v1, v2);
+            case DIVIDE:
+                return divide(v1, v2);
+            default:
+                return operate(v1, v2);
+        }
+    }
+
+    @Override
+    public int getIntImpl(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        return operate(operon1.getInt(f, main), operon2.getInt(f, main));
+    }
+
+    @Override
+    public long getLongImpl(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        return getIntImpl(f, main);
+    }
+
+    @Override
+    public double getDoubleImpl(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        if (operator_type == OperatorTypes.DIVIDE) {
+            return divide(operon1.getInt(f, main), operon2.getInt(f, main));
+        }
+        return getIntImpl(f, main);
+    }
+
+    @Override
+    public boolean getBooleanImpl(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        return compare(operon1.getInt(f, main), operon2.getInt(f, main));
+    }
+
+    private int operate(int v1, int v2)
+            throws PascalArithmeticException, InternalInterpreterException {
         switch (operator_type) {
             case AND:
                 return v1 & v2;
@@ -50,29 +97,12 @@ public class IntegerBiOperatorEval extends BinaryOperatorEvaluation {
                     throw new DivisionByZeroException(line);
                 }
                 return v1 / v2;
-            case DIVIDE:
-                if (Math.abs(v2) == 0) {
-                    throw new DivisionByZeroException(line);
-                }
-                return (double) v1 / (double) v2;
-            case EQUALS:
-                return v1 == v2;
-            case GREATEREQ:
-                return v1 >= v2;
-            case GREATERTHAN:
-                return v1 > v2;
-            case LESSEQ:
-                return v1 <= v2;
-            case LESSTHAN:
-                return v1 < v2;
             case MINUS:
                 return v1 - v2;
             case MOD:
                 return v1 % v2;
             case MULTIPLY:
                 return v1 * v2;
-            case NOTEQUAL:
-                return v1 != v2;
             case OR:
                 return v1 | v2;
             case PLUS:
@@ -88,6 +118,32 @@ public class IntegerBiOperatorEval extends BinaryOperatorEvaluation {
         }
     }
 
+    private double divide(int v1, int v2) throws DivisionByZeroException {
+        if (v2 == 0) {
+            throw new DivisionByZeroException(line);
+        }
+        return (double) v1 / (double) v2;
+    }
+
+    private boolean compare(int v1, int v2) throws InternalInterpreterException {
+        switch (operator_type) {
+            case EQUALS:
+                return v1 == v2;
+            case GREATEREQ:
+                return v1 >= v2;
+            case GREATERTHAN:
+                return v1 > v2;
+            case LESSEQ:
+                return v1 <= v2;
+            case LESSTHAN:
+                return v1 < v2;
+            case NOTEQUAL:
+                return v1 != v2;
+            default:
+                throw new InternalInterpreterException(line);
+        }
+    }
+
     @Override
     public RuntimeValue compileTimeExpressionFold(CompileTimeContext context) throws ParsingException {
         Object val = this.compileTimeValue(context);
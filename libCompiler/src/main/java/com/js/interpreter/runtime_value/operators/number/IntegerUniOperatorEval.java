@@ -10,7 +10,10 @@ import com.js.interpreter.expressioncontext.ExpressionContext;
 import com.js.interpreter.runtime_value.ConstantAccess;
 import com.js.interpreter.runtime_value.RuntimeValue;
 import com.js.interpreter.runtime_value.UnaryOperatorEvaluation;
+import com.js.interpreter.runtime.VariableContext;
+import com.js.interpreter.codeunit.RuntimeExecutableCodeUnit;
 import com.js.interpreter.runtime.exception.PascalArithmeticException;
+import com.js.interpreter.runtime.exception.RuntimePascalException;
 import com.js.interpreter.runtime.exception.internal.InternalInterpreterException;
 
 public class IntegerUniOperatorEval extends UnaryOperatorEvaluation {
@@ -36,6 +39,32 @@ public class IntegerUniOperatorEval extends UnaryOperatorEvaluation {
         }
     }
 
+    @Override
+    public int getIntImpl(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        int value = operon.getInt(f, main);
+        switch (operator) {
+            case PLUS:
+                return +value;
+            case MINUS:
+                return -value;
+            default:
+                throw new InternalInterpreterException(line);
+        }
+    }
+
+    @Override
+    public long getLongImpl(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        return getIntImpl(f, main);
+    }
+
+    @Override
+    public double getDoubleImpl(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        return getIntImpl(f, main);
+    }
+
     @Override
     public RuntimeValue compileTimeExpressionFold(CompileTimeContext context) throws ParsingException {
         Object val = this.compileTimeValue(context);
@@ -9,7 +9,11 @@ import com.js.interpreter.expressioncontext.CompileTimeContext;
 import com.js.interpreter.expressioncontext.ExpressionContext;
 import com.js.interpreter.runtime_value.ConstantAccess;
 import com.js.interpreter.runtime_value.RuntimeValue;
+import com.js.interpreter.runtime.VariableContext;
+import com.js.interpreter.codeunit.RuntimeExecutableCodeUnit;
 import com.js.interpreter.runtime.exception.PascalArithmeticException;
+import com.js.interpreter.runtime.exception.RuntimePascalException;
+import com.js.interpreter.runtime.exception.internal.InternalInterpreterException;
 
 
 public class LongBiOperatorEval extends BinaryOperatorEvaluation {
@@ -41,36 +45,63 @@ public class LongBiOperatorEval extends BinaryOperatorEvaluation {
 
     @Override
     public Object operate(Object value1, Object value2)
-            throws PascalArithmeticException {
-//        long v1 = (long) value1;
-        long v1 = Long.parseLong(String.valueOf(value1));
-//        long v2 = (long) value2;
-        long v2 = Long.parseLong(String.valueOf(value2));
+            throws PascalArithmeticException, InternalInterpreterException {
+        long v1 = ((Number) value1).longValue();
+        long v2 = ((Number) value2).longValue();
         switch (operator_type) {
-            case AND:
-                return v1 & v2;
-            case DIV:
-                return v1 / v2;
-            case DIVIDE:
-                return (double) v1 / (double) v2;
             case EQUALS:
-                return v1 == v2;
             case GREATEREQ:
-                return v1 >= v2;
             case GREATERTHAN:
-                return v1 > v2;
             case LESSEQ:
-                return v1 <= v2;
             case LESSTHAN:
-                return v1 < v2;
+            case NOTEQUAL:
+                return compare(v1, v2);
+            case DIVIDE:
+                return (double) v1 / (double) v2;
+            default:
+                return operate(v1, v2);
+        }
+    }
+
+    @Override
+    public int getIntImpl(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        return (int) getLongImpl(f, main);
+    }
+
+    @Override
+    public long getLongImpl(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        return operate(operon1.getLong(f, main), operon2.getLong(f, main));
+    }
+
+    @Override
+    public double getDoubleImpl(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        if (operator_type == OperatorTypes.DIVIDE) {
+            return (double) operon1.getLong(f, main) / (double) operon2.getLong(f, main);
+        }
+        return getLongImpl(f, main);
+    }
+
+    @Override
+    public boolean getBooleanImpl(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        return compare(operon1.getLong(f, main), operon2.getLong(f, main));
+    }
+
+    private long operate(long v1, long v2) throws InternalInterpreterException {
+        switch (operator_type) {
+            case AND:
+                return v1 & v2;
+            case DIV:
+                return v1 / v2;
             case MINUS:
                 return v1 - v2;
             case MOD:
                 return v1 % v2;
             case MULTIPLY:
                 return v1 * v2;
-            case NOTEQUAL:
-                return v1 != v2;
             case OR:
                 return v1 | v2;
             case PLUS:
@@ -82,7 +113,26 @@ public class LongBiOperatorEval extends BinaryOperatorEvaluation {
             case XOR:
                 return v1 ^ v2;
             default:
-                return null;
+                throw new InternalInterpreterException(line);
+        }
+    }
+
+    private boolean compare(long v1, long v2) throws InternalInterpreterException {
+        switch (operator_type) {
+            case EQUALS:
+                return v1 == v2;
+            case GREATEREQ:
+                return v1 >= v2;
+            case GREATERTHAN:
+                return v1 > v2;
+            case LESSEQ:
+                return v1 <= v2;
+            case LESSTHAN:
+                return v1 < v2;
+            case NOTEQUAL:
+                return v1 != v2;
+            default:
+                throw new InternalInterpreterException(line);
         }
     }
 
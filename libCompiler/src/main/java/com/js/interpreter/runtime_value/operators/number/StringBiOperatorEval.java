@@ -10,6 +10,7 @@ import com.js.interpreter.expressioncontext.CompileTimeContext;
 import com.js.interpreter.expressioncontext.ExpressionContext;
 import com.js.interpreter.runtime_value.ConstantAccess;
 import com.js.interpreter.runtime_value.RuntimeValue;
+import com.js.interpreter.runtime.PascalStrings;
 import com.js.interpreter.runtime.exception.PascalArithmeticException;
 import com.js.interpreter.runtime.exception.internal.InternalInterpreterException;
 
@@ -35,23 +36,21 @@ public class StringBiOperatorEval extends BinaryOperatorEvaluation {
     @Override
     public Object operate(Object value1, Object value2)
             throws PascalArithmeticException, InternalInterpreterException {
-        String v1 = value1.toString();
-        String v2 = value2.toString();
         switch (operator_type) {
             case EQUALS:
-                return v1.equals(v2);
+                return PascalStrings.equals(value1, value2);
             case NOTEQUAL:
-                return !v1.equals(v2);
+                return !PascalStrings.equals(value1, value2);
             case LESSTHAN:
-                return v1.compareTo(v2) < 0;
+                return PascalStrings.compare(value1, value2) < 0;
             case LESSEQ:
-                return v1.compareTo(v2) <= 0;
+                return PascalStrings.compare(value1, value2) <= 0;
             case GREATEREQ:
-                return v1.compareTo(v2) >= 0;
+                return PascalStrings.compare(value1, value2) >= 0;
             case GREATERTHAN:
-                return v1.compareTo(v2) > 0;
+                return PascalStrings.compare(value1, value2) > 0;
             case PLUS:
-                return new StringBuilder(v1).append(v2);
+                return PascalStrings.concat(value1, value2);
             default:
                 throw new InternalInterpreterException(line);
         }
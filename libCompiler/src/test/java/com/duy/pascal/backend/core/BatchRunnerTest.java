@@ -0,0 +1,102 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.duy.pascal.backend.core;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+
+import static org.junit.Assert.assertEquals;
+
+public class BatchRunnerTest {
+
+    private static File write(String name, String text) throws IOException {
+        File file = File.createTempFile(name, ".txt");
+        file.deleteOnExit();
+        OutputStream out = new FileOutputStream(file);
+        out.write(text.getBytes(Charset.forName("UTF-8")));
+        out.close();
+        return file;
+    }
+
+    @Test
+    public void mainRunsProgramWithFiles() throws Exception {
+        File program = write("sum", "var a, b: integer;\n"
+                + "begin\n"
+                + "  readln(a, b);\n"
+                + "  writeln(a + b);\n"
+                + "end.\n");
+        File input = write("input", "3 4\n");
+        File output = write("output", "");
+        int exitCode = BatchRunner.runMain(new String[]{program.getPath(), input.getPath(),
+                output.getPath(), "5000", "64"});
+        assertEquals(0, exitCode);
+        byte[] bytes = Files.readAllBytes(output.toPath());
+        assertEquals("7", new String(bytes, "UTF-8").trim());
+    }
+
+    @Test
+    public void compileError() throws Exception {
+        assertEquals(BatchRunner.Status.COMPILE_ERROR, TestPrograms.status(new BatchRunner(),
+                "begin\n  x := 1;\nend.\n"));
+    }
+
+    @Test
+    public void runtimeError() throws Exception {
+        assertEquals(BatchRunner.Status.RUNTIME_ERROR, TestPrograms.status(new BatchRunner(),
+                "var a: array[1..3] of integer;\n"
+                        + "    i: integer;\n"
+                        + "begin\n"
+                        + "  i := 5;\n"
+                        + "  a[i] := 1;\n"
+                        + "end.\n"));
+    }
+
+    @Test
+    public void timeLimitExceeded() throws Exception {
+        BatchRunner runner = new BatchRunner();
+        runner.setTimeLimit(300);
+        assertEquals(BatchRunner.Status.TIME_LIMIT_EXCEEDED, TestPrograms.status(runner,
+                "var i: integer;\n"
+                        + "begin\n"
+                        + "  i := 0;\n"
+                        + "  while true do\n"
+                        + "    i := i + 1;\n"
+                        + "end.\n"));
+        //the program stopped at a safepoint, so the runner accepts the next program
+        assertEquals(BatchRunner.Status.OK, TestPrograms.status(runner, "begin\nend.\n"));
+    }
+
+    @Test
+    public void memoryLimitExceeded() throws Exception {
+        BatchRunner runner = new BatchRunner();
+        runner.setMemoryLimit(1024 * 1024);
+        assertEquals(BatchRunner.Status.MEMORY_LIMIT_EXCEEDED, TestPrograms.status(runner,
+                "type TArray = array[1..1000] of longint;\n"
+                        + "var p: ^TArray;\n"
+                        + "begin\n"
+                        + "  while true do\n"
+                        + "    new(p);\n"
+                        + "end.\n"));
+    }
+}
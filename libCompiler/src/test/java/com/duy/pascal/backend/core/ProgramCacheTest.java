@@ -0,0 +1,85 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.duy.pascal.backend.core;
+
+import com.duy.pascal.backend.exceptions.ParsingException;
+import com.duy.pascal.backend.lib.io.StreamInOutListener;
+import com.js.interpreter.codeunit.program.PascalProgram;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+public class ProgramCacheTest {
+    private static final String COUNTER = "var n: integer;\n"
+            + "begin\n"
+            + "  n := n + 1;\n"
+            + "  writeln(n);\n"
+            + "end.\n";
+
+    private static String run(ProgramCache cache, String source) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        StreamInOutListener handler =
+                new StreamInOutListener(new ByteArrayInputStream(new byte[0]), out);
+        cache.loadPascal("test.pas", source, handler).run().run();
+        handler.flush();
+        return out.toString().replace("\r\n", "\n");
+    }
+
+    @Test
+    public void sameSourceIsCompiledOnce() throws Exception {
+        ProgramCache cache = new ProgramCache(2);
+        PascalProgram first = cache.loadPascal("test.pas", COUNTER, null);
+        assertSame(first, cache.loadPascal("test.pas", COUNTER, null));
+        assertNotSame(first, cache.loadPascal("test.pas", COUNTER + "\n", null));
+    }
+
+    @Test
+    public void leastRecentlyUsedIsRemoved() throws Exception {
+        ProgramCache cache = new ProgramCache(1);
+        PascalProgram first = cache.loadPascal("a.pas", COUNTER, null);
+        cache.loadPascal("b.pas", COUNTER, null);
+        assertNotSame(first, cache.loadPascal("a.pas", COUNTER, null));
+    }
+
+    @Test
+    public void everyRunHasItsOwnVariables() throws Exception {
+        ProgramCache cache = new ProgramCache(1);
+        assertEquals("1\n", run(cache, COUNTER));
+        assertEquals("1\n", run(cache, COUNTER));
+    }
+
+    @Test
+    public void compileErrorIsNotCached() throws Exception {
+        ProgramCache cache = new ProgramCache(1);
+        String source = "begin\n  writeln(x);\nend.\n";
+        for (int i = 0; i < 2; i++) {
+            try {
+                cache.loadPascal("test.pas", source, null);
+                fail();
+            } catch (ParsingException expected) {
+            }
+        }
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.duy.pascal.backend.core;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Runs pascal programs of the tests with {@link BatchRunner}, on the jvm without android
+ */
+public class TestPrograms {
+
+    public static BatchRunner.Result run(BatchRunner runner, String source, String input,
+                                         ByteArrayOutputStream out) {
+        return runner.run("test.pas", new StringReader(source),
+                new ByteArrayInputStream(input.getBytes()), out);
+    }
+
+    /**
+     * @return output of the program, which must end without error
+     */
+    public static String output(String source, String input) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BatchRunner.Result result = run(new BatchRunner(), source, input, out);
+        assertEquals(String.valueOf(result.getError()), BatchRunner.Status.OK, result.getStatus());
+        return out.toString().replace("\r\n", "\n");
+    }
+
+    public static String output(String source) {
+        return output(source, "");
+    }
+
+    public static BatchRunner.Status status(BatchRunner runner, String source) {
+        return run(runner, source, "", new ByteArrayOutputStream()).getStatus();
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.duy.pascal.backend.debugable;
+
+import com.duy.pascal.backend.linenumber.LineInfo;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class DebugEventRecorderTest {
+
+    @Test
+    public void recordsCopyOfChangedValue() throws Exception {
+        DebugEventRecorder recorder = new DebugEventRecorder(4);
+        StringBuilder s = new StringBuilder("ab");
+        int[] a = {1, 2};
+        recorder.recordVariableChange(null, "s", s);
+        recorder.recordVariableChange(null, "a", a);
+        s.append('c');
+        a[0] = 5;
+        final List<Object> values = new ArrayList<>();
+        recorder.drain(new DebugEventRecorder.Reader() {
+            @Override
+            public void onEvent(int kind, LineInfo line, Object subject, Object value) {
+                values.add(value);
+            }
+        });
+        assertEquals("ab", values.get(0));
+        assertArrayEquals(new int[]{1, 2}, (int[]) values.get(1));
+    }
+
+    @Test
+    public void fullRingDropsNewEvents() throws Exception {
+        DebugEventRecorder recorder = new DebugEventRecorder(4);
+        for (int i = 0; i < 6; i++) {
+            recorder.recordVariableChange(null, "i", i);
+        }
+        final List<Object> values = new ArrayList<>();
+        DebugEventRecorder.Reader reader = new DebugEventRecorder.Reader() {
+            @Override
+            public void onEvent(int kind, LineInfo line, Object subject, Object value) {
+                values.add(value);
+            }
+        };
+        assertEquals(2, recorder.drain(reader));
+        assertEquals(4, values.size());
+        assertEquals(3, values.get(3));
+
+        recorder.recordVariableChange(null, "i", 6);
+        assertEquals(0, recorder.drain(reader));
+        assertEquals(6, values.get(4));
+    }
+
+    @Test
+    public void drainWhileRecording() throws Exception {
+        final DebugEventRecorder recorder = new DebugEventRecorder(16);
+        final int count = 100000;
+        Thread writer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < count; i++) {
+                    recorder.recordVariableChange(null, i, i);
+                }
+            }
+        });
+        final int[] lastRead = {-1};
+        final int[] torn = {0};
+        DebugEventRecorder.Reader reader = new DebugEventRecorder.Reader() {
+            @Override
+            public void onEvent(int kind, LineInfo line, Object subject, Object value) {
+                int i = (Integer) value;
+                if (!subject.equals(value) || i <= lastRead[0]) {
+                    torn[0]++;
+                }
+                lastRead[0] = i;
+            }
+        };
+        writer.start();
+        while (writer.isAlive()) {
+            recorder.drain(reader);
+        }
+        writer.join();
+        recorder.drain(reader);
+        assertEquals(0, torn[0]);
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.duy.pascal.backend.function_declaretion;
+
+import com.duy.pascal.backend.core.BatchRunner;
+import com.duy.pascal.backend.core.TestPrograms;
+import com.js.interpreter.runtime.exception.StackOverflowException;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class FunctionDeclarationTest {
+
+    @Test
+    public void foldedBodyFromTheFirstCall() throws Exception {
+        assertEquals("42\n", TestPrograms.output("const k = 2 * 3;\n"
+                + "function f(n: integer): integer;\n"
+                + "begin\n"
+                + "  if k > 5 then f := n * k else f := 0;\n"
+                + "end;\n"
+                + "begin\n"
+                + "  writeln(f(7));\n"
+                + "end.\n"));
+    }
+
+    @Test
+    public void recursiveCalls() throws Exception {
+        assertEquals("832040\n", TestPrograms.output("function fib(n: integer): longint;\n"
+                + "begin\n"
+                + "  if n < 2 then fib := n\n"
+                + "  else fib := fib(n - 1) + fib(n - 2);\n"
+                + "end;\n"
+                + "begin\n"
+                + "  writeln(fib(30));\n"
+                + "end.\n"));
+    }
+
+    private static final String DEPTH = "function depth(n: integer): integer;\n"
+            + "begin\n"
+            + "  if n = 0 then depth := 0\n"
+            + "  else depth := ((1 + (2 * (3 + depth(n - 1)))) - 6) div 2 + 1;\n"
+            + "end;\n"
+            + "begin\n"
+            + "  writeln(depth(%d));\n"
+            + "end.\n";
+
+    @Test
+    public void stackSizeCountsFunctionCalls() throws Exception {
+        //the nested expressions of each call do not count
+        BatchRunner runner = new BatchRunner();
+        runner.setMaxStackSize(60);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BatchRunner.Result result = TestPrograms.run(runner, String.format(DEPTH, 50), "", out);
+        assertEquals(BatchRunner.Status.OK, result.getStatus());
+        assertEquals("50", out.toString().trim());
+
+        result = TestPrograms.run(runner, String.format(DEPTH, 70), "",
+                new ByteArrayOutputStream());
+        assertEquals(BatchRunner.Status.RUNTIME_ERROR, result.getStatus());
+        assertTrue(String.valueOf(result.getError()),
+                result.getError() instanceof StackOverflowException);
+    }
+}
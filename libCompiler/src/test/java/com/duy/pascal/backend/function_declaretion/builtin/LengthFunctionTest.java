@@ -0,0 +1,61 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.duy.pascal.backend.function_declaretion.builtin;
+
+import com.duy.pascal.backend.core.BatchRunner;
+import com.duy.pascal.backend.core.TestPrograms;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class LengthFunctionTest {
+
+    @Test
+    public void arrayOfInt64() throws Exception {
+        assertEquals("5 3\n", TestPrograms.output("var a: array[1..5] of int64;\n"
+                + "    s: string;\n"
+                + "begin\n"
+                + "  s := 'abc';\n"
+                + "  writeln(length(a), ' ', length(s));\n"
+                + "end.\n"));
+    }
+
+    @Test
+    public void arraysOfPrimitiveElements() throws Exception {
+        assertEquals("3 5 2 6 4\n", TestPrograms.output("var a: array[1..3] of integer;\n"
+                + "    b: array[0..4] of longint;\n"
+                + "    c: array[1..2] of real;\n"
+                + "    d: array[1..6] of boolean;\n"
+                + "    e: array['a'..'d'] of char;\n"
+                + "begin\n"
+                + "  write(length(a), ' ', length(b), ' ', length(c), ' ');\n"
+                + "  writeln(length(d), ' ', length(e));\n"
+                + "end.\n"));
+    }
+
+    @Test
+    public void setIsNotAnArray() throws Exception {
+        assertEquals(BatchRunner.Status.COMPILE_ERROR, TestPrograms.status(new BatchRunner(),
+                "var s: set of byte;\n"
+                        + "begin\n"
+                        + "  s := [1, 2];\n"
+                        + "  writeln(length(s));\n"
+                        + "end.\n"));
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.duy.pascal.backend.lib;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class MiscLibTest {
+    private final MiscLib lib = new MiscLib();
+
+    @Test
+    public void lengthOfIntArray() throws Exception {
+        assertEquals(3, lib.length(new int[3]));
+        assertEquals(3, lib.GetArrayLength(new int[3]));
+    }
+
+    @Test
+    public void lengthOfLongArray() throws Exception {
+        assertEquals(4, lib.length(new long[4]));
+        assertEquals(4, lib.GetArrayLength(new long[4]));
+    }
+
+    @Test
+    public void lengthOfDoubleArray() throws Exception {
+        assertEquals(2, lib.length(new double[2]));
+        assertEquals(2, lib.GetArrayLength(new double[2]));
+    }
+
+    @Test
+    public void lengthOfBooleanArray() throws Exception {
+        assertEquals(6, lib.length(new boolean[6]));
+        assertEquals(6, lib.GetArrayLength(new boolean[6]));
+    }
+
+    @Test
+    public void lengthOfCharArray() throws Exception {
+        assertEquals(5, lib.length(new char[5]));
+        assertEquals(5, lib.GetArrayLength(new char[5]));
+    }
+
+    @Test
+    public void lengthOfObjectArray() throws Exception {
+        assertEquals(1, lib.length(new Object[]{"a"}));
+        assertEquals(1, lib.GetArrayLength(new Object[]{"a"}));
+    }
+}
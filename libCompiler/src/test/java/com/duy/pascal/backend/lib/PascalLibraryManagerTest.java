@@ -0,0 +1,65 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.duy.pascal.backend.lib;
+
+import com.duy.pascal.backend.core.TestPrograms;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class PascalLibraryManagerTest {
+    private static final String PROGRAM = "uses sysutils;\n"
+            + "begin\n"
+            + "  writeln(strToInt('41') + 1);\n"
+            + "end.\n";
+
+    @Test
+    public void functionsOfLibraryInEveryProgram() throws Exception {
+        //the second program uses the functions which were read for the first one
+        assertEquals("42\n", TestPrograms.output(PROGRAM));
+        assertEquals("42\n", TestPrograms.output(PROGRAM));
+    }
+
+    @Test
+    public void programsCompiledOnManyThreads() throws Exception {
+        final String[] outputs = new String[4];
+        final Throwable[] errors = new Throwable[outputs.length];
+        Thread[] threads = new Thread[outputs.length];
+        for (int i = 0; i < threads.length; i++) {
+            final int index = i;
+            threads[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        outputs[index] = TestPrograms.output(PROGRAM);
+                    } catch (Throwable e) {
+                        errors[index] = e;
+                    }
+                }
+            });
+            threads[i].start();
+        }
+        for (int i = 0; i < threads.length; i++) {
+            threads[i].join();
+            assertNull(errors[i]);
+            assertEquals("42\n", outputs[i]);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.duy.pascal.backend.lib;
+
+import com.duy.pascal.backend.core.TestPrograms;
+import com.duy.pascal.backend.function_declaretion.MethodDescriptor;
+import com.duy.pascal.backend.function_declaretion.MethodInvoker;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class SystemLibInvokerTest {
+    private final SystemLib lib = new SystemLib();
+
+    private static MethodInvoker invoker(String name, Class<?>... parameterTypes)
+            throws Exception {
+        MethodInvoker invoker = SystemLibInvoker.get(
+                SystemLib.class.getMethod(name, parameterTypes));
+        assertTrue(name + " is not bound", invoker instanceof SystemLibInvoker);
+        return invoker;
+    }
+
+    @Test
+    public void everyBoundMethodIsAFunction() throws Exception {
+        int bound = 0;
+        for (MethodDescriptor function : LibraryDescriptor.get(SystemLib.class).getFunctions()) {
+            if (function.getInvoker() instanceof SystemLibInvoker) {
+                bound++;
+            }
+        }
+        assertEquals(27, SystemLibInvoker.boundCount());
+        assertEquals(SystemLibInvoker.boundCount(), bound);
+    }
+
+    @Test
+    public void otherMethodIsNotBound() throws Exception {
+        assertNull(SystemLibInvoker.get(Object.class.getMethod("hashCode")));
+    }
+
+    @Test
+    public void mathIsCalledDirectly() throws Exception {
+        assertEquals(3, invoker("abs", int.class).invoke1(lib, -3));
+        assertEquals(5L, invoker("abs", long.class).invoke1(lib, -5L));
+        assertEquals(2.25, invoker("sqr", double.class).invoke1(lib, 1.5));
+        assertEquals(49, invoker("sqr", int.class).invoke1(lib, 7));
+        assertEquals(3.0, invoker("sqrt", double.class).invoke1(lib, 9.0));
+        assertEquals(3L, invoker("round", double.class).invoke1(lib, 2.6));
+        assertEquals(2L, invoker("trunc", double.class).invoke1(lib, 2.6));
+        assertEquals(true, invoker("odd", int.class).invoke1(lib, 7));
+        assertEquals('A', invoker("chr", int.class).invoke1(lib, 65));
+        assertEquals(97, invoker("ord", char.class).invoke1(lib, 'a'));
+        assertEquals(4, invoker("succ", int.class).invoke1(lib, 3));
+    }
+
+    @Test
+    public void builtinsOfProgram() throws Exception {
+        assertEquals("12 8 3 4\n3 49 3 1 true\n", TestPrograms.output(
+                "var i, j: integer; a: array[1..3] of integer; r: real;\n"
+                        + "begin\n"
+                        + "  i := 10; j := 10;\n"
+                        + "  inc(i); inc(i);\n"
+                        + "  dec(j, 2);\n"
+                        + "  r := sqrt(16);\n"
+                        + "  writeln(i, ' ', j, ' ', length(a), ' ', round(r));\n"
+                        + "  write(abs(-3), ' ', sqr(7), ' ');\n"
+                        + "  writeln(trunc(3.9), ' ', ord(chr(49)) - 48, ' ', odd(5));\n"
+                        + "end.\n"));
+    }
+}
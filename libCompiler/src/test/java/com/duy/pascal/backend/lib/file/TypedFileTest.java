@@ -0,0 +1,199 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.duy.pascal.backend.lib.file;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+import static com.duy.pascal.backend.core.TestPrograms.output;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TypedFileTest {
+
+    private static String tempFile() throws IOException {
+        File file = File.createTempFile("typed", ".dat");
+        file.deleteOnExit();
+        return file.getPath();
+    }
+
+    /**
+     * a sparse file of int64 records, the record i is i * 3 for the first, the middle and the
+     * last record and 0 for the others
+     */
+    private static File largeFile(long records) throws IOException {
+        File file = File.createTempFile("large", ".dat");
+        file.deleteOnExit();
+        RandomAccessFile out = new RandomAccessFile(file, "rw");
+        try {
+            out.setLength(records * 8);
+            ByteBuffer value = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+            for (long i : new long[]{0, records / 2, records - 1}) {
+                value.clear();
+                value.putLong(i * 3).flip();
+                out.getChannel().write(value, i * 8);
+            }
+        } finally {
+            out.close();
+        }
+        return file;
+    }
+
+    @Test
+    public void largeFileIsMappedUntilWritten() throws Exception {
+        File file = largeFile(RecordChannel.MAP_THRESHOLD / 8);
+        FileChannel channel = new RandomAccessFile(file, "rw").getChannel();
+        RecordChannel records = new RecordChannel(channel, 8, true);
+        try {
+            assertTrue(records.isMapped());
+            records.seek(records.fileSize() - 1);
+            assertEquals((records.fileSize() - 1) * 3, records.read().getLong());
+
+            records.seek(1);
+            records.write().putLong(7);
+            assertFalse(records.isMapped());
+            records.seek(1);
+            assertEquals(7, records.read().getLong());
+            records.seek(records.fileSize() - 1);
+            assertEquals((records.fileSize() - 1) * 3, records.read().getLong());
+        } finally {
+            records.close();
+            file.delete();
+        }
+    }
+
+    @Test
+    public void smallFileIsNotMapped() throws Exception {
+        File file = largeFile(RecordChannel.MAP_THRESHOLD / 8 - 1);
+        RecordChannel records = new RecordChannel(new RandomAccessFile(file, "r").getChannel(),
+                8, true);
+        try {
+            assertFalse(records.isMapped());
+        } finally {
+            records.close();
+            file.delete();
+        }
+    }
+
+    @Test
+    public void fileOf100MB() throws Exception {
+        long count = 100L * 1024 * 1024 / 8;
+        File file = largeFile(count);
+        try {
+            assertEquals(count + " 0 " + (count / 2 * 3) + " " + ((count - 1) * 3) + " true\n"
+                            + "9 0\n",
+                    output("var f: file of int64;\n"
+                            + "    first, middle, last, x: int64;\n"
+                            + "begin\n"
+                            + "  assign(f, '" + file.getPath() + "');\n"
+                            + "  reset(f);\n"
+                            + "  read(f, first);\n"
+                            + "  seek(f, filesize(f) div 2);\n"
+                            + "  read(f, middle);\n"
+                            + "  seek(f, filesize(f) - 1);\n"
+                            + "  read(f, last);\n"
+                            + "  write(filesize(f), ' ', first, ' ', middle, ' ');\n"
+                            + "  writeln(last, ' ', eof(f));\n"
+                            + "  seek(f, 1);\n"
+                            + "  x := 9;\n"
+                            + "  write(f, x);\n"
+                            + "  seek(f, 1);\n"
+                            + "  read(f, x);\n"
+                            + "  seek(f, 2);\n"
+                            + "  read(f, first);\n"
+                            + "  writeln(x, ' ', first);\n"
+                            + "  close(f);\n"
+                            + "end.\n"));
+            assertEquals(count * 8, file.length());
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void integerWrittenToFileOfInt64() throws Exception {
+        String path = tempFile();
+        assertEquals("2 5 -7\n", output("var f: file of int64;\n"
+                + "    a, b: int64;\n"
+                + "    i: integer;\n"
+                + "begin\n"
+                + "  assign(f, '" + path + "');\n"
+                + "  rewrite(f);\n"
+                + "  i := 5;\n"
+                + "  write(f, i, -7);\n"
+                + "  close(f);\n"
+                + "  reset(f);\n"
+                + "  read(f, a, b);\n"
+                + "  writeln(filesize(f), ' ', a, ' ', b);\n"
+                + "  close(f);\n"
+                + "end.\n"));
+        assertEquals(16, new File(path).length());
+    }
+
+    @Test
+    public void recordRoundTrip() throws Exception {
+        String path = tempFile();
+        assertEquals("3 abc 1.5\n", output("type point = record\n"
+                + "    x: integer;\n"
+                + "    name: string;\n"
+                + "    r: real;\n"
+                + "  end;\n"
+                + "var f: file of point;\n"
+                + "    p, q: point;\n"
+                + "begin\n"
+                + "  assign(f, '" + path + "');\n"
+                + "  rewrite(f);\n"
+                + "  p.x := 3;\n"
+                + "  p.name := 'abc';\n"
+                + "  p.r := 1.5;\n"
+                + "  write(f, p);\n"
+                + "  close(f);\n"
+                + "  reset(f);\n"
+                + "  read(f, q);\n"
+                + "  writeln(q.x, ' ', q.name, ' ', q.r:0:1);\n"
+                + "  close(f);\n"
+                + "end.\n"));
+    }
+
+    @Test
+    public void textFileRoundTrip() throws Exception {
+        String path = tempFile();
+        assertEquals("first 42\n", output("var f: text;\n"
+                + "    s: string;\n"
+                + "    n: integer;\n"
+                + "begin\n"
+                + "  assign(f, '" + path + "');\n"
+                + "  rewrite(f);\n"
+                + "  writeln(f, 'first');\n"
+                + "  writeln(f, 42);\n"
+                + "  close(f);\n"
+                + "  reset(f);\n"
+                + "  readln(f, s);\n"
+                + "  readln(f, n);\n"
+                + "  writeln(s, ' ', n);\n"
+                + "  close(f);\n"
+                + "end.\n"));
+    }
+}
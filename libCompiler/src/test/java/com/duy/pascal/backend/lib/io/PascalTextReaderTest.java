@@ -0,0 +1,84 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.duy.pascal.backend.lib.io;
+
+import com.duy.pascal.backend.core.BatchRunner;
+import com.duy.pascal.backend.core.TestPrograms;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PascalTextReaderTest {
+
+    @Test
+    public void numbersAcrossLines() throws Exception {
+        PascalTextReader reader = new PascalTextReader(new StringReader("  12 -3\n\n4.5e1 7000000000\n"));
+        assertEquals(12, reader.readInt());
+        assertEquals(-3, reader.readInt());
+        assertEquals(45.0, reader.readDouble(), 0);
+        assertEquals(7000000000L, reader.readLong());
+        assertFalse(reader.isEof());
+        reader.skipLine();
+        assertTrue(reader.isEof());
+    }
+
+    @Test
+    public void stringIsRestOfLine() throws Exception {
+        PascalTextReader reader = new PascalTextReader(new StringReader("5 ab c\r\nnext\n"));
+        assertEquals(5, reader.readInt());
+        assertEquals(" ab c", reader.readString());
+        assertTrue(reader.isEndOfLine());
+        reader.skipLine();
+        assertEquals("next", reader.readLine());
+    }
+
+    @Test
+    public void readlnOfProgram() throws Exception {
+        assertEquals("6 x\n", TestPrograms.output("var a, b: integer; s: string;\n"
+                + "begin\n"
+                + "  readln(a);\n"
+                + "  read(b);\n"
+                + "  readln(s);\n"
+                + "  writeln(a + b, s);\n"
+                + "end.\n", "1 9\n5 x\n"));
+    }
+
+    @Test
+    public void readSkipsLineBreaks() throws Exception {
+        assertEquals("15\n", TestPrograms.output("var a, b, c: integer; d: longint;\n"
+                + "begin\n"
+                + "  read(a, b);\n"
+                + "  read(c, d);\n"
+                + "  writeln(a + b + c + d);\n"
+                + "end.\n", "1\n\n  2 3\n9\n"));
+    }
+
+    @Test
+    public void invalidNumber() throws Exception {
+        BatchRunner.Result result = TestPrograms.run(new BatchRunner(),
+                "var n: integer;\nbegin\n  read(n);\nend.\n", "abc\n",
+                new ByteArrayOutputStream());
+        assertEquals(BatchRunner.Status.RUNTIME_ERROR, result.getStatus());
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.duy.pascal.backend.tokenizer;
+
+import com.duy.pascal.backend.core.BatchRunner;
+import com.duy.pascal.backend.core.TestPrograms;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class NewLexerTest {
+
+    /**
+     * @return program with more than 64 KB of source, which is lexed on another thread
+     */
+    private static String largeProgram(int statements, String last) {
+        StringBuilder source = new StringBuilder("var total: integer;\n"
+                + "procedure add(n: integer);\n"
+                + "begin\n"
+                + "  total := total + n;\n"
+                + "end;\n"
+                + "begin\n"
+                + "  total := 0;\n");
+        for (int i = 0; i < statements; i++) {
+            source.append("  begin add(1); { comment ").append(i).append(" } end;\n");
+        }
+        source.append(last);
+        source.append("  writeln(total);\nend.\n");
+        return source.toString();
+    }
+
+    @Test
+    public void largeSource() throws Exception {
+        String source = largeProgram(3000, "");
+        assertTrue(source.length() > 64 * 1024);
+        assertEquals("3000\n", TestPrograms.output(source));
+    }
+
+    @Test
+    public void errorAtEndOfLargeSource() throws Exception {
+        assertEquals(BatchRunner.Status.COMPILE_ERROR, TestPrograms.status(new BatchRunner(),
+                largeProgram(3000, "  notDeclared := 1;\n")));
+    }
+
+    @Test
+    public void unterminatedCommentInLargeSource() throws Exception {
+        assertEquals(BatchRunner.Status.COMPILE_ERROR, TestPrograms.status(new BatchRunner(),
+                largeProgram(3000, "  { not closed\n")));
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.duy.pascal.backend.tokens;
+
+import com.duy.pascal.backend.core.TestPrograms;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class WordTokenTest {
+
+    @Test
+    public void currencyIsReal() throws Exception {
+        assertEquals("true\n", TestPrograms.output("var c: currency;\n"
+                + "begin\n"
+                + "  c := 5 / 2;\n"
+                + "  writeln(c * 2 = 5);\n"
+                + "end.\n"));
+    }
+}
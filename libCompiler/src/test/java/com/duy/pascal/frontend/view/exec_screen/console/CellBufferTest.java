@@ -0,0 +1,71 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.duy.pascal.frontend.view.exec_screen.console;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CellBufferTest {
+
+    @Test
+    public void writeMarksItsRow() throws Exception {
+        CellBuffer buffer = new CellBuffer(4, 10);
+        assertFalse(buffer.hasDirtyRows());
+        buffer.write(12, "xhelloy", 1, 6, 1, 2, 255);
+        assertTrue(buffer.isDirty(1));
+        assertFalse(buffer.isDirty(0));
+        assertEquals('h', buffer.getChar(12));
+        assertEquals('o', buffer.getChar(16));
+        assertEquals(CellBuffer.EMPTY, buffer.getChar(17));
+        assertEquals(1, buffer.getTextColor(16));
+        assertEquals(2, buffer.getBackground(16));
+        assertEquals(0, buffer.getBackground(17));
+        assertEquals(5, buffer.runLength(12, 8));
+    }
+
+    @Test
+    public void setCharKeepsColors() throws Exception {
+        CellBuffer buffer = new CellBuffer(2, 4);
+        buffer.set(5, 'a', 3, 4, 100);
+        buffer.setChar(5, 'b');
+        assertEquals('b', buffer.getChar(5));
+        assertEquals(3, buffer.getTextColor(5));
+        assertEquals(100, buffer.getAlpha(5));
+    }
+
+    @Test
+    public void dirtyRowsAfterFirstWord() throws Exception {
+        CellBuffer buffer = new CellBuffer(130, 2);
+        buffer.fill(2 * 63, 2 * 3, ' ');
+        assertFalse(buffer.isDirty(62));
+        assertTrue(buffer.isDirty(63));
+        assertTrue(buffer.isDirty(64));
+        assertTrue(buffer.isDirty(65));
+        assertFalse(buffer.isDirty(66));
+        assertFalse(buffer.isDirty(2));
+        buffer.markDirty(129);
+        assertTrue(buffer.isDirty(129));
+        assertFalse(buffer.isDirty(1));
+        buffer.clearDirty();
+        assertFalse(buffer.hasDirtyRows());
+        assertFalse(buffer.isDirty(64));
+    }
+}
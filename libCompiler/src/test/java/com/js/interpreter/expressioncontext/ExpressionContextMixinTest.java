@@ -0,0 +1,59 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.js.interpreter.expressioncontext;
+
+import com.duy.pascal.backend.core.BatchRunner;
+import com.duy.pascal.backend.core.TestPrograms;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class ExpressionContextMixinTest {
+
+    @Test
+    public void variableNamesIgnoreCase() throws Exception {
+        assertEquals("4 8\n", TestPrograms.output("var Total, i: integer;\n"
+                + "begin\n"
+                + "  TOTAL := 1;\n"
+                + "  for I := 1 to 2 do\n"
+                + "    total := total + i;\n"
+                + "  writeln(Total, ' ', tOtAl + 4);\n"
+                + "end.\n"));
+    }
+
+    @Test
+    public void argumentsLocalsAndResult() throws Exception {
+        assertEquals("11\n", TestPrograms.output("function add(a, b: integer): integer;\n"
+                + "var sum: integer;\n"
+                + "begin\n"
+                + "  Sum := A + b;\n"
+                + "  Add := sum;\n"
+                + "end;\n"
+                + "begin\n"
+                + "  writeln(add(4, 7));\n"
+                + "end.\n"));
+    }
+
+    @Test
+    public void duplicateVariableIsRejected() throws Exception {
+        assertEquals(BatchRunner.Status.COMPILE_ERROR,
+                TestPrograms.status(new BatchRunner(),
+                        "var x: integer; X: integer;\nbegin\nend.\n"));
+    }
+}
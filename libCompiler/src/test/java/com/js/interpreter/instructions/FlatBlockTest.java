@@ -0,0 +1,227 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.js.interpreter.instructions;
+
+import com.duy.pascal.backend.core.ProgramCache;
+import com.duy.pascal.backend.core.TestPrograms;
+import com.duy.pascal.backend.debugable.DebuggableReturnValue;
+import com.duy.pascal.backend.linenumber.LineInfo;
+import com.duy.pascal.backend.pascaltypes.BasicType;
+import com.duy.pascal.backend.pascaltypes.RuntimeType;
+import com.js.interpreter.codeunit.RuntimeExecutableCodeUnit;
+import com.js.interpreter.codeunit.program.PascalProgram;
+import com.js.interpreter.expressioncontext.CompileTimeContext;
+import com.js.interpreter.expressioncontext.ExpressionContext;
+import com.js.interpreter.runtime.VariableContext;
+import com.js.interpreter.runtime_value.RuntimeValue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class FlatBlockTest {
+    private static final LineInfo LINE = new LineInfo(0, "test.pas");
+
+    private final List<String> trace = new ArrayList<>();
+
+    @Test
+    public void jumpSkipsStatements() throws Exception {
+        FlatBlock.Builder builder = new FlatBlock.Builder();
+        builder.add(new Step("a"));
+        int jump = builder.emitJump();
+        builder.add(new Step("b"));
+        builder.patch(jump, builder.position());
+        builder.add(new Step("c"));
+        assertEquals(ExecutionResult.NONE, builder.build(LINE).execute(null, null));
+        assertEquals("[a, c]", trace.toString());
+    }
+
+    @Test
+    public void loopRunsUntilConditionIsFalse() throws Exception {
+        Counter counter = new Counter(3);
+        FlatBlock.Builder builder = new FlatBlock.Builder();
+        int start = builder.position();
+        builder.beginLoop();
+        int exit = builder.emitJumpIfFalse(counter);
+        builder.add(new Step("body"));
+        builder.emitLoop(start, LINE);
+        builder.endLoop(start, builder.position());
+        builder.patch(exit, builder.position());
+        builder.add(new Step("after"));
+        builder.build(LINE).execute(null, null);
+        assertEquals("[body, body, body, after]", trace.toString());
+    }
+
+    @Test
+    public void breakAndContinueOfStatementJumpOutOfLoop() throws Exception {
+        Counter counter = new Counter(10);
+        FlatBlock.Builder builder = new FlatBlock.Builder();
+        int start = builder.position();
+        builder.beginLoop();
+        int exit = builder.emitJumpIfFalse(counter);
+        builder.add(new Step("a", ExecutionResult.NONE, ExecutionResult.CONTINUE,
+                ExecutionResult.BREAK));
+        builder.add(new Step("b"));
+        builder.emitLoop(start, LINE);
+        builder.endLoop(start, builder.position());
+        builder.patch(exit, builder.position());
+        builder.add(new Step("after"));
+        builder.build(LINE).execute(null, null);
+        assertEquals("[a, b, a, a, after]", trace.toString());
+    }
+
+    @Test
+    public void exitLeavesBlock() throws Exception {
+        FlatBlock.Builder builder = new FlatBlock.Builder();
+        builder.add(new Step("a"));
+        builder.add(new Step("exit", ExecutionResult.EXIT));
+        builder.add(new Step("b"));
+        assertEquals(ExecutionResult.EXIT, builder.build(LINE).execute(null, null));
+        assertEquals("[a, exit]", trace.toString());
+    }
+
+    @Test
+    public void breakOutsideLoopIsReturned() throws Exception {
+        FlatBlock.Builder builder = new FlatBlock.Builder();
+        builder.emitBreak(new Step("break", ExecutionResult.BREAK));
+        builder.add(new Step("b"));
+        assertEquals(ExecutionResult.BREAK, builder.build(LINE).execute(null, null));
+        assertEquals("[break]", trace.toString());
+    }
+
+    @Test
+    public void mainIsLoweredWhenParsed() throws Exception {
+        PascalProgram program = new ProgramCache(1).loadPascal("test.pas",
+                "var i: integer;\n"
+                        + "begin\n"
+                        + "  for i := 1 to 3 do writeln(i);\n"
+                        + "end.\n", null);
+        assertTrue(program.getMain(null) instanceof FlatBlock);
+        assertSame(program.getMain(null), program.getMain(program.run()));
+        assertFalse(program.main instanceof FlatBlock);
+    }
+
+    @Test
+    public void loweredMainWithLoopsAndExit() throws Exception {
+        assertEquals("1 3 5 \n10\n", TestPrograms.output("var i, n: integer;\n"
+                + "begin\n"
+                + "  for i := 1 to 10 do\n"
+                + "  begin\n"
+                + "    if i mod 2 = 0 then continue;\n"
+                + "    if i > 5 then break;\n"
+                + "    write(i, ' ');\n"
+                + "  end;\n"
+                + "  writeln;\n"
+                + "  n := 0;\n"
+                + "  while n mod 5 <> 4 do\n"
+                + "    n := n + 1;\n"
+                + "  n := n + 1;\n"
+                + "  while true do\n"
+                + "  begin\n"
+                + "    n := n + 5;\n"
+                + "    if n >= 10 then\n"
+                + "    begin\n"
+                + "      writeln(n);\n"
+                + "      exit;\n"
+                + "    end;\n"
+                + "  end;\n"
+                + "  writeln('not reached');\n"
+                + "end.\n"));
+    }
+
+    /**
+     * statement which records its name and returns the given results in turn, then the last
+     * one
+     */
+    private class Step implements Executable {
+        private final String name;
+        private final ExecutionResult[] results;
+        private int calls;
+
+        Step(String name, ExecutionResult... results) {
+            this.name = name;
+            this.results = results;
+        }
+
+        @Override
+        public LineInfo getLineNumber() {
+            return LINE;
+        }
+
+        @Override
+        public ExecutionResult execute(VariableContext context, RuntimeExecutableCodeUnit<?> main) {
+            trace.add(name);
+            if (results.length == 0) {
+                return ExecutionResult.NONE;
+            }
+            return results[Math.min(calls++, results.length - 1)];
+        }
+
+        @Override
+        public Executable compileTimeConstantTransform(CompileTimeContext c) {
+            return this;
+        }
+    }
+
+    /**
+     * condition which is true the given number of times
+     */
+    private static class Counter extends DebuggableReturnValue {
+        private int remaining;
+
+        Counter(int times) {
+            this.remaining = times;
+        }
+
+        @Override
+        public Object getValueImpl(VariableContext f, RuntimeExecutableCodeUnit<?> main) {
+            return getBooleanImpl(f, main);
+        }
+
+        @Override
+        public boolean getBooleanImpl(VariableContext f, RuntimeExecutableCodeUnit<?> main) {
+            return remaining-- > 0;
+        }
+
+        @Override
+        public RuntimeType getType(ExpressionContext f) {
+            return new RuntimeType(BasicType.Boolean, false);
+        }
+
+        @Override
+        public LineInfo getLineNumber() {
+            return LINE;
+        }
+
+        @Override
+        public Object compileTimeValue(CompileTimeContext context) {
+            return null;
+        }
+
+        @Override
+        public RuntimeValue compileTimeExpressionFold(CompileTimeContext context) {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.js.interpreter.instructions;
+
+import com.duy.pascal.backend.core.ProgramCache;
+import com.duy.pascal.backend.core.TestPrograms;
+import com.duy.pascal.backend.debugable.DebuggableReturnValue;
+import com.duy.pascal.backend.linenumber.LineInfo;
+import com.duy.pascal.backend.pascaltypes.BasicType;
+import com.duy.pascal.backend.pascaltypes.RuntimeType;
+import com.js.interpreter.codeunit.RuntimeExecutableCodeUnit;
+import com.js.interpreter.codeunit.program.PascalProgram;
+import com.js.interpreter.expressioncontext.CompileTimeContext;
+import com.js.interpreter.expressioncontext.ExpressionContext;
+import com.js.interpreter.runtime.VariableContext;
+import com.js.interpreter.runtime_value.RuntimeValue;
+import com.js.interpreter.runtime_value.VariableAccess;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PrimitiveAssignmentTest {
+    private static final LineInfo LINE = new LineInfo(0, "test.pas");
+
+    @Test
+    public void assignedNumbersAreUnboxed() throws Exception {
+        PascalProgram program = new ProgramCache(1).loadPascal("test.pas",
+                "var x, y: integer; r: real; b: boolean; s: string;\n"
+                        + "begin\n"
+                        + "  y := 3;\n"
+                        + "  x := x * 2 + y;\n"
+                        + "  r := x / 2;\n"
+                        + "  b := r > 1;\n"
+                        + "  s := 'a';\n"
+                        + "end.\n", null);
+        assertTrue(program.mContext.getVariableDefinition("x").isUnboxed());
+        assertTrue(program.mContext.getVariableDefinition("r").isUnboxed());
+        assertTrue(program.mContext.getVariableDefinition("b").isUnboxed());
+        assertFalse(program.mContext.getVariableDefinition("s").isUnboxed());
+    }
+
+    @Test
+    public void valueIsStoredWithTypedSetter() throws Exception {
+        TypedFrame frame = new TypedFrame();
+        VariableAccess access = new VariableAccess("r", LINE, 0, 0);
+        new PrimitiveAssignment(access, new TypedValue(), BasicType.Double, LINE)
+                .execute(frame, null);
+        assertEquals(2.5, frame.storedDouble, 0);
+        new PrimitiveAssignment(access, new TypedValue(), BasicType.Integer, LINE)
+                .execute(frame, null);
+        assertEquals(7, frame.storedInt);
+    }
+
+    @Test
+    public void unboxedVariablesOfFunctionAndProgram() throws Exception {
+        assertEquals("25 3.75 true\n-7.5 26.5\n", TestPrograms.output(
+                "var g: integer; r: real; ok: boolean;\n"
+                        + "procedure bump(var x: integer);\n"
+                        + "begin\n"
+                        + "  x := x + 10;\n"
+                        + "end;\n"
+                        + "function f(a: integer): real;\n"
+                        + "var i, k: integer; s: real; b: boolean;\n"
+                        + "begin\n"
+                        + "  k := a * 2 + 1;\n"
+                        + "  s := k / 2;\n"
+                        + "  b := s > 3;\n"
+                        + "  for i := 1 to 3 do s := s + i;\n"
+                        + "  bump(k);\n"
+                        + "  if b then f := s + k else f := -s;\n"
+                        + "end;\n"
+                        + "begin\n"
+                        + "  g := 5;\n"
+                        + "  g := g * 2 + g;\n"
+                        + "  r := g;\n"
+                        + "  r := r / 4;\n"
+                        + "  ok := (g > 10) and not (r < 1);\n"
+                        + "  bump(g);\n"
+                        + "  writeln(g, ' ', r:0:2, ' ', ok);\n"
+                        + "  writeln(f(1):0:1, ' ', f(3):0:1);\n"
+                        + "end.\n"));
+    }
+
+    @Test
+    public void unboxedVariableIsRead() throws Exception {
+        assertEquals("42 2.5\n", TestPrograms.output("var n: integer; r: real;\n"
+                + "begin\n"
+                + "  n := 0;\n"
+                + "  r := 0;\n"
+                + "  readln(n, r);\n"
+                + "  n := n + 1;\n"
+                + "  r := r + 1;\n"
+                + "  writeln(n, ' ', r:0:1);\n"
+                + "end.\n", "41 1.5\n"));
+    }
+
+    /**
+     * frame which fails if a value is stored boxed
+     */
+    private static class TypedFrame extends VariableContext {
+        int storedInt;
+        double storedDouble;
+
+        @Override
+        public Object getLocalVar(String name) {
+            throw new AssertionError();
+        }
+
+        @Override
+        public boolean setLocalVar(String name, Object val) {
+            throw new AssertionError();
+        }
+
+        @Override
+        public Object getLocalVar(int slot) {
+            throw new AssertionError();
+        }
+
+        @Override
+        public void setLocalVar(int slot, Object val) {
+            throw new AssertionError("boxed " + val);
+        }
+
+        @Override
+        public void setLocalInt(int slot, int val) {
+            storedInt = val;
+        }
+
+        @Override
+        public void setLocalDouble(int slot, double val) {
+            storedDouble = val;
+        }
+
+        @Override
+        public VariableContext getParentContext() {
+            return null;
+        }
+
+        @Override
+        public VariableContext clone() {
+            return null;
+        }
+    }
+
+    /**
+     * value which fails if it is read boxed
+     */
+    private static class TypedValue extends DebuggableReturnValue {
+        @Override
+        public Object getValueImpl(VariableContext f, RuntimeExecutableCodeUnit<?> main) {
+            throw new AssertionError();
+        }
+
+        @Override
+        public int getIntImpl(VariableContext f, RuntimeExecutableCodeUnit<?> main) {
+            return 7;
+        }
+
+        @Override
+        public double getDoubleImpl(VariableContext f, RuntimeExecutableCodeUnit<?> main) {
+            return 2.5;
+        }
+
+        @Override
+        public RuntimeType getType(ExpressionContext f) {
+            return new RuntimeType(BasicType.Double, false);
+        }
+
+        @Override
+        public LineInfo getLineNumber() {
+            return LINE;
+        }
+
+        @Override
+        public Object compileTimeValue(CompileTimeContext context) {
+            return null;
+        }
+
+        @Override
+        public RuntimeValue compileTimeExpressionFold(CompileTimeContext context) {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.js.interpreter.instructions;
+
+import com.duy.pascal.backend.core.TestPrograms;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class StringAppendTest {
+
+    @Test
+    public void appendDoesNotChangeCopy() throws Exception {
+        assertEquals("ab abx\n", TestPrograms.output("var s, t: string;\n"
+                + "begin\n"
+                + "  s := 'ab';\n"
+                + "  t := s;\n"
+                + "  s := s + 'x';\n"
+                + "  writeln(t, ' ', s);\n"
+                + "end.\n"));
+    }
+
+    @Test
+    public void appendInLoopDoesNotChangeCopy() throws Exception {
+        assertEquals("a aaa\n", TestPrograms.output("var s, t: string; i: integer;\n"
+                + "begin\n"
+                + "  s := 'a';\n"
+                + "  t := s;\n"
+                + "  for i := 1 to 2 do\n"
+                + "    s := s + s[1];\n"
+                + "  writeln(t, ' ', s);\n"
+                + "end.\n"));
+    }
+
+    @Test
+    public void appendToItself() throws Exception {
+        assertEquals("abab\n", TestPrograms.output("var s: string;\n"
+                + "begin\n"
+                + "  s := 'ab';\n"
+                + "  s := s + s;\n"
+                + "  writeln(s);\n"
+                + "end.\n"));
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.js.interpreter.instructions.case_statement;
+
+import com.duy.pascal.backend.core.TestPrograms;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class CaseInstructionTest {
+
+    @Test
+    public void denseLabelsAndRanges() throws Exception {
+        assertEquals("x a b b c x \n", TestPrograms.output("var i: integer;\n"
+                + "begin\n"
+                + "  for i := -1 to 4 do\n"
+                + "    case i of\n"
+                + "      0: write('a ');\n"
+                + "      1, 2: write('b ');\n"
+                + "      3..3: write('c ');\n"
+                + "    else\n"
+                + "      write('x ');\n"
+                + "    end;\n"
+                + "  writeln;\n"
+                + "end.\n"));
+    }
+
+    @Test
+    public void sparseLabels() throws Exception {
+        assertEquals("small big huge none none\n", TestPrograms.output("var v: longint;\n"
+                + "procedure show(v: longint);\n"
+                + "begin\n"
+                + "  case v of\n"
+                + "    -5..5: write('small');\n"
+                + "    100000: write('big');\n"
+                + "    7000000000: write('huge');\n"
+                + "  else\n"
+                + "    write('none');\n"
+                + "  end;\n"
+                + "end;\n"
+                + "begin\n"
+                + "  show(-5); write(' ');\n"
+                + "  show(100000); write(' ');\n"
+                + "  show(7000000000); write(' ');\n"
+                + "  show(6); write(' ');\n"
+                + "  show(99999);\n"
+                + "  writeln;\n"
+                + "end.\n"));
+    }
+
+    @Test
+    public void charLabels() throws Exception {
+        assertEquals("vowel digit other\n", TestPrograms.output("function kind(c: char): string;\n"
+                + "begin\n"
+                + "  case c of\n"
+                + "    'a', 'e', 'i', 'o', 'u': kind := 'vowel';\n"
+                + "    '0'..'9': kind := 'digit';\n"
+                + "  else\n"
+                + "    kind := 'other';\n"
+                + "  end;\n"
+                + "end;\n"
+                + "begin\n"
+                + "  writeln(kind('e'), ' ', kind('7'), ' ', kind('z'));\n"
+                + "end.\n"));
+    }
+
+    @Test
+    public void noBranchWithoutElse() throws Exception {
+        assertEquals("done\n", TestPrograms.output("var i: integer;\n"
+                + "begin\n"
+                + "  i := 10;\n"
+                + "  case i of\n"
+                + "    1: writeln('one');\n"
+                + "  end;\n"
+                + "  writeln('done');\n"
+                + "end.\n"));
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.js.interpreter.instructions.conditional;
+
+import org.junit.Test;
+
+import static com.duy.pascal.backend.core.TestPrograms.output;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * the counter of a for loop is kept in an int by its frame
+ */
+public class ForStatementTest {
+
+    @Test
+    public void globalCounter() throws Exception {
+        assertEquals("1 2 3 \n", output("var i: integer;\n"
+                + "begin\n"
+                + "  for i := 1 to 3 do write(i, ' ');\n"
+                + "  writeln;\n"
+                + "end.\n"));
+    }
+
+    @Test
+    public void localCounterAboveBoxCache() throws Exception {
+        assertEquals("20000100000\n", output("function sum(n: integer): integer;\n"
+                + "var i, s: integer;\n"
+                + "begin\n"
+                + "  s := 0;\n"
+                + "  for i := n downto 1 do s := s + 2;\n"
+                + "  sum := s;\n"
+                + "end;\n"
+                + "begin\n"
+                + "  writeln(sum(10000), sum(50000));\n"
+                + "end.\n"));
+    }
+
+    @Test
+    public void counterReadByNestedFunctionAndVarParameter() throws Exception {
+        assertEquals("2 4 6 \n", output("procedure run;\n"
+                + "var i: integer;\n"
+                + "  function twice: integer;\n"
+                + "  begin\n"
+                + "    twice := i * 2;\n"
+                + "  end;\n"
+                + "  procedure show(var x: integer);\n"
+                + "  begin\n"
+                + "    write(x, ' ');\n"
+                + "  end;\n"
+                + "var t: integer;\n"
+                + "begin\n"
+                + "  for i := 1 to 3 do\n"
+                + "  begin\n"
+                + "    t := twice;\n"
+                + "    show(t);\n"
+                + "  end;\n"
+                + "  writeln;\n"
+                + "end;\n"
+                + "begin\n"
+                + "  run;\n"
+                + "end.\n"));
+    }
+
+    @Test
+    public void counterPassedToVarParameter() throws Exception {
+        assertEquals("1 10\n", output("procedure skip(var x: integer);\n"
+                + "begin\n"
+                + "  x := 9;\n"
+                + "end;\n"
+                + "var i, n: integer;\n"
+                + "begin\n"
+                + "  n := 0;\n"
+                + "  for i := 1 to 5 do\n"
+                + "  begin\n"
+                + "    n := n + 1;\n"
+                + "    skip(i);\n"
+                + "  end;\n"
+                + "  writeln(n, ' ', i);\n"
+                + "end.\n"));
+    }
+
+    @Test
+    public void resultVariableAsCounter() throws Exception {
+        assertEquals("5\n", output("function last: integer;\n"
+                + "var k: integer;\n"
+                + "begin\n"
+                + "  for last := 1 to 5 do k := last;\n"
+                + "  last := k;\n"
+                + "end;\n"
+                + "begin\n"
+                + "  writeln(last);\n"
+                + "end.\n"));
+    }
+}
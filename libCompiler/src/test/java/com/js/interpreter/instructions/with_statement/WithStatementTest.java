@@ -0,0 +1,106 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.js.interpreter.instructions.with_statement;
+
+import com.duy.pascal.backend.core.TestPrograms;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class WithStatementTest {
+    private static final String POINT = "type point = record x, y: integer; end;\n";
+
+    @Test
+    public void fieldsAndVariables() throws Exception {
+        assertEquals("3 4 10\n", TestPrograms.output(POINT
+                + "var p: point; z: integer;\n"
+                + "begin\n"
+                + "  z := 10;\n"
+                + "  with p do\n"
+                + "  begin\n"
+                + "    x := 3;\n"
+                + "    y := x + 1;\n"
+                + "  end;\n"
+                + "  writeln(p.x, ' ', p.y, ' ', z);\n"
+                + "end.\n"));
+    }
+
+    @Test
+    public void breakInsideWith() throws Exception {
+        assertEquals("3\n", TestPrograms.output(POINT
+                + "var p: point; i: integer;\n"
+                + "begin\n"
+                + "  p.x := 0;\n"
+                + "  for i := 1 to 10 do\n"
+                + "    with p do\n"
+                + "    begin\n"
+                + "      x := x + 1;\n"
+                + "      if x = 3 then break;\n"
+                + "    end;\n"
+                + "  writeln(p.x);\n"
+                + "end.\n"));
+    }
+
+    @Test
+    public void exitInsideWith() throws Exception {
+        assertEquals("2 5\n", TestPrograms.output(POINT
+                + "function first(limit: integer): integer;\n"
+                + "var p: point; i: integer;\n"
+                + "begin\n"
+                + "  first := -1;\n"
+                + "  p.y := 5;\n"
+                + "  for i := 0 to limit do\n"
+                + "    with p do\n"
+                + "    begin\n"
+                + "      x := i * i;\n"
+                + "      if x > 3 then\n"
+                + "      begin\n"
+                + "        first := i;\n"
+                + "        exit;\n"
+                + "      end;\n"
+                + "    end;\n"
+                + "end;\n"
+                + "var q: point;\n"
+                + "begin\n"
+                + "  q.y := 5;\n"
+                + "  writeln(first(10), ' ', q.y);\n"
+                + "end.\n"));
+    }
+
+    @Test
+    public void withInRecursion() throws Exception {
+        assertEquals("6\n", TestPrograms.output(POINT
+                + "function sum(n: integer): integer;\n"
+                + "var p: point;\n"
+                + "begin\n"
+                + "  with p do\n"
+                + "  begin\n"
+                + "    x := n;\n"
+                + "    if n = 0 then\n"
+                + "      y := 0\n"
+                + "    else\n"
+                + "      y := sum(n - 1);\n"
+                + "    sum := x + y;\n"
+                + "  end;\n"
+                + "end;\n"
+                + "begin\n"
+                + "  writeln(sum(3));\n"
+                + "end.\n"));
+    }
+}
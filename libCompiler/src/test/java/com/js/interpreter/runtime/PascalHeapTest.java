@@ -0,0 +1,120 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.js.interpreter.runtime;
+
+import com.duy.pascal.backend.core.BatchRunner;
+import com.duy.pascal.backend.core.TestPrograms;
+import com.js.interpreter.runtime.exception.HeapOverflowError;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class PascalHeapTest {
+
+    @Test
+    public void noLimitByDefault() throws Exception {
+        PascalHeap heap = new PascalHeap();
+        assertEquals(0, heap.getLimit());
+        heap.allocate(null, new Object(), 1L << 40);
+    }
+
+    @Test
+    public void sizeClasses() throws Exception {
+        assertEquals(8, PascalHeap.roundSize(1));
+        assertEquals(16, PascalHeap.roundSize(9));
+        assertEquals(4096, PascalHeap.roundSize(4096));
+        assertEquals(8192, PascalHeap.roundSize(4097));
+    }
+
+    @Test
+    public void limit() throws Exception {
+        PascalHeap heap = new PascalHeap();
+        heap.setLimit(64);
+        HeapBlock<Object> block = heap.allocate(null, new Object(), 40);
+        try {
+            heap.allocate(null, new Object(), 1);
+            fail();
+        } catch (HeapOverflowError expected) {
+        }
+        heap.free(block);
+        heap.allocate(null, new Object(), 64);
+        assertEquals(64, heap.getLiveBytes());
+        assertEquals(64, heap.getPeakBytes());
+    }
+
+    @Test
+    public void arenaReleasesLiveBlocks() throws Exception {
+        PascalHeap heap = new PascalHeap();
+        heap.setArena(true);
+        HeapBlock<Object> first = heap.allocate(null, new Object(), 8);
+        HeapBlock<Object> second = heap.allocate(null, new Object(), 100);
+        HeapBlock<Object> third = heap.allocate(null, new Object(), 5000);
+        heap.free(second);
+        heap.release();
+        assertTrue(first.isFreed());
+        assertTrue(third.isFreed());
+        assertEquals(0, heap.getLiveBytes());
+        assertEquals(3, heap.getFreeCount());
+    }
+
+    @Test
+    public void newFailsWithHeapOverflow() throws Exception {
+        BatchRunner runner = new BatchRunner();
+        runner.setMemoryLimit(1024 * 1024);
+        assertEquals(BatchRunner.Status.MEMORY_LIMIT_EXCEEDED, TestPrograms.status(runner,
+                "type a = array[1..100000] of integer;\n"
+                        + "var p: ^a; i: integer;\n"
+                        + "begin\n"
+                        + "  for i := 1 to 100 do\n"
+                        + "    new(p);\n"
+                        + "end.\n"));
+    }
+
+    @Test
+    public void disposeOfPointerToVariable() throws Exception {
+        assertEquals("5\n", TestPrograms.output("var x: integer; p: ^integer;\n"
+                + "begin\n"
+                + "  x := 5;\n"
+                + "  p := @x;\n"
+                + "  dispose(p);\n"
+                + "  writeln(x);\n"
+                + "end.\n"));
+        //the pointer is cleared, not the variable which it pointed to
+        assertEquals(BatchRunner.Status.RUNTIME_ERROR, TestPrograms.status(new BatchRunner(),
+                "var x: integer; p: ^integer;\n"
+                        + "begin\n"
+                        + "  p := @x;\n"
+                        + "  dispose(p);\n"
+                        + "  writeln(p^);\n"
+                        + "end.\n"));
+    }
+
+    @Test
+    public void newAndDispose() throws Exception {
+        assertEquals("7\n", TestPrograms.output("var p: ^integer;\n"
+                + "begin\n"
+                + "  new(p);\n"
+                + "  p^ := 7;\n"
+                + "  writeln(p^);\n"
+                + "  dispose(p);\n"
+                + "end.\n"));
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.js.interpreter.runtime;
+
+import com.duy.pascal.backend.core.BatchRunner;
+import com.duy.pascal.backend.core.TestPrograms;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PascalSetsTest {
+
+    @Test
+    public void bounds() throws Exception {
+        long[] set = PascalSets.newSet();
+        PascalSets.add(set, 0, null);
+        PascalSets.add(set, 255, null);
+        assertTrue(PascalSets.contains(set, 0));
+        assertTrue(PascalSets.contains(set, 255));
+        assertFalse(PascalSets.contains(set, 256));
+        assertFalse(PascalSets.contains(set, -1));
+    }
+
+    @Test
+    public void emptyRangeIsNotChecked() throws Exception {
+        long[] set = PascalSets.newSet();
+        PascalSets.addRange(set, 300, 200, null);
+        assertTrue(PascalSets.equals(set, PascalSets.newSet()));
+    }
+
+    @Test
+    public void includeFirstAndLastElement() throws Exception {
+        assertEquals("true true false\n", TestPrograms.output("var s: set of byte;\n"
+                + "begin\n"
+                + "  s := [];\n"
+                + "  include(s, 0);\n"
+                + "  include(s, 255);\n"
+                + "  writeln(0 in s, ' ', 255 in s, ' ', 1 in s);\n"
+                + "end.\n"));
+    }
+
+    @Test
+    public void includeOutOfRange() throws Exception {
+        assertEquals(BatchRunner.Status.RUNTIME_ERROR, TestPrograms.status(new BatchRunner(),
+                "var s: set of byte;\n"
+                        + "    i: integer;\n"
+                        + "begin\n"
+                        + "  s := [];\n"
+                        + "  i := 300;\n"
+                        + "  include(s, i);\n"
+                        + "end.\n"));
+    }
+
+    @Test
+    public void setConstructorOutOfRange() throws Exception {
+        assertEquals(BatchRunner.Status.RUNTIME_ERROR, TestPrograms.status(new BatchRunner(),
+                "var s: set of byte;\n"
+                        + "    i: integer;\n"
+                        + "begin\n"
+                        + "  i := 256;\n"
+                        + "  s := [1, i];\n"
+                        + "end.\n"));
+    }
+
+    @Test
+    public void constantOutOfRange() throws Exception {
+        assertEquals(BatchRunner.Status.COMPILE_ERROR, TestPrograms.status(new BatchRunner(),
+                "var s: set of byte;\n"
+                        + "begin\n"
+                        + "  s := [1, 300];\n"
+                        + "end.\n"));
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.js.interpreter.runtime.variables;
+
+import com.duy.pascal.backend.core.TestPrograms;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class CustomVariableTest {
+    private static final String TYPES = "type\n"
+            + "  inner = record v: integer; s: string; end;\n"
+            + "  outer = record name: string; a: array[1..2] of integer; i: inner; end;\n";
+
+    @Test
+    public void initialFields() throws Exception {
+        assertEquals("0 0.0 0 false ||\n", TestPrograms.output("type r = record i: integer; "
+                + "d: real; l: int64; b: boolean; s: string; end;\n"
+                + "var x: r;\n"
+                + "begin\n"
+                + "  writeln(x.i, ' ', x.d, ' ', x.l, ' ', x.b, ' |', x.s, '|');\n"
+                + "end.\n"));
+    }
+
+    @Test
+    public void assignmentCopiesNestedFields() throws Exception {
+        assertEquals("a 1 5 x / b 2 6 xy\n", TestPrograms.output(TYPES
+                + "var p, q: outer;\n"
+                + "begin\n"
+                + "  p.name := 'a'; p.a[1] := 1; p.i.v := 5; p.i.s := 'x';\n"
+                + "  q := p;\n"
+                + "  q.name := 'b'; q.a[1] := 2; q.i.v := 6; q.i.s := q.i.s + 'y';\n"
+                + "  write(p.name, ' ', p.a[1], ' ', p.i.v, ' ', p.i.s, ' / ');\n"
+                + "  writeln(q.name, ' ', q.a[1], ' ', q.i.v, ' ', q.i.s);\n"
+                + "end.\n"));
+    }
+
+    @Test
+    public void recordsInArrayAndVarArgument() throws Exception {
+        assertEquals("3 7\n", TestPrograms.output(TYPES
+                + "var list: array[1..3] of inner; k: integer;\n"
+                + "procedure bump(var r: inner; by: integer);\n"
+                + "begin\n"
+                + "  r.v := r.v + by;\n"
+                + "end;\n"
+                + "begin\n"
+                + "  for k := 1 to 3 do list[k].v := k;\n"
+                + "  bump(list[3], 4);\n"
+                + "  writeln(list[3].v - 4, ' ', list[3].v);\n"
+                + "end.\n"));
+    }
+}
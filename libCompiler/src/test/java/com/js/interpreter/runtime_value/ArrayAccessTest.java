@@ -0,0 +1,78 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.js.interpreter.runtime_value;
+
+import com.duy.pascal.backend.core.BatchRunner;
+import com.duy.pascal.backend.core.TestPrograms;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class ArrayAccessTest {
+
+    private static BatchRunner.Status status(String declaration, String statement) {
+        return TestPrograms.status(new BatchRunner(), declaration
+                + "    i: integer;\n"
+                + "begin\n"
+                + "  i := 4;\n"
+                + "  " + statement + "\n"
+                + "end.\n");
+    }
+
+    @Test
+    public void typedReadsInBounds() throws Exception {
+        assertEquals("3 7 2.5 TRUE\n", TestPrograms.output(
+                "var a: array[1..3] of integer;\n"
+                        + "    l: array[1..3] of int64;\n"
+                        + "    d: array[1..3] of real;\n"
+                        + "    b: array[1..3] of boolean;\n"
+                        + "begin\n"
+                        + "  a[3] := 2;\n"
+                        + "  l[3] := 6;\n"
+                        + "  d[3] := 2;\n"
+                        + "  b[3] := true;\n"
+                        + "  write(a[3] + 1, ' ', l[3] + 1, ' ', d[3] + 0.5, ' ');\n"
+                        + "  if b[3] and true then writeln('TRUE');\n"
+                        + "end.\n"));
+    }
+
+    @Test
+    public void intReadOutOfBounds() throws Exception {
+        assertEquals(BatchRunner.Status.RUNTIME_ERROR, status(
+                "var a: array[1..3] of integer;\n", "writeln(a[i] + 1);"));
+    }
+
+    @Test
+    public void longReadOutOfBounds() throws Exception {
+        assertEquals(BatchRunner.Status.RUNTIME_ERROR, status(
+                "var a: array[1..3] of int64;\n", "writeln(a[i] + 1);"));
+    }
+
+    @Test
+    public void doubleReadOutOfBounds() throws Exception {
+        assertEquals(BatchRunner.Status.RUNTIME_ERROR, status(
+                "var a: array[1..3] of real;\n", "writeln(a[i] * 2.0);"));
+    }
+
+    @Test
+    public void booleanReadOutOfBounds() throws Exception {
+        assertEquals(BatchRunner.Status.RUNTIME_ERROR, status(
+                "var a: array[1..3] of boolean;\n", "if a[i] then writeln(1);"));
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.js.interpreter.runtime_value;
+
+import com.duy.pascal.backend.core.BatchRunner;
+import com.duy.pascal.backend.core.TestPrograms;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Cost of one read and one write of a global, a local, a variable of the enclosing function
+ * and a var argument. The times are printed, compare them before and after a change of the
+ * interpreter, the test only checks the values.
+ */
+public class VariableAccessBenchmarkTest {
+    private static final int LOOPS = 200000;
+
+    private static final String BENCHMARK = "uses sysutils;\n"
+            + "const LOOPS = " + LOOPS + ";\n"
+            + "var global_value: longint;\n"
+            + "    start_time: int64;\n"
+            + "procedure report(name: string; elapsed: int64);\n"
+            + "begin\n"
+            + "  writeln(name, ' ', elapsed);\n"
+            + "end;\n"
+            + "procedure empty_loop;\n"
+            + "var i: longint;\n"
+            + "begin\n"
+            + "  start_time := GetTickCount64;\n"
+            + "  for i := 1 to LOOPS do begin end;\n"
+            + "  report('empty', GetTickCount64 - start_time);\n"
+            + "end;\n"
+            + "procedure global_access;\n"
+            + "var i: longint;\n"
+            + "begin\n"
+            + "  global_value := 0;\n"
+            + "  start_time := GetTickCount64;\n"
+            + "  for i := 1 to LOOPS do global_value := global_value + 1;\n"
+            + "  report('global', GetTickCount64 - start_time);\n"
+            + "end;\n"
+            + "procedure local_access;\n"
+            + "var i, local_value: longint;\n"
+            + "begin\n"
+            + "  local_value := 0;\n"
+            + "  start_time := GetTickCount64;\n"
+            + "  for i := 1 to LOOPS do local_value := local_value + 1;\n"
+            + "  report('local', GetTickCount64 - start_time);\n"
+            + "  writeln(local_value);\n"
+            + "end;\n"
+            + "procedure outer_access;\n"
+            + "var outer_value: longint;\n"
+            + "  procedure inner;\n"
+            + "  var i: longint;\n"
+            + "  begin\n"
+            + "    start_time := GetTickCount64;\n"
+            + "    for i := 1 to LOOPS do outer_value := outer_value + 1;\n"
+            + "    report('outer', GetTickCount64 - start_time);\n"
+            + "  end;\n"
+            + "begin\n"
+            + "  outer_value := 0;\n"
+            + "  inner;\n"
+            + "  writeln(outer_value);\n"
+            + "end;\n"
+            + "procedure var_param_access(var value: longint);\n"
+            + "var i: longint;\n"
+            + "begin\n"
+            + "  start_time := GetTickCount64;\n"
+            + "  for i := 1 to LOOPS do value := value + 1;\n"
+            + "  report('var param', GetTickCount64 - start_time);\n"
+            + "end;\n"
+            + "begin\n"
+            + "  empty_loop;\n"
+            + "  global_access;\n"
+            + "  local_access;\n"
+            + "  outer_access;\n"
+            + "  var_param_access(global_value);\n"
+            + "  writeln(global_value);\n"
+            + "end.\n";
+
+    @Test
+    public void variableAccess() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BatchRunner.Result result = TestPrograms.run(new BatchRunner(), BENCHMARK, "", out);
+        assertEquals(String.valueOf(result.getError()), BatchRunner.Status.OK, result.getStatus());
+
+        String[] lines = out.toString().trim().split("\r?\n");
+        assertEquals(8, lines.length);
+        assertEquals(String.valueOf(LOOPS), lines[3]);
+        assertEquals(String.valueOf(LOOPS), lines[5]);
+        assertEquals(String.valueOf(2 * LOOPS), lines[7]);
+        for (String line : lines) {
+            int space = line.lastIndexOf(' ');
+            if (space > 0) {
+                long elapsed = Long.parseLong(line.substring(space + 1));
+                System.out.printf("%-10s %8d ms %8.1f ns/access%n", line.substring(0, space),
+                        elapsed, elapsed * 1000000.0 / LOOPS);
+            }
+        }
+    }
+}
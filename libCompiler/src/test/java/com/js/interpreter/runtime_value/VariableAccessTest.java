@@ -0,0 +1,79 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.js.interpreter.runtime_value;
+
+import com.duy.pascal.backend.core.TestPrograms;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class VariableAccessTest {
+
+    @Test
+    public void varArgumentPassedOnInRecursion() throws Exception {
+        assertEquals("55\n", TestPrograms.output("var total: integer;\n"
+                + "procedure add(n: integer; var sum: integer);\n"
+                + "begin\n"
+                + "  if n = 0 then exit;\n"
+                + "  sum := sum + n;\n"
+                + "  add(n - 1, sum);\n"
+                + "end;\n"
+                + "begin\n"
+                + "  total := 0;\n"
+                + "  add(10, total);\n"
+                + "  writeln(total);\n"
+                + "end.\n"));
+    }
+
+    @Test
+    public void varArgumentOfLocalInRecursion() throws Exception {
+        //every level passes its own local, the reference of one level must not be reused
+        assertEquals("0 1 2 3 \n", TestPrograms.output("procedure count(n: integer; var depth: integer);\n"
+                + "var mine: integer;\n"
+                + "begin\n"
+                + "  mine := 0;\n"
+                + "  if n > 0 then\n"
+                + "    count(n - 1, mine)\n"
+                + "  else\n"
+                + "    mine := -1;\n"
+                + "  depth := mine + 1;\n"
+                + "  write(depth, ' ');\n"
+                + "end;\n"
+                + "var d: integer;\n"
+                + "begin\n"
+                + "  count(3, d);\n"
+                + "  writeln;\n"
+                + "end.\n"));
+    }
+
+    @Test
+    public void unitGlobalAndVarArgument() throws Exception {
+        assertEquals("1 2\n", TestPrograms.output("var a, b: integer;\n"
+                + "procedure swap(var x, y: integer);\n"
+                + "var t: integer;\n"
+                + "begin\n"
+                + "  t := x; x := y; y := t;\n"
+                + "end;\n"
+                + "begin\n"
+                + "  a := 2; b := 1;\n"
+                + "  swap(a, b);\n"
+                + "  writeln(a, ' ', b);\n"
+                + "end.\n"));
+    }
+}
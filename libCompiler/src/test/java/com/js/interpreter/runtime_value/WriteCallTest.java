@@ -0,0 +1,77 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.js.interpreter.runtime_value;
+
+import com.duy.pascal.backend.core.TestPrograms;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class WriteCallTest {
+    private static final String FORMATS = "var i, p: integer; r: real;\n"
+            + "begin\n"
+            + "  i := 42;\n"
+            + "  r := 3.14159;\n"
+            + "  for p := 0 to 4 do\n"
+            + "    writeln(i:5, '|', r:8:p, '|', 'ab':p, '|');\n"
+            + "end.\n";
+    private static final String FORMATS_OUTPUT = "   42|       3|ab|\n"
+            + "   42|     3.1|ab|\n"
+            + "   42|    3.14|ab|\n"
+            + "   42|   3.142| ab|\n"
+            + "   42|  3.1416|  ab|\n";
+
+    @Test
+    public void widthPadsWithSpaces() throws Exception {
+        assertEquals("   42|  ab|x\n", TestPrograms.output("var i: integer;\n"
+                + "begin\n"
+                + "  i := 42;\n"
+                + "  writeln(i:5, '|', 'ab':4, '|', 'x':0);\n"
+                + "end.\n"));
+    }
+
+    @Test
+    public void precisionRoundsReals() throws Exception {
+        assertEquals("    3.14|3.1|-1.5\n", TestPrograms.output("var r: real;\n"
+                + "begin\n"
+                + "  r := 3.14159;\n"
+                + "  writeln(r:8:2, '|', r:0:1, '|', -1.5:0:1);\n"
+                + "end.\n"));
+    }
+
+    @Test
+    public void formatOfVariables() throws Exception {
+        assertEquals(FORMATS_OUTPUT, TestPrograms.output(FORMATS));
+    }
+
+    @Test
+    public void formatCalledInWrite() throws Exception {
+        //the function writes while the arguments of the outer write are formatted
+        assertEquals("[  7]3.14\n", TestPrograms.output("var r: real;\n"
+                + "function width: integer;\n"
+                + "begin\n"
+                + "  write('[', 7:3, ']');\n"
+                + "  width := 4;\n"
+                + "end;\n"
+                + "begin\n"
+                + "  r := 3.14159;\n"
+                + "  writeln(r:width:2);\n"
+                + "end.\n"));
+    }
+}